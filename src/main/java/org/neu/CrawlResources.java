@@ -0,0 +1,177 @@
+package org.neu;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neu.execution.ExecutionStrategy;
+import org.neu.fetch.BufferPool;
+import org.neu.fetch.DnsCache;
+import org.neu.fetch.FailureCache;
+import org.neu.fetch.RedirectCache;
+import org.neu.memory.MemoryBudget;
+import org.neu.neo4j.DeferredGraphStore;
+import org.neu.neo4j.GraphStore;
+import org.neu.neo4j.PartitionedGraphStore;
+import org.neu.neo4j.SharedGraphStore;
+import org.neu.neo4j.WriteBehindGraphStore;
+
+/**
+ * The I/O resources that concurrent crawl sessions in one JVM share: the execution strategy's threads, the pool of
+ * read buffers, the DNS cache, the redirect and failure caches and the graph store with its database driver and write-behind buffer.
+ *
+ * <p>
+ * Each session is a {@link Crawler} created with {@link Crawler#Crawler(RuntimeConfig, CrawlResources)}. It keeps
+ * its own configuration, visited set, frontier, trap detector and statistics, but opens none of these resources
+ * and closing it leaves them running for the other sessions. They are sized once, from the configuration given
+ * here, and released by {@link #close()} after every session has finished.
+ * </p>
+ */
+public class CrawlResources implements AutoCloseable {
+
+    /**
+     * Open the shared resources. With `lazyDbInit` the database connects in the background, as for a single crawl.
+     *
+     * @param config Sizes the threads, buffers and store; sessions may be configured differently
+     */
+    public CrawlResources(RuntimeConfig config) {
+        int threads = config.threads > 0 ? config.threads : ExecutionStrategy.defaultThreads();
+        this.strategy = ExecutionStrategy.of(config.strategy, threads);
+        this.buffers = new BufferPool(config.bufferPoolSize, config.readBufferSize);
+        this.dns = DnsCache.getInstance();
+        this.dns.configure(config.dnsCache, config.dnsTtlMillis, config.dnsNegativeTtlMillis);
+        this.redirects = config.redirectCacheSize > 0 ? new RedirectCache(config.redirectCacheSize) : null;
+        this.failures = config.failureCacheSize > 0 && config.failureTtlMillis > 0
+                ? new FailureCache(config.failureCacheSize, config.failureTtlMillis)
+                : null;
+
+        MemoryBudget budget = config.memoryBudgetMb > 0 ? MemoryBudget.split(config.memoryBudgetMb << 20) : null;
+        this.store = openStore(config, budget);
+        this.store.initialize();
+
+        logger.info("Shared crawl resources opened: '{}' strategy with {} threads, '{}' store", strategy.name(), threads, config.store);
+    }
+
+    /**
+     * Stop the shared threads and close the graph store. Every session using them must have finished.
+     */
+    @Override
+    public void close() {
+        strategy.shutdown();
+        store.close();
+
+        logger.info("Shared crawl resources closed");
+    }
+
+    /**
+     * Build the graph store named in `config`, wrapped in writer lanes, lazy initialization and write-behind as
+     * configured.
+     * The store is not initialized yet.
+     *
+     * @param config
+     * @param budget Caps the write-behind buffer and its caches of persisted links; null for none
+     * @return The outermost store
+     */
+    static GraphStore openStore(RuntimeConfig config, MemoryBudget budget) {
+        GraphStore store = GraphStore.of(config.store, config);
+        if (config.writerLanes > 0) {
+            store = new PartitionedGraphStore(store, config.writerLanes, config.writerLaneCapacity, config.writeRetries,
+                    config.writeRetryBackoffMillis);
+        }
+        if (config.lazyDbInit) {
+            store = new DeferredGraphStore(store);
+        }
+        if (config.writeBehind) {
+            int maxPending = config.writeBehindMaxPending;
+            if (budget != null) {
+                maxPending = Math.min(maxPending, budget.maxPendingEdges());
+            }
+            int flushSize = Math.max(1, Math.min(config.writeBehindFlushSize, maxPending / 2));
+            store = budget != null
+                    ? new WriteBehindGraphStore(store, flushSize, config.writeBehindFlushMillis, maxPending, budget.persistedCacheEntries())
+                    : new WriteBehindGraphStore(store, flushSize, config.writeBehindFlushMillis, maxPending);
+        }
+        return store;
+    }
+
+    /**
+     * @param store
+     * @return The {@link WriteBehindGraphStore} inside `store`, or null if links are written as they come
+     */
+    static WriteBehindGraphStore writeBehindOf(GraphStore store) {
+        if (store instanceof SharedGraphStore shared) {
+            return writeBehindOf(shared.getShared());
+        }
+        return store instanceof WriteBehindGraphStore writeBehind ? writeBehind : null;
+    }
+
+    /**
+     * @param store
+     * @return The {@link DeferredGraphStore} inside `store`, or null if it is initialized eagerly
+     */
+    static DeferredGraphStore deferredOf(GraphStore store) {
+        if (store instanceof SharedGraphStore shared) {
+            return deferredOf(shared.getShared());
+        }
+        if (store instanceof WriteBehindGraphStore writeBehind) {
+            return deferredOf(writeBehind.getDelegate());
+        }
+        return store instanceof DeferredGraphStore deferred ? deferred : null;
+    }
+
+    /**
+     * @param store
+     * @return The {@link PartitionedGraphStore} inside `store`, or null if links are written straight through
+     */
+    static PartitionedGraphStore partitionedOf(GraphStore store) {
+        if (store instanceof SharedGraphStore shared) {
+            return partitionedOf(shared.getShared());
+        }
+        if (store instanceof WriteBehindGraphStore writeBehind) {
+            return partitionedOf(writeBehind.getDelegate());
+        }
+        if (store instanceof DeferredGraphStore deferred) {
+            return partitionedOf(deferred.getDelegate());
+        }
+        return store instanceof PartitionedGraphStore partitioned ? partitioned : null;
+    }
+
+    public ExecutionStrategy getStrategy() {
+        return strategy;
+    }
+
+    public BufferPool getBuffers() {
+        return buffers;
+    }
+
+    public DnsCache getDns() {
+        return dns;
+    }
+
+    /**
+     * @return Where every session's fetches were redirected, or null if redirects are not cached
+     */
+    public RedirectCache getRedirects() {
+        return redirects;
+    }
+
+    /**
+     * @return URLs whose fetch failed recently in any session, or null if failures are not cached
+     */
+    public FailureCache getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return The store itself; sessions write through a {@link SharedGraphStore} view of it
+     */
+    public GraphStore getStore() {
+        return store;
+    }
+
+    private final ExecutionStrategy strategy;
+    private final BufferPool buffers;
+    private final DnsCache dns;
+    private final RedirectCache redirects;
+    private final FailureCache failures;
+    private final GraphStore store;
+    private static final Logger logger = LogManager.getLogger(CrawlResources.class);
+}
@@ -2,20 +2,72 @@ package org.neu;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.neu.neo4j.Neo4jTransactionHandler;
+import org.neu.fetch.ArchiveReplay;
+import org.neu.fetch.BufferPool;
+import org.neu.fetch.DnsCache;
+import org.neu.fetch.FailureCache;
+import org.neu.fetch.FetchStats;
+import org.neu.fetch.HostBreakers;
+import org.neu.fetch.PageArchive;
+import org.neu.fetch.PageFetcher;
+import org.neu.fetch.PageSource;
+import org.neu.fetch.RedirectCache;
+import org.neu.fetch.TailTolerantFetcher;
+import org.neu.events.CrawlEvent;
+import org.neu.events.CrawlEventPublisher;
+import org.neu.execution.ExecutionStrategy;
+import org.neu.execution.Stage;
+import org.neu.graph.EdgeLog;
+import org.neu.graph.LinkAnalysis;
+import org.neu.memory.BoundedParentMap;
+import org.neu.memory.DiskSpill;
+import org.neu.memory.MemoryBudget;
+import org.neu.memory.VisitedSet;
+import org.neu.neo4j.DeferredGraphStore;
+import org.neu.neo4j.PartitionedGraphStore;
+import org.neu.neo4j.GraphStore;
+import org.neu.neo4j.SharedGraphStore;
+import org.neu.neo4j.WriteBehindGraphStore;
+import org.neu.trace.FilterRejectedEvent;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+/**
+ * The crawl engine. Owns the frontier, the fetch, filter and storage stages, and delegates only the choice of
+ * threads to an {@link ExecutionStrategy}, so single-threaded, pooled, virtual-thread and work-stealing crawls
+ * run exactly the same BFS.
+ *
+ * <p>
+ * The command line runs one crawler through {@link #getInstance()}. Embedding applications can instead create
+ * several crawl sessions that run concurrently on shared {@link CrawlResources}.
+ * </p>
+ */
 public class Crawler {
 
     private Crawler() {
+        this(RuntimeConfig.getInstance(), null);
+    }
+
+    /**
+     * Create an independent crawl session. Several sessions can run at once in one JVM: each keeps its own
+     * configuration, visited set, frontier and statistics, while all of them fetch on the threads, buffers and
+     * graph store of `resources`.
+     *
+     * @param config Configuration of this session only; pass a {@link RuntimeConfig#copy()} to tune it separately
+     * @param resources Resources shared with other sessions, or null for the crawler to open and close its own
+     */
+    public Crawler(RuntimeConfig config, CrawlResources resources) {
+        this.config = config;
+        this.resources = resources;
     }
 
     /**
@@ -23,7 +75,7 @@ public class Crawler {
      *
      * @return Crawler
      */
-    public static Crawler getInstance() {
+    public static synchronized Crawler getInstance() {
         if (instance == null) {
             logger.info("Creating Crawler singleton instance");
             instance = new Crawler();
@@ -32,33 +84,160 @@ public class Crawler {
     }
 
     /**
-     * Initialize the crawler. All initializations for files, network, DB, and executorService must be declared here.
+     * Initialize the crawler with the execution strategy named in its configuration, or the shared one.
      */
     public void init() {
-        this.db = new Neo4jTransactionHandler();
-        this.db.initialize();
+        if (resources != null) {
+            init(resources.getStrategy());
+            return;
+        }
+        int threads = config.threads > 0 ? config.threads : ExecutionStrategy.defaultThreads();
+        init(ExecutionStrategy.of(config.strategy, threads));
+    }
+
+    /**
+     * Initialize the crawler. All initializations for files, network, DB, and the execution strategy must be declared here.
+     * With `lazyDbInit` the database connects in the background while the first pages are fetched. With
+     * `memoryBudgetMb` every structure that grows with the crawl is bounded (see {@link MemoryBudget}), except that
+     * seeds are never dropped and may overrun the frontier's share (see {@link Frontier}).
+     *
+     * @param strategy Execution model used to fetch and parse pages
+     */
+    public void init(ExecutionStrategy strategy) {
+        this.initStartNanos = System.nanoTime();
+
+        this.budget = config.memoryBudgetMb > 0 ? MemoryBudget.split(config.memoryBudgetMb << 20) : null;
+        if (resources != null) {
+            this.db = new SharedGraphStore(resources.getStore());
+        } else {
+            this.db = CrawlResources.openStore(config, budget);
+            this.db.initialize();
+        }
+        this.deferredDb = CrawlResources.deferredOf(db);
+        this.writeBehindDb = CrawlResources.writeBehindOf(db);
+
+        this.strategy = strategy;
+        this.shouldStop = false;
+        if (budget != null) {
+            this.visited = new VisitedSet(budget.visitedBytes());
+            this.parentMap = new BoundedParentMap(budget.parentMapBytes());
+            this.childToParent = Collections.synchronizedMap(parentMap);
+            logger.info("Memory budget: {}", budget);
+        } else {
+            this.visited = new VisitedSet(0);
+            this.parentMap = null;
+            this.childToParent = new ConcurrentHashMap<>();
+        }
 
-        int optimalThreads = Math.min(32, Runtime.getRuntime().availableProcessors() * 2);
-        this.exec = Executors.newFixedThreadPool(optimalThreads);
-        this.visited = ConcurrentHashMap.newKeySet();
-        this.childToParent = new ConcurrentHashMap<>();
+        this.admission = new LinkAdmission(config.batchedAdmission, config.recentUrlCache, config.discoveryLogEvery);
+        if (config.trapDetection) {
+            this.traps = budget != null
+                    ? new TrapDetector(config.maxPagesPerHost, config.maxPathDepth, config.maxRepeatedSegments,
+                            config.maxPatternUrls, config.trapSampleEvery, budget.maxTrapHosts())
+                    : new TrapDetector(config.maxPagesPerHost, config.maxPathDepth, config.maxRepeatedSegments,
+                            config.maxPatternUrls, config.trapSampleEvery);
+        } else {
+            this.traps = null;
+        }
+        if (resources != null) {
+            this.redirects = resources.getRedirects();
+            this.failures = resources.getFailures();
+        } else {
+            // kept across runs of this crawler, so the redirects and failures of one run spare the next
+            if (redirects == null && config.redirectCacheSize > 0) {
+                this.redirects = new RedirectCache(config.redirectCacheSize);
+            }
+            if (failures == null && config.failureCacheSize > 0 && config.failureTtlMillis > 0) {
+                this.failures = new FailureCache(config.failureCacheSize, config.failureTtlMillis);
+            }
+        }
+        this.refetch = new RefetchGuard(redirects, failures, visited, config.redirectCacheSize);
+
+        this.events = new CrawlEventPublisher(config.eventBufferSize, ForkJoinPool.commonPool());
+        if (writeBehindDb != null) {
+            this.persistListener = (parent, child) -> {
+                if (events.hasSubscribers()) {
+                    events.publish(new CrawlEvent.EdgePersisted(parent, child));
+                }
+            };
+            writeBehindDb.addPersistListener(persistListener);
+        }
 
-        logger.info("Crawler successfully initialized and is ready to begin crawling");
+        this.fetchStats = new FetchStats();
+        BufferPool buffers;
+        if (resources != null) {
+            this.dns = resources.getDns();
+            buffers = resources.getBuffers();
+        } else {
+            this.dns = DnsCache.getInstance();
+            this.dns.configure(config.dnsCache, config.dnsTtlMillis, config.dnsNegativeTtlMillis);
+            buffers = new BufferPool(config.bufferPoolSize, config.readBufferSize);
+        }
+        PageSource pageSource = openPageSource(buffers);
+        this.breakers = config.circuitBreaker
+                ? new HostBreakers(config.breakerFailures, config.breakerCooldownMillis, config.breakerMaxCooldownMillis,
+                        config.connectTimeoutMillis + config.readDeadlineMillis, HostBreakers.DEFAULT_MAX_HOSTS)
+                : null;
+        // the single-threaded strategy runs each fetch on the dispatching thread, so a duplicate could never overlap it
+        this.fetcher = new TailTolerantFetcher(pageSource, fetchStats, config, !strategy.name().equals("single") && replay == null, breakers);
+        this.links = config.linkAnalysis ? new EdgeLog(budget != null ? budget.edgeLogBytes() : 0) : null;
+
+        // the single-threaded baseline keeps every stage on the dispatching thread
+        boolean inline = strategy.name().equals("single");
+        int parseThreads = config.parseThreads >= 0 ? config.parseThreads : Runtime.getRuntime().availableProcessors();
+        this.fetchStage = new Stage("fetch", 0, Math.max(1, config.dispatchBatchSize));
+        this.parseStage = new Stage("parse", inline ? 0 : parseThreads, config.stageQueueSize);
+        this.dedupeStage = new Stage("dedupe", inline ? 0 : config.dedupeThreads, config.stageQueueSize);
+        this.persistStage = new Stage("persist", inline ? 0 : config.persistThreads, config.stageQueueSize);
+
+        logger.info("Crawler successfully initialized with '{}' execution strategy and is ready to begin crawling", strategy.name());
     }
 
     /**
-     * Close the crawler. All closing such as file, network, DB, and executorService closing must be done here.
+     * With `replayDir`, serve pages from an archive instead of the network. Otherwise fetch them, archiving every
+     * response if `archiveDir` is set.
+     *
+     * @param buffers Read buffers
+     * @return Where pages come from
      */
-    public void close() {
-        this.exec.shutdown();
+    private PageSource openPageSource(BufferPool buffers) {
+        this.archive = null;
+        this.replay = null;
         try {
-            if (!this.exec.awaitTermination(60, TimeUnit.SECONDS)) {
-                this.exec.shutdownNow();
+            if (config.replayDir != null) {
+                this.replay = new ArchiveReplay(Path.of(config.replayDir), fetchStats, buffers, config.linkScanner);
+                return replay;
+            }
+            if (config.archiveDir != null) {
+                this.archive = new PageArchive(Path.of(config.archiveDir), (long) config.archiveSegmentMb << 20);
             }
-        } catch (InterruptedException e) {
-            this.exec.shutdownNow();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open page archive", e);
+        }
+        return new PageFetcher(config, fetchStats, buffers, archive, redirects);
+    }
+
+    /**
+     * Close the crawler. All closing such as file, network, DB, and executorService closing must be done here.
+     * Shared resources are left open for the other sessions.
+     */
+    public void close() {
+        if (resources == null) {
+            this.strategy.shutdown();
+        }
+        shutdownStages();
+        if (writeBehindDb != null) {
+            writeBehindDb.removePersistListener(persistListener);
         }
         this.db.close();
+        this.events.close();
+        closeFrontier();
+        if (archive != null) {
+            archive.close();
+        }
+        if (replay != null) {
+            replay.close();
+        }
 
         logger.info("Crawler terminated");
     }
@@ -72,99 +251,144 @@ public class Crawler {
      * @throws MalformedURLException
      */
     public void run(String url) throws InterruptedException, ExecutionException, MalformedURLException {
+        run(url, config.asyncTime);
+    }
+
+    /**
+     * Crawl from a single root URL for at most `timeoutMillis`.
+     *
+     * @param url
+     * @param timeoutMillis
+     * @throws InterruptedException
+     * @throws ExecutionException
+     * @throws MalformedURLException
+     */
+    public void run(String url, long timeoutMillis) throws InterruptedException, ExecutionException, MalformedURLException {
         logger.info("Starting crawling with base URL: '{}'", url);
 
-        bfsTraversal(url);
+        bfsTraversal(List.of(url).iterator(), timeoutMillis);
+    }
+
+    /**
+     * Crawl from many seed URLs at once. Seeds are consumed lazily from the iterator, so it may stream them from a file.
+     *
+     * @param seeds
+     * @throws InterruptedException
+     * @throws ExecutionException
+     * @throws MalformedURLException
+     */
+    public void run(Iterator<String> seeds) throws InterruptedException, ExecutionException, MalformedURLException {
+        run(seeds, config.asyncTime);
+    }
+
+    /**
+     * Crawl from many seed URLs for at most `timeoutMillis`.
+     *
+     * @param seeds
+     * @param timeoutMillis
+     * @throws InterruptedException
+     * @throws ExecutionException
+     * @throws MalformedURLException
+     */
+    public void run(Iterator<String> seeds, long timeoutMillis) throws InterruptedException, ExecutionException, MalformedURLException {
+        logger.info("Starting crawling from seed list");
+
+        bfsTraversal(seeds, timeoutMillis);
     }
 
     /**
-     * Given a root URL, start BFS asynchronously on that by processing that URL and adding any valid neighbor URLs to the BFS queue.
+     * Given the seed URLs, start BFS on them by processing each URL and adding any valid neighbor URLs to the BFS frontier.
+     * URLs are dispatched in batches built round-robin across seeds (see {@link Frontier}), so every seed keeps making progress.
      *
      * Note: to understand processing a URL, see `processURLAsync(String webpage)`
      *
-     * @param rootUrl
+     * Every edge to a child is stored unless it would close a cycle, whether or not the child was visited before.
+     * Each page passes through four {@link Stage}s: fetch, parse (extract and filter links), dedupe (frontier
+     * admission and cycle checks) and persist. Each has its own threads and bounded queue, so a stage that falls
+     * behind, typically the store, blocks the stages feeding it instead of letting their output pile up.
+     * With `sitemapSeeding`, the URLs listed by each seed site's sitemaps join that seed's queue as they are read (see
+     * {@link SitemapSeeder}).
+     *
+     * @param seeds
+     * @param timeoutMillis
      * @throws InterruptedException
      * @throws ExecutionException
      * @throws MalformedURLException
      */
-    private void bfsTraversal(String rootUrl) throws InterruptedException, ExecutionException, MalformedURLException {
+    private void bfsTraversal(Iterator<String> seeds, long timeoutMillis) throws InterruptedException, ExecutionException, MalformedURLException {
         long startTime = System.currentTimeMillis();
-        long timeoutMillis = RuntimeConfig.getInstance().asyncTime;
 
-        ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
-        queue.add(rootUrl);
-        visited.add(rootUrl);
-        childToParent.put(rootUrl, "");
+        closeFrontier();
+        // failure and trap checks run only for URLs claimed for the first time, so repeats never count against a host
+        Predicate<String> claim = url -> visited.add(url) && !refetch.isKnownFailure(url) && (traps == null || traps.admit(url));
+        if (budget != null) {
+            DiskSpill spill = new DiskSpill(Path.of(config.spillDir), "frontier-", 100_000);
+            this.frontier = new Frontier(seeds, config.maxActiveSeeds, claim, budget.frontierBytes(), spill);
+        } else {
+            this.frontier = new Frontier(seeds, config.maxActiveSeeds, claim);
+        }
+        frontier.setBatchClaim(urls -> {
+            List<String> fresh = visited.addAll(urls);
+            fresh.removeIf(url -> refetch.isKnownFailure(url) || (traps != null && !traps.admit(url)));
+            return fresh;
+        });
+        // a replay only has the archived pages, so sitemaps are not fetched
+        if (config.sitemapSeeding && replay == null) {
+            this.sitemaps = new SitemapSeeder(config);
+            frontier.setSeedListener(sitemaps::seedLoaded);
+        }
+
+        this.quarantine = breakers == null ? null : new HostQuarantine(breakers, config.maxParkedUrls);
 
-        while (!queue.isEmpty() && !shouldStop) {
+        while ((!frontier.isEmpty() || (quarantine != null && quarantine.hasParked()) || (sitemaps != null && sitemaps.isBusy())) && !shouldStop) {
             if ((System.currentTimeMillis() - startTime) > timeoutMillis) {
                 logger.info("Time limit of {}ms reached. Stopping the BFS traversal.", timeoutMillis);
                 shouldStop = true;
                 break;
             }
+            if (sitemaps != null) {
+                // with nothing else queued, wait briefly for the sitemaps being read instead of spinning
+                sitemaps.drainInto(frontier, frontier.isEmpty() ? 100 : 0);
+            }
 
-            List<String> currentLevel = new ArrayList<>();
-            while (!queue.isEmpty() && !shouldStop) {
-                currentLevel.add(queue.poll());
+            List<Frontier.Entry> pulled = frontier.nextBatch(config.dispatchBatchSize);
+            List<Frontier.Entry> currentBatch = pulled;
+            if (quarantine != null) {
+                // entries of hosts with an open circuit breaker wait in quarantine instead of tying up workers
+                currentBatch = quarantine.release();
+                for (Frontier.Entry entry : pulled) {
+                    if (quarantine.admit(entry)) {
+                        currentBatch.add(entry);
+                    }
+                }
+                if (pulled.isEmpty() && currentBatch.isEmpty()) {
+                    // only parked hosts are left, so wait for the next probe
+                    long wait = breakers.nextProbeMillis();
+                    Thread.sleep(Math.max(1, Math.min(wait < 0 ? 100 : wait, 100)));
+                    continue;
+                }
             }
 
             if (shouldStop) break;
 
             List<CompletableFuture<Void>> levelFutures = new ArrayList<>();
 
-            for (String currentUrl : currentLevel) {
+            for (Frontier.Entry entry : currentBatch) {
+                // inline strategies fetch while dispatching, so the time limit is also checked per URL
+                if ((System.currentTimeMillis() - startTime) > timeoutMillis) {
+                    logger.info("Time limit of {}ms reached while dispatching. Stopping the BFS traversal.", timeoutMillis);
+                    shouldStop = true;
+                }
                 if (shouldStop) {
                     levelFutures.forEach(f -> f.cancel(true));
                     return;
                 }
 
+                String currentUrl = entry.url();
+
                 CompletableFuture<Void> urlProcessingFuture = processURLAsync(currentUrl)
-                        .thenCompose(childLinks -> {
-                            if (shouldStop) {
-                                return CompletableFuture.completedFuture(null);
-                            }
-
-                            List<CompletableFuture<Void>> childFutures = new ArrayList<>();
-//                            List<String> validChildLinks = childLinks.stream()
-//                                    .filter(link -> link.startsWith("http://") || link.startsWith("https://")) // Valid protocols
-//                                    .filter(link -> !link.contains(".onion")) // Exclude dark web links
-//                                    .collect(Collectors.toList());
-
-                            List<String> validChildLinks = childLinks.stream().filter(Crawler::santize).distinct().toList();
-
-
-                            for (String childLink : validChildLinks) {
-                                if (shouldStop) {
-                                    childFutures.forEach(f -> f.cancel(true));
-                                    break;
-                                }
-
-                                logger.info("Current link being processed: {}", childLink);
-
-                                CompletableFuture<Void> childFuture;
-
-                                if (visited.add(childLink)) {
-                                    queue.add(childLink);
-                                    childToParent.put(childLink, currentUrl);
-                                }
-
-                                if (!wouldCreateCycle(currentUrl, childLink)) {
-                                    childFuture = db.mergeNodeWithChildURL(currentUrl, childLink)
-                                            .toCompletableFuture()
-                                            .thenAccept(v -> {
-                                                if (shouldStop) {
-                                                    throw new CancellationException("Crawler stopped");
-                                                }
-                                            });
-                                } else {
-                                    childFuture = CompletableFuture.completedFuture(null);
-                                }
-
-                                childFutures.add(childFuture.exceptionally(ex -> null));
-                            }
-
-                            return CompletableFuture.allOf(childFutures.toArray(new CompletableFuture[0]));
-                        });
+                        .thenCompose(childLinks -> dedupeStage.call(() -> admitChildren(entry, childLinks)))
+                        .thenCompose(children -> persistStage.submit(() -> persist(currentUrl, children)));
                 levelFutures.add(urlProcessingFuture.exceptionally(ex -> null));
             }
             if (shouldStop) {
@@ -184,10 +408,106 @@ public class Crawler {
         }
     }
 
+    /**
+     * Dedupe stage of a page: rewrite links to known redirects (see {@link RefetchGuard}), add them to the frontier in
+     * one batch (see {@link LinkAdmission}) and pick those to store.
+     *
+     * @param entry The page
+     * @param childLinks Its links, already parsed and filtered
+     * @return The links whose edge would not close a cycle
+     */
+    private List<String> admitChildren(Frontier.Entry entry, List<String> childLinks) {
+        if (shouldStop) {
+            return List.of();
+        }
+        String currentUrl = entry.url();
+        List<String> sources = new ArrayList<>();
+        childLinks = refetch.rewrite(childLinks, sources);
+        entry.seed().recordLinksDiscovered(childLinks.size());
+        if (events.hasSubscribers()) {
+            events.publish(new CrawlEvent.LinksDiscovered(currentUrl, childLinks));
+        }
+
+        List<String> admitted = admission.admit(frontier, childToParent, currentUrl, entry.seed(), childLinks);
+        refetch.claimSources(sources, admitted);
+        if (replay == null) {
+            for (String link : admitted) {
+                dns.prefetch(DnsCache.hostOf(link));
+            }
+        }
+
+        List<String> children = new ArrayList<>(childLinks.size());
+        for (String childLink : childLinks) {
+            if (shouldStop) {
+                break;
+            }
+            if (!wouldCreateCycle(currentUrl, childLink)) {
+                children.add(childLink);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Persist stage of a page: store an edge to each of its children.
+     *
+     * @param currentUrl The page
+     * @param children
+     * @return A future completing once the store has handled every edge
+     */
+    private CompletableFuture<Void> persist(String currentUrl, List<String> children) {
+        List<CompletableFuture<Void>> childFutures = new ArrayList<>(children.size());
+        for (String childLink : children) {
+            if (shouldStop) {
+                break;
+            }
+            if (links != null) {
+                links.record(currentUrl, childLink);
+            }
+
+            CompletableFuture<Void> childFuture = db.mergeNodeWithChildURL(currentUrl, childLink)
+                    .toCompletableFuture()
+                    .thenAccept(v -> {
+                        if (shouldStop) {
+                            throw new CancellationException("Crawler stopped");
+                        }
+                        // with write-behind, the store reports links once they are actually flushed
+                        if (writeBehindDb == null && events.hasSubscribers()) {
+                            events.publish(new CrawlEvent.EdgePersisted(currentUrl, childLink));
+                        }
+                    });
+            childFutures.add(childFuture.exceptionally(ex -> null));
+        }
+        return CompletableFuture.allOf(childFutures.toArray(new CompletableFuture[0]));
+    }
+
     public static boolean santize(String link) {
-        if (!link.startsWith("http://") && !link.startsWith("https://")) {
+        return rejectionReason(link) == null;
+    }
+
+    /**
+     * Apply {@link #santize(String)}, recording a {@link FilterRejectedEvent} for every rejected link.
+     *
+     * @param link
+     * @return true if the link should be crawled
+     */
+    private static boolean admit(String link) {
+        String reason = rejectionReason(link);
+        if (reason != null) {
+            FilterRejectedEvent.emit(link, reason);
             return false;
         }
+        return true;
+    }
+
+    /**
+     * @param link
+     * @return Why `link` should not be crawled, or null if it should
+     */
+    public static String rejectionReason(String link) {
+        if (!link.startsWith("http://") && !link.startsWith("https://")) {
+            return "unsupported scheme";
+        }
 
         String lowerLink = link.toLowerCase();
 
@@ -197,64 +517,65 @@ public class Crawler {
                 lowerLink.startsWith("file:") ||
                 lowerLink.startsWith("ftp:") ||
                 lowerLink.startsWith("ipfs://") ||
-                lowerLink.startsWith("magnet:") ||
-                lowerLink.contains(".onion/") ||
+                lowerLink.startsWith("magnet:")) {
+            return "unsupported scheme";
+        }
+        if (lowerLink.contains(".onion/") ||
                 lowerLink.contains(".i2p/")) {
-            return false;
+            return "anonymity network";
         }
 
         // common non-webpage extensions
         if (lowerLink.matches(".+\\.(png|jpg|jpeg|gif|pdf|zip|rar|tar|gz|exe|dmg|iso|dll|jar|apk|mp3|mp4|avi|mov|wmv|flv|swf|xml|json|css|js)$")) {
-            return false;
+            return "non-page extension";
         }
 
         // emails and telephones
         if (lowerLink.startsWith("mailto:") || lowerLink.startsWith("tel:")) {
-            return false;
+            return "unsupported scheme";
         }
 
         // potential spam URLs that are more than 2000 characters
         if (link.length() > 2000) {
-            return false;
+            return "too long";
         }
 
         if (link.split("\\?").length > 1) {
             String queryPart = link.split("\\?")[1];
-            return queryPart.split("&").length <= 10;
+            if (queryPart.split("&").length > 10) {
+                return "too many query parameters";
+            }
         }
 
-        return true;
+        return null;
     }
 
     /**
-     * Process URLs asynchronously using Java's CompletableFuture API.
-     * Processing of a URL includes fetching the HTML content available at the URL, grepping any URLs in that content, and finally adding those URLs to the BFS queue.
+     * Process URLs asynchronously using Java's CompletableFuture API: fetched on the executor of the current execution strategy,
+     * then parsed on the parse stage. Transient failures are retried and slow responses hedged (see {@link TailTolerantFetcher}).
+     * Processing of a URL includes fetching the HTML content available at the URL, grepping any URLs in that content, and
+     * finally keeping those that are valid and worth crawling.
      *
      * @param webpage
      * @return CompletableFuture
      * @throws MalformedURLException
      */
     public CompletableFuture<List<String>> processURLAsync(String webpage) throws MalformedURLException {
-        URL url = new URL(webpage);
-        return CompletableFuture.supplyAsync(() -> {
-            List<String> hyperlinks = new ArrayList<>();
-            try {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        grepHyperLinks(hyperlinks, line);
+        new URL(webpage);
+        return fetchStage.submit(() -> fetcher.fetchAsync(webpage, strategy.executor()))
+                .thenCompose(result -> parseStage.call(() -> {
+                    refetch.fetched(webpage, result.outcome());
+                    List<String> validUrls = filterValidUrls(result.links());
+                    if (events.hasSubscribers()) {
+                        events.publish(new CrawlEvent.PageFetched(webpage, result.outcome(), validUrls.size()));
                     }
-                }
-            } catch (IOException e) {
-//                System.err.println("Failed to process " + webpage + ": " + e.getMessage());
-            }
-            return filterValidUrls(hyperlinks);
-        }, exec);
+                    return validUrls;
+                }));
     }
 
     /**
      * Filters and returns a list of valid URLs from the input list.
-     * A URL is considered valid if it can be successfully parsed by the Java URL class.
+     * A URL is considered valid if it can be successfully parsed by the Java URL class and passes {@link #santize(String)}.
      * The method also removes any duplicate URLs from the list.
      *
      * @param urls
@@ -267,9 +588,11 @@ public class Crawler {
                         new URL(url);
                         return true;
                     } catch (MalformedURLException e) {
+                        FilterRejectedEvent.emit(url, "malformed URL");
                         return false;
                     }
                 })
+                .filter(Crawler::admit)
                 .distinct()
                 .collect(Collectors.toList());
     }
@@ -336,22 +659,193 @@ public class Crawler {
     public void displayURLsByRank() {
         db.getURLsByInDegree()
                 .thenAccept(rankings -> {
-                    System.out.println("\n(ASYNC) URL Rankings by In-Degree:");
+                    System.out.println("\n(" + label() + ") URL Rankings by In-Degree:");
                     rankings.forEach(System.out::println);
                 })
                 .join();
     }
 
+    /**
+     * Display the pages ranked highest by PageRank over the links stored so far, with their HITS scores, computed in
+     * memory on the common fork-join pool (see {@link LinkAnalysis}).
+     */
+    public void displayLinkAnalysis() {
+        if (links != null) {
+            LinkAnalysis analysis = new LinkAnalysis(ForkJoinPool.commonPool(), config.rankEpsilon, config.rankMaxIterations);
+            System.out.println("\n(" + label() + ") " + analysis.report(links, config.rankDamping, config.rankTop));
+        }
+    }
+
+    /**
+     * Display per-seed crawl statistics for the last run, in the order seeds were loaded.
+     */
+    public void displaySeedStats() {
+        if (frontier == null) {
+            return;
+        }
+        System.out.println("\n(" + label() + ") Per-seed statistics:");
+        frontier.getSeeds().forEach(System.out::println);
+    }
+
+    /**
+     * Display fetch statistics, including throughput, bytes per page, the share of fetch time spent resolving hosts
+     * and the fetches that known redirects and failures made unnecessary.
+     *
+     * @param elapsedMillis Duration of the crawl
+     */
+    public void displayFetchStats(long elapsedMillis) {
+        System.out.println("\n(" + label() + ") " + fetchStats.report(dns, elapsedMillis));
+        System.out.println(fetcher.report());
+        System.out.println(refetch.report());
+    }
+
+    /**
+     * Display how many database operations the storage stage issued per crawled page, and how the writer lanes fared.
+     */
+    public void displayStorageStats() {
+        if (writeBehindDb != null) {
+            System.out.println("\n(" + label() + ") " + writeBehindDb.report(fetchStats.getPagesFetched()));
+        }
+        PartitionedGraphStore lanes = CrawlResources.partitionedOf(db);
+        if (lanes != null) {
+            System.out.println("(" + label() + ") " + lanes.report());
+        }
+    }
+
+    /**
+     * Display how many URLs trap detection refused and the fetch capacity that reclaimed.
+     */
+    public void displayTrapStats() {
+        if (traps != null) {
+            System.out.println("\n(" + label() + ") " + traps.report(fetchStats));
+        }
+    }
+
+    /**
+     * Display the memory budget and how each bounded structure is coping with it.
+     */
+    public void displayMemoryStats() {
+        if (budget == null) {
+            return;
+        }
+        System.out.println("\n(" + label() + ") Memory budget " + budget);
+        System.out.println(visited);
+        System.out.println(parentMap);
+        if (frontier != null) {
+            System.out.println(frontier);
+        }
+        if (links != null) {
+            System.out.println(String.format("Edge log: %d links in ~%dKB, %d left out once full",
+                    links.size(), links.getBytes() >> 10, links.getDropped()));
+        }
+    }
+
+    /**
+     * Display circuit breaker trips, parked URLs and the worker time lost to failing hosts.
+     */
+    public void displayBreakerStats() {
+        if (breakers != null) {
+            System.out.println("\n(" + label() + ") " + breakers.report(fetchStats));
+            if (quarantine != null) {
+                System.out.println(quarantine);
+            }
+        }
+    }
+
+    /**
+     * Display how many URLs sitemap seeding discovered per request, against the links found per HTML fetch.
+     */
+    public void displaySitemapStats() {
+        if (sitemaps != null) {
+            System.out.println("\n(" + label() + ") " + sitemaps.report(fetchStats));
+        }
+    }
+
+    /**
+     * Display how many responses were archived, or how many pages a replay served and how fast.
+     *
+     * @param elapsedMillis Duration of the crawl
+     */
+    public void displayArchiveStats(long elapsedMillis) {
+        if (archive != null) {
+            System.out.println("\n(" + label() + ") " + archive.report());
+        }
+        if (replay != null) {
+            System.out.println("\n(" + label() + ") " + replay.report(elapsedMillis));
+        }
+    }
+
+    /**
+     * Display the depth and utilisation of every pipeline stage, how long each held up the stage before it, and how
+     * many links the dedupe stage admitted.
+     */
+    public void displayPipelineStats() {
+        if (parseStage == null) {
+            return;
+        }
+        System.out.println("\n(" + label() + ") Pipeline stages:");
+        for (Stage stage : List.of(fetchStage, parseStage, dedupeStage, persistStage)) {
+            System.out.println(stage);
+        }
+        System.out.println(admission.report());
+    }
+
+    private void shutdownStages() {
+        for (Stage stage : new Stage[]{fetchStage, parseStage, dedupeStage, persistStage}) {
+            if (stage != null) {
+                stage.shutdownNow();
+            }
+        }
+    }
+
+    private void closeFrontier() {
+        if (sitemaps != null) {
+            sitemaps.close();
+        }
+        if (frontier != null) {
+            try {
+                frontier.close();
+            } catch (IOException e) {
+                logger.error("Failed to delete spilled frontier: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Display how long after {@link #init()} the database became ready, the first page was fetched and the first
+     * link was written.
+     */
+    public void displayStartupStats() {
+        long fetchedAt = fetchStats.getFirstFetchNanos();
+        String summary = "Startup: first fetch after " + sinceInit(fetchedAt);
+        if (deferredDb != null) {
+            summary += ", database ready after " + sinceInit(deferredDb.getReadyNanos()) +
+                    ", first write after " + sinceInit(deferredDb.getFirstWriteNanos());
+        }
+        System.out.println("\n(" + label() + ") " + summary);
+    }
+
+    private String sinceInit(long nanos) {
+        return nanos == 0 ? "n/a" : TimeUnit.NANOSECONDS.toMillis(nanos - initStartNanos) + "ms";
+    }
+
+    private String label() {
+        return strategy.name().toUpperCase();
+    }
+
     public void forceStopAllOperations() {
         shouldStop = true;
 
-        // Shutdown executor service immediately
-        if (exec != null && !exec.isShutdown()) {
-            exec.shutdownNow();
+        // Shutdown the execution strategy immediately, unless other sessions share it
+        if (strategy != null && resources == null) {
+            strategy.shutdownNow();
         }
+        shutdownStages();
 
         // Clear any pending operations
         visited.clear();
+        admission.clear();
+        refetch.clear();
         childToParent.clear();
 
         // Force close DB connection pool
@@ -368,7 +862,7 @@ public class Crawler {
      * This method is use for testing via Mockito
      * @param db
      */
-    public void setDb(Neo4jTransactionHandler db) {
+    public void setDb(GraphStore db) {
         this.db = db;
     }
 
@@ -380,16 +874,63 @@ public class Crawler {
         return shouldStop;
     }
 
-    public Neo4jTransactionHandler getDb() {
+    public GraphStore getDb() {
         return db;
     }
 
+    public ExecutionStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Stream of pages fetched, links discovered and links persisted, for applications embedding the crawler.
+     * Subscribe after {@link #init()} and before running; subscriptions complete on {@link #close()}. A subscriber
+     * that requests slowly throttles the crawl (see {@link CrawlEventPublisher}).
+     *
+     * @return The publisher of the current crawl
+     */
+    public Flow.Publisher<CrawlEvent> events() {
+        return events;
+    }
+
+    public FetchStats getFetchStats() {
+        return fetchStats;
+    }
+
     private static Crawler instance;
-    private Set<String> visited;
+    private final RuntimeConfig config;
+    private final CrawlResources resources;
+    private VisitedSet visited;
+    private LinkAdmission admission;
+    private RedirectCache redirects;
+    private FailureCache failures;
+    private RefetchGuard refetch;
+    private CrawlEventPublisher events;
+    private TrapDetector traps;
+    private BoundedParentMap parentMap;
+    private MemoryBudget budget;
     private volatile boolean shouldStop;
+    private Frontier frontier;
+    private SitemapSeeder sitemaps;
+    private HostBreakers breakers;
+    private HostQuarantine quarantine;
+    private DnsCache dns;
+    private FetchStats fetchStats;
+    private TailTolerantFetcher fetcher;
+    private PageArchive archive;
+    private ArchiveReplay replay;
+    private EdgeLog links;
+    private Stage fetchStage;
+    private Stage parseStage;
+    private Stage dedupeStage;
+    private Stage persistStage;
     public Map<String, String> childToParent; // made public for testing
-    private Neo4jTransactionHandler db;
-    private ExecutorService exec;
+    private GraphStore db;
+    private DeferredGraphStore deferredDb;
+    private WriteBehindGraphStore writeBehindDb;
+    private BiConsumer<String, String> persistListener;
+    private long initStartNanos;
+    private ExecutionStrategy strategy;
     private static final Logger logger = LogManager.getLogger(Crawler.class);
 
 }
\ No newline at end of file
@@ -0,0 +1,351 @@
+package org.neu;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neu.memory.DiskSpill;
+import org.neu.memory.MemoryBudget;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * BFS frontier shared by every seed of a crawl.
+ *
+ * <p>
+ * Each seed owns its own queue, and batches are built by taking one URL from each active seed in turn, so a
+ * seed with a huge subgraph cannot starve the others. Seeds are pulled lazily from the seed iterator whenever
+ * fewer than `maxActiveSeeds` seeds still have work, and a seed is retired once its queue runs dry. URLs added
+ * later under a retired seed, such as those of its sitemaps, put it back into the rotation.
+ * </p>
+ *
+ * <p>
+ * A bounded frontier keeps queued URLs within a byte budget. URLs discovered while it is full are spilled to disk
+ * together with their seed, and read back once the in-memory queues have drained to half the budget. Loaded seeds
+ * stay in memory for as long as the frontier, since spilled URLs refer to them, so their records are charged to the
+ * same budget and leave less of it to queued URLs; queued URLs always keep a quarter of it, so a crawl with more
+ * seeds than the budget can hold overruns it rather than stalling, and says so once.
+ * </p>
+ */
+public class Frontier implements Closeable {
+
+    /**
+     * @param seeds Seed URLs, consumed lazily
+     * @param maxActiveSeeds Maximum number of seeds in the round-robin rotation at once
+     * @param claim Called once per URL before it is enqueued; returns false if the URL was already visited
+     */
+    public Frontier(Iterator<String> seeds, int maxActiveSeeds, Predicate<String> claim) {
+        this.seeds = seeds;
+        this.maxActiveSeeds = maxActiveSeeds;
+        this.claim = claim;
+        this.budgetBytes = Long.MAX_VALUE;
+        this.spill = null;
+    }
+
+    /**
+     * @param seeds Seed URLs, consumed lazily
+     * @param maxActiveSeeds Maximum number of seeds in the round-robin rotation at once
+     * @param claim Called once per URL before it is enqueued; returns false if the URL was already visited
+     * @param budgetBytes Estimated heap the queued URLs may occupy
+     * @param spill Where URLs go while the frontier is over budget
+     */
+    public Frontier(Iterator<String> seeds, int maxActiveSeeds, Predicate<String> claim, long budgetBytes, DiskSpill spill) {
+        this.seeds = seeds;
+        this.maxActiveSeeds = maxActiveSeeds;
+        this.claim = claim;
+        this.budgetBytes = budgetBytes;
+        this.spill = spill;
+    }
+
+    /**
+     * Enqueue a discovered URL under the seed that discovered it.
+     *
+     * @param url
+     * @param seed
+     * @return true if the URL was new and has been enqueued
+     */
+    public boolean add(String url, Seed seed) {
+        if (!claim.test(url)) {
+            return false;
+        }
+        synchronized (this) {
+            long cost = MemoryBudget.stringBytes(url) + QUEUE_SLOT_BYTES;
+            if (spill != null && queuedBytes + cost > urlBudget()) {
+                spill.append(seed.index + "\t" + url);
+            } else {
+                enqueue(url, seed, cost);
+            }
+        }
+        seed.urlsEnqueued.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Enqueue the URLs a page links to, claiming them together and taking the frontier's lock once.
+     *
+     * @param urls
+     * @param seed
+     * @return The URLs that were new and have been enqueued
+     */
+    public List<String> addAll(List<String> urls, Seed seed) {
+        List<String> claimed = claimAll.apply(urls);
+        if (claimed.isEmpty()) {
+            return claimed;
+        }
+        synchronized (this) {
+            for (String url : claimed) {
+                long cost = MemoryBudget.stringBytes(url) + QUEUE_SLOT_BYTES;
+                if (spill != null && queuedBytes + cost > urlBudget()) {
+                    spill.append(seed.index + "\t" + url);
+                } else {
+                    enqueue(url, seed, cost);
+                }
+            }
+        }
+        seed.urlsEnqueued.addAndGet(claimed.size());
+        return claimed;
+    }
+
+    /**
+     * Claim the URLs given to {@link #addAll(List, Seed)} with one call rather than one per URL.
+     *
+     * @param claimAll Returns the URLs not visited before, in order; must agree with the single-URL claim
+     */
+    public void setBatchClaim(UnaryOperator<List<String>> claimAll) {
+        this.claimAll = claimAll;
+    }
+
+    /**
+     * Be told about every seed as it is loaded, under the frontier's lock, so the listener must not block.
+     *
+     * @param listener
+     */
+    public void setSeedListener(Consumer<Seed> listener) {
+        this.seedListener = listener;
+    }
+
+    private List<String> claimEach(List<String> urls) {
+        List<String> claimed = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            if (claim.test(url)) {
+                claimed.add(url);
+            }
+        }
+        return claimed;
+    }
+
+    private void enqueue(String url, Seed seed, long cost) {
+        seed.queue.add(url);
+        queuedBytes += cost;
+        if (!seed.active) {
+            seed.active = true;
+            rotation.add(seed);
+        }
+    }
+
+    /**
+     * Build the next batch of URLs to dispatch by cycling over the active seeds, one URL per seed per turn.
+     *
+     * @param maxSize Maximum number of URLs in the batch
+     * @return List of frontier entries, empty once every seed is exhausted
+     */
+    public synchronized List<Entry> nextBatch(int maxSize) {
+        admitSeeds();
+
+        List<Entry> batch = new ArrayList<>(Math.min(maxSize, 1024));
+        while (batch.size() < maxSize && !rotation.isEmpty()) {
+            Seed seed = rotation.poll();
+            String url = seed.queue.poll();
+            if (url == null) {
+                seed.active = false;
+                continue;
+            }
+            queuedBytes -= MemoryBudget.stringBytes(url) + QUEUE_SLOT_BYTES;
+            batch.add(new Entry(url, seed));
+            seed.pagesDispatched.incrementAndGet();
+            rotation.add(seed);
+        }
+        return batch;
+    }
+
+    /**
+     * @return true if no seed has queued work and no seeds are left to load
+     */
+    public synchronized boolean isEmpty() {
+        admitSeeds();
+        return rotation.isEmpty();
+    }
+
+    /**
+     * @return Estimated heap held by queued URLs
+     */
+    public synchronized long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    /**
+     * @return Estimated heap held by the records of loaded seeds
+     */
+    public synchronized long getSeedBytes() {
+        return seedBytes;
+    }
+
+    /**
+     * @return Number of URLs waiting on disk
+     */
+    public long getSpilled() {
+        return spill == null ? 0 : spill.size();
+    }
+
+    /**
+     * Delete any spilled URLs.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (spill != null) {
+            spill.close();
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Frontier: ~%dKB queued in memory, ~%dKB of %d seeds, %d URLs on disk, %d spilled in total",
+                queuedBytes >> 10, seedBytes >> 10, loaded.size(), getSpilled(), spill == null ? 0 : spill.getSpilled());
+    }
+
+    /**
+     * @return Per-seed statistics for every seed loaded so far, in load order
+     */
+    public synchronized List<Seed> getSeeds() {
+        return new ArrayList<>(loaded);
+    }
+
+    private void admitSeeds() {
+        unspill();
+
+        rotation.removeIf(seed -> {
+            if (seed.queue.isEmpty()) {
+                seed.active = false;
+                return true;
+            }
+            return false;
+        });
+
+        while (rotation.size() < maxActiveSeeds && seeds.hasNext()) {
+            String url = seeds.next();
+            Seed seed = new Seed(url, loaded.size());
+            loaded.add(seed);
+            seedBytes += MemoryBudget.stringBytes(url) + SEED_BYTES;
+            if (spill != null && !overBudget && seedBytes > budgetBytes / 4 * 3) {
+                overBudget = true;
+                logger.warn("Frontier: {} seeds take ~{}KB of its {}KB budget, queued URLs are kept to a quarter of it",
+                        loaded.size(), seedBytes >> 10, budgetBytes >> 10);
+            }
+            add(url, seed);
+            if (seedListener != null) {
+                seedListener.accept(seed);
+            }
+        }
+    }
+
+    /**
+     * Read spilled URLs back once the queues have drained to half the budget, up to three quarters of it.
+     */
+    private void unspill() {
+        if (spill == null || queuedBytes > urlBudget() / 2) {
+            return;
+        }
+        while (queuedBytes < urlBudget() / 4 * 3) {
+            List<String> lines = spill.poll(UNSPILL_BATCH);
+            if (lines.isEmpty()) {
+                return;
+            }
+            for (String line : lines) {
+                int tab = line.indexOf('\t');
+                String url = line.substring(tab + 1);
+                enqueue(url, loaded.get(Integer.parseInt(line, 0, tab, 10)), MemoryBudget.stringBytes(url) + QUEUE_SLOT_BYTES);
+            }
+        }
+    }
+
+    /**
+     * @return Part of the budget left to queued URLs by the loaded seeds
+     */
+    private long urlBudget() {
+        return Math.max(budgetBytes - seedBytes, budgetBytes / 4);
+    }
+
+    /**
+     * A URL waiting to be fetched, together with the seed whose subgraph it belongs to.
+     */
+    public record Entry(String url, Seed seed) {}
+
+    /**
+     * Queue and statistics of a single seed.
+     */
+    public static class Seed {
+        Seed(String url, int index) {
+            this.url = url;
+            this.index = index;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public long getPagesDispatched() {
+            return pagesDispatched.get();
+        }
+
+        public long getLinksDiscovered() {
+            return linksDiscovered.get();
+        }
+
+        public long getUrlsEnqueued() {
+            return urlsEnqueued.get();
+        }
+
+        public void recordLinksDiscovered(int count) {
+            linksDiscovered.addAndGet(count);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Seed: %s (dispatched %d, discovered %d links, enqueued %d)",
+                    url, getPagesDispatched(), getLinksDiscovered(), getUrlsEnqueued());
+        }
+
+        private final String url;
+        private final int index;
+        private final Queue<String> queue = new ArrayDeque<>();
+        private boolean active;
+        private final AtomicLong pagesDispatched = new AtomicLong();
+        private final AtomicLong linksDiscovered = new AtomicLong();
+        private final AtomicLong urlsEnqueued = new AtomicLong();
+    }
+
+    private final Iterator<String> seeds;
+    private final int maxActiveSeeds;
+    private final Predicate<String> claim;
+    private UnaryOperator<List<String>> claimAll = this::claimEach;
+    private Consumer<Seed> seedListener;
+    private final Deque<Seed> rotation = new ArrayDeque<>();
+    private final List<Seed> loaded = new ArrayList<>();
+    private final long budgetBytes;
+    private final DiskSpill spill;
+    private long queuedBytes;
+    private long seedBytes;
+    private boolean overBudget;
+
+    private static final long QUEUE_SLOT_BYTES = 8;
+    // seed object, its queue and counters, and its list slot
+    private static final long SEED_BYTES = 200;
+    private static final int UNSPILL_BATCH = 1024;
+    private static final Logger logger = LogManager.getLogger(Frontier.class);
+}
@@ -0,0 +1,92 @@
+package org.neu;
+
+import org.neu.fetch.DnsCache;
+import org.neu.fetch.HostBreakers;
+
+import java.util.*;
+
+/**
+ * Holds frontier entries of hosts whose circuit breaker is open, instead of dispatching them to fail.
+ *
+ * <p>
+ * {@link #admit(Frontier.Entry)} lets an entry through if its host's breaker allows it and parks it otherwise.
+ * {@link #release()} hands back parked entries as their hosts recover: one entry as the probe once the cooldown
+ * has passed, and the rest once the probe has closed the breaker. At most `maxParked` entries are held; entries
+ * beyond that are dropped and counted, since a host that stays down that long is not worth the memory.
+ * </p>
+ */
+public class HostQuarantine {
+
+    /**
+     * @param breakers Health of each host
+     * @param maxParked Most entries held across all hosts
+     */
+    public HostQuarantine(HostBreakers breakers, int maxParked) {
+        this.breakers = breakers;
+        this.maxParked = maxParked;
+    }
+
+    /**
+     * @param entry
+     * @return true if the entry should be dispatched now, false if it was parked or dropped
+     */
+    public synchronized boolean admit(Frontier.Entry entry) {
+        String host = DnsCache.hostOf(entry.url());
+        // entries queued behind a parked host wait their turn, so the probe is always the oldest entry
+        if (host == null || (!parked.containsKey(host) && breakers.allow(host))) {
+            return true;
+        }
+        if (size >= maxParked) {
+            dropped++;
+            return false;
+        }
+        parked.computeIfAbsent(host, ignored -> new ArrayDeque<>()).add(entry);
+        size++;
+        totalParked++;
+        return false;
+    }
+
+    /**
+     * @return Parked entries that may be dispatched now
+     */
+    public synchronized List<Frontier.Entry> release() {
+        List<Frontier.Entry> released = new ArrayList<>();
+        Iterator<Map.Entry<String, ArrayDeque<Frontier.Entry>>> hosts = parked.entrySet().iterator();
+        while (hosts.hasNext()) {
+            Map.Entry<String, ArrayDeque<Frontier.Entry>> host = hosts.next();
+            ArrayDeque<Frontier.Entry> entries = host.getValue();
+            if (breakers.isClosed(host.getKey())) {
+                released.addAll(entries);
+                size -= entries.size();
+                hosts.remove();
+            } else if (breakers.allow(host.getKey())) {
+                released.add(entries.poll());
+                size--;
+                if (entries.isEmpty()) {
+                    hosts.remove();
+                }
+            }
+        }
+        return released;
+    }
+
+    /**
+     * @return true if any entry is parked
+     */
+    public synchronized boolean hasParked() {
+        return size > 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Quarantine: %d URLs parked on %d hosts now, %d parked in total, %d dropped",
+                size, parked.size(), totalParked, dropped);
+    }
+
+    private final HostBreakers breakers;
+    private final int maxParked;
+    private final Map<String, ArrayDeque<Frontier.Entry>> parked = new LinkedHashMap<>();
+    private int size;
+    private long totalParked;
+    private long dropped;
+}
@@ -0,0 +1,176 @@
+package org.neu;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neu.util.Fingerprint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits the links of a page into the crawl's shared visited set, parent map and frontier, once per page instead
+ * of once per link.
+ *
+ * <p>
+ * Every worker thread keeps a small cache of the fingerprints of URLs it admitted recently. Links found there were
+ * claimed already, by this worker, so they skip the shared structures altogether; navigation links repeated on
+ * every page of a site mostly end here. The rest are claimed in one {@link Frontier#addAll(List, Frontier.Seed)}
+ * call, which takes the visited set's and the frontier's locks once each, and the new ones enter the parent map in
+ * one `putAll`. Nothing is held back past the page, so the frontier is complete when its dedupe task ends.
+ * </p>
+ *
+ * <p>
+ * Instead of logging every link, counters are kept and a summary is logged every `logEvery` links. The former
+ * path, one shared update and one log line per link, remains for comparison.
+ * </p>
+ */
+public class LinkAdmission {
+
+    /**
+     * @param batched false to admit and log links one at a time, as before, for comparison
+     * @param recentCacheSize Fingerprints each worker remembers, rounded up to a power of two; 0 for none
+     * @param logEvery Links between progress log lines; 0 for none
+     */
+    public LinkAdmission(boolean batched, int recentCacheSize, long logEvery) {
+        this.batched = batched;
+        this.cacheMask = recentCacheSize <= 0 ? -1 : Integer.highestOneBit(Math.max(1, recentCacheSize - 1)) * 2 - 1;
+        this.logEvery = logEvery;
+        int size = cacheMask + 1;
+        this.local = ThreadLocal.withInitial(() -> new RecentUrls(size));
+    }
+
+    /**
+     * Admit the links of one page.
+     *
+     * @param frontier
+     * @param childToParent Receives the page as parent of every link admitted for the first time
+     * @param parent The page
+     * @param seed The seed whose subgraph the page is in
+     * @param links The page's links, without repeats
+     * @return The links that were new and have been enqueued
+     */
+    public List<String> admit(Frontier frontier, Map<String, String> childToParent, String parent, Frontier.Seed seed, List<String> links) {
+        if (!batched) {
+            return admitEach(frontier, childToParent, parent, seed, links);
+        }
+        long[] recent = recent();
+        List<String> candidates = new ArrayList<>(links.size());
+        long[] fingerprints = new long[links.size()];
+        for (String link : links) {
+            long fingerprint = Fingerprint.of(link);
+            if (recent != null && fingerprint != 0 && recent[slot(fingerprint)] == fingerprint) {
+                continue;
+            }
+            fingerprints[candidates.size()] = fingerprint;
+            candidates.add(link);
+        }
+
+        List<String> admitted = candidates.isEmpty() ? List.of() : frontier.addAll(candidates, seed);
+        if (!admitted.isEmpty()) {
+            Map<String, String> parents = new HashMap<>(admitted.size() * 2);
+            for (String link : admitted) {
+                parents.put(link, parent);
+            }
+            childToParent.putAll(parents);
+        }
+        if (recent != null) {
+            for (int i = 0; i < candidates.size(); i++) {
+                recent[slot(fingerprints[i])] = fingerprints[i];
+            }
+        }
+
+        pages.increment();
+        recentHits.add(links.size() - candidates.size());
+        claimed.add(admitted.size());
+        long before = discovered.getAndAdd(links.size());
+        if (logEvery > 0 && before / logEvery != (before + links.size()) / logEvery) {
+            logger.info("Discovered {} links so far, {} new; latest page {} had {}", before + links.size(), claimed.sum(), parent, links.size());
+        }
+        return admitted;
+    }
+
+    private List<String> admitEach(Frontier frontier, Map<String, String> childToParent, String parent, Frontier.Seed seed, List<String> links) {
+        List<String> admitted = new ArrayList<>();
+        for (String link : links) {
+            logger.info("Current link being processed: {}", link);
+            if (frontier.add(link, seed)) {
+                childToParent.put(link, parent);
+                admitted.add(link);
+            }
+        }
+        pages.increment();
+        claimed.add(admitted.size());
+        discovered.addAndGet(links.size());
+        return admitted;
+    }
+
+    /**
+     * Forget the recent URLs of every worker, for when the visited set is cleared.
+     */
+    public void clear() {
+        epoch++;
+    }
+
+    /**
+     * @return This thread's cache of recent fingerprints, emptied if the crawl state was cleared, or null if there is
+     *         no cache
+     */
+    private long[] recent() {
+        if (cacheMask < 0) {
+            return null;
+        }
+        RecentUrls local = this.local.get();
+        if (local.epoch != epoch) {
+            Arrays.fill(local.fingerprints, 0);
+            local.epoch = epoch;
+        }
+        return local.fingerprints;
+    }
+
+    private int slot(long fingerprint) {
+        return (int) fingerprint & cacheMask;
+    }
+
+    /**
+     * @return Human-readable report
+     */
+    public String report() {
+        long links = discovered.get();
+        return String.format(Locale.ROOT, "Admission (%s): %d links from %d pages, %d (%.1f%%) answered by workers' recent-URL caches, %d new URLs enqueued",
+                batched ? "batched" : "per link", links, pages.sum(), recentHits.sum(), links == 0 ? 0.0 : 100.0 * recentHits.sum() / links, claimed.sum());
+    }
+
+    public long getDiscovered() {
+        return discovered.get();
+    }
+
+    public long getRecentHits() {
+        return recentHits.sum();
+    }
+
+    private static final class RecentUrls {
+        RecentUrls(int size) {
+            this.fingerprints = new long[size];
+        }
+
+        final long[] fingerprints;
+        int epoch;
+    }
+
+    private final boolean batched;
+    private final int cacheMask;
+    private final long logEvery;
+    private final ThreadLocal<RecentUrls> local;
+    private volatile int epoch;
+    private final AtomicLong discovered = new AtomicLong();
+    private final LongAdder pages = new LongAdder();
+    private final LongAdder recentHits = new LongAdder();
+    private final LongAdder claimed = new LongAdder();
+    private static final Logger logger = LogManager.getLogger(LinkAdmission.class);
+}
@@ -2,13 +2,21 @@ package org.neu;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.neu.benchmark.BenchmarkAdmission;
 import org.neu.benchmark.BenchmarkAsyncCrawler;
+import org.neu.benchmark.BenchmarkConcurrentSessions;
+import org.neu.benchmark.BenchmarkGraphWriters;
+import org.neu.benchmark.BenchmarkLinkAnalysis;
+import org.neu.benchmark.BenchmarkLinkScan;
 import org.neu.benchmark.BenchmarkSyncCrawler;
 import org.neu.benchmark.Benchmarker;
+import org.neu.benchmark.ThroughputSweep;
 
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -23,6 +31,48 @@ public class Main {
         RuntimeConfig runtimeConfig = RuntimeConfig.getInstance();
 
 
+        if (runtimeConfig.sweepFile != null) {
+            Benchmarker sweep = new ThroughputSweep();
+
+            sweep.benchmark(runtimeConfig.rootUrl);
+            return;
+        }
+
+        if (runtimeConfig.admissionBenchmarkPages > 0) {
+            Benchmarker admissionBenchmarker = new BenchmarkAdmission();
+
+            admissionBenchmarker.benchmark(runtimeConfig.rootUrl);
+            return;
+        }
+
+        if (runtimeConfig.writerBenchmarkLinks > 0) {
+            Benchmarker writerBenchmarker = new BenchmarkGraphWriters();
+
+            writerBenchmarker.benchmark(runtimeConfig.rootUrl);
+            return;
+        }
+
+        if (runtimeConfig.scanBenchmarkMb > 0) {
+            Benchmarker scanBenchmarker = new BenchmarkLinkScan();
+
+            scanBenchmarker.benchmark(runtimeConfig.rootUrl);
+            return;
+        }
+
+        if (runtimeConfig.rankBenchmarkEdges > 0) {
+            Benchmarker rankBenchmarker = new BenchmarkLinkAnalysis();
+
+            rankBenchmarker.benchmark(runtimeConfig.rootUrl);
+            return;
+        }
+
+        if (!runtimeConfig.sessionCounts.isEmpty()) {
+            Benchmarker sessionsBenchmarker = new BenchmarkConcurrentSessions();
+
+            sessionsBenchmarker.benchmark(runtimeConfig.rootUrl);
+            return;
+        }
+
         if (runtimeConfig.syncMode) {
             Benchmarker syncBenchmarker = new BenchmarkSyncCrawler();
 
@@ -44,7 +94,7 @@ public class Main {
      * @throws RuntimeException
      * @throws NumberFormatException
      */
-    public static void handleArgs(String[] args) throws RuntimeException, NumberFormatException, MalformedURLException {
+    public static void handleArgs(String[] args) throws RuntimeException, NumberFormatException {
         if (args.length == 0) {
             logger.fatal("\nPlease provide method of running, and time for benchmarks.\nSee --help for more usage.");
             throw new RuntimeException("InvalidArgumentException");
@@ -62,7 +112,7 @@ public class Main {
 
 
             if (arg.equals("help")) {
-                logger.fatal("\nTo run the crawler in either sync or async mode, provide arguments in this way: --[method]=[time_in_milliseconds]\nFor eg.\njava Main --async=40000\njava Main --sync=20000");
+                logger.fatal("\n" + USAGE);
                 System.exit(1);
             }
 
@@ -94,6 +144,314 @@ public class Main {
                         System.exit(1);
                     }
                 }
+                else if (key.equals("strategy")) {
+                    if (!STRATEGIES.contains(value)) {
+                        logger.fatal("Invalid execution strategy: {}. Expected one of single, fixed, virtual, forkjoin.", value);
+                        throw new RuntimeException("InvalidArgumentException");
+                    }
+                    runtimeConfig.strategy = value;
+                }
+                else if (key.equals("threads")) {
+                    runtimeConfig.threads = parsePositive(key, value);
+                }
+                else if (key.equals("store")) {
+                    if (!STORES.contains(value)) {
+                        logger.fatal("Invalid store: {}. Expected async, sync or memory.", value);
+                        throw new RuntimeException("InvalidArgumentException");
+                    }
+                    runtimeConfig.store = value;
+                }
+                else if (key.equals("write_behind")) {
+                    runtimeConfig.writeBehind = Boolean.parseBoolean(value);
+                }
+                else if (key.equals("writer_lanes")) {
+                    runtimeConfig.writerLanes = Integer.parseInt(value);
+                    if (runtimeConfig.writerLanes < 0) {
+                        logger.fatal("Invalid value {} for --{}. Expected 0 or more lanes.", value, key);
+                        throw new RuntimeException("InvalidArgumentException");
+                    }
+                }
+                else if (key.equals("writer_queue")) {
+                    runtimeConfig.writerLaneCapacity = parsePositive(key, value);
+                }
+                else if (key.equals("write_retries")) {
+                    runtimeConfig.writeRetries = Integer.parseInt(value);
+                }
+                else if (key.equals("write_backoff")) {
+                    runtimeConfig.writeRetryBackoffMillis = Long.parseLong(value);
+                }
+                else if (key.equals("writer_benchmark")) {
+                    runtimeConfig.writerBenchmarkLinks = Long.parseLong(value);
+                }
+                else if (key.equals("flush_size")) {
+                    runtimeConfig.writeBehindFlushSize = Integer.parseInt(value);
+                }
+                else if (key.equals("flush_interval")) {
+                    runtimeConfig.writeBehindFlushMillis = Long.parseLong(value);
+                }
+                else if (key.equals("memory_budget_mb")) {
+                    runtimeConfig.memoryBudgetMb = Long.parseLong(value);
+                }
+                else if (key.equals("spill_dir")) {
+                    runtimeConfig.spillDir = value;
+                }
+                else if (key.equals("lazy_db_init")) {
+                    runtimeConfig.lazyDbInit = Boolean.parseBoolean(value);
+                }
+                else if (key.equals("reset")) {
+                    if (!List.of("chunked", "concurrent", "recreate").contains(value)) {
+                        logger.fatal("Invalid reset mode: {}. Expected one of chunked, concurrent, recreate.", value);
+                        throw new RuntimeException("InvalidArgumentException");
+                    }
+                    runtimeConfig.resetMode = value;
+                }
+                else if (key.equals("reset_batch")) {
+                    runtimeConfig.resetBatchRows = Integer.parseInt(value);
+                }
+                else if (key.equals("keep_data")) {
+                    runtimeConfig.keepDataOnClose = Boolean.parseBoolean(value);
+                }
+                else if (key.equals("seed_file")) {
+                    if (!Files.isReadable(Path.of(value))) {
+                        logger.fatal("--seed_file={} does not exist or is not readable.", value);
+                        System.exit(1);
+                    }
+                    runtimeConfig.seedFile = value;
+                }
+                else if (key.equals("max_active_seeds")) {
+                    runtimeConfig.maxActiveSeeds = parsePositive(key, value);
+                }
+                else if (key.equals("batch_size")) {
+                    runtimeConfig.dispatchBatchSize = parsePositive(key, value);
+                }
+                else if (key.equals("parse_threads")) {
+                    runtimeConfig.parseThreads = Integer.parseInt(value);
+                }
+                else if (key.equals("dedupe_threads")) {
+                    runtimeConfig.dedupeThreads = parsePositive(key, value);
+                }
+                else if (key.equals("persist_threads")) {
+                    runtimeConfig.persistThreads = parsePositive(key, value);
+                }
+                else if (key.equals("stage_queue")) {
+                    runtimeConfig.stageQueueSize = parsePositive(key, value);
+                }
+                else if (key.equals("batched_admission")) {
+                    runtimeConfig.batchedAdmission = Boolean.parseBoolean(value);
+                }
+                else if (key.equals("admission_benchmark")) {
+                    runtimeConfig.admissionBenchmarkPages = Long.parseLong(value);
+                }
+                else if (key.equals("recent_url_cache")) {
+                    runtimeConfig.recentUrlCache = Integer.parseInt(value);
+                }
+                else if (key.equals("discovery_log_every")) {
+                    runtimeConfig.discoveryLogEvery = Long.parseLong(value);
+                }
+                else if (key.equals("dns_cache")) {
+                    runtimeConfig.dnsCache = Boolean.parseBoolean(value);
+                }
+                else if (key.equals("dns_ttl")) {
+                    runtimeConfig.dnsTtlMillis = Long.parseLong(value);
+                }
+                else if (key.equals("dns_negative_ttl")) {
+                    runtimeConfig.dnsNegativeTtlMillis = Long.parseLong(value);
+                }
+                else if (key.equals("redirect_cache")) {
+                    runtimeConfig.redirectCacheSize = Integer.parseInt(value);
+                }
+                else if (key.equals("failure_cache")) {
+                    runtimeConfig.failureCacheSize = Integer.parseInt(value);
+                }
+                else if (key.equals("failure_ttl")) {
+                    runtimeConfig.failureTtlMillis = Long.parseLong(value);
+                }
+                else if (key.equals("connect_timeout")) {
+                    runtimeConfig.connectTimeoutMillis = Integer.parseInt(value);
+                }
+                else if (key.equals("read_timeout")) {
+                    runtimeConfig.readTimeoutMillis = Integer.parseInt(value);
+                }
+                else if (key.equals("read_deadline")) {
+                    runtimeConfig.readDeadlineMillis = Long.parseLong(value);
+                }
+                else if (key.equals("max_body_kb")) {
+                    runtimeConfig.maxBodyBytes = Long.parseLong(value) * 1024;
+                }
+                else if (key.equals("parse_limit_kb")) {
+                    runtimeConfig.parseLimitBytes = Long.parseLong(value) * 1024;
+                }
+                else if (key.equals("compression")) {
+                    runtimeConfig.compression = Boolean.parseBoolean(value);
+                }
+                else if (key.equals("archive")) {
+                    runtimeConfig.archiveDir = value;
+                }
+                else if (key.equals("archive_segment_mb")) {
+                    int segmentMb = Integer.parseInt(value);
+                    if (segmentMb < 1 || segmentMb > 2047) {
+                        logger.fatal("Invalid archive segment size: {}MB. Expected 1 to 2047.", value);
+                        throw new RuntimeException("InvalidArgumentException");
+                    }
+                    runtimeConfig.archiveSegmentMb = segmentMb;
+                }
+                else if (key.equals("replay")) {
+                    if (!Files.isDirectory(Path.of(value))) {
+                        logger.fatal("--replay={} is not a directory.", value);
+                        System.exit(1);
+                    }
+                    runtimeConfig.replayDir = value;
+                }
+                else if (key.equals("event_buffer")) {
+                    runtimeConfig.eventBufferSize = Integer.parseInt(value);
+                }
+                else if (key.equals("trap_detection")) {
+                    runtimeConfig.trapDetection = Boolean.parseBoolean(value);
+                }
+                else if (key.equals("max_pages_per_host")) {
+                    runtimeConfig.maxPagesPerHost = Integer.parseInt(value);
+                }
+                else if (key.equals("max_path_depth")) {
+                    runtimeConfig.maxPathDepth = Integer.parseInt(value);
+                }
+                else if (key.equals("max_repeated_segments")) {
+                    runtimeConfig.maxRepeatedSegments = Integer.parseInt(value);
+                }
+                else if (key.equals("max_pattern_urls")) {
+                    runtimeConfig.maxPatternUrls = Integer.parseInt(value);
+                }
+                else if (key.equals("trap_sample_every")) {
+                    runtimeConfig.trapSampleEvery = Integer.parseInt(value);
+                }
+                else if (key.equals("sweep")) {
+                    runtimeConfig.sweepFile = value;
+                }
+                else if (key.equals("sweep_durations")) {
+                    runtimeConfig.sweepDurations = Arrays.stream(value.split(",")).map(Long::parseLong).toList();
+                }
+                else if (key.equals("sweep_strategies")) {
+                    runtimeConfig.sweepStrategies = parseChoices(key, value, STRATEGIES);
+                }
+                else if (key.equals("sweep_threads")) {
+                    runtimeConfig.sweepThreads = Arrays.stream(value.split(",")).map(Integer::parseInt).toList();
+                }
+                else if (key.equals("sweep_stores")) {
+                    runtimeConfig.sweepStores = parseChoices(key, value, STORES);
+                }
+                else if (key.equals("sweep_repeats")) {
+                    runtimeConfig.sweepRepeats = Integer.parseInt(value);
+                }
+                else if (key.equals("sweep_warmup")) {
+                    runtimeConfig.sweepWarmupMillis = Long.parseLong(value);
+                }
+                else if (key.equals("sweep_window")) {
+                    runtimeConfig.sweepWindowMillis = Long.parseLong(value);
+                }
+                else if (key.equals("sweep_target")) {
+                    if (!List.of("local", "root_url").contains(value)) {
+                        logger.fatal("Invalid sweep target: {}. Expected local or root_url.", value);
+                        throw new RuntimeException("InvalidArgumentException");
+                    }
+                    runtimeConfig.sweepTarget = value;
+                }
+                else if (key.equals("synthetic_pages")) {
+                    runtimeConfig.syntheticPages = Integer.parseInt(value);
+                }
+                else if (key.equals("synthetic_links")) {
+                    runtimeConfig.syntheticLinks = Integer.parseInt(value);
+                }
+                else if (key.equals("synthetic_page_kb")) {
+                    runtimeConfig.syntheticPageBytes = Integer.parseInt(value) * 1024;
+                }
+                else if (key.equals("synthetic_latency")) {
+                    runtimeConfig.syntheticLatencyMillis = Long.parseLong(value);
+                }
+                else if (key.equals("sitemaps")) {
+                    runtimeConfig.sitemapSeeding = Boolean.parseBoolean(value);
+                }
+                else if (key.equals("sitemap_max_urls")) {
+                    runtimeConfig.sitemapMaxUrls = Integer.parseInt(value);
+                }
+                else if (key.equals("sitemap_max_documents")) {
+                    runtimeConfig.sitemapMaxDocuments = Integer.parseInt(value);
+                }
+                else if (key.equals("sitemap_max_mb")) {
+                    runtimeConfig.sitemapMaxBytes = Long.parseLong(value) * 1024 * 1024;
+                }
+                else if (key.equals("sessions")) {
+                    runtimeConfig.sessionCounts = Arrays.stream(value.split(",")).map(Integer::parseInt).toList();
+                }
+                else if (key.equals("retries")) {
+                    runtimeConfig.retries = Integer.parseInt(value);
+                }
+                else if (key.equals("retry_backoff")) {
+                    runtimeConfig.retryBackoffMillis = Long.parseLong(value);
+                }
+                else if (key.equals("retry_budget")) {
+                    runtimeConfig.retryBudgetRatio = Double.parseDouble(value);
+                }
+                else if (key.equals("hedging")) {
+                    runtimeConfig.hedging = Boolean.parseBoolean(value);
+                }
+                else if (key.equals("hedge_quantile")) {
+                    double quantile = Double.parseDouble(value);
+                    if (quantile <= 0 || quantile >= 1) {
+                        logger.fatal("Invalid hedge quantile: {}. Expected a value between 0 and 1.", value);
+                        throw new RuntimeException("InvalidArgumentException");
+                    }
+                    runtimeConfig.hedgeQuantile = quantile;
+                }
+                else if (key.equals("circuit_breaker")) {
+                    runtimeConfig.circuitBreaker = Boolean.parseBoolean(value);
+                }
+                else if (key.equals("breaker_failures")) {
+                    runtimeConfig.breakerFailures = Integer.parseInt(value);
+                }
+                else if (key.equals("breaker_cooldown")) {
+                    runtimeConfig.breakerCooldownMillis = Long.parseLong(value);
+                }
+                else if (key.equals("max_parked")) {
+                    runtimeConfig.maxParkedUrls = Integer.parseInt(value);
+                }
+                else if (key.equals("link_analysis")) {
+                    runtimeConfig.linkAnalysis = Boolean.parseBoolean(value);
+                }
+                else if (key.equals("rank_damping")) {
+                    double damping = Double.parseDouble(value);
+                    if (damping <= 0 || damping >= 1) {
+                        logger.fatal("Invalid damping factor: {}. Expected a value between 0 and 1.", value);
+                        throw new RuntimeException("InvalidArgumentException");
+                    }
+                    runtimeConfig.rankDamping = damping;
+                }
+                else if (key.equals("rank_epsilon")) {
+                    runtimeConfig.rankEpsilon = Double.parseDouble(value);
+                }
+                else if (key.equals("rank_max_iterations")) {
+                    runtimeConfig.rankMaxIterations = Integer.parseInt(value);
+                }
+                else if (key.equals("rank_top")) {
+                    runtimeConfig.rankTop = Integer.parseInt(value);
+                }
+                else if (key.equals("rank_benchmark")) {
+                    runtimeConfig.rankBenchmarkEdges = Long.parseLong(value);
+                }
+                else if (key.equals("buffer_pool_size")) {
+                    runtimeConfig.bufferPoolSize = Integer.parseInt(value);
+                }
+                else if (key.equals("read_buffer_kb")) {
+                    runtimeConfig.readBufferSize = Integer.parseInt(value) * 1024;
+                }
+                else if (key.equals("link_scanner")) {
+                    if (!value.equals("chars") && !value.equals("bytes") && !value.equals("vector")) {
+                        logger.fatal("Invalid link scanner: {}, expected chars, bytes or vector", value);
+                        throw new RuntimeException("InvalidArgumentException");
+                    }
+                    runtimeConfig.linkScanner = value;
+                }
+                else if (key.equals("scan_benchmark")) {
+                    runtimeConfig.scanBenchmarkMb = parsePositive(key, value);
+                }
                 else {
                     logger.fatal("Invalid argument key: {} in argument --{}", key, arg);
                     throw new RuntimeException("InvalidArgumentException");
@@ -104,5 +462,157 @@ public class Main {
 
     }
 
+    /**
+     * @param key
+     * @param value
+     * @return `value`, which must be a positive number
+     */
+    private static int parsePositive(String key, String value) {
+        int count = Integer.parseInt(value);
+        if (count < 1) {
+            logger.fatal("Invalid value {} for --{}. Expected a positive number.", value, key);
+            throw new RuntimeException("InvalidArgumentException");
+        }
+        return count;
+    }
+
+    /**
+     * Parse a comma-separated list of names, each of which must be one of `allowed`.
+     *
+     * @param key
+     * @param value
+     * @param allowed
+     * @return The names, in order
+     */
+    private static List<String> parseChoices(String key, String value, List<String> allowed) {
+        List<String> choices = Arrays.asList(value.split(","));
+        for (String choice : choices) {
+            if (!allowed.contains(choice)) {
+                logger.fatal("Invalid value {} for --{}. Expected any of {}.", choice, key, allowed);
+                throw new RuntimeException("InvalidArgumentException");
+            }
+        }
+        return choices;
+    }
+
+    /** Usage printed by --help, one line per option. */
+    private static final String USAGE = String.join("\n",
+            "To run the crawler in either sync or async mode, provide arguments in this way: --[method]=[time_in_milliseconds]",
+            "For eg.",
+            "java Main --async=40000",
+            "java Main --sync=20000",
+            "",
+            "Crawl:",
+            "  --root_url=[url]                     Page to start from",
+            "  --strategy=[single|fixed|virtual|forkjoin]  Execution model of the async run; the sync run is always single-threaded",
+            "  --threads=[n]                        Worker threads of the async run",
+            "  --verbose                            Also print URLs by rank and per-seed statistics",
+            "",
+            "Storage:",
+            "  --store=[async|sync|memory]          Where links are stored",
+            "  --write_behind=[true|false]          Buffer links in a write-behind cache",
+            "  --flush_size=[n]                     Links per write-behind flush",
+            "  --flush_interval=[ms]                Longest a link waits for a flush",
+            "  --writer_lanes=[n, 0 for none]       Lanes writing links by hash of the linked-to page",
+            "  --writer_queue=[n]                   Writes queued per lane",
+            "  --write_retries=[n]                  Retries of a transiently failed write",
+            "  --write_backoff=[ms]                 First backoff between write retries",
+            "  --lazy_db_init=[true|false]          Connect in the background while the first pages are fetched",
+            "  --reset=[chunked|concurrent|recreate]  How the graph is wiped on close",
+            "  --reset_batch=[rows]                 Rows deleted per chunk",
+            "  --keep_data=[true|false]             Keep the graph on close",
+            "",
+            "Seeds:",
+            "  --seed_file=[path]                   Crawl from many seeds, one URL per line",
+            "  --max_active_seeds=[n]               Seeds in the round-robin rotation at once",
+            "  --batch_size=[n]                     URLs dispatched per batch",
+            "  --sitemaps=[true|false]              Stream each site's robots.txt sitemaps and feeds in as extra seeds",
+            "  --sitemap_max_urls=[n]               Sitemap URLs per site",
+            "  --sitemap_max_documents=[n]          Sitemap documents per site",
+            "  --sitemap_max_mb=[MB]                Sitemap bytes per site",
+            "",
+            "Memory:",
+            "  --memory_budget_mb=[MB]              Keep crawl state within a heap budget",
+            "  --spill_dir=[path]                   Where frontier overflow is spilled",
+            "  --event_buffer=[n]                   Events each Crawler.events() subscriber buffers before the crawl waits for it",
+            "",
+            "Crawler traps:",
+            "  --trap_detection=[true|false]        Refuse crawler traps",
+            "  --max_pages_per_host=[n, 0 for none]",
+            "  --max_path_depth=[n]",
+            "  --max_repeated_segments=[n]",
+            "  --max_pattern_urls=[n]",
+            "  --trap_sample_every=[n]",
+            "",
+            "Fetching:",
+            "  --dns_cache=[true|false]",
+            "  --dns_ttl=[ms]",
+            "  --dns_negative_ttl=[ms]",
+            "  --redirect_cache=[n, 0 for none]     Rewrite links to known redirects to their final URL",
+            "  --failure_cache=[n, 0 for none]      Do not fetch recently failed URLs again",
+            "  --failure_ttl=[ms]                   How long a failure is remembered",
+            "  --archive=[dir]                      Archive every response to rolling WARC-style segments",
+            "  --archive_segment_mb=[MB]",
+            "  --replay=[dir]                       Crawl an archive again at local speed instead of the network",
+            "  --connect_timeout=[ms]",
+            "  --read_timeout=[ms]",
+            "  --read_deadline=[ms]",
+            "  --max_body_kb=[KB]",
+            "  --parse_limit_kb=[KB]",
+            "  --compression=[true|false]",
+            "  --buffer_pool_size=[n]",
+            "  --read_buffer_kb=[KB]",
+            "  --link_scanner=[chars|bytes|vector]  Find links in decoded text, in undecoded UTF-8 and other ASCII-compatible",
+            "                                       pages, or in SIMD lanes (needs --add-modules jdk.incubator.vector)",
+            "",
+            "Pipeline (fetch, parse, dedupe and persist stages):",
+            "  --parse_threads=[n, -1 for one per core]",
+            "  --dedupe_threads=[n]",
+            "  --persist_threads=[n]",
+            "  --stage_queue=[pages per stage]",
+            "  --batched_admission=[true|false]     Admit each page's links in one batch",
+            "  --recent_url_cache=[n, 0 for none]   URLs the dedupe stage skips without checking the visited set",
+            "  --discovery_log_every=[links]",
+            "",
+            "Tail control:",
+            "  --retries=[n]",
+            "  --retry_backoff=[ms]",
+            "  --retry_budget=[extra requests per request, e.g. 0.1]",
+            "  --hedging=[true|false]",
+            "  --hedge_quantile=[0-1]",
+            "  --circuit_breaker=[true|false]        Park hosts that keep timing out",
+            "  --breaker_failures=[n]",
+            "  --breaker_cooldown=[ms]",
+            "  --max_parked=[n]",
+            "",
+            "Link analysis:",
+            "  --link_analysis=[true|false]         Rank crawled pages in memory with PageRank and HITS",
+            "  --rank_damping=[0.85]",
+            "  --rank_epsilon=[1e-6]",
+            "  --rank_max_iterations=[n]",
+            "  --rank_top=[n]",
+            "",
+            "Benchmarks:",
+            "java Main --sweep=artifacts/sweep.csv   Sweep throughput over many configurations into a CSV (plus an SVG plot)",
+            "  --sweep_durations=[20000,60000]",
+            "  --sweep_strategies=[fixed,virtual]",
+            "  --sweep_threads=[8,32,128]",
+            "  --sweep_stores=[async,memory]",
+            "  --sweep_repeats=[n]",
+            "  --sweep_warmup=[ms]",
+            "  --sweep_window=[ms]",
+            "  --sweep_target=[local|root_url]      A local synthetic site, shaped with the options below, or --root_url",
+            "  --synthetic_pages=[n]",
+            "  --synthetic_links=[n]",
+            "  --synthetic_page_kb=[KB]",
+            "  --synthetic_latency=[ms]",
+            "java Main --async=30000 --sessions=1,2,4,8   Concurrent crawl sessions sharing threads, buffers and store",
+            "java Main --admission_benchmark=[pages]      Link admission alone, per link and batched, at each of --sweep_threads",
+            "java --add-modules jdk.incubator.vector Main --scan_benchmark=[MB]   The link scanners on generated HTML",
+            "java Main --rank_benchmark=[links]          Link analysis on a synthetic graph of --synthetic_links links per page",
+            "java Main --writer_benchmark=[links]        --threads concurrent writers with and without writer lanes");
+
+    private static final List<String> STRATEGIES = List.of("single", "fixed", "virtual", "forkjoin");
+    private static final List<String> STORES = List.of("async", "sync", "memory");
     private static final Logger logger = LogManager.getLogger(Main.class);
 }
\ No newline at end of file
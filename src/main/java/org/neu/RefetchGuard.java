@@ -0,0 +1,188 @@
+package org.neu;
+
+import org.neu.fetch.FailureCache;
+import org.neu.fetch.FetchOutcome;
+import org.neu.fetch.RedirectCache;
+import org.neu.memory.VisitedSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a crawl from fetching a page again under another URL, using the redirects and failures seen so far.
+ *
+ * <p>
+ * A page fetched through a redirect was read from its final URL, so that URL is claimed in the visited set as soon
+ * as the fetch is done, both as the connection reported it and in the form links take (see
+ * {@link RedirectCache#key(String)}); a later link straight to it is then deduplicated like any other. Links to a
+ * URL known to redirect are rewritten to its final URL before they are admitted, and the source URL is claimed as well, so the
+ * redirect is not followed again. A fetch that failed for good is remembered in the {@link FailureCache}, with the
+ * final URL of its redirects, and URLs found there are refused when they are claimed.
+ * </p>
+ *
+ * <p>
+ * Both caches may be shared with other crawl sessions and outlive this crawl, which is where most failures pay off:
+ * within one crawl a failed URL is already in the visited set. Each avoided fetch is counted once: a claimed redirect
+ * target the first time it is linked, a redirect source the first time it is rewritten while its target was already
+ * claimed, and a failed URL whenever it would otherwise have been claimed.
+ * </p>
+ */
+public class RefetchGuard {
+
+    /**
+     * @param redirects Where fetches landed, or null to leave links as they are
+     * @param failures Recently failed URLs, or null to fetch them again
+     * @param visited The crawl's visited set
+     * @param maxTrackedTargets Most claimed redirect targets tracked until first linked, for counting
+     */
+    public RefetchGuard(RedirectCache redirects, FailureCache failures, VisitedSet visited, int maxTrackedTargets) {
+        this.redirects = redirects;
+        this.failures = failures;
+        this.visited = visited;
+        this.maxTrackedTargets = maxTrackedTargets;
+    }
+
+    /**
+     * Record how the fetch of a page ended.
+     *
+     * @param webpage
+     * @param outcome
+     */
+    public void fetched(String webpage, FetchOutcome outcome) {
+        String target = redirects == null ? webpage : redirects.resolve(webpage);
+        if (failures != null && FailureCache.isFailure(outcome)) {
+            failures.record(webpage);
+            if (!target.equals(webpage)) {
+                failures.record(target);
+            }
+            return;
+        }
+        if (target.equals(webpage) || outcome == FetchOutcome.CANCELLED) {
+            return;
+        }
+        redirected.increment();
+        String key = RedirectCache.key(target);
+        boolean claimed = visited.add(target);
+        if (!key.equals(target)) {
+            claimed = visited.add(key) || claimed;
+        }
+        if (claimed && claimedTargets.size() < maxTrackedTargets) {
+            claimedTargets.add(key);
+        }
+    }
+
+    /**
+     * Replace links to known redirects by their final URL.
+     *
+     * @param links A page's links, without repeats
+     * @param sources Receives the links that were replaced
+     * @return The links to admit, no two with the same {@link RedirectCache#key(String)}; `links` itself if none was
+     *         replaced
+     */
+    public List<String> rewrite(List<String> links, List<String> sources) {
+        if (redirects == null || (redirects.size() == 0 && claimedTargets.isEmpty())) {
+            return links;
+        }
+        List<String> rewritten = null;
+        Set<String> keys = null;
+        for (int i = 0; i < links.size(); i++) {
+            String link = links.get(i);
+            String target = redirects.resolve(link);
+            if (target.equals(link)) {
+                if (!claimedTargets.isEmpty() && claimedTargets.remove(link)) {
+                    targetsLinked.increment();
+                }
+            } else {
+                if (rewritten == null) {
+                    rewritten = new ArrayList<>(links.subList(0, i));
+                    keys = new HashSet<>();
+                    for (String kept : rewritten) {
+                        keys.add(RedirectCache.key(kept));
+                    }
+                }
+                sources.add(link);
+            }
+            // targets keep their trailing slash, so a target and a link straight to it may differ only in that
+            if (rewritten != null && keys.add(RedirectCache.key(target))) {
+                rewritten.add(target);
+            }
+        }
+        if (rewritten == null) {
+            return links;
+        }
+        linksRewritten.add(sources.size());
+        return rewritten;
+    }
+
+    /**
+     * Claim the redirect sources replaced by {@link #rewrite(List, List)}, once their targets were admitted.
+     *
+     * @param sources
+     * @param admitted The links the frontier took as new
+     */
+    public void claimSources(List<String> sources, Collection<String> admitted) {
+        if (sources.isEmpty()) {
+            return;
+        }
+        Set<String> enqueued = new HashSet<>(admitted);
+        for (String source : visited.addAll(sources)) {
+            // a target that was not new had been fetched already, so fetching the source would only redirect to it
+            if (!enqueued.contains(redirects.resolve(source))) {
+                sourcesSkipped.increment();
+            }
+        }
+    }
+
+    /**
+     * @param url A URL being claimed for the first time
+     * @return true if its fetch failed recently, so it should not be enqueued
+     */
+    public boolean isKnownFailure(String url) {
+        if (failures != null && failures.contains(url)) {
+            failuresSkipped.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Forget the claimed targets, for when the visited set is cleared. The caches are kept.
+     */
+    public void clear() {
+        claimedTargets.clear();
+    }
+
+    /**
+     * @return Fetches avoided by the redirect and failure caches
+     */
+    public long getAvoided() {
+        return targetsLinked.sum() + sourcesSkipped.sum() + failuresSkipped.sum();
+    }
+
+    /**
+     * @return Human-readable report
+     */
+    public String report() {
+        return String.format(Locale.ROOT, "Redundant fetches avoided: %d (%d links to redirect targets already fetched, %d redirects not followed again, " +
+                        "%d recently failed URLs); %d fetches redirected, %d links rewritten; caches hold %d redirects, %d failures",
+                getAvoided(), targetsLinked.sum(), sourcesSkipped.sum(), failuresSkipped.sum(), redirected.sum(), linksRewritten.sum(),
+                redirects == null ? 0 : redirects.size(), failures == null ? 0 : failures.size());
+    }
+
+    private final RedirectCache redirects;
+    private final FailureCache failures;
+    private final VisitedSet visited;
+    private final int maxTrackedTargets;
+    private final Set<String> claimedTargets = ConcurrentHashMap.newKeySet();
+    private final LongAdder redirected = new LongAdder();
+    private final LongAdder targetsLinked = new LongAdder();
+    private final LongAdder linksRewritten = new LongAdder();
+    private final LongAdder sourcesSkipped = new LongAdder();
+    private final LongAdder failuresSkipped = new LongAdder();
+}
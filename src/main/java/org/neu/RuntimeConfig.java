@@ -1,15 +1,31 @@
 package org.neu;
 
-public class RuntimeConfig {
+import java.util.List;
+
+public class RuntimeConfig implements Cloneable {
     private RuntimeConfig() {}
 
-    public static RuntimeConfig getInstance() {
+    public static synchronized RuntimeConfig getInstance() {
         if (instance == null) {
             instance = new RuntimeConfig();
         }
         return instance;
     }
 
+    /**
+     * Copy this configuration, so a crawl session can be tuned without affecting the others. List-valued options
+     * are immutable and shared.
+     *
+     * @return An independent copy
+     */
+    public RuntimeConfig copy() {
+        try {
+            return (RuntimeConfig) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
     @Override
     public String toString() {
         return "RuntimeConfig {" +
@@ -18,6 +34,99 @@ public class RuntimeConfig {
                 ", syncMode=" + syncMode +
                 ", syncTime=" + syncTime +
                 ", verbose=" + isVerbose +
+                ", strategy=" + strategy +
+                ", threads=" + threads +
+                ", store=" + store +
+                ", writeBehind=" + writeBehind +
+                ", writeBehindFlushSize=" + writeBehindFlushSize +
+                ", writeBehindFlushMillis=" + writeBehindFlushMillis +
+                ", writeBehindMaxPending=" + writeBehindMaxPending +
+                ", writerLanes=" + writerLanes +
+                ", writerLaneCapacity=" + writerLaneCapacity +
+                ", writeRetries=" + writeRetries +
+                ", writeRetryBackoffMillis=" + writeRetryBackoffMillis +
+                ", writerBenchmarkLinks=" + writerBenchmarkLinks +
+                ", lazyDbInit=" + lazyDbInit +
+                ", memoryBudgetMb=" + memoryBudgetMb +
+                ", spillDir=" + spillDir +
+                ", resetMode=" + resetMode +
+                ", resetBatchRows=" + resetBatchRows +
+                ", keepDataOnClose=" + keepDataOnClose +
+                ", seedFile=" + seedFile +
+                ", maxActiveSeeds=" + maxActiveSeeds +
+                ", sitemapSeeding=" + sitemapSeeding +
+                ", sitemapMaxUrls=" + sitemapMaxUrls +
+                ", sitemapMaxDocuments=" + sitemapMaxDocuments +
+                ", sitemapMaxBytes=" + sitemapMaxBytes +
+                ", dispatchBatchSize=" + dispatchBatchSize +
+                ", parseThreads=" + parseThreads +
+                ", dedupeThreads=" + dedupeThreads +
+                ", persistThreads=" + persistThreads +
+                ", stageQueueSize=" + stageQueueSize +
+                ", batchedAdmission=" + batchedAdmission +
+                ", recentUrlCache=" + recentUrlCache +
+                ", discoveryLogEvery=" + discoveryLogEvery +
+                ", admissionBenchmarkPages=" + admissionBenchmarkPages +
+                ", dnsCache=" + dnsCache +
+                ", dnsTtlMillis=" + dnsTtlMillis +
+                ", dnsNegativeTtlMillis=" + dnsNegativeTtlMillis +
+                ", redirectCacheSize=" + redirectCacheSize +
+                ", failureCacheSize=" + failureCacheSize +
+                ", failureTtlMillis=" + failureTtlMillis +
+                ", connectTimeoutMillis=" + connectTimeoutMillis +
+                ", readTimeoutMillis=" + readTimeoutMillis +
+                ", readDeadlineMillis=" + readDeadlineMillis +
+                ", maxBodyBytes=" + maxBodyBytes +
+                ", parseLimitBytes=" + parseLimitBytes +
+                ", compression=" + compression +
+                ", archiveDir=" + archiveDir +
+                ", archiveSegmentMb=" + archiveSegmentMb +
+                ", replayDir=" + replayDir +
+                ", retries=" + retries +
+                ", retryBackoffMillis=" + retryBackoffMillis +
+                ", retryMaxBackoffMillis=" + retryMaxBackoffMillis +
+                ", retryBudgetRatio=" + retryBudgetRatio +
+                ", retryBudgetReserve=" + retryBudgetReserve +
+                ", hedging=" + hedging +
+                ", hedgeQuantile=" + hedgeQuantile +
+                ", hedgeMinSamples=" + hedgeMinSamples +
+                ", hedgeMinDelayMillis=" + hedgeMinDelayMillis +
+                ", circuitBreaker=" + circuitBreaker +
+                ", breakerFailures=" + breakerFailures +
+                ", breakerCooldownMillis=" + breakerCooldownMillis +
+                ", breakerMaxCooldownMillis=" + breakerMaxCooldownMillis +
+                ", maxParkedUrls=" + maxParkedUrls +
+                ", bufferPoolSize=" + bufferPoolSize +
+                ", readBufferSize=" + readBufferSize +
+                ", linkScanner=" + linkScanner +
+                ", scanBenchmarkMb=" + scanBenchmarkMb +
+                ", eventBufferSize=" + eventBufferSize +
+                ", trapDetection=" + trapDetection +
+                ", maxPagesPerHost=" + maxPagesPerHost +
+                ", maxPathDepth=" + maxPathDepth +
+                ", maxRepeatedSegments=" + maxRepeatedSegments +
+                ", maxPatternUrls=" + maxPatternUrls +
+                ", trapSampleEvery=" + trapSampleEvery +
+                ", sweepFile=" + sweepFile +
+                ", sweepDurations=" + sweepDurations +
+                ", sweepStrategies=" + sweepStrategies +
+                ", sweepThreads=" + sweepThreads +
+                ", sweepStores=" + sweepStores +
+                ", sweepRepeats=" + sweepRepeats +
+                ", sweepWarmupMillis=" + sweepWarmupMillis +
+                ", sweepWindowMillis=" + sweepWindowMillis +
+                ", sweepTarget=" + sweepTarget +
+                ", syntheticPages=" + syntheticPages +
+                ", syntheticLinks=" + syntheticLinks +
+                ", syntheticPageBytes=" + syntheticPageBytes +
+                ", syntheticLatencyMillis=" + syntheticLatencyMillis +
+                ", sessionCounts=" + sessionCounts +
+                ", linkAnalysis=" + linkAnalysis +
+                ", rankDamping=" + rankDamping +
+                ", rankEpsilon=" + rankEpsilon +
+                ", rankMaxIterations=" + rankMaxIterations +
+                ", rankTop=" + rankTop +
+                ", rankBenchmarkEdges=" + rankBenchmarkEdges +
                 '}';
     }
 
@@ -29,7 +138,118 @@ public class RuntimeConfig {
 
     public boolean isVerbose = false;
 
+    public String strategy = "fixed"; // single, fixed, virtual or forkjoin
+    public int threads = -1; // -1 picks ExecutionStrategy.defaultThreads()
+    public String store = "async"; // async or sync Neo4j handler, or memory
+
+    public boolean writeBehind = true;
+    public int writeBehindFlushSize = 1000;
+    public long writeBehindFlushMillis = 200;
+    public int writeBehindMaxPending = 20_000;
+    public int writerLanes = 16; // links are written in lanes by hash of the child node; 0 writes straight through
+    public int writerLaneCapacity = 256; // writes queued per lane before callers wait
+    public int writeRetries = 5; // retries of a write failing with a transient error before it is dropped
+    public long writeRetryBackoffMillis = 50; // doubled for every further retry
+    public long writerBenchmarkLinks = 0; // set to benchmark concurrent link writes with and without lanes
+
+    public boolean lazyDbInit = true;
+
+    public long memoryBudgetMb = 0; // 0 leaves crawl state unbounded
+    public String spillDir = System.getProperty("java.io.tmpdir");
+
+    public String resetMode = "chunked"; // chunked, concurrent or recreate
+    public int resetBatchRows = 10_000;
+    public boolean keepDataOnClose = false;
+
     public String rootUrl = "https://www.wikipedia.org/";
 
+    public String seedFile = null;
+    public int maxActiveSeeds = 1000;
+    public int dispatchBatchSize = 256;
+
+    public int parseThreads = -1; // -1 for one per core
+    public int dedupeThreads = 2;
+    public int persistThreads = 2;
+    public int stageQueueSize = 1024; // pages admitted to each of the parse, dedupe and persist stages at once
+    public boolean batchedAdmission = true;
+    public int recentUrlCache = 4096; // URLs each dedupe worker remembers to skip the shared visited set; 0 for none
+    public long discoveryLogEvery = 100_000; // links between discovery progress lines in the log; 0 for none
+    public long admissionBenchmarkPages = 0; // set to benchmark link admission alone over that many pages, at each of sweepThreads
+
+    public boolean sitemapSeeding = false; // also seed from each site's robots.txt sitemaps and feeds
+    public int sitemapMaxUrls = 50_000; // per site
+    public int sitemapMaxDocuments = 100; // sitemaps and feeds per site, including those listed by indexes
+    public long sitemapMaxBytes = 50L * 1024 * 1024; // decoded size cap of one sitemap
+
+    public boolean dnsCache = true;
+    public long dnsTtlMillis = 300_000;
+    public long dnsNegativeTtlMillis = 60_000;
+    public int redirectCacheSize = 100_000; // redirects remembered from source to final URL; 0 for none
+    public int failureCacheSize = 100_000; // failed URLs remembered; 0 for none
+    public long failureTtlMillis = 600_000; // how long a failed URL is not fetched again
+
+    public int connectTimeoutMillis = 5_000;
+    public int readTimeoutMillis = 5_000;
+    public long readDeadlineMillis = 15_000;
+    public long maxBodyBytes = 5L * 1024 * 1024;
+    public long parseLimitBytes = 0; // 0 scans the whole body
+    public boolean compression = true;
+
+    public String archiveDir = null; // set to archive every response for replay
+    public int archiveSegmentMb = 1024; // below 2 GB, so a segment can be memory-mapped whole
+    public String replayDir = null; // set to serve pages from an archive instead of the network
+
+    public int retries = 2; // per page, for timeouts, refused or reset connections, 429 and 5xx
+    public long retryBackoffMillis = 100; // doubled for every further retry, with full jitter
+    public long retryMaxBackoffMillis = 2_000;
+    public double retryBudgetRatio = 0.1; // retries plus hedges allowed per original request
+    public int retryBudgetReserve = 100;
+    public boolean hedging = true;
+    public double hedgeQuantile = 0.95; // of the host's recent latencies, after which a duplicate request is sent
+    public int hedgeMinSamples = 16;
+    public long hedgeMinDelayMillis = 20;
+
+    public boolean circuitBreaker = true;
+    public int breakerFailures = 5; // consecutive timeouts or unavailable responses that open a host's breaker
+    public long breakerCooldownMillis = 30_000; // doubled after every failed probe
+    public long breakerMaxCooldownMillis = 600_000;
+    public int maxParkedUrls = 100_000; // URLs of open hosts held for later; further ones are dropped
+    public int bufferPoolSize = 64;
+    public int readBufferSize = 16 * 1024;
+    public String linkScanner = "chars"; // chars, or bytes / vector to scan ASCII-compatible pages without decoding
+    public int scanBenchmarkMb = 0; // set to benchmark the link scanners on that many MB of generated HTML
+
+    public int eventBufferSize = 1024; // crawl events buffered per subscriber before the crawl waits
+
+    public boolean trapDetection = true;
+    public int maxPagesPerHost = 50_000; // 0 for no per-host budget
+    public int maxPathDepth = 12;
+    public int maxRepeatedSegments = 2;
+    public int maxPatternUrls = 1_000; // per host and pattern; patterns with a single number in the path are exempt
+    public int trapSampleEvery = 100;
+
+    public String sweepFile = null; // set to run the throughput sweep instead of a single benchmark
+    public List<Long> sweepDurations = List.of(20_000L, 60_000L, 120_000L);
+    public List<String> sweepStrategies = List.of("fixed", "virtual");
+    public List<Integer> sweepThreads = List.of(8, 32, 128);
+    public List<String> sweepStores = List.of(); // empty sweeps only `store`
+    public int sweepRepeats = 3;
+    public long sweepWarmupMillis = 5_000;
+    public long sweepWindowMillis = 1_000;
+    public String sweepTarget = "local"; // local synthetic site, or root_url
+    public int syntheticPages = 1_000_000;
+    public int syntheticLinks = 20;
+    public int syntheticPageBytes = 16 * 1024;
+    public long syntheticLatencyMillis = 20;
+
+    public List<Integer> sessionCounts = List.of(); // set to benchmark that many concurrent crawl sessions
+
+    public boolean linkAnalysis = false; // record stored links to rank pages in memory with PageRank and HITS
+    public double rankDamping = 0.85;
+    public double rankEpsilon = 1e-6; // L1 change of the scores at which iteration stops
+    public int rankMaxIterations = 100;
+    public int rankTop = 20;
+    public long rankBenchmarkEdges = 0; // set to benchmark link analysis on a synthetic graph of that many links
+
     private static RuntimeConfig instance;
 }
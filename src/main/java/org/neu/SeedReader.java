@@ -0,0 +1,95 @@
+package org.neu;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams seed URLs from a seed file, one URL per line.
+ *
+ * <p>
+ * Lines are read lazily as the frontier asks for more seeds, so startup time and memory do not depend on
+ * the size of the seed file. Blank lines and lines starting with `#` are skipped, and so are lines that are
+ * not valid URLs.
+ * </p>
+ */
+public class SeedReader implements Iterator<String>, Closeable {
+
+    /**
+     * Opens the seed file for streaming. Nothing beyond the first buffer is read until seeds are requested.
+     *
+     * @param seedFile Path of the seed file
+     * @throws IOException If the file cannot be opened
+     */
+    public SeedReader(Path seedFile) throws IOException {
+        this.reader = Files.newBufferedReader(seedFile, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    new URL(line);
+                    next = line;
+                    return true;
+                } catch (MalformedURLException e) {
+                    logger.warn("Skipping invalid seed URL: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        exhausted = true;
+        close();
+        return false;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String seed = next;
+        next = null;
+        return seed;
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            logger.error("Failed to close seed file: {}", e.getMessage());
+        }
+    }
+
+    private final BufferedReader reader;
+    private String next;
+    private boolean exhausted;
+    private static final Logger logger = LogManager.getLogger(SeedReader.class);
+}
@@ -0,0 +1,310 @@
+package org.neu;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neu.fetch.ContentDecoder;
+import org.neu.fetch.FetchStats;
+import org.neu.fetch.LimitedInputStream;
+import org.neu.fetch.SitemapParser;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Seeds the frontier from each site's sitemaps and feeds, which list thousands of URLs per response where an HTML
+ * page yields a few dozen links.
+ *
+ * <p>
+ * The frontier reports every seed it loads (see {@link Frontier#setSeedListener}). The first seed of each site
+ * (scheme, host and port) has that site's sitemaps read: those named by `Sitemap:` lines in its robots.txt, or the
+ * well-known `/sitemap.xml`, `/sitemap_index.xml` and `/feed` when robots.txt names none. Sitemap indexes queue the
+ * sitemaps they list, up to `sitemapMaxDocuments` per site. Documents may be gzipped, either as a
+ * `Content-Encoding` or as a `.xml.gz` file.
+ * </p>
+ *
+ * <p>
+ * Sitemaps are fetched on one background thread, never under the frontier's lock, and their URLs are handed over
+ * in batches through a queue of `READY_BATCHES`; the thread waits while the queue is full, so a 50,000-URL sitemap
+ * is read only as fast as the crawl takes it. The crawl loop moves ready batches into the frontier with
+ * {@link #drainInto(Frontier, long)}, under the seed that led to the sitemap, so they share that seed's turn in the
+ * rotation and are claimed like discovered links. At most `sitemapMaxUrls` URLs are taken from each site, and
+ * sites beyond `MAX_PENDING_SITES` waiting for the thread are skipped.
+ * </p>
+ */
+public class SitemapSeeder implements Closeable {
+
+    /**
+     * @param config Timeouts and sitemap limits
+     */
+    public SitemapSeeder(RuntimeConfig config) {
+        this.config = config;
+        this.worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_PENDING_SITES), runnable -> {
+            Thread thread = new Thread(runnable, "sitemap-seeder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Read the sitemaps of the seed's site in the background, unless another seed of the site was seen before.
+     * Called under the frontier's lock, so it only schedules the work.
+     *
+     * @param seed A seed the frontier just loaded
+     */
+    public void seedLoaded(Frontier.Seed seed) {
+        String site = siteOf(seed.getUrl());
+        if (site == null || !sites.add(site)) {
+            return;
+        }
+        busy.incrementAndGet();
+        try {
+            worker.execute(() -> {
+                try {
+                    readSite(site, seed);
+                } finally {
+                    busy.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            busy.decrementAndGet();
+            sitesSkipped.increment();
+        }
+    }
+
+    /**
+     * Add the sitemap URLs read so far to the frontier, each batch under its seed.
+     *
+     * @param frontier
+     * @param waitMillis How long to wait for a first batch if none is ready
+     * @return Number of URLs the frontier took as new
+     * @throws InterruptedException
+     */
+    public int drainInto(Frontier frontier, long waitMillis) throws InterruptedException {
+        int admitted = 0;
+        Batch batch = waitMillis > 0 ? ready.poll(waitMillis, TimeUnit.MILLISECONDS) : ready.poll();
+        while (batch != null) {
+            admitted += frontier.addAll(batch.urls(), batch.seed()).size();
+            batch = ready.poll();
+        }
+        urlsEnqueued.add(admitted);
+        return admitted;
+    }
+
+    /**
+     * @return true while sitemaps are still being read or their URLs wait to be drained
+     */
+    public boolean isBusy() {
+        return busy.get() > 0 || !ready.isEmpty();
+    }
+
+    private void readSite(String site, Frontier.Seed seed) {
+        SiteReader reader = new SiteReader(site, seed);
+        try {
+            reader.discover();
+            while (!reader.pending.isEmpty() && !Thread.currentThread().isInterrupted()) {
+                reader.read(reader.pending.poll());
+            }
+            reader.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sitemap documents and limits of one site.
+     */
+    private final class SiteReader {
+        SiteReader(String site, Frontier.Seed seed) {
+            this.site = site;
+            this.seed = seed;
+        }
+
+        /**
+         * Queue the sitemaps named in the site's robots.txt, or the well-known locations if there are none.
+         */
+        void discover() {
+            List<String> named = new ArrayList<>();
+            robotsFetches.increment();
+            try (BufferedReader robots = new BufferedReader(new InputStreamReader(open(site + "/robots.txt"), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = robots.readLine()) != null) {
+                    if (line.regionMatches(true, 0, "sitemap:", 0, 8)) {
+                        named.add(line.substring(8).strip());
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("No robots.txt for {}: {}", site, e.getMessage());
+            }
+
+            if (named.isEmpty()) {
+                WELL_KNOWN.forEach(path -> queue(site + path));
+            } else {
+                named.forEach(this::queue);
+            }
+        }
+
+        /**
+         * Stream one document, handing its URLs over in batches and queueing the sitemaps it lists.
+         *
+         * @param sitemap
+         * @throws InterruptedException If the crawl closed the seeder while waiting for room in the queue
+         */
+        void read(String sitemap) throws InterruptedException {
+            documentFetches.increment();
+            try (SitemapParser parser = new SitemapParser(open(sitemap))) {
+                logger.info("Seeding from {}", sitemap);
+                for (SitemapParser.Entry entry = parser.next(); entry != null; entry = parser.next()) {
+                    if (entry.sitemap()) {
+                        queue(entry.url());
+                    } else if (siteUrls >= config.sitemapMaxUrls) {
+                        logger.info("Took {} URLs from the sitemaps of {}, skipping the rest", siteUrls, site);
+                        pending.clear();
+                        return;
+                    } else {
+                        siteUrls++;
+                        urlsDiscovered.increment();
+                        urls.add(entry.url());
+                        if (urls.size() >= BATCH_SIZE) {
+                            flush();
+                        }
+                    }
+                }
+            } catch (XMLStreamException e) {
+                logger.warn("Stopped reading malformed sitemap: {}", e.getMessage());
+            } catch (IOException e) {
+                documentsFailed.increment();
+                logger.debug("Skipping sitemap {}: {}", sitemap, e.getMessage());
+            }
+        }
+
+        void flush() throws InterruptedException {
+            if (!urls.isEmpty()) {
+                ready.put(new Batch(urls, seed));
+                urls = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+
+        private void queue(String sitemap) {
+            if (siteDocuments < config.sitemapMaxDocuments) {
+                siteDocuments++;
+                pending.add(sitemap);
+            }
+        }
+
+        final String site;
+        final Frontier.Seed seed;
+        final Deque<String> pending = new ArrayDeque<>();
+        List<String> urls = new ArrayList<>(BATCH_SIZE);
+        int siteUrls;
+        int siteDocuments;
+    }
+
+    /**
+     * URLs of one site's sitemaps, ready to be added under the seed that led to them.
+     */
+    private record Batch(List<String> urls, Frontier.Seed seed) {}
+
+    /**
+     * Open a decoded, size-capped stream of the document at `url`.
+     *
+     * @throws IOException If the request fails or does not succeed with a 2xx status
+     */
+    private InputStream open(String url) throws IOException {
+        URLConnection connection = new URL(url).openConnection();
+        connection.setConnectTimeout(config.connectTimeoutMillis);
+        connection.setReadTimeout(config.readTimeoutMillis);
+        if (config.compression) {
+            connection.setRequestProperty("Accept-Encoding", ContentDecoder.acceptEncoding());
+        }
+        if (connection instanceof HttpURLConnection http) {
+            int status = http.getResponseCode();
+            if (status / 100 != 2) {
+                http.disconnect();
+                throw new IOException("HTTP " + status);
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.readDeadlineMillis);
+        InputStream decoded = new BufferedInputStream(ContentDecoder.decode(connection.getInputStream(), connection.getContentEncoding()));
+        // a `.xml.gz` sitemap is a gzip file served as is, not a gzip encoding
+        decoded.mark(2);
+        boolean gzipped = decoded.read() == 0x1f && decoded.read() == 0x8b;
+        decoded.reset();
+        if (gzipped) {
+            decoded = new GZIPInputStream(decoded);
+        }
+        return new LimitedInputStream(decoded, config.sitemapMaxBytes, deadline);
+    }
+
+    /**
+     * @param url
+     * @return `scheme://host[:port]` of `url`, or null if it is not a valid URL
+     */
+    static String siteOf(String url) {
+        try {
+            URL parsed = new URL(url);
+            return parsed.getProtocol() + "://" + parsed.getAuthority();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Compare the URLs sitemaps yielded per request with the links HTML pages yielded per fetch.
+     *
+     * @param stats Statistics of the HTML fetches of the same crawl
+     * @return Human-readable report
+     */
+    public String report(FetchStats stats) {
+        long fetches = robotsFetches.sum() + documentFetches.sum();
+        long discovered = urlsDiscovered.sum();
+        long pages = stats.getPagesFetched();
+        return String.format(Locale.ROOT, "Sitemap seeding: %d sites (%d skipped), %d robots.txt and %d sitemap/feed requests (%d failed) " +
+                        "discovered %d URLs, %.1f per request, %d of them new to the frontier; HTML crawling discovered %d links in %d fetches, %.1f per fetch",
+                sites.size(), sitesSkipped.sum(), robotsFetches.sum(), documentFetches.sum(), documentsFailed.sum(), discovered,
+                fetches == 0 ? 0.0 : (double) discovered / fetches, urlsEnqueued.sum(),
+                stats.getLinksFound(), pages, pages == 0 ? 0.0 : (double) stats.getLinksFound() / pages);
+    }
+
+    public long getUrlsDiscovered() {
+        return urlsDiscovered.sum();
+    }
+
+    /**
+     * Stop reading sitemaps and drop the URLs not drained yet.
+     */
+    @Override
+    public void close() {
+        worker.shutdownNow();
+        ready.clear();
+    }
+
+    /** URLs handed to the frontier at once. */
+    private static final int BATCH_SIZE = 500;
+    /** Batches read ahead of the crawl, about 8,000 URLs. */
+    private static final int READY_BATCHES = 16;
+    private static final int MAX_PENDING_SITES = 10_000;
+
+    private final RuntimeConfig config;
+    private final ThreadPoolExecutor worker;
+    private final BlockingQueue<Batch> ready = new ArrayBlockingQueue<>(READY_BATCHES);
+    private final AtomicInteger busy = new AtomicInteger();
+    private final Set<String> sites = ConcurrentHashMap.newKeySet();
+    private final LongAdder sitesSkipped = new LongAdder();
+    private final LongAdder robotsFetches = new LongAdder();
+    private final LongAdder documentFetches = new LongAdder();
+    private final LongAdder documentsFailed = new LongAdder();
+    private final LongAdder urlsDiscovered = new LongAdder();
+    private final LongAdder urlsEnqueued = new LongAdder();
+    private static final List<String> WELL_KNOWN = List.of("/sitemap.xml", "/sitemap_index.xml", "/feed");
+    private static final Logger logger = LogManager.getLogger(SitemapSeeder.class);
+}
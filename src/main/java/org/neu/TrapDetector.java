@@ -0,0 +1,329 @@
+package org.neu;
+
+import org.neu.fetch.DnsCache;
+import org.neu.fetch.FetchStats;
+import org.neu.trace.FilterRejectedEvent;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detects crawler traps, such as calendars, faceted search and session IDs, that generate endless URLs, and keeps
+ * them from consuming the crawl.
+ *
+ * <p>
+ * A newly discovered URL is refused when its host has used up its page budget, its path is too deep, or a single
+ * path segment repeats too often. URLs are also reduced to a per-host pattern: digit runs, long ID-like segments
+ * and query values are replaced with placeholders. Once a pattern has admitted `maxPatternUrls` URLs it is
+ * throttled, so only every `sampleEvery`-th further URL matching it is admitted. That keeps a trickle of
+ * exploration in case the pattern was legitimate.
+ * </p>
+ *
+ * <p>
+ * A pattern whose only placeholder is one number in the path, such as `/item/#` or `/p/#`, is not throttled: one
+ * page per ID is how catalogs and archives are laid out, so such a site is bounded by its host budget alone. Traps
+ * combine values instead: dates (`/calendar/#/#/#`), facets and session IDs in the query, or ID-like segments.
+ * </p>
+ *
+ * <p>
+ * Each host tracks its `MAX_PATTERNS_PER_HOST` most recently used patterns and forgets colder ones, and only the
+ * `maxHosts` most recently seen hosts are tracked at all. A forgotten host starts over with a fresh budget, so
+ * `maxHosts` should exceed the number of hosts crawled at once.
+ * </p>
+ */
+public class TrapDetector {
+
+    /**
+     * Why a URL was refused.
+     */
+    public enum Reason {
+        HOST_BUDGET("host page budget exhausted"),
+        PATH_DEPTH("path too deep"),
+        REPEATED_SEGMENT("repeated path segment"),
+        PATTERN_THROTTLED("URL pattern throttled");
+
+        Reason(String description) {
+            this.description = description;
+        }
+
+        final String description;
+    }
+
+    /**
+     * @param maxPagesPerHost URLs admitted per host, or 0 for no limit
+     * @param maxPathDepth Maximum number of path segments
+     * @param maxRepeatedSegments Maximum occurrences of any one path segment
+     * @param maxPatternUrls URLs admitted per host and pattern before the pattern is throttled
+     * @param sampleEvery Once throttled, admit one in this many URLs of the pattern
+     */
+    public TrapDetector(int maxPagesPerHost, int maxPathDepth, int maxRepeatedSegments, int maxPatternUrls, int sampleEvery) {
+        this(maxPagesPerHost, maxPathDepth, maxRepeatedSegments, maxPatternUrls, sampleEvery, DEFAULT_MAX_HOSTS);
+    }
+
+    /**
+     * @param maxPagesPerHost URLs admitted per host, or 0 for no limit
+     * @param maxPathDepth Maximum number of path segments
+     * @param maxRepeatedSegments Maximum occurrences of any one path segment
+     * @param maxPatternUrls URLs admitted per host and pattern before the pattern is throttled
+     * @param sampleEvery Once throttled, admit one in this many URLs of the pattern
+     * @param maxHosts Most hosts tracked
+     */
+    public TrapDetector(int maxPagesPerHost, int maxPathDepth, int maxRepeatedSegments, int maxPatternUrls, int sampleEvery, int maxHosts) {
+        this.hosts = lru(maxHosts);
+        this.maxPagesPerHost = maxPagesPerHost;
+        this.maxPathDepth = maxPathDepth;
+        this.maxRepeatedSegments = maxRepeatedSegments;
+        this.maxPatternUrls = maxPatternUrls;
+        this.sampleEvery = Math.max(1, sampleEvery);
+        for (Reason reason : Reason.values()) {
+            refused.put(reason, new LongAdder());
+        }
+    }
+
+    /**
+     * Decide whether a URL not seen before may be enqueued. Admitted URLs count against their host's budget and
+     * their pattern.
+     *
+     * @param url
+     * @return true if the URL should be crawled
+     */
+    public boolean admit(String url) {
+        Reason reason = check(url);
+        if (reason == null) {
+            return true;
+        }
+        refused.get(reason).increment();
+        FilterRejectedEvent.emit(url, reason.description);
+        return false;
+    }
+
+    private Reason check(String url) {
+        String host = DnsCache.hostOf(url);
+        if (host == null) {
+            return null;
+        }
+        int pathStart = url.indexOf('/', url.indexOf("://") + 3);
+        String path = pathStart == -1 ? "/" : url.substring(pathStart);
+
+        Reason shape = checkShape(path);
+        if (shape != null) {
+            return shape;
+        }
+
+        String template = template(path);
+        Host state;
+        synchronized (hosts) {
+            state = hosts.computeIfAbsent(host, Host::new);
+        }
+        return state.admit(isEnumeration(template) ? null : template);
+    }
+
+    /**
+     * @param path Path and query of a URL
+     * @return The reason the path's shape marks it as a trap, or null
+     */
+    private Reason checkShape(String path) {
+        int end = path.length();
+        int query = path.indexOf('?');
+        if (query != -1) end = query;
+        int fragment = path.indexOf('#');
+        if (fragment != -1 && fragment < end) end = fragment;
+
+        String[] segments = path.substring(0, end).split("/");
+        int depth = 0;
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (String segment : segments) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            depth++;
+            if (occurrences.merge(segment, 1, Integer::sum) > maxRepeatedSegments) {
+                return Reason.REPEATED_SEGMENT;
+            }
+        }
+        return depth > maxPathDepth ? Reason.PATH_DEPTH : null;
+    }
+
+    /**
+     * Reduce a path to a pattern: digit runs become `#`, long segments mixing letters and digits (IDs, hashes,
+     * session tokens) become `{id}`, path parameters are dropped, and query values become `*` with the keys sorted.
+     *
+     * @param path Path and query of a URL
+     * @return The path's pattern
+     */
+    static String template(String path) {
+        int fragment = path.indexOf('#');
+        if (fragment != -1) {
+            path = path.substring(0, fragment);
+        }
+        int query = path.indexOf('?');
+        String pathPart = query == -1 ? path : path.substring(0, query);
+
+        String[] segments = pathPart.split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            int parameters = segments[i].indexOf(';');
+            segments[i] = templateSegment(parameters == -1 ? segments[i] : segments[i].substring(0, parameters));
+        }
+        StringBuilder pattern = new StringBuilder(String.join("/", segments));
+
+        if (query != -1) {
+            List<String> keys = new ArrayList<>();
+            for (String parameter : path.substring(query + 1).split("&")) {
+                int equals = parameter.indexOf('=');
+                keys.add(equals == -1 ? parameter : parameter.substring(0, equals));
+            }
+            keys.sort(null);
+            pattern.append('?');
+            for (int i = 0; i < keys.size(); i++) {
+                pattern.append(i == 0 ? "" : "&").append(keys.get(i)).append("=*");
+            }
+        }
+        return pattern.toString();
+    }
+
+    /**
+     * @param template A pattern from {@link #template(String)}
+     * @return true if the pattern's only placeholder is one number in the path
+     */
+    static boolean isEnumeration(String template) {
+        if (template.indexOf('?') != -1 || template.contains("{id}")) {
+            return false;
+        }
+        int placeholder = template.indexOf('#');
+        return placeholder != -1 && template.indexOf('#', placeholder + 1) == -1;
+    }
+
+    private static String templateSegment(String segment) {
+        int digits = 0;
+        int letters = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (Character.isDigit(c)) digits++;
+            else if (Character.isLetter(c)) letters++;
+        }
+        if (segment.length() >= ID_LENGTH && digits > 0 && letters > 0) {
+            return "{id}";
+        }
+        if (digits == 0) {
+            return segment;
+        }
+
+        StringBuilder templated = new StringBuilder(segment.length());
+        boolean inDigits = false;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (Character.isDigit(c)) {
+                if (!inDigits) templated.append('#');
+                inDigits = true;
+            } else {
+                templated.append(c);
+                inDigits = false;
+            }
+        }
+        return templated.toString();
+    }
+
+    public long getRefused(Reason reason) {
+        return refused.get(reason).sum();
+    }
+
+    public long getRefused() {
+        return refused.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Summarise what was refused and the fetch capacity that saved, valuing each refused URL at the crawl's mean
+     * fetch time.
+     *
+     * @param fetchStats Fetch statistics of the same crawl
+     * @return Multi-line human-readable report
+     */
+    public String report(FetchStats fetchStats) {
+        long total = getRefused();
+        long pages = fetchStats.getPagesFetched();
+        double meanMillis = pages == 0 ? 0 : fetchStats.getFetchNanos() / 1e6 / pages;
+
+        StringBuilder reasons = new StringBuilder();
+        refused.forEach((reason, count) -> reasons.append(reason.description).append('=').append(count.sum()).append(", "));
+
+        List<Host> tracked;
+        synchronized (hosts) {
+            tracked = new ArrayList<>(hosts.values());
+        }
+        List<Map.Entry<String, Long>> throttled = new ArrayList<>();
+        for (Host host : tracked) {
+            synchronized (host) {
+                host.patterns.forEach((template, seen) -> {
+                    if (seen[0] > maxPatternUrls) {
+                        throttled.add(Map.entry(host.name + template, seen[0]));
+                    }
+                });
+            }
+        }
+        throttled.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        StringBuilder top = new StringBuilder();
+        throttled.stream().limit(10).forEach(entry -> top.append("\n  ").append(entry.getKey()).append(" (").append(entry.getValue()).append(" URLs)"));
+
+        return String.format("Trap detection: %d URLs refused (%s)%n" +
+                        "Fetch capacity reclaimed: %.1f%% of fetch attempts, ~%.1fs of fetch time at %.2fms per page%n" +
+                        "Throttled patterns: %d%s",
+                total, reasons.toString().replaceAll(", $", ""),
+                total + pages == 0 ? 0 : 100.0 * total / (total + pages), total * meanMillis / 1000, meanMillis,
+                throttled.size(), top);
+    }
+
+    private static <V> Map<String, V> lru(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private final class Host {
+        Host(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @param template The URL's pattern, or null if it is never throttled
+         * @return The reason the URL is refused, or null after counting it as admitted
+         */
+        synchronized Reason admit(String template) {
+            if (maxPagesPerHost > 0 && admitted >= maxPagesPerHost) {
+                return Reason.HOST_BUDGET;
+            }
+            if (template != null) {
+                // one-element array so the count is bumped without a second lookup
+                long seen = ++patterns.computeIfAbsent(template, key -> new long[1])[0];
+                if (seen > maxPatternUrls && (seen - maxPatternUrls) % sampleEvery != 0) {
+                    return Reason.PATTERN_THROTTLED;
+                }
+            }
+            admitted++;
+            return null;
+        }
+
+        final String name;
+        long admitted;
+        final Map<String, long[]> patterns = lru(MAX_PATTERNS_PER_HOST);
+    }
+
+    private static final int ID_LENGTH = 16;
+    private static final int MAX_PATTERNS_PER_HOST = 4096;
+    private static final int DEFAULT_MAX_HOSTS = 100_000;
+
+    private final int maxPagesPerHost;
+    private final int maxPathDepth;
+    private final int maxRepeatedSegments;
+    private final int maxPatternUrls;
+    private final int sampleEvery;
+    private final Map<String, Host> hosts;
+    private final Map<Reason, LongAdder> refused = new EnumMap<>(Reason.class);
+}
@@ -0,0 +1,112 @@
+package org.neu.benchmark;
+
+import org.neu.Frontier;
+import org.neu.LinkAdmission;
+import org.neu.RuntimeConfig;
+import org.neu.memory.VisitedSet;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how many pages per second workers get through the dedupe stage's link admission alone, admitting links
+ * one at a time as before and a page at a time through {@link LinkAdmission}, at every worker count in
+ * `sweepThreads`.
+ *
+ * <p>
+ * `admissionBenchmarkPages` pages of `syntheticLinks` links each are generated up front. A quarter of every page's
+ * links go to the same few navigation pages, as on most sites, and the rest to random pages among
+ * `syntheticPages`. Each run starts from an empty visited set, frontier and parent map, so both paths do the same
+ * shared work; only the fetching and parsing around them are left out.
+ * </p>
+ */
+public class BenchmarkAdmission implements Benchmarker {
+
+    @Override
+    public void benchmark(String page) throws InterruptedException {
+        RuntimeConfig runtimeConfig = RuntimeConfig.getInstance();
+        int pages = (int) Math.min(Integer.MAX_VALUE, runtimeConfig.admissionBenchmarkPages);
+        List<List<String>> links = generate(pages, runtimeConfig.syntheticLinks, runtimeConfig.syntheticPages);
+
+        System.out.println("\n======================================(ADMIT) " + pages + " PAGES OF " + runtimeConfig.syntheticLinks + " LINKS===========================================\n");
+        // warm up both paths so the first row is not measuring the interpreter
+        measure(new LinkAdmission(false, 0, 0), 1, links);
+        measure(new LinkAdmission(true, runtimeConfig.recentUrlCache, 0), 1, links);
+        for (int workers : runtimeConfig.sweepThreads) {
+            for (boolean batched : new boolean[]{false, true}) {
+                LinkAdmission admission = new LinkAdmission(batched, runtimeConfig.recentUrlCache, runtimeConfig.discoveryLogEvery);
+                long nanos = measure(admission, workers, links);
+                System.out.println(String.format(Locale.ROOT, "(ADMIT) %4d workers %-8s %10.0f pages/sec in %dms, %d recent-cache hits",
+                        workers, batched ? "batched" : "per link", pages * 1e9 / Math.max(1, nanos),
+                        TimeUnit.NANOSECONDS.toMillis(nanos), admission.getRecentHits()));
+            }
+        }
+        System.out.println("\n======================================(ADMIT) FINISHED===========================================\n");
+    }
+
+    /**
+     * Admit the links of every page from `workers` threads sharing fresh crawl state.
+     *
+     * @param admission
+     * @param workers
+     * @param links Links of every page
+     * @return Wall-clock time of the run
+     * @throws InterruptedException
+     */
+    static long measure(LinkAdmission admission, int workers, List<List<String>> links) throws InterruptedException {
+        System.gc();
+        VisitedSet visited = new VisitedSet(0);
+        Iterator<String> seeds = List.of(url(0)).iterator();
+        Frontier frontier = new Frontier(seeds, 1, visited::add);
+        frontier.setBatchClaim(visited::addAll);
+        Frontier.Seed seed = frontier.nextBatch(1).get(0).seed();
+        Map<String, String> childToParent = new ConcurrentHashMap<>();
+        AtomicInteger next = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>(workers);
+        long start = System.nanoTime();
+        for (int w = 0; w < workers; w++) {
+            Thread thread = new Thread(() -> {
+                for (int i = next.getAndIncrement(); i < links.size(); i = next.getAndIncrement()) {
+                    admission.admit(frontier, childToParent, url(i), seed, links.get(i));
+                }
+            }, "admission-benchmark-" + w);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static List<List<String>> generate(int pages, int linksPerPage, int sitePages) {
+        SplittableRandom random = new SplittableRandom(42);
+        int navigation = Math.max(1, linksPerPage / 4);
+        List<List<String>> links = new ArrayList<>(pages);
+        for (int i = 0; i < pages; i++) {
+            Set<String> page = new LinkedHashSet<>();
+            for (int n = 0; n < navigation; n++) {
+                page.add(url(n + 1));
+            }
+            for (int tries = 0; page.size() < linksPerPage && tries < linksPerPage * 4; tries++) {
+                page.add(url(random.nextInt(Math.max(1, sitePages))));
+            }
+            links.add(new ArrayList<>(page));
+        }
+        return links;
+    }
+
+    private static String url(int page) {
+        return "http://bench.example/p/" + page;
+    }
+}
@@ -2,9 +2,11 @@ package org.neu.benchmark;
 
 import org.neu.Crawler;
 import org.neu.RuntimeConfig;
+import org.neu.SeedReader;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.nio.file.Path;
 
 /**
  * Benchmarks the performance of an asynchronous web crawler.
@@ -42,16 +44,24 @@ public class BenchmarkAsyncCrawler implements Benchmarker {
         Thread crawlerThread = new Thread(() -> {
             try {
                 System.out.println("\n======================================(ASYNC) CRAWLER INIT===========================================");
-                System.out.println("======================================(ASYNC) URL: " + runtimeConfig.rootUrl + "===========================================\n");
+                if (runtimeConfig.seedFile != null) {
+                    System.out.println("======================================(ASYNC) SEEDS: " + runtimeConfig.seedFile + "===========================================\n");
 
-                webcrawler.init();
-                webcrawler.run(page);
+                    webcrawler.init();
+                    try (SeedReader seeds = new SeedReader(Path.of(runtimeConfig.seedFile))) {
+                        webcrawler.run(seeds);
+                    }
+                }
+                else {
+                    System.out.println("======================================(ASYNC) URL: " + runtimeConfig.rootUrl + "===========================================\n");
+
+                    webcrawler.init();
+                    webcrawler.run(page);
+                }
 
             } catch (Exception e) {
                 System.out.println("Crawler interrupted or finished execution: " + e.getMessage());
             }
-            finally {
-            }
         });
 
         crawlerThread.start();
@@ -63,10 +73,21 @@ public class BenchmarkAsyncCrawler implements Benchmarker {
             System.out.println("Main thread interrupted: " + e.getMessage());
         }
 
-        System.out.println("\n(ASYNC) Benchmark for " + ms + "ms -> " + webcrawler.getAllNodes() + " URLs crawled.\n");
+        System.out.println("\n(ASYNC) Benchmark for " + ms + "ms with '" + runtimeConfig.strategy + "' strategy -> " + webcrawler.getAllNodes() + " URLs crawled.\n");
+        webcrawler.displayStartupStats();
+        webcrawler.displayFetchStats(ms);
+        webcrawler.displayArchiveStats(ms);
+        webcrawler.displayStorageStats();
+        webcrawler.displayPipelineStats();
+        webcrawler.displayMemoryStats();
+        webcrawler.displayTrapStats();
+        webcrawler.displaySitemapStats();
+        webcrawler.displayBreakerStats();
+        webcrawler.displayLinkAnalysis();
 
         if (runtimeConfig.isVerbose) {
             webcrawler.displayURLsByRank();
+            webcrawler.displaySeedStats();
         }
 
         // UNCOMMENT BELOW LINES FOR DATABASE STATISTICS DEBUGGING
@@ -77,9 +98,8 @@ public class BenchmarkAsyncCrawler implements Benchmarker {
 //        webcrawler.getDb().printDatabaseContents().join();
 
         webcrawler.close();
+        crawlerThread.join();
 
         System.out.println("\n======================================(ASYNC) CRAWLER CLOSED===========================================\n");
-
-        System.exit(1);
     }
 }
\ No newline at end of file
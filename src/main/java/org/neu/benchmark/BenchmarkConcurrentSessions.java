@@ -0,0 +1,133 @@
+package org.neu.benchmark;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neu.CrawlResources;
+import org.neu.Crawler;
+import org.neu.RuntimeConfig;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * Measures aggregate throughput of several crawl sessions running at once in one JVM.
+ *
+ * <p>
+ * For every count in `sessionCounts`, that many {@link Crawler} sessions are started together on one set of
+ * {@link CrawlResources}, each with its own copy of the configuration, and crawl for `asyncTime`. Against the
+ * local {@link SyntheticSite} each session starts from a different page; with `--sweep_target=root_url` all of
+ * them start from the root URL, crawling it independently. The aggregate rate shows how far the shared threads,
+ * buffers and store scale with more tenants; the slowest and fastest session show how fairly they are shared.
+ * </p>
+ */
+public class BenchmarkConcurrentSessions implements Benchmarker {
+
+    @Override
+    public void benchmark(String page) throws IOException, InterruptedException {
+        RuntimeConfig runtimeConfig = RuntimeConfig.getInstance();
+        if (!runtimeConfig.asyncMode) {
+            logger.fatal("Concurrent sessions run for the --async duration, which was not given");
+            return;
+        }
+        long ms = runtimeConfig.asyncTime;
+
+        SyntheticSite site = null;
+        IntFunction<String> seeds = session -> page;
+        if (runtimeConfig.sweepTarget.equals("local")) {
+            site = new SyntheticSite(runtimeConfig.syntheticPages, runtimeConfig.syntheticLinks,
+                    runtimeConfig.syntheticPageBytes, runtimeConfig.syntheticLatencyMillis);
+            site.start();
+            SyntheticSite started = site;
+            seeds = session -> started.url((long) session * 7_919 % runtimeConfig.syntheticPages);
+        }
+
+        System.out.println("\n======================================(SESSIONS) " + runtimeConfig.sessionCounts + " SESSIONS FOR " + ms + "ms===========================================\n");
+        try {
+            for (int sessions : runtimeConfig.sessionCounts) {
+                System.out.println(measure(runtimeConfig, sessions, ms, seeds).describe());
+            }
+        } finally {
+            if (site != null) {
+                site.stop();
+            }
+        }
+        System.out.println("\n======================================(SESSIONS) FINISHED===========================================\n");
+    }
+
+    /**
+     * Run `sessions` crawl sessions concurrently on shared resources.
+     *
+     * @param config Configuration each session copies, and which sizes the shared resources
+     * @param sessions
+     * @param ms Duration of the crawl
+     * @param seeds Seed URL of each session, by session index
+     * @return Pages fetched by all sessions together and by the slowest and fastest one
+     * @throws InterruptedException
+     */
+    static SessionsRow measure(RuntimeConfig config, int sessions, long ms, IntFunction<String> seeds) throws InterruptedException {
+        CrawlResources resources = new CrawlResources(config);
+        List<Crawler> crawlers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        long nodes;
+        try {
+            for (int i = 0; i < sessions; i++) {
+                Crawler crawler = new Crawler(config.copy(), resources);
+                crawler.init();
+                crawlers.add(crawler);
+
+                String seed = seeds.apply(i);
+                Thread thread = new Thread(() -> {
+                    try {
+                        crawler.run(seed, ms);
+                    } catch (Exception e) {
+                        logger.error("Crawl session failed: {}", e.getMessage());
+                    }
+                }, "crawl-session-" + i);
+                threads.add(thread);
+            }
+
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } finally {
+            // fetches still queued past the time limit would only delay the next row
+            resources.getStrategy().shutdownNow();
+            crawlers.forEach(Crawler::close);
+        }
+        try {
+            nodes = resources.getStore().getAllNodes().join();
+        } finally {
+            resources.close();
+        }
+
+        long[] pages = crawlers.stream().mapToLong(crawler -> crawler.getFetchStats().getPagesFetched()).toArray();
+        long total = 0, min = Long.MAX_VALUE, max = 0;
+        for (long fetched : pages) {
+            total += fetched;
+            min = Math.min(min, fetched);
+            max = Math.max(max, fetched);
+        }
+        return new SessionsRow(sessions, ms, total, sessions == 0 ? 0 : min, max, nodes);
+    }
+
+    /**
+     * Result of one session count.
+     */
+    record SessionsRow(int sessions, long ms, long pages, long minSessionPages, long maxSessionPages, long nodes) {
+
+        double aggregateRate() {
+            return pages * 1000.0 / ms;
+        }
+
+        String describe() {
+            return String.format(Locale.ROOT, "(SESSIONS) %d sessions x %dms -> %.2f pages/sec aggregate, %d pages (per session %d to %d), %d nodes stored",
+                    sessions, ms, aggregateRate(), pages, minSessionPages, maxSessionPages, nodes);
+        }
+    }
+
+    private static final Logger logger = LogManager.getLogger(BenchmarkConcurrentSessions.class);
+}
@@ -0,0 +1,158 @@
+package org.neu.benchmark;
+
+import org.neo4j.driver.exceptions.TransientException;
+import org.neu.RuntimeConfig;
+import org.neu.execution.ExecutionStrategy;
+import org.neu.neo4j.GraphStore;
+import org.neu.neo4j.InMemoryGraphStore;
+import org.neu.neo4j.PartitionedGraphStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Measures how many links per second many concurrent writers get into the graph store, and how many are lost,
+ * with writes going straight to the store and through {@link PartitionedGraphStore} writer lanes.
+ *
+ * <p>
+ * `writerBenchmarkLinks` links are split over `threads` writer threads (64 if unset), each writing its share one
+ * link at a time as the persist stage does. Link targets are skewed towards a few hub pages like on the web. With
+ * `--store=async` or `sync` the links go to Neo4j, which is cleared before each run. With `--store=memory` they go
+ * to an in-memory store that emulates Neo4j's locking: a write holds the locks of both its nodes for
+ * {@link #TRANSACTION_MILLIS}, and fails with a transient deadlock error when it waits longer than
+ * {@link #LOCK_TIMEOUT_MILLIS} for the second one.
+ * </p>
+ */
+public class BenchmarkGraphWriters implements Benchmarker {
+
+    @Override
+    public void benchmark(String page) throws InterruptedException {
+        RuntimeConfig runtimeConfig = RuntimeConfig.getInstance();
+        int links = (int) Math.min(Integer.MAX_VALUE, runtimeConfig.writerBenchmarkLinks);
+        int writers = runtimeConfig.threads > 0 ? runtimeConfig.threads : 64;
+        int lanes = runtimeConfig.writerLanes > 0 ? runtimeConfig.writerLanes : ExecutionStrategy.defaultThreads();
+        int pages = Math.max(100, links / Math.max(1, runtimeConfig.syntheticLinks));
+
+        System.out.println("\n======================================(WRITE) " + links + " LINKS FROM " + writers + " WRITERS TO '" + runtimeConfig.store + "'===========================================\n");
+        System.out.println(measure(store(runtimeConfig), writers, links, pages).describe("direct"));
+        PartitionedGraphStore partitioned = new PartitionedGraphStore(store(runtimeConfig), lanes, runtimeConfig.writerLaneCapacity,
+                runtimeConfig.writeRetries, runtimeConfig.writeRetryBackoffMillis);
+        System.out.println(measure(partitioned, writers, links, pages).describe(lanes + " lanes") + ", " + partitioned.getRetries() + " retries");
+        System.out.println("\n======================================(WRITE) FINISHED===========================================\n");
+    }
+
+    private static GraphStore store(RuntimeConfig config) {
+        return config.store.equals("memory") ? new LockingStore() : GraphStore.of(config.store, config);
+    }
+
+    /**
+     * Write `links` hub-skewed links from `writers` threads and close the store.
+     *
+     * @param store An uninitialized store
+     * @param writers
+     * @param links
+     * @param pages Number of distinct pages the links join
+     * @return Links written and lost, and how long it took
+     * @throws InterruptedException
+     */
+    static WriterRow measure(GraphStore store, int writers, int links, int pages) throws InterruptedException {
+        store.initialize();
+        store.clearDatabase().join();
+        LongAdder written = new LongAdder();
+        LongAdder lost = new LongAdder();
+        List<Thread> threads = new ArrayList<>(writers);
+        long start = System.nanoTime();
+        for (int w = 0; w < writers; w++) {
+            int share = links / writers + (w < links % writers ? 1 : 0);
+            SplittableRandom random = new SplittableRandom(w);
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < share; i++) {
+                    double popularity = random.nextDouble();
+                    String parent = url(random.nextInt(pages));
+                    String child = url((int) (pages * popularity * popularity * popularity));
+                    try {
+                        store.mergeNodeWithChildURL(parent, child).join();
+                        written.increment();
+                    } catch (CompletionException e) {
+                        lost.increment();
+                    }
+                }
+            }, "writer-benchmark-" + w);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long nanos = System.nanoTime() - start;
+        store.close();
+        return new WriterRow(written.sum(), lost.sum(), nanos);
+    }
+
+    private static String url(int page) {
+        return "http://bench.example/p/" + page;
+    }
+
+    /**
+     * @param written Links the store acknowledged
+     * @param lost Links whose write failed
+     * @param nanos Wall-clock time of the run
+     */
+    record WriterRow(long written, long lost, long nanos) {
+        String describe(String label) {
+            long links = written + lost;
+            return String.format(Locale.ROOT, "(WRITE) %-9s %8.0f links/sec, %d written, %d lost (%.3f%%) in %dms", label,
+                    written * 1e9 / Math.max(1, nanos), written, lost, links == 0 ? 0.0 : 100.0 * lost / links,
+                    TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+
+    /**
+     * {@link InMemoryGraphStore} whose writes lock both of their nodes for the length of an emulated transaction.
+     */
+    private static final class LockingStore extends InMemoryGraphStore {
+        @Override
+        public CompletableFuture<Void> mergeNodeWithChildURL(String url, String dependent_url) {
+            ReentrantLock first = locks.computeIfAbsent(url, key -> new ReentrantLock());
+            ReentrantLock second = locks.computeIfAbsent(dependent_url, key -> new ReentrantLock());
+            try {
+                if (!first.tryLock(LOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return CompletableFuture.failedFuture(deadlock());
+                }
+                try {
+                    if (!second.tryLock(LOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return CompletableFuture.failedFuture(deadlock());
+                    }
+                    try {
+                        Thread.sleep(TRANSACTION_MILLIS);
+                        return super.mergeNodeWithChildURL(url, dependent_url);
+                    } finally {
+                        second.unlock();
+                    }
+                } finally {
+                    first.unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        private static TransientException deadlock() {
+            return new TransientException("Neo.TransientError.Transaction.DeadlockDetected", "Lock wait timed out");
+        }
+
+        private final ConcurrentHashMap<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+    }
+
+    private static final long TRANSACTION_MILLIS = 1;
+    private static final long LOCK_TIMEOUT_MILLIS = 20;
+}
@@ -0,0 +1,59 @@
+package org.neu.benchmark;
+
+import org.neu.RuntimeConfig;
+import org.neu.graph.CsrGraph;
+import org.neu.graph.LinkAnalysis;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast {@link LinkAnalysis} ranks a large link graph, without crawling one first.
+ *
+ * <p>
+ * Builds a random graph of `rankBenchmarkEdges` links averaging `syntheticLinks` per page, in which link targets
+ * are skewed towards a few popular pages like on the web, then times the CSR build, PageRank and HITS on the
+ * common fork-join pool.
+ * </p>
+ */
+public class BenchmarkLinkAnalysis implements Benchmarker {
+
+    @Override
+    public void benchmark(String page) {
+        RuntimeConfig runtimeConfig = RuntimeConfig.getInstance();
+        int edges = (int) Math.min(Integer.MAX_VALUE - 8, runtimeConfig.rankBenchmarkEdges);
+        int vertices = Math.max(1, edges / Math.max(1, runtimeConfig.syntheticLinks));
+
+        System.out.println("\n======================================(RANK) " + edges + " LINKS ON " + vertices + " PAGES===========================================\n");
+        long start = System.nanoTime();
+        CsrGraph graph = synthetic(vertices, edges, 42);
+        System.out.printf(Locale.ROOT, "(RANK) Snapshot of %d distinct links built in %dms, %d MB%n",
+                graph.edges(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), graph.footprintBytes() >> 20);
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        LinkAnalysis analysis = new LinkAnalysis(pool, runtimeConfig.rankEpsilon, runtimeConfig.rankMaxIterations);
+        System.out.println("(RANK) " + analysis.pageRank(graph, runtimeConfig.rankDamping) + " on " + pool.getParallelism() + " workers");
+        System.out.println("(RANK) " + analysis.hits(graph) + " on " + pool.getParallelism() + " workers");
+        System.out.println("\n======================================(RANK) FINISHED===========================================\n");
+    }
+
+    /**
+     * @param vertices
+     * @param edges Links to generate, before repeated links are dropped
+     * @param seed
+     * @return A random graph whose in-degrees follow a heavy tail
+     */
+    static CsrGraph synthetic(int vertices, int edges, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] from = new int[edges];
+        int[] to = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            from[i] = random.nextInt(vertices);
+            double popularity = random.nextDouble();
+            to[i] = (int) (vertices * popularity * popularity * popularity);
+        }
+        return CsrGraph.of(vertices, from, to);
+    }
+}
@@ -0,0 +1,134 @@
+package org.neu.benchmark;
+
+import org.neu.RuntimeConfig;
+import org.neu.fetch.BufferPool;
+import org.neu.fetch.ByteLinkScanner;
+import org.neu.fetch.PageReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Measures how many MB/s of HTML each link scanner of {@link PageReader} gets through, without the network.
+ *
+ * <p>
+ * Generates `scanBenchmarkMb` MB of pages shaped like real ones: a head of stylesheets and scripts, navigation with
+ * relative links, paragraphs of mixed ASCII and non-ASCII UTF-8 text, and absolute links, some of them unquoted or
+ * broken by line breaks. Each scanner reads the whole corpus through the same pooled buffers, first for
+ * {@link #WARMUP_ROUNDS} untimed rounds so the JIT has compiled it, then for {@link #ROUNDS} timed ones, of which the
+ * median is reported. The links found are compared so a faster scanner cannot win by finding fewer.
+ * </p>
+ */
+public class BenchmarkLinkScan implements Benchmarker {
+
+    @Override
+    public void benchmark(String page) {
+        RuntimeConfig runtimeConfig = RuntimeConfig.getInstance();
+        List<byte[]> corpus = corpus((long) runtimeConfig.scanBenchmarkMb << 20, runtimeConfig.syntheticPageBytes, 42);
+        long bytes = corpus.stream().mapToLong(body -> body.length).sum();
+
+        System.out.println("\n======================================(SCAN) " + corpus.size() + " PAGES, " + (bytes >> 20) + " MB===========================================\n");
+        if (!ByteLinkScanner.isVectorAvailable()) {
+            System.out.println("(SCAN) jdk.incubator.vector is not loaded, the vector scanner falls back to scalar; run java with --add-modules jdk.incubator.vector");
+        }
+        BufferPool buffers = new BufferPool(1, runtimeConfig.readBufferSize);
+        long expected = -1;
+        for (String scanner : List.of("chars", "bytes", "vector")) {
+            PageReader reader = new PageReader(buffers, scanner);
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                scan(reader, corpus);
+            }
+            long[] nanos = new long[ROUNDS];
+            long links = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = System.nanoTime();
+                links = scan(reader, corpus);
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            double mbPerSec = bytes / 1048576.0 / (nanos[ROUNDS / 2] / 1e9);
+            System.out.printf(Locale.ROOT, "(SCAN) %-6s %8.1f MB/s (best %.1f), %d links%s%n", scanner, mbPerSec,
+                    bytes / 1048576.0 / (nanos[0] / 1e9), links, expected < 0 || links == expected ? "" : " MISMATCH, expected " + expected);
+            expected = expected < 0 ? links : expected;
+        }
+        System.out.println("\n======================================(SCAN) FINISHED===========================================\n");
+    }
+
+    private static long scan(PageReader reader, List<byte[]> corpus) {
+        long found = 0;
+        List<String> links = new ArrayList<>(256);
+        try {
+            for (byte[] body : corpus) {
+                reader.read(new ByteArrayInputStream(body), "text/html; charset=utf-8", links);
+                found += links.size();
+                links.clear();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return found;
+    }
+
+    /**
+     * @param totalBytes Corpus size to generate
+     * @param pageBytes Approximate size of each page
+     * @param seed
+     * @return UTF-8 encoded pages
+     */
+    static List<byte[]> corpus(long totalBytes, int pageBytes, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<byte[]> pages = new ArrayList<>();
+        long total = 0;
+        while (total < totalBytes) {
+            byte[] body = page(random, pageBytes).getBytes(StandardCharsets.UTF_8);
+            pages.add(body);
+            total += body.length;
+        }
+        return pages;
+    }
+
+    private static String page(SplittableRandom random, int pageBytes) {
+        StringBuilder html = new StringBuilder(pageBytes + 512);
+        html.append("<!DOCTYPE html>\n<html lang=\"en\"><head><meta charset=\"utf-8\"><title>Page ").append(random.nextInt(1_000_000)).append("</title>\n");
+        for (int i = 0; i < 3; i++) {
+            html.append("<link rel=\"stylesheet\" href=\"https://cdn.example.net/css/site-").append(random.nextInt(100)).append(".css\">\n");
+        }
+        html.append("<script src=\"https://cdn.example.net/js/app.js\" async></script>\n</head><body>\n<nav>");
+        for (int i = 0; i < 8; i++) {
+            html.append("<a class=\"nav-item\" href=\"/section/").append(random.nextInt(50)).append("\">Section</a>");
+        }
+        html.append("</nav>\n");
+        while (html.length() < pageBytes) {
+            html.append("<p>").append(TEXT[random.nextInt(TEXT.length)]);
+            int roll = random.nextInt(10);
+            if (roll < 6) {
+                html.append(" <a href=\"http").append(random.nextBoolean() ? "s" : "").append("://").append(HOSTS[random.nextInt(HOSTS.length)])
+                        .append("/articles/").append(random.nextInt(1 << 20)).append(roll == 0 ? "/" : "").append("\">read more</a>");
+            } else if (roll == 6) {
+                html.append(" see http://unquoted.example.org/page for details");
+            } else if (roll == 7) {
+                html.append(" <a href=\"https://broken.example.org/\nnext\">wrapped</a>");
+            }
+            html.append("</p>\n");
+        }
+        return html.append("</body></html>\n").toString();
+    }
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+    private static final String[] HOSTS = {"example.com", "news.example.org", "blog.example.net", "wiki.example.edu"};
+    private static final String[] TEXT = {
+            "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore.",
+            "The quick brown fox jumps over the lazy dog while the thoughtful hedgehog watches from the hedge.",
+            "Crème brûlée, naïve café déjà vu — résumé of the façade and the coöperative’s smörgåsbord.",
+            "Ut enim ad minim veniam, quis nostrud exercitation ullamco laboris nisi ut aliquip ex ea commodo.",
+            "Поисковый робот обходит страницы и собирает ссылки; 検索ロボットはページを巡回してリンクを集めます。",
+    };
+}
@@ -4,10 +4,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.neu.Crawler;
 import org.neu.RuntimeConfig;
-import org.neu.SyncCrawler;
+import org.neu.execution.SingleThreadedStrategy;
 
 import java.io.*;
 import java.net.MalformedURLException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Benchmarks the performance of a synchronous web crawler.
@@ -15,7 +16,7 @@ import java.net.MalformedURLException;
 public class BenchmarkSyncCrawler implements Benchmarker {
 
     /**
-     * Benchmarks the synchronous operation of the SyncCrawler.
+     * Benchmarks the crawl engine with the single-threaded execution strategy.
      *
      * <p>
      * If the runtime configuration does not enable synchronous mode, 
@@ -37,17 +38,31 @@ public class BenchmarkSyncCrawler implements Benchmarker {
             return;
         }
 
-        SyncCrawler webcrawler = SyncCrawler.getInstance();
+        Crawler webcrawler = Crawler.getInstance();
 
         long ms = runtimeConfig.syncTime;
 
         System.out.println("\n======================================(SYNC) CRAWLER INIT===========================================");
         System.out.println("======================================(SYNC) URL: " + runtimeConfig.rootUrl + "===========================================\n");
 
-        webcrawler.init();
+        webcrawler.init(new SingleThreadedStrategy());
 
-        webcrawler.run(page, ms);
+        try {
+            webcrawler.run(page, ms);
+        } catch (ExecutionException e) {
+            logger.error("Crawler failed: {}", e.getMessage());
+        }
         System.out.println("(SYNC) Benchmark for " + ms + "ms -> " + webcrawler.getAllNodes() + " URLs crawled.");
+        webcrawler.displayStartupStats();
+        webcrawler.displayFetchStats(ms);
+        webcrawler.displayArchiveStats(ms);
+        webcrawler.displayStorageStats();
+        webcrawler.displayPipelineStats();
+        webcrawler.displayMemoryStats();
+        webcrawler.displayTrapStats();
+        webcrawler.displaySitemapStats();
+        webcrawler.displayBreakerStats();
+        webcrawler.displayLinkAnalysis();
 
         if (runtimeConfig.isVerbose) {
             webcrawler.displayURLsByRank();
@@ -0,0 +1,60 @@
+package org.neu.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders sweep results as a standalone SVG line chart: steady-state nodes/sec against thread count, one line per
+ * duration, strategy and store.
+ */
+final class SweepPlot {
+
+    private SweepPlot() {}
+
+    static String render(List<ThroughputSweep.SweepRow> rows) {
+        Map<String, List<ThroughputSweep.SweepRow>> series = new LinkedHashMap<>();
+        for (ThroughputSweep.SweepRow row : rows) {
+            series.computeIfAbsent(row.ms() + "ms " + row.strategy() + " / " + row.store(), key -> new ArrayList<>()).add(row);
+        }
+
+        double maxThreads = rows.stream().mapToInt(ThroughputSweep.SweepRow::threads).max().orElse(1);
+        double maxRate = Math.max(1, rows.stream().mapToDouble(r -> r.steadyRate() + r.steadyRateStddev()).max().orElse(1));
+
+        StringBuilder svg = new StringBuilder();
+        svg.append(String.format(Locale.ROOT, "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" font-family=\"sans-serif\" font-size=\"12\">%n", WIDTH, HEIGHT));
+        svg.append(String.format(Locale.ROOT, "<rect width=\"%d\" height=\"%d\" fill=\"white\"/>%n", WIDTH, HEIGHT));
+        svg.append(String.format(Locale.ROOT, "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"black\"/>%n", LEFT, TOP + PLOT_HEIGHT, LEFT + PLOT_WIDTH, TOP + PLOT_HEIGHT));
+        svg.append(String.format(Locale.ROOT, "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"black\"/>%n", LEFT, TOP, LEFT, TOP + PLOT_HEIGHT));
+        svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\" text-anchor=\"middle\">threads (max %.0f)</text>%n", LEFT + PLOT_WIDTH / 2, HEIGHT - 10, maxThreads));
+        svg.append(String.format(Locale.ROOT, "<text x=\"15\" y=\"%d\" transform=\"rotate(-90 15 %d)\" text-anchor=\"middle\">steady-state nodes/sec (max %.0f)</text>%n", TOP + PLOT_HEIGHT / 2, TOP + PLOT_HEIGHT / 2, maxRate));
+
+        int colour = 0;
+        for (Map.Entry<String, List<ThroughputSweep.SweepRow>> entry : series.entrySet()) {
+            String stroke = COLOURS[colour % COLOURS.length];
+            StringBuilder points = new StringBuilder();
+            for (ThroughputSweep.SweepRow row : entry.getValue()) {
+                double x = LEFT + PLOT_WIDTH * row.threads() / maxThreads;
+                double y = TOP + PLOT_HEIGHT * (1 - row.steadyRate() / maxRate);
+                double spread = PLOT_HEIGHT * row.steadyRateStddev() / maxRate;
+                points.append(String.format(Locale.ROOT, "%.1f,%.1f ", x, y));
+                svg.append(String.format(Locale.ROOT, "<line x1=\"%.1f\" y1=\"%.1f\" x2=\"%.1f\" y2=\"%.1f\" stroke=\"%s\"/>%n", x, y - spread, x, y + spread, stroke));
+                svg.append(String.format(Locale.ROOT, "<circle cx=\"%.1f\" cy=\"%.1f\" r=\"3\" fill=\"%s\"/>%n", x, y, stroke));
+            }
+            svg.append(String.format(Locale.ROOT, "<polyline points=\"%s\" fill=\"none\" stroke=\"%s\" stroke-width=\"2\"/>%n", points.toString().strip(), stroke));
+            svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%d\" fill=\"%s\">%s</text>%n", LEFT + PLOT_WIDTH + 10, TOP + 16 * (colour + 1), stroke, entry.getKey()));
+            colour++;
+        }
+        return svg.append("</svg>\n").toString();
+    }
+
+    private static final int WIDTH = 900;
+    private static final int HEIGHT = 480;
+    private static final int LEFT = 60;
+    private static final int TOP = 20;
+    private static final int PLOT_WIDTH = 600;
+    private static final int PLOT_HEIGHT = 400;
+    private static final String[] COLOURS = {"#1f77b4", "#ff7f0e", "#2ca02c", "#d62728", "#9467bd", "#8c564b", "#e377c2", "#7f7f7f"};
+}
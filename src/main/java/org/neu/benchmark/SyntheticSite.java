@@ -0,0 +1,121 @@
+package org.neu.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A local website with a fixed, generated link graph, so benchmark runs are reproducible and independent of the
+ * internet.
+ *
+ * <p>
+ * Page `/p/n` links to `linksPerPage` other pages chosen by a fixed hash of `n`, and is padded to `pageBytes`.
+ * Every response can be delayed by `latencyMillis` to emulate a remote server.
+ * </p>
+ */
+public class SyntheticSite {
+
+    /**
+     * @param pages Number of distinct pages
+     * @param linksPerPage Outgoing links on every page
+     * @param pageBytes Approximate size of every page
+     * @param latencyMillis Delay before each response
+     */
+    public SyntheticSite(int pages, int linksPerPage, int pageBytes, long latencyMillis) {
+        this.pages = pages;
+        this.linksPerPage = linksPerPage;
+        this.pageBytes = pageBytes;
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Start serving on a free loopback port.
+     *
+     * @return URL of the first page, to use as the seed
+     * @throws IOException
+     */
+    public String start() throws IOException {
+        // without TCP_NODELAY, small responses wait ~40ms for delayed ACKs and swamp the emulated latency
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/p/", this::handle);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort() + "/p/";
+        return base + 0;
+    }
+
+    /**
+     * @param page
+     * @return URL of page number `page`, once the site is started
+     */
+    public String url(long page) {
+        return base + page;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+
+            long page;
+            try {
+                page = Long.parseLong(exchange.getRequestURI().getPath().substring(3));
+            } catch (NumberFormatException e) {
+                page = -1;
+            }
+            if (page < 0 || page >= pages) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            byte[] body = render(page).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private String render(long page) {
+        StringBuilder html = new StringBuilder(pageBytes + 64);
+        html.append("<html><body><h1>Page ").append(page).append("</h1>\n");
+        for (int i = 0; i < linksPerPage; i++) {
+            long target = Math.floorMod(page * 31 + (long) i * 7919 + 1, pages);
+            html.append("<a href=\"").append(base).append(target).append("\">").append(target).append("</a>\n");
+        }
+        while (html.length() < pageBytes) {
+            html.append("<p>Lorem ipsum dolor sit amet, consectetur adipiscing elit.</p>\n");
+        }
+        return html.append("</body></html>").toString();
+    }
+
+    private final int pages;
+    private final int linksPerPage;
+    private final int pageBytes;
+    private final long latencyMillis;
+    private HttpServer server;
+    private ExecutorService executor;
+    private String base;
+}
@@ -0,0 +1,222 @@
+package org.neu.benchmark;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neu.Crawler;
+import org.neu.RuntimeConfig;
+import org.neu.fetch.FetchStats;
+import org.neu.util.LatencyHistogram;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sweeps crawl duration, execution strategy, thread count and storage sink, and appends one CSV row per
+ * configuration.
+ *
+ * <p>
+ * Every configuration runs `sweepRepeats` times against the same target, by default a local
+ * {@link SyntheticSite}. The first `sweepWarmupMillis` of each run are ignored; after that the number of nodes in the
+ * store is sampled every `sweepWindowMillis`, so the steady-state ingestion rate comes with its spread rather than
+ * being derived from a single node count at the end. Page latency percentiles, across retries and hedged requests, cover the same
+ * measured windows.
+ * </p>
+ *
+ * <p>
+ * The CSV keeps the columns of `artifacts/benchmarks.csv` first (`ms,ingestion,rate(nodes/sec),version`) and adds
+ * the sweep dimensions and statistics after them. A file that already starts with another header is refused rather
+ * than mixed with it. An SVG plot of steady-state rate by thread count is written next to it.
+ * </p>
+ */
+public class ThroughputSweep implements Benchmarker {
+
+    @Override
+    public void benchmark(String page) throws IOException, InterruptedException {
+        RuntimeConfig runtimeConfig = RuntimeConfig.getInstance();
+        Path csv = Path.of(runtimeConfig.sweepFile);
+        checkHeader(csv);
+
+        SyntheticSite site = null;
+        String target = page;
+        if (runtimeConfig.sweepTarget.equals("local")) {
+            site = new SyntheticSite(runtimeConfig.syntheticPages, runtimeConfig.syntheticLinks,
+                    runtimeConfig.syntheticPageBytes, runtimeConfig.syntheticLatencyMillis);
+            target = site.start();
+        }
+        logger.info("Sweeping against {}, results in {}", target, csv);
+
+        String savedStrategy = runtimeConfig.strategy;
+        int savedThreads = runtimeConfig.threads;
+        String savedStore = runtimeConfig.store;
+        List<SweepRow> rows = new ArrayList<>();
+        try {
+            List<String> stores = runtimeConfig.sweepStores.isEmpty() ? List.of(runtimeConfig.store) : runtimeConfig.sweepStores;
+            for (long duration : runtimeConfig.sweepDurations) {
+                for (String store : stores) {
+                    for (String strategy : runtimeConfig.sweepStrategies) {
+                        // the single-threaded strategy ignores the thread count, so it runs once
+                        List<Integer> threadCounts = strategy.equals("single") ? List.of(1) : runtimeConfig.sweepThreads;
+                        for (int threads : threadCounts) {
+                            SweepRow row = measure(target, duration, strategy, threads, store, runtimeConfig.sweepRepeats);
+                            rows.add(row);
+                            append(csv, row);
+                            System.out.println(row.describe());
+                        }
+                    }
+                }
+            }
+        } finally {
+            runtimeConfig.strategy = savedStrategy;
+            runtimeConfig.threads = savedThreads;
+            runtimeConfig.store = savedStore;
+            if (site != null) {
+                site.stop();
+            }
+        }
+
+        Path svg = csv.resolveSibling(csv.getFileName().toString().replaceFirst("\\.csv$", "") + ".svg");
+        Files.writeString(svg, SweepPlot.render(rows), StandardCharsets.UTF_8);
+        System.out.println("\nSweep of " + rows.size() + " configurations written to " + csv + " and " + svg);
+    }
+
+    /**
+     * Run one configuration `repeats` times and aggregate the results.
+     */
+    private SweepRow measure(String target, long duration, String strategy, int threads, String store, int repeats) throws InterruptedException {
+        RuntimeConfig runtimeConfig = RuntimeConfig.getInstance();
+        runtimeConfig.strategy = strategy;
+        runtimeConfig.threads = threads;
+        runtimeConfig.store = store;
+
+        List<Double> windowRates = new ArrayList<>();
+        List<Double> ingestions = new ArrayList<>();
+        LatencyHistogram latency = new LatencyHistogram();
+
+        for (int repeat = 0; repeat < repeats; repeat++) {
+            Crawler crawler = Crawler.getInstance();
+            crawler.init();
+            FetchStats stats = crawler.getFetchStats();
+
+            long start = System.currentTimeMillis();
+            Thread crawlerThread = new Thread(() -> {
+                try {
+                    crawler.run(target, duration);
+                } catch (Exception e) {
+                    logger.error("Sweep run failed: {}", e.getMessage());
+                }
+            }, "sweep-crawler");
+            crawlerThread.start();
+
+            long warmup = Math.min(runtimeConfig.sweepWarmupMillis, duration / 2);
+            Thread.sleep(warmup);
+            LatencyHistogram atWarmup = stats.getPageLatency().snapshot();
+            long previousNodes = crawler.getAllNodes();
+            long previousTime = System.nanoTime();
+
+            while (System.currentTimeMillis() - start + runtimeConfig.sweepWindowMillis <= duration) {
+                Thread.sleep(runtimeConfig.sweepWindowMillis);
+                long nodes = crawler.getAllNodes();
+                long now = System.nanoTime();
+                windowRates.add((nodes - previousNodes) * 1e9 / (now - previousTime));
+                previousNodes = nodes;
+                previousTime = now;
+            }
+            latency.merge(stats.getPageLatency().since(atWarmup));
+
+            crawlerThread.join();
+            ingestions.add((double) crawler.getAllNodes());
+            // fetches still queued past the window would only delay, and overlap with, the next run
+            crawler.getStrategy().shutdownNow();
+            crawler.close();
+        }
+
+        return new SweepRow(duration, strategy, threads, store, repeats,
+                mean(ingestions), stddev(ingestions), mean(windowRates), stddev(windowRates),
+                latency.percentileMillis(0.5), latency.percentileMillis(0.99));
+    }
+
+    /**
+     * Refuse a CSV whose columns differ from the sweep's, such as `artifacts/benchmarks.csv` itself.
+     *
+     * @param csv
+     * @throws IOException If `csv` starts with another header
+     */
+    static void checkHeader(Path csv) throws IOException {
+        if (!Files.exists(csv) || Files.size(csv) == 0) {
+            return;
+        }
+        String first;
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            first = reader.readLine();
+        }
+        first = first == null ? "" : first.replace("\uFEFF", "");
+        if (!first.equals(SweepRow.HEADER)) {
+            throw new IOException(csv + " has other columns (" + first + "); point --sweep at a new file");
+        }
+    }
+
+    private static void append(Path csv, SweepRow row) throws IOException {
+        boolean header = !Files.exists(csv) || Files.size(csv) == 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (header) {
+                writer.write(SweepRow.HEADER);
+                writer.newLine();
+            }
+            writer.write(row.toCsv());
+            writer.newLine();
+        }
+    }
+
+    static double mean(List<Double> values) {
+        return values.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+    }
+
+    static double stddev(List<Double> values) {
+        if (values.size() < 2) {
+            return 0;
+        }
+        double mean = mean(values);
+        double squares = values.stream().mapToDouble(v -> (v - mean) * (v - mean)).sum();
+        return Math.sqrt(squares / (values.size() - 1));
+    }
+
+    /**
+     * Aggregated result of one configuration.
+     */
+    record SweepRow(long ms, String strategy, int threads, String store, int repeats,
+                    double ingestion, double ingestionStddev, double steadyRate, double steadyRateStddev,
+                    double p50FetchMillis, double p99FetchMillis) {
+
+        static final String HEADER = "ms,ingestion,rate(nodes/sec),version,strategy,threads,store,repeats," +
+                "ingestion_stddev,steady_rate(nodes/sec),steady_rate_stddev,p50_fetch_ms,p99_fetch_ms";
+
+        /**
+         * @return `sync` for single-threaded runs and `async` otherwise, as in the original benchmark file
+         */
+        String version() {
+            return strategy.equals("single") ? "sync" : "async";
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%d,%.0f,%.2f,%s,%s,%d,%s,%d,%.1f,%.2f,%.2f,%.2f,%.2f",
+                    ms, ingestion, ingestion * 1000 / ms, version(), strategy, threads, store, repeats,
+                    ingestionStddev, steadyRate, steadyRateStddev, p50FetchMillis, p99FetchMillis);
+        }
+
+        String describe() {
+            return String.format(Locale.ROOT, "(SWEEP) %dms %s x%d -> %s: %.0f nodes (+/-%.1f), %.2f nodes/sec (+/-%.2f), fetch p50 %.2fms p99 %.2fms",
+                    ms, strategy, threads, store, ingestion, ingestionStddev, steadyRate, steadyRateStddev, p50FetchMillis, p99FetchMillis);
+        }
+    }
+
+    private static final Logger logger = LogManager.getLogger(ThroughputSweep.class);
+}
@@ -0,0 +1,36 @@
+package org.neu.events;
+
+import org.neu.fetch.FetchOutcome;
+
+import java.util.List;
+
+/**
+ * Something that happened during a crawl, as delivered by {@link CrawlEventPublisher}.
+ */
+public sealed interface CrawlEvent {
+
+    /**
+     * A page was fetched, or its fetch ended early.
+     *
+     * @param url
+     * @param outcome How the fetch ended
+     * @param linksFound Number of valid links found on the page
+     */
+    record PageFetched(String url, FetchOutcome outcome, int linksFound) implements CrawlEvent {}
+
+    /**
+     * Links on a page that passed the crawler's filters. Not all of them are new to the crawl.
+     *
+     * @param url Page the links were found on
+     * @param links
+     */
+    record LinksDiscovered(String url, List<String> links) implements CrawlEvent {}
+
+    /**
+     * A parent-to-child link was written to the graph store.
+     *
+     * @param parent
+     * @param child
+     */
+    record EdgePersisted(String parent, String child) implements CrawlEvent {}
+}
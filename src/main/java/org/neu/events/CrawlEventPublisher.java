@@ -0,0 +1,257 @@
+package org.neu.events;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publishes {@link CrawlEvent}s to any number of subscribers, honouring their demand.
+ *
+ * <p>
+ * Each subscription buffers at most `bufferSize` events that the subscriber has not requested yet. When a buffer
+ * is full, {@link #publish(CrawlEvent)} blocks the crawl thread that produced the event until the subscriber
+ * requests more or cancels, so a slow subscriber slows the crawl down instead of growing the heap. Events are
+ * delivered on `executor`, never concurrently to the same subscriber.
+ * </p>
+ */
+public class CrawlEventPublisher implements Flow.Publisher<CrawlEvent>, AutoCloseable {
+
+    /**
+     * @param bufferSize Maximum events buffered per subscriber
+     * @param executor Runs the delivery of events to subscribers
+     */
+    public CrawlEventPublisher(int bufferSize, Executor executor) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CrawlEvent> subscriber) {
+        EventSubscription subscription = new EventSubscription(subscriber);
+        if (closed) {
+            executor.execute(() -> {
+                subscriber.onSubscribe(subscription);
+                subscriber.onComplete();
+            });
+            return;
+        }
+        subscriptions.add(subscription);
+        executor.execute(() -> subscriber.onSubscribe(subscription));
+        // close() may have run between the check above and the add, and missed this subscription
+        if (closed) {
+            subscriptions.remove(subscription);
+            subscription.complete();
+        }
+    }
+
+    /**
+     * @return true if at least one subscriber is attached, so callers can skip building events nobody reads
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * Hand an event to every subscriber, waiting while any of their buffers is full. If the thread is interrupted
+     * while waiting, the event is dropped for the remaining subscribers and the interrupt flag is restored.
+     *
+     * @param event
+     */
+    public void publish(CrawlEvent event) {
+        for (EventSubscription subscription : subscriptions) {
+            if (!subscription.offer(event)) {
+                dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * Complete every subscription once its buffered events have been delivered. Later events are ignored.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (EventSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+        subscriptions.clear();
+    }
+
+    /**
+     * @return Events not delivered because their publishing thread was interrupted
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private final class EventSubscription implements Flow.Subscription {
+        EventSubscription(Flow.Subscriber<? super CrawlEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                lock.lock();
+                try {
+                    failure = new IllegalArgumentException("Requested " + n + " events; demand must be positive");
+                    // the subscription ends with this error, so buffered events are never delivered
+                    queue.clear();
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            } else {
+                lock.lock();
+                try {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                } finally {
+                    lock.unlock();
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                queue.clear();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            subscriptions.remove(this);
+        }
+
+        boolean offer(CrawlEvent event) {
+            lock.lock();
+            try {
+                while (queue.size() >= bufferSize && !isClosed()) {
+                    notFull.await();
+                }
+                if (isClosed()) {
+                    return true;
+                }
+                queue.add(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                lock.unlock();
+            }
+            drain();
+            return true;
+        }
+
+        /**
+         * @return true once no further event can be delivered; called with the lock held
+         */
+        private boolean isClosed() {
+            return cancelled || completed || terminated || failure != null;
+        }
+
+        void complete() {
+            lock.lock();
+            try {
+                completed = true;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            drain();
+        }
+
+        /**
+         * Schedule delivery unless a delivery loop is already running; that loop then picks up the new work.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            int missed = 1;
+            do {
+                while (true) {
+                    CrawlEvent event;
+                    boolean finish;
+                    Throwable error;
+                    lock.lock();
+                    try {
+                        if (cancelled || terminated) {
+                            break;
+                        }
+                        error = failure;
+                        event = error == null && demand > 0 ? queue.poll() : null;
+                        if (event != null) {
+                            demand--;
+                            notFull.signal();
+                        }
+                        finish = error != null || (completed && queue.isEmpty());
+                        if (finish && event == null) {
+                            terminated = true;
+                            notFull.signalAll();
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+
+                    if (event != null) {
+                        try {
+                            subscriber.onNext(event);
+                        } catch (Throwable e) {
+                            // a subscriber that throws is cancelled and told why, and the loop still releases wip
+                            cancel();
+                            lock.lock();
+                            try {
+                                terminated = true;
+                            } finally {
+                                lock.unlock();
+                            }
+                            subscriber.onError(e);
+                            break;
+                        }
+                    } else if (finish) {
+                        subscriptions.remove(this);
+                        if (error != null) {
+                            subscriber.onError(error);
+                        } else {
+                            subscriber.onComplete();
+                        }
+                        break;
+                    } else {
+                        break;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private final Flow.Subscriber<? super CrawlEvent> subscriber;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notFull = lock.newCondition();
+        private final Queue<CrawlEvent> queue = new ArrayDeque<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private long demand;
+        private boolean cancelled;
+        private boolean completed;
+        private boolean terminated;
+        private Throwable failure;
+    }
+
+    private final int bufferSize;
+    private final Executor executor;
+    private final List<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean closed;
+}
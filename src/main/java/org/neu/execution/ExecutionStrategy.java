@@ -0,0 +1,64 @@
+package org.neu.execution;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Execution model of a crawl: decides which threads fetch and parse pages.
+ *
+ * <p>
+ * The crawl engine ({@link org.neu.Crawler}) owns the frontier, the fetch, filter and storage stages, and only
+ * hands work to {@link #executor()}. Comparing strategies therefore compares execution models and nothing else,
+ * and a new model only needs a new implementation of this interface.
+ * </p>
+ */
+public interface ExecutionStrategy {
+
+    /**
+     * @return Short name used in configuration and reports, e.g. `fixed`
+     */
+    String name();
+
+    /**
+     * @return Executor that runs fetch-and-parse tasks
+     */
+    Executor executor();
+
+    /**
+     * Stop accepting work and wait for running tasks to finish.
+     */
+    void shutdown();
+
+    /**
+     * Stop accepting work and interrupt running tasks.
+     */
+    void shutdownNow();
+
+    /**
+     * Create a strategy by name.
+     *
+     * @param name One of `single`, `fixed`, `virtual` or `forkjoin`
+     * @param threads Number of worker threads for `fixed` and `forkjoin`; ignored by the others
+     * @return A new strategy
+     */
+    static ExecutionStrategy of(String name, int threads) {
+        switch (name) {
+            case "single":
+                return new SingleThreadedStrategy();
+            case "fixed":
+                return new FixedPoolStrategy(threads);
+            case "virtual":
+                return new VirtualThreadStrategy();
+            case "forkjoin":
+                return new ForkJoinStrategy(threads);
+            default:
+                throw new IllegalArgumentException("Unknown execution strategy: " + name);
+        }
+    }
+
+    /**
+     * @return Default worker count for pooled strategies: twice the core count, capped at 32
+     */
+    static int defaultThreads() {
+        return Math.min(32, Runtime.getRuntime().availableProcessors() * 2);
+    }
+}
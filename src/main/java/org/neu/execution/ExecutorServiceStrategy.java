@@ -0,0 +1,41 @@
+package org.neu.execution;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for strategies backed by an {@link ExecutorService}.
+ */
+abstract class ExecutorServiceStrategy implements ExecutionStrategy {
+
+    ExecutorServiceStrategy(ExecutorService exec) {
+        this.exec = exec;
+    }
+
+    @Override
+    public Executor executor() {
+        return exec;
+    }
+
+    @Override
+    public void shutdown() {
+        exec.shutdown();
+        try {
+            if (!exec.awaitTermination(60, TimeUnit.SECONDS)) {
+                exec.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            exec.shutdownNow();
+        }
+    }
+
+    @Override
+    public void shutdownNow() {
+        if (!exec.isShutdown()) {
+            exec.shutdownNow();
+        }
+    }
+
+    protected final ExecutorService exec;
+}
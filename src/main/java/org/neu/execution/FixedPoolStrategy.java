@@ -0,0 +1,18 @@
+package org.neu.execution;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs tasks on a fixed pool of platform threads.
+ */
+public class FixedPoolStrategy extends ExecutorServiceStrategy {
+
+    public FixedPoolStrategy(int threads) {
+        super(Executors.newFixedThreadPool(threads));
+    }
+
+    @Override
+    public String name() {
+        return "fixed";
+    }
+}
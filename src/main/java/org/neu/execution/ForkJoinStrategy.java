@@ -0,0 +1,19 @@
+package org.neu.execution;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs tasks on a work-stealing {@link ForkJoinPool} in async (FIFO) mode, which suits independent event-style
+ * tasks such as page fetches better than the default LIFO mode.
+ */
+public class ForkJoinStrategy extends ExecutorServiceStrategy {
+
+    public ForkJoinStrategy(int parallelism) {
+        super(new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true));
+    }
+
+    @Override
+    public String name() {
+        return "forkjoin";
+    }
+}
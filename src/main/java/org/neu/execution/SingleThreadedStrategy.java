@@ -0,0 +1,27 @@
+package org.neu.execution;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs every task inline on the thread driving the BFS, one page at a time. This is the synchronous baseline.
+ */
+public class SingleThreadedStrategy implements ExecutionStrategy {
+
+    @Override
+    public String name() {
+        return "single";
+    }
+
+    @Override
+    public Executor executor() {
+        return Runnable::run;
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public void shutdownNow() {
+    }
+}
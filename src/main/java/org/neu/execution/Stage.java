@@ -0,0 +1,187 @@
+package org.neu.execution;
+
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * One stage of the crawl pipeline, with its own threads and a bounded hand-off queue.
+ *
+ * <p>
+ * At most `capacity` tasks are admitted at a time, counting those queued, running and, for asynchronous work,
+ * waiting for their future. {@link #submit(Supplier)} blocks the caller while the stage is full, and since callers
+ * are the threads of the stage before, a slow stage stalls the stages feeding it instead of letting work pile up
+ * in memory. The time callers spend blocked shows where the pipeline is throttled.
+ * </p>
+ *
+ * <p>
+ * A stage with no threads runs its tasks on the caller, as the single-threaded strategy needs, but still bounds
+ * and counts the work in flight.
+ * </p>
+ */
+public class Stage {
+
+    /**
+     * @param name Used for thread names and reports
+     * @param threads Worker threads, or 0 to run tasks on the submitting thread
+     * @param capacity Most tasks admitted at once
+     */
+    public Stage(String name, int threads, int capacity) {
+        this.name = name;
+        this.threads = threads;
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+        if (threads > 0) {
+            AtomicInteger count = new AtomicInteger();
+            this.exec = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, name + "-stage-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.exec = null;
+        }
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Run `work` on this stage once there is room for it.
+     *
+     * @param work Starts the task and returns its result, which may complete later
+     * @return The result of `work`, failed with a {@link CancellationException} if the caller was interrupted or
+     *         the stage was shut down before the task ran
+     */
+    public <T> CompletableFuture<T> submit(Supplier<? extends CompletionStage<T>> work) {
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire()) {
+                permits.acquire();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new CancellationException(name + " stage interrupted"));
+        }
+        blockedNanos.add(System.nanoTime() - waitStart);
+        maxInFlight.accumulateAndGet(capacity - permits.availablePermits(), Math::max);
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        result.whenComplete((value, e) -> {
+            permits.release();
+            completed.increment();
+        });
+        if (exec == null) {
+            run(work, result);
+            return result;
+        }
+
+        queued.incrementAndGet();
+        try {
+            exec.execute(() -> {
+                queued.decrementAndGet();
+                run(work, result);
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            result.completeExceptionally(new CancellationException(name + " stage shut down"));
+        }
+        return result;
+    }
+
+    /**
+     * Run synchronous `work` on this stage once there is room for it.
+     *
+     * @param work
+     * @return The value `work` returned
+     */
+    public <T> CompletableFuture<T> call(Supplier<T> work) {
+        return submit(() -> CompletableFuture.completedFuture(work.get()));
+    }
+
+    private <T> void run(Supplier<? extends CompletionStage<T>> work, CompletableFuture<T> result) {
+        long start = System.nanoTime();
+        CompletionStage<T> stage;
+        try {
+            stage = work.get();
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        } finally {
+            busyNanos.add(System.nanoTime() - start);
+        }
+        stage.whenComplete((value, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    /**
+     * Stop the threads without running queued tasks, whose futures are then never completed.
+     */
+    public void shutdownNow() {
+        if (exec != null) {
+            exec.shutdownNow();
+        }
+    }
+
+    /**
+     * @return Tasks waiting for a thread
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * @return Tasks admitted and not finished: queued, running or waiting for their future
+     */
+    public int getInFlight() {
+        return capacity - permits.availablePermits();
+    }
+
+    /**
+     * @return Share of the threads' time spent running tasks since the stage was created, or 0 for an inline stage
+     */
+    public double getUtilisation() {
+        long elapsed = System.nanoTime() - startNanos;
+        return threads == 0 || elapsed == 0 ? 0.0 : Math.min(1.0, (double) busyNanos.sum() / threads / elapsed);
+    }
+
+    /**
+     * @return Total time callers waited for room in this stage
+     */
+    public long getBlockedNanos() {
+        return blockedNanos.sum();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%-8s %s, %d tasks done, %d queued and %d in flight now (max %d of %d), callers blocked %dms",
+                name + ":", threads == 0 ? "inline" : String.format(Locale.ROOT, "%d threads %.1f%% busy", threads, 100 * getUtilisation()),
+                completed.sum(), queued.get(), getInFlight(), maxInFlight.get(), capacity,
+                TimeUnit.NANOSECONDS.toMillis(blockedNanos.sum()));
+    }
+
+    private final String name;
+    private final int threads;
+    private final int capacity;
+    private final Semaphore permits;
+    private final ExecutorService exec;
+    private final long startNanos;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+}
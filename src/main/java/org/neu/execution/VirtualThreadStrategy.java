@@ -0,0 +1,18 @@
+package org.neu.execution;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every task on its own virtual thread, so a page blocked on the network does not hold a platform thread.
+ */
+public class VirtualThreadStrategy extends ExecutorServiceStrategy {
+
+    public VirtualThreadStrategy() {
+        super(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Override
+    public String name() {
+        return "virtual";
+    }
+}
@@ -0,0 +1,229 @@
+package org.neu.fetch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Serves pages from the segments of a {@link PageArchive} instead of the network, so a crawl can be repeated at
+ * local speed and its extraction, filtering and storage measured without network noise.
+ *
+ * <p>
+ * Every `.warc` segment in the directory is memory-mapped and indexed by URL when the replay opens; where a URL was
+ * archived more than once, the last record wins. A fetch then decodes the stored body straight out of the mapping
+ * with the same {@link ContentDecoder} and {@link PageReader} a live fetch uses, and ends with the outcome the live
+ * fetch had. URLs that are not in the archive fail at once without touching the network.
+ * </p>
+ */
+public class ArchiveReplay implements PageSource, Closeable {
+
+    /**
+     * @param dir Directory holding the archive segments
+     * @param stats Receives every replayed fetch, as a {@link PageFetcher}'s would
+     * @param buffers Read buffers
+     * @throws IOException If a segment cannot be mapped
+     */
+    public ArchiveReplay(Path dir, FetchStats stats, BufferPool buffers) throws IOException {
+        this(dir, stats, buffers, "chars");
+    }
+
+    /**
+     * @param dir Directory holding the archive segments
+     * @param stats Receives every replayed fetch, as a {@link PageFetcher}'s would
+     * @param buffers Read buffers
+     * @param linkScanner See {@link PageReader#PageReader(BufferPool, String)}
+     * @throws IOException If a segment cannot be mapped
+     */
+    public ArchiveReplay(Path dir, FetchStats stats, BufferPool buffers, String linkScanner) throws IOException {
+        this.stats = stats;
+        this.reader = new PageReader(buffers, linkScanner);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(".warc")).sorted().toList();
+        }
+        for (Path file : files) {
+            try (FileChannel channel = FileChannel.open(file)) {
+                // a mapping outlives its channel, and is released once the buffer is collected
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                mappedBytes += channel.size();
+                index(file, segment);
+            }
+        }
+        logger.info("Replaying {} archived pages from {} segments ({} MB) in {}", records.size(), files.size(), mappedBytes >> 20, dir);
+    }
+
+    private void index(Path file, ByteBuffer segment) {
+        int position = 0;
+        while (position < segment.limit()) {
+            Map<String, String> fields = new HashMap<>();
+            int block = readHeaders(segment, position, fields);
+            String url = fields.get("warc-target-uri");
+            String length = fields.get("content-length");
+            if (block < 0 || url == null || length == null || !fields.containsKey("warc/1.1")) {
+                logger.warn("Stopped indexing {} at malformed record at byte {}", file, position);
+                return;
+            }
+            int blockLength = Integer.parseInt(length);
+            FetchOutcome outcome = FetchOutcome.valueOf(fields.getOrDefault(PageArchive.OUTCOME_FIELD.toLowerCase(Locale.ROOT), "COMPLETE"));
+            records.put(url, new Record(segment, block, blockLength, outcome));
+            position = block + blockLength + 4;
+        }
+    }
+
+    /**
+     * Parse header lines from `position` up to the first empty line. Names are lower-cased; a line without a colon,
+     * such as `WARC/1.1` or an HTTP status line, is stored under its lower-cased self with an empty value.
+     *
+     * @return Position just after the empty line, or -1 if the headers do not end
+     */
+    private static int readHeaders(ByteBuffer buffer, int position, Map<String, String> fields) {
+        int lineStart = position;
+        for (int i = position; i + 1 < buffer.limit(); i++) {
+            if (buffer.get(i) != '\r' || buffer.get(i + 1) != '\n') {
+                continue;
+            }
+            if (i == lineStart) {
+                return i + 2;
+            }
+            byte[] bytes = new byte[i - lineStart];
+            buffer.get(lineStart, bytes);
+            String line = new String(bytes, StandardCharsets.UTF_8);
+            int colon = line.indexOf(':');
+            if (colon < 0 || line.startsWith("HTTP/")) {
+                fields.putIfAbsent(line.toLowerCase(Locale.ROOT), "");
+            } else {
+                fields.putIfAbsent(line.substring(0, colon).strip().toLowerCase(Locale.ROOT), line.substring(colon + 1).strip());
+            }
+            lineStart = i + 2;
+            i++;
+        }
+        return -1;
+    }
+
+    @Override
+    public FetchOutcome fetch(String webpage, List<String> links, FetchHandle handle) {
+        long start = System.nanoTime();
+        int linksBefore = links.size();
+        Record record = records.get(webpage);
+        if (record == null) {
+            missing.increment();
+            stats.recordFetch(System.nanoTime() - start, 0, 0, FetchOutcome.FAILED);
+            return FetchOutcome.FAILED;
+        }
+
+        long bytes = 0;
+        long wireBytes = 0;
+        if (record.outcome() != FetchOutcome.REJECTED_CONTENT_TYPE) {
+            Map<String, String> headers = new HashMap<>();
+            int body = readHeaders(record.segment(), record.block(), headers);
+            int end = record.block() + record.length();
+            if (body >= 0 && body <= end) {
+                wireBytes = end - body;
+                LimitedInputStream decoded = null;
+                try {
+                    decoded = new LimitedInputStream(ContentDecoder.decode(new BufferInputStream(record.segment().slice(body, end - body)),
+                            headers.get("content-encoding")), Long.MAX_VALUE, start + REPLAY_DEADLINE_NANOS);
+                    reader.read(decoded, headers.get("content-type"), links);
+                } catch (IOException e) {
+                    // a body archived while it was cut short ends early; the links before the cut are kept
+                    logger.debug("Replay of {} ended early: {}", webpage, e.getMessage());
+                }
+                bytes = decoded == null ? 0 : decoded.getCount();
+            }
+        }
+
+        replayed.increment();
+        stats.recordFetch(System.nanoTime() - start, wireBytes, bytes, record.outcome());
+        stats.recordLinks(links.size() - linksBefore);
+        return record.outcome();
+    }
+
+    /**
+     * @return Number of distinct URLs in the archive
+     */
+    public int size() {
+        return records.size();
+    }
+
+    /**
+     * @param elapsedMillis Duration of the replay
+     * @return Human-readable report
+     */
+    public String report(long elapsedMillis) {
+        return String.format(Locale.ROOT, "Replay: %d pages served from %d archived (%d MB mapped), %d requested pages not in the archive, %.1f pages/sec",
+                replayed.sum(), records.size(), mappedBytes >> 20, missing.sum(), elapsedMillis == 0 ? 0.0 : replayed.sum() * 1000.0 / elapsedMillis);
+    }
+
+    @Override
+    public void close() {
+        records.clear();
+    }
+
+    /**
+     * Where a response is stored.
+     *
+     * @param segment Mapping of its segment
+     * @param block Start of the HTTP status line
+     * @param length Length of the status line, headers and body
+     * @param outcome How the live fetch ended
+     */
+    private record Record(ByteBuffer segment, int block, int length, FetchOutcome outcome) {
+    }
+
+    /**
+     * Reads a buffer from its position to its limit.
+     */
+    private static final class BufferInputStream extends InputStream {
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        private final ByteBuffer buffer;
+    }
+
+    private static final long REPLAY_DEADLINE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private final FetchStats stats;
+    private final PageReader reader;
+    private final Map<String, Record> records = new ConcurrentHashMap<>();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder missing = new LongAdder();
+    private long mappedBytes;
+    private static final Logger logger = LogManager.getLogger(ArchiveReplay.class);
+}
@@ -0,0 +1,116 @@
+package org.neu.fetch;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of the buffers a worker needs to read one page: a byte buffer for raw reads, a char buffer for
+ * decoded text, a {@link LinkExtractor} and cached {@link CharsetDecoder}s, plus a {@link ByteLinkScanner} once a
+ * page has been scanned undecoded.
+ *
+ * <p>
+ * When the pool is empty a fresh set is allocated rather than blocking, and sets returned to a full pool are
+ * dropped, so the pool never holds more than `capacity` sets. Byte buffers are heap buffers because
+ * {@link java.io.InputStream} can only read into a `byte[]`; a direct buffer would need an extra copy.
+ * </p>
+ */
+public class BufferPool {
+
+    /**
+     * @param capacity Maximum number of idle buffer sets kept for reuse
+     * @param bufferSize Size in bytes of each read buffer, and in chars of each decode buffer
+     */
+    public BufferPool(int capacity, int bufferSize) {
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return A reset buffer set, pooled if one is available
+     */
+    public PageBuffers acquire() {
+        acquired.increment();
+        PageBuffers buffers = pool.poll();
+        if (buffers == null) {
+            allocated.increment();
+            buffers = new PageBuffers(bufferSize);
+        }
+        buffers.bytes.clear();
+        buffers.chars.clear();
+        buffers.extractor.reset();
+        if (buffers.scanner != null) {
+            buffers.scanner.reset();
+        }
+        return buffers;
+    }
+
+    /**
+     * Return a buffer set to the pool. It must not be used afterwards.
+     *
+     * @param buffers
+     */
+    public void release(PageBuffers buffers) {
+        pool.offer(buffers);
+    }
+
+    public long getAcquired() {
+        return acquired.sum();
+    }
+
+    public long getAllocated() {
+        return allocated.sum();
+    }
+
+    /**
+     * Buffers for reading a single page. Not thread-safe; owned by one worker between acquire and release.
+     */
+    public static class PageBuffers {
+        PageBuffers(int bufferSize) {
+            this.bytes = ByteBuffer.allocate(bufferSize);
+            this.chars = CharBuffer.allocate(bufferSize);
+        }
+
+        /**
+         * @param charset
+         * @return A reset decoder for `charset` that replaces malformed input instead of failing
+         */
+        CharsetDecoder decoder(Charset charset) {
+            CharsetDecoder decoder = decoders.computeIfAbsent(charset, cs -> cs.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE));
+            return decoder.reset();
+        }
+
+        /**
+         * @param vector
+         * @return This set's byte scanner, created on first use
+         */
+        ByteLinkScanner scanner(boolean vector) {
+            if (scanner == null || scannerVector != vector) {
+                scanner = ByteLinkScanner.create(vector);
+                scannerVector = vector;
+            }
+            return scanner;
+        }
+
+        final ByteBuffer bytes;
+        final CharBuffer chars;
+        final LinkExtractor extractor = new LinkExtractor();
+        private final Map<Charset, CharsetDecoder> decoders = new HashMap<>(4);
+        private ByteLinkScanner scanner;
+        private boolean scannerVector;
+    }
+
+    private final BlockingQueue<PageBuffers> pool;
+    private final int bufferSize;
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder allocated = new LongAdder();
+}
@@ -0,0 +1,222 @@
+package org.neu.fetch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Constructor;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the same links as {@link LinkExtractor}, but in raw page bytes, so pages in an ASCII-compatible charset
+ * need not be decoded at all.
+ *
+ * <p>
+ * In such charsets `http`, the double quote and line breaks are single bytes that never occur inside a multi-byte
+ * character, so they can be searched for byte-wise; only the bytes of each link found are decoded into its `String`.
+ * Rather than stepping through every byte, the scanner searches for the next `http` outside a link and for the next
+ * quote or line break inside one, which lets {@link VectorLinkScanner} compare whole vector lanes at a time. This
+ * class is the scalar fallback, used when the `jdk.incubator.vector` module is not loaded. State is carried between
+ * chunks as in {@link LinkExtractor}; instances are reused through {@link #reset()}.
+ * </p>
+ */
+public class ByteLinkScanner {
+
+    /**
+     * @param vector true for the vector scanner, if the JVM was started with `--add-modules jdk.incubator.vector`
+     * @return A new scanner
+     */
+    public static ByteLinkScanner create(boolean vector) {
+        if (vector && VECTOR != null) {
+            try {
+                return VECTOR.newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.warn("Failed to create vector link scanner, scanning scalar: " + e.getMessage());
+            }
+        }
+        return new ByteLinkScanner();
+    }
+
+    /**
+     * @return true if {@link #create(boolean)} can return a vector scanner in this JVM
+     */
+    public static boolean isVectorAvailable() {
+        return VECTOR != null;
+    }
+
+    /**
+     * @param charset
+     * @return true if `charset` encodes ASCII as itself and never uses ASCII bytes inside other characters, so its
+     *         bytes can be scanned without decoding
+     */
+    public static boolean isAsciiCompatible(Charset charset) {
+        String name = charset.name();
+        return name.equals("UTF-8") || name.equals("US-ASCII") || name.startsWith("ISO-8859-")
+                || name.startsWith("windows-125") || name.startsWith("KOI8-");
+    }
+
+    /**
+     * Scan a chunk of page bytes, adding any completed links to `links`.
+     *
+     * @param bytes
+     * @param from First byte of the chunk
+     * @param to End of the chunk, exclusive
+     * @param charset Encoding of the page, used to decode the links found
+     * @param links
+     */
+    public void scan(byte[] bytes, int from, int to, Charset charset, List<String> links) {
+        int i = from;
+        while (i < to) {
+            if (inLink) {
+                int delimiter = indexOfDelimiter(bytes, i, to);
+                append(bytes, i, delimiter < 0 ? to : delimiter);
+                if (delimiter < 0) {
+                    return;
+                }
+                if (bytes[delimiter] == '"') {
+                    emit(charset, links);
+                }
+                inLink = false;
+                i = delimiter + 1;
+                continue;
+            }
+
+            // finish a prefix that began at the end of the previous chunk
+            while (matched > 0 && i < to) {
+                if (bytes[i] != PREFIX[matched]) {
+                    // not consumed: the byte that broke the prefix may start the next one
+                    matched = 0;
+                } else {
+                    i++;
+                    if (++matched == PREFIX.length) {
+                        startLink();
+                    }
+                }
+            }
+            if (inLink || i == to) {
+                continue;
+            }
+
+            int start = indexOfPrefix(bytes, i, to);
+            if (start < 0) {
+                matched = partialPrefix(bytes, i, to);
+                return;
+            }
+            startLink();
+            i = start + PREFIX.length;
+        }
+    }
+
+    /**
+     * Forget any partial match, ready for the next page.
+     */
+    public void reset() {
+        inLink = false;
+        overflow = false;
+        matched = 0;
+        length = 0;
+    }
+
+    /**
+     * @return Position of the first `http` lying wholly in `bytes[from, to)`, or -1
+     */
+    protected int indexOfPrefix(byte[] bytes, int from, int to) {
+        for (int i = from; i + 3 < to; i++) {
+            if (bytes[i] == 'h' && bytes[i + 1] == 't' && bytes[i + 2] == 't' && bytes[i + 3] == 'p') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Position of the first double quote, line feed or carriage return in `bytes[from, to)`, or -1
+     */
+    protected int indexOfDelimiter(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b == '"' || b == '\n' || b == '\r') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Length of the longest proper prefix of `http` that ends the chunk
+     */
+    private static int partialPrefix(byte[] bytes, int from, int to) {
+        for (int k = Math.min(PREFIX.length - 1, to - from); k > 0; k--) {
+            if (Arrays.equals(bytes, to - k, to, PREFIX, 0, k)) {
+                return k;
+            }
+        }
+        return 0;
+    }
+
+    private void startLink() {
+        inLink = true;
+        overflow = false;
+        matched = 0;
+        length = 0;
+        append(PREFIX, 0, PREFIX.length);
+    }
+
+    private void append(byte[] bytes, int from, int to) {
+        int n = to - from;
+        if (overflow || n == 0) {
+            return;
+        }
+        if (length + n > MAX_LINK_BYTES) {
+            // no charset spends more than four bytes on a character, so this link is too long whatever it decodes to
+            overflow = true;
+            return;
+        }
+        if (length + n > candidate.length) {
+            candidate = Arrays.copyOf(candidate, Math.min(MAX_LINK_BYTES, Math.max(length + n, candidate.length * 2)));
+        }
+        System.arraycopy(bytes, from, candidate, length, n);
+        length += n;
+    }
+
+    private void emit(Charset charset, List<String> links) {
+        if (overflow) {
+            return;
+        }
+        String link = new String(candidate, 0, length, charset);
+        // the same limits as LinkExtractor, which counts characters
+        if (link.length() > LinkExtractor.MAX_LINK_LENGTH + 1) {
+            return;
+        }
+        if (!link.isEmpty() && link.charAt(link.length() - 1) == '/') {
+            link = link.substring(0, link.length() - 1);
+        }
+        if (link.length() <= LinkExtractor.MAX_LINK_LENGTH) {
+            links.add(link);
+        }
+    }
+
+    private static Constructor<? extends ByteLinkScanner> findVector() {
+        // the vector API is an incubator module, resolved only when the JVM is started with --add-modules
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return Class.forName("org.neu.fetch.VectorLinkScanner").asSubclass(ByteLinkScanner.class).getDeclaredConstructor();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static final byte[] PREFIX = {'h', 't', 't', 'p'};
+    private static final int MAX_LINK_BYTES = 4 * (LinkExtractor.MAX_LINK_LENGTH + 1);
+    private static final Logger logger = LogManager.getLogger(ByteLinkScanner.class);
+    private static final Constructor<? extends ByteLinkScanner> VECTOR = findVector();
+
+    private byte[] candidate = new byte[256];
+    private int length;
+    private boolean inLink;
+    private boolean overflow;
+    private int matched;
+}
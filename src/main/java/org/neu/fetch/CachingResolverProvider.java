@@ -0,0 +1,43 @@
+package org.neu.fetch;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.net.spi.InetAddressResolver;
+import java.net.spi.InetAddressResolverProvider;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Installs {@link DnsCache} as the JVM-wide host resolver.
+ *
+ * <p>
+ * Registered through `META-INF/services/java.net.spi.InetAddressResolverProvider`, so `URL.openStream()` and
+ * every other JDK networking call resolve through the crawler's cache without any change at the call site.
+ * Reverse lookups go straight to the platform resolver.
+ * </p>
+ */
+public class CachingResolverProvider extends InetAddressResolverProvider {
+
+    @Override
+    public InetAddressResolver get(Configuration configuration) {
+        InetAddressResolver builtin = configuration.builtinResolver();
+        DnsCache cache = DnsCache.getInstance();
+
+        return new InetAddressResolver() {
+            @Override
+            public Stream<InetAddress> lookupByName(String host, LookupPolicy lookupPolicy) throws UnknownHostException {
+                return Arrays.stream(cache.lookup(host, lookupPolicy, builtin));
+            }
+
+            @Override
+            public String lookupByAddress(byte[] addr) throws UnknownHostException {
+                return builtin.lookupByAddress(addr);
+            }
+        };
+    }
+
+    @Override
+    public String name() {
+        return "crawler-dns-cache";
+    }
+}
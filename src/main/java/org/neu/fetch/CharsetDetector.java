@@ -0,0 +1,120 @@
+package org.neu.fetch;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Locale;
+
+/**
+ * Works out the character encoding of a page without decoding it.
+ *
+ * <p>
+ * In order of precedence: the `charset` parameter of the `Content-Type` header, a byte order mark, then a
+ * `&lt;meta charset&gt;` or `&lt;meta http-equiv="Content-Type"&gt;` declaration within the first
+ * {@link #PRESCAN_BYTES} bytes. Pages that declare nothing are decoded as UTF-8 rather than with the platform
+ * default charset.
+ * </p>
+ */
+public final class CharsetDetector {
+
+    private CharsetDetector() {}
+
+    /**
+     * @param contentType Value of the `Content-Type` header, possibly null
+     * @param head The first bytes of the body
+     * @param length Number of valid bytes in `head`
+     * @return Charset to decode the page with
+     */
+    public static Charset detect(String contentType, byte[] head, int length) {
+        Charset charset = fromContentType(contentType);
+        if (charset != null) {
+            return charset;
+        }
+
+        charset = fromByteOrderMark(head, length);
+        if (charset != null) {
+            return charset;
+        }
+
+        charset = fromMetaTag(head, Math.min(length, PRESCAN_BYTES));
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    static Charset fromContentType(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        return charsetParameter(contentType.toLowerCase(Locale.ROOT));
+    }
+
+    private static Charset fromByteOrderMark(byte[] head, int length) {
+        if (length >= 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if (length >= 2 && (head[0] & 0xFF) == 0xFE && (head[1] & 0xFF) == 0xFF) {
+            return StandardCharsets.UTF_16BE;
+        }
+        if (length >= 2 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xFE) {
+            return StandardCharsets.UTF_16LE;
+        }
+        return null;
+    }
+
+    /**
+     * Meta declarations are ASCII in every encoding a page may legally declare this way, so the bytes are read as Latin-1.
+     */
+    private static Charset fromMetaTag(byte[] head, int length) {
+        String prefix = new String(head, 0, length, StandardCharsets.ISO_8859_1).toLowerCase(Locale.ROOT);
+
+        int meta = prefix.indexOf("<meta");
+        while (meta != -1) {
+            int end = prefix.indexOf('>', meta);
+            if (end == -1) {
+                return null;
+            }
+            Charset charset = charsetParameter(prefix.substring(meta, end));
+            if (charset != null) {
+                return charset;
+            }
+            meta = prefix.indexOf("<meta", end);
+        }
+        return null;
+    }
+
+    /**
+     * Find `charset=` in a header value or tag and resolve the name after it, with or without quotes.
+     */
+    private static Charset charsetParameter(String text) {
+        int index = text.indexOf("charset");
+        if (index == -1) {
+            return null;
+        }
+        index += "charset".length();
+        while (index < text.length() && (text.charAt(index) == ' ' || text.charAt(index) == '=')) {
+            index++;
+        }
+        while (index < text.length() && (text.charAt(index) == '"' || text.charAt(index) == '\'')) {
+            index++;
+        }
+        int end = index;
+        while (end < text.length() && isCharsetNameChar(text.charAt(end))) {
+            end++;
+        }
+        if (end == index) {
+            return null;
+        }
+
+        try {
+            return Charset.forName(text.substring(index, end));
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return null;
+        }
+    }
+
+    private static boolean isCharsetNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_' || c == '.' || c == ':';
+    }
+
+    public static final int PRESCAN_BYTES = 1024;
+}
@@ -0,0 +1,106 @@
+package org.neu.fetch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Negotiates and decodes compressed HTTP bodies as streams, so a page is never buffered whole.
+ *
+ * <p>
+ * gzip and deflate are handled by `java.util.zip`. Brotli is advertised only when a decoder
+ * (`org.brotli.dec.BrotliInputStream`) is on the classpath, since the JDK does not ship one.
+ * </p>
+ */
+public final class ContentDecoder {
+
+    private ContentDecoder() {}
+
+    /**
+     * @return Value for the `Accept-Encoding` request header
+     */
+    public static String acceptEncoding() {
+        return BROTLI != null ? "gzip, deflate, br" : "gzip, deflate";
+    }
+
+    /**
+     * Wrap a raw response body in a decoder for its `Content-Encoding`.
+     *
+     * @param raw Body as received on the wire
+     * @param contentEncoding Value of the `Content-Encoding` header, possibly null
+     * @return Decoded body stream
+     * @throws IOException If the encoding is unsupported or the stream header is corrupt
+     */
+    public static InputStream decode(InputStream raw, String contentEncoding) throws IOException {
+        if (contentEncoding == null || contentEncoding.isBlank()) {
+            return raw;
+        }
+
+        String encoding = contentEncoding.strip().toLowerCase();
+        switch (encoding) {
+            case "identity":
+                return raw;
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(raw, BUFFER_SIZE);
+            case "deflate":
+                return inflate(raw);
+            case "br":
+                if (BROTLI == null) {
+                    throw new IOException("Unsupported Content-Encoding: " + contentEncoding + " (no brotli decoder on the classpath)");
+                }
+                try {
+                    return BROTLI.newInstance(raw);
+                } catch (ReflectiveOperationException e) {
+                    throw new IOException("Failed to create brotli decoder", e);
+                }
+            default:
+                throw new IOException("Unsupported Content-Encoding: " + contentEncoding);
+        }
+    }
+
+    /**
+     * HTTP `deflate` should be zlib-wrapped, but some servers send raw deflate data. Peek at the first two bytes to tell.
+     */
+    private static InputStream inflate(InputStream raw) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(raw, BUFFER_SIZE);
+        in.mark(2);
+        int b0 = in.read();
+        int b1 = in.read();
+        in.reset();
+
+        boolean zlibHeader = b0 != -1 && b1 != -1 && (b0 & 0x0F) == 8 && ((b0 << 8) | b1) % 31 == 0;
+        Inflater inflater = new Inflater(!zlibHeader);
+        return new InflaterInputStream(in, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    private static Constructor<? extends InputStream> findBrotli() {
+        try {
+            Class<? extends InputStream> brotli = Class.forName("org.brotli.dec.BrotliInputStream").asSubclass(InputStream.class);
+            logger.info("Brotli decoder found, advertising br encoding");
+            return brotli.getConstructor(InputStream.class);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final Logger logger = LogManager.getLogger(ContentDecoder.class);
+    private static final Constructor<? extends InputStream> BROTLI = findBrotli();
+}
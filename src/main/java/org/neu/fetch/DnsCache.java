@@ -0,0 +1,272 @@
+package org.neu.fetch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.net.spi.InetAddressResolver;
+import java.net.spi.InetAddressResolver.LookupPolicy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Crawler-owned DNS cache with positive and negative TTLs.
+ *
+ * <p>
+ * The JVM routes every host lookup through {@link CachingResolverProvider}, which asks this cache first.
+ * Hosts are also resolved ahead of time by {@link #prefetch(String)} on a small background pool as soon as
+ * they enter the frontier, so that a fetch thread usually finds the address already cached instead of
+ * blocking on the system resolver. Prefetches wait in a bounded queue and are dropped when it is full, since the
+ * fetch path resolves the host anyway.
+ * </p>
+ *
+ * <p>
+ * Both the cached lookups and the record of prefetched hosts keep the most recently used {@link #MAX_ENTRIES}
+ * entries, so a long crawl keeps caching new hosts once the cache is full.
+ * </p>
+ */
+public class DnsCache {
+
+    /**
+     * @param maxEntries Most lookups, and most prefetched hosts, remembered
+     */
+    DnsCache(int maxEntries) {
+        this.entries = lru(maxEntries);
+        this.prefetchedHosts = lru(maxEntries);
+        this.prefetchExec = new ThreadPoolExecutor(PREFETCH_THREADS, PREFETCH_THREADS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(PREFETCH_QUEUE), runnable -> {
+            Thread thread = new Thread(() -> {
+                prefetching.set(true);
+                runnable.run();
+            }, "dns-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static <V> Map<String, V> lru(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Singleton getInstance method. The JVM installs a single resolver per process, so there is a single cache too.
+     *
+     * @return DnsCache
+     */
+    public static synchronized DnsCache getInstance() {
+        if (instance == null) {
+            instance = new DnsCache(MAX_ENTRIES);
+        }
+        return instance;
+    }
+
+    /**
+     * Configure the cache. Disabling it keeps the resolution timing, which gives the baseline to compare against.
+     *
+     * @param enabled Whether lookups are cached and prefetched
+     * @param ttlMillis Lifetime of a successful lookup
+     * @param negativeTtlMillis Lifetime of a failed lookup
+     */
+    public void configure(boolean enabled, long ttlMillis, long negativeTtlMillis) {
+        this.enabled = enabled;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        logger.info("DNS cache {} (ttl {}ms, negative ttl {}ms)", enabled ? "enabled" : "disabled", ttlMillis, negativeTtlMillis);
+    }
+
+    /**
+     * Resolve a host, answering from the cache when possible. Called by the JVM through {@link CachingResolverProvider}.
+     *
+     * @param host
+     * @param policy
+     * @param delegate The platform resolver used on a cache miss
+     * @return Addresses of the host
+     * @throws UnknownHostException If the host does not resolve, including cached failures
+     */
+    InetAddress[] lookup(String host, LookupPolicy policy, InetAddressResolver delegate) throws UnknownHostException {
+        boolean onFetchPath = !prefetching.get();
+        long start = System.nanoTime();
+        try {
+            return lookupCached(host, policy, delegate);
+        } finally {
+            if (onFetchPath) {
+                fetchPathLookups.increment();
+                fetchPathResolveNanos.add(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private InetAddress[] lookupCached(String host, LookupPolicy policy, InetAddressResolver delegate) throws UnknownHostException {
+        if (!enabled) {
+            misses.increment();
+            return delegate.lookupByName(host, policy).toArray(InetAddress[]::new);
+        }
+
+        String key = host + "/" + policy.characteristics();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+            if (entry.addresses == null) {
+                negativeHits.increment();
+                throw new UnknownHostException(host);
+            }
+            hits.increment();
+            return entry.addresses;
+        }
+
+        misses.increment();
+        try {
+            InetAddress[] addresses = delegate.lookupByName(host, policy).toArray(InetAddress[]::new);
+            synchronized (entries) {
+                entries.put(key, new Entry(addresses, System.nanoTime() + ttlNanos));
+            }
+            return addresses;
+        } catch (UnknownHostException e) {
+            synchronized (entries) {
+                entries.put(key, new Entry(null, System.nanoTime() + negativeTtlNanos));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Resolve a host in the background so the address is cached by the time a URL on it is dispatched.
+     * Hosts already cached or already being resolved are ignored, and so are hosts that find the queue full.
+     *
+     * @param host
+     */
+    public void prefetch(String host) {
+        if (!enabled || host == null || host.isEmpty()) {
+            return;
+        }
+        Long freshUntil;
+        synchronized (prefetchedHosts) {
+            freshUntil = prefetchedHosts.get(host);
+        }
+        if ((freshUntil != null && freshUntil - System.nanoTime() > 0) || !inFlight.add(host)) {
+            return;
+        }
+        try {
+            prefetchExec.execute(() -> {
+                try {
+                    InetAddress.getAllByName(host);
+                    prefetched.increment();
+                    synchronized (prefetchedHosts) {
+                        prefetchedHosts.put(host, System.nanoTime() + ttlNanos);
+                    }
+                } catch (UnknownHostException e) {
+                    // cached as a negative entry by lookup()
+                } finally {
+                    inFlight.remove(host);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(host);
+            prefetchesDropped.increment();
+        }
+    }
+
+    /**
+     * Extract the host of a URL without allocating a {@link java.net.URL}, for use on the frontier hot path.
+     *
+     * @param url
+     * @return Host part of the URL, or null if the URL has no authority
+     */
+    public static String hostOf(String url) {
+        int start = url.indexOf("://");
+        if (start == -1) {
+            return null;
+        }
+        start += 3;
+        int end = start;
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == ':' || c == '?' || c == '#') {
+                break;
+            }
+            end++;
+        }
+        return url.substring(start, end).toLowerCase();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getNegativeHits() {
+        return negativeHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getPrefetched() {
+        return prefetched.sum();
+    }
+
+    /**
+     * @return Prefetches dropped because the prefetch queue was full
+     */
+    public long getPrefetchesDropped() {
+        return prefetchesDropped.sum();
+    }
+
+    /**
+     * @return Lookups held, including failed ones
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return Total time fetch threads spent blocked in host resolution
+     */
+    public long getFetchPathResolveNanos() {
+        return fetchPathResolveNanos.sum();
+    }
+
+    public long getFetchPathLookups() {
+        return fetchPathLookups.sum();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private record Entry(InetAddress[] addresses, long expiresAt) {}
+
+    private static DnsCache instance;
+    private volatile boolean enabled = true;
+    private volatile long ttlNanos = TimeUnit.MINUTES.toNanos(5);
+    private volatile long negativeTtlNanos = TimeUnit.MINUTES.toNanos(1);
+    private final Map<String, Entry> entries;
+    private final Map<String, Long> prefetchedHosts;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final ExecutorService prefetchExec;
+    private final ThreadLocal<Boolean> prefetching = ThreadLocal.withInitial(() -> false);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder prefetched = new LongAdder();
+    private final LongAdder prefetchesDropped = new LongAdder();
+    private final LongAdder fetchPathLookups = new LongAdder();
+    private final LongAdder fetchPathResolveNanos = new LongAdder();
+    private static final int PREFETCH_THREADS = 8;
+    private static final int PREFETCH_QUEUE = 10_000;
+    private static final int MAX_ENTRIES = 100_000;
+    private static final Logger logger = LogManager.getLogger(DnsCache.class);
+}
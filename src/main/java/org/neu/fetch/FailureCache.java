@@ -0,0 +1,83 @@
+package org.neu.fetch;
+
+import org.neu.util.Fingerprint;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * URLs whose fetch failed recently, keyed by their {@link Fingerprint}, so they are not fetched again before
+ * `ttlMillis` have passed.
+ *
+ * <p>
+ * Only failures that outlived every retry are recorded: {@link FetchOutcome#FAILED} (HTTP 4xx, unknown host),
+ * {@link FetchOutcome#UNAVAILABLE} (timeouts, 5xx) and {@link FetchOutcome#DEADLINE_EXCEEDED}. Like the DNS cache,
+ * the cache stops growing at `maxEntries` until expired entries can be dropped.
+ * </p>
+ */
+public class FailureCache {
+
+    /**
+     * @param maxEntries Most failed URLs remembered
+     * @param ttlMillis How long a failure is remembered
+     */
+    public FailureCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * @param outcome
+     * @return true if a fetch that ended this way should be remembered as failed
+     */
+    public static boolean isFailure(FetchOutcome outcome) {
+        return switch (outcome) {
+            case FAILED, UNAVAILABLE, DEADLINE_EXCEEDED -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * @param url A URL whose fetch failed
+     */
+    public void record(String url) {
+        if (entries.size() >= maxEntries) {
+            long now = System.nanoTime();
+            entries.values().removeIf(expiresAt -> expiresAt - now <= 0);
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(Fingerprint.of(url), System.nanoTime() + ttlNanos);
+    }
+
+    /**
+     * @param url
+     * @return true if a fetch of `url` failed less than `ttlMillis` ago
+     */
+    public boolean contains(String url) {
+        long fingerprint = Fingerprint.of(url);
+        Long expiresAt = entries.get(fingerprint);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt - System.nanoTime() <= 0) {
+            entries.remove(fingerprint, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<Long, Long> entries = new ConcurrentHashMap<>();
+}
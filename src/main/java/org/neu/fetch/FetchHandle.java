@@ -0,0 +1,44 @@
+package org.neu.fetch;
+
+import java.net.HttpURLConnection;
+import java.net.URLConnection;
+
+/**
+ * Lets another thread abandon a fetch in flight. Blocking socket reads ignore interrupts on platform threads, so
+ * cancelling disconnects the fetch's connection instead, which makes the read fail at once.
+ */
+public class FetchHandle {
+
+    /**
+     * Called by the fetching thread once the connection is open. A fetch cancelled before then is disconnected here.
+     *
+     * @param connection
+     */
+    void attach(URLConnection connection) {
+        this.connection = connection;
+        if (cancelled) {
+            disconnect(connection);
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+        URLConnection attached = connection;
+        if (attached != null) {
+            disconnect(attached);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private static void disconnect(URLConnection connection) {
+        if (connection instanceof HttpURLConnection http) {
+            http.disconnect();
+        }
+    }
+
+    private volatile URLConnection connection;
+    private volatile boolean cancelled;
+}
@@ -0,0 +1,23 @@
+package org.neu.fetch;
+
+/**
+ * How a single page fetch ended.
+ */
+public enum FetchOutcome {
+    /** The whole body was read and scanned. */
+    COMPLETE,
+    /** Only the first `parseLimitBytes` of the body were scanned, by configuration. */
+    TRUNCATED,
+    /** The headers announced a non-HTML `Content-Type`, so the body was never read. */
+    REJECTED_CONTENT_TYPE,
+    /** The body was larger than `maxBodyBytes`, either by `Content-Length` or while streaming. */
+    REJECTED_TOO_LARGE,
+    /** The body could not be read before the read deadline. */
+    DEADLINE_EXCEEDED,
+    /** Timeout, refused or reset connection, or HTTP 429 or 5xx: the same request may well succeed later. */
+    UNAVAILABLE,
+    /** Connection, HTTP or I/O failure that a retry would not fix. */
+    FAILED,
+    /** Abandoned because a hedged duplicate of the request finished first. */
+    CANCELLED
+}
@@ -0,0 +1,188 @@
+package org.neu.fetch;
+
+import com.sun.management.ThreadMXBean;
+import org.neu.util.LatencyHistogram;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the fetch stage of a crawl. All methods are safe to call from any worker thread.
+ */
+public class FetchStats {
+
+    public FetchStats() {
+        for (FetchOutcome outcome : FetchOutcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * Record one fetch attempt.
+     *
+     * @param nanos Wall-clock time spent connecting to, requesting and reading the page
+     * @param wireBytes Body bytes received on the wire, before decompression
+     * @param bytes Body bytes read after decompression
+     * @param outcome How the fetch ended
+     */
+    public void recordFetch(long nanos, long wireBytes, long bytes, FetchOutcome outcome) {
+        if (outcome == FetchOutcome.CANCELLED) {
+            // the losing half of a hedged pair is not a page; it only shows up in the outcome counts
+            outcomes.get(outcome).increment();
+            return;
+        }
+        firstFetchNanos.compareAndSet(0, System.nanoTime());
+        pagesFetched.increment();
+        fetchNanos.add(nanos);
+        latency.record(nanos);
+        this.wireBytes.add(wireBytes);
+        bytesRead.add(bytes);
+        outcomes.get(outcome).increment();
+    }
+
+    /**
+     * Record how long a page took from its first request to the response used, across retries and hedges.
+     *
+     * @param nanos
+     */
+    public void recordPageLatency(long nanos) {
+        pageLatency.record(nanos);
+    }
+
+    /**
+     * Record the links found on one page.
+     *
+     * @param links
+     */
+    public void recordLinks(int links) {
+        linksFound.add(links);
+    }
+
+    /**
+     * Record the bytes allocated by the fetching thread during one fetch.
+     *
+     * @param bytes Allocated bytes, or a negative value if the JVM cannot measure it
+     */
+    public void recordAllocation(long bytes) {
+        if (bytes >= 0) {
+            allocatedBytes.add(bytes);
+        }
+    }
+
+    /**
+     * @return Bytes allocated so far by the current thread, or -1 if the JVM does not support the measurement
+     */
+    public static long currentThreadAllocatedBytes() {
+        if (THREAD_MX_BEAN == null) {
+            return -1;
+        }
+        return THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getWireBytes() {
+        return wireBytes.sum();
+    }
+
+    public long getOutcomeCount(FetchOutcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    public long getLinksFound() {
+        return linksFound.sum();
+    }
+
+    public long getPagesFetched() {
+        return pagesFetched.sum();
+    }
+
+    public long getFetchNanos() {
+        return fetchNanos.sum();
+    }
+
+    /**
+     * @return Distribution of fetch durations
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return Distribution of page latencies across retries and hedges, see {@link #recordPageLatency(long)}
+     */
+    public LatencyHistogram getPageLatency() {
+        return pageLatency;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} when the first fetch finished, or 0 if none has
+     */
+    public long getFirstFetchNanos() {
+        return firstFetchNanos.get();
+    }
+
+    /**
+     * Summarise the fetch stage, including how much of the fetch time was spent waiting on DNS.
+     *
+     * @param dns The DNS cache used during the crawl
+     * @param elapsedMillis Wall-clock duration of the crawl, for the pages/sec rate
+     * @return Multi-line human-readable report
+     */
+    public String report(DnsCache dns, long elapsedMillis) {
+        long pages = getPagesFetched();
+        long totalNanos = getFetchNanos();
+        double meanMillis = pages == 0 ? 0 : totalNanos / 1e6 / pages;
+        double pagesPerSec = elapsedMillis <= 0 ? 0 : pages * 1000.0 / elapsedMillis;
+        double wirePerPage = pages == 0 ? 0 : (double) getWireBytes() / pages;
+        double bodyPerPage = pages == 0 ? 0 : (double) getBytesRead() / pages;
+        double allocatedPerPage = pages == 0 ? 0 : (double) getAllocatedBytes() / pages;
+        double resolveShare = totalNanos == 0 ? 0 : 100.0 * dns.getFetchPathResolveNanos() / totalNanos;
+
+        StringBuilder outcomeCounts = new StringBuilder();
+        outcomes.forEach((outcome, count) -> outcomeCounts.append(outcome).append('=').append(count.sum()).append(' '));
+
+        return String.format("Fetches: %d pages (%.2f pages/sec), mean %.2fms per page, p50 %.2fms, p99 %.2fms%n" +
+                        "Page latency with retries and hedges: p50 %.2fms, p99 %.2fms%n" +
+                        "Bytes per page: %.0f on the wire, %.0f decoded, %.0f allocated by the fetch thread%n" +
+                        "Outcomes: %s%n" +
+                        "DNS (%s): %d hits, %d negative hits, %d misses, %d hosts prefetched, %d prefetches dropped%n" +
+                        "DNS resolution share of fetch time: %.2f%%",
+                pages, pagesPerSec, meanMillis, latency.percentileMillis(0.5), latency.percentileMillis(0.99),
+                pageLatency.percentileMillis(0.5), pageLatency.percentileMillis(0.99),
+                wirePerPage, bodyPerPage, allocatedPerPage,
+                outcomeCounts.toString().strip(),
+                dns.isEnabled() ? "cached" : "uncached", dns.getHits(), dns.getNegativeHits(), dns.getMisses(), dns.getPrefetched(), dns.getPrefetchesDropped(),
+                resolveShare);
+    }
+
+    private final AtomicLong firstFetchNanos = new AtomicLong();
+    private final LongAdder pagesFetched = new LongAdder();
+    private final LongAdder fetchNanos = new LongAdder();
+    private final LongAdder linksFound = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram pageLatency = new LatencyHistogram();
+    private final LongAdder wireBytes = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final Map<FetchOutcome, LongAdder> outcomes = new EnumMap<>(FetchOutcome.class);
+
+    private static ThreadMXBean findThreadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    private static final ThreadMXBean THREAD_MX_BEAN = findThreadMXBean();
+}
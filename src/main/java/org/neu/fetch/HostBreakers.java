@@ -0,0 +1,229 @@
+package org.neu.fetch;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A circuit breaker per host, so that hosts which time out or refuse service stop costing worker time.
+ *
+ * <p>
+ * A host's breaker opens after `failures` consecutive fetches ending {@link FetchOutcome#UNAVAILABLE} or
+ * {@link FetchOutcome#DEADLINE_EXCEEDED}. While open, {@link #allow(String)} refuses the host, and the crawler parks
+ * its URLs instead of dispatching them. Once the cooldown has passed the breaker is half-open: one probe fetch is
+ * allowed, which closes the breaker if it succeeds and reopens it with twice the cooldown, up to `maxCooldownMillis`,
+ * if it fails. A probe that is cancelled, never started, or not recorded within `probeTimeoutMillis` is given up:
+ * the breaker reopens without a longer cooldown and the next call to {@link #allow(String)} sends a new probe.
+ * Only the most recently used `maxHosts` hosts are tracked; an evicted host starts over closed, whatever its state.
+ * </p>
+ */
+public class HostBreakers {
+
+    /**
+     * @param failures Consecutive failures that open a breaker
+     * @param cooldownMillis Time a breaker stays open the first time
+     * @param maxCooldownMillis Longest time a breaker stays open after repeated failed probes
+     */
+    public HostBreakers(int failures, long cooldownMillis, long maxCooldownMillis) {
+        this(failures, cooldownMillis, maxCooldownMillis, cooldownMillis, DEFAULT_MAX_HOSTS);
+    }
+
+    /**
+     * @param failures Consecutive failures that open a breaker
+     * @param cooldownMillis Time a breaker stays open the first time
+     * @param maxCooldownMillis Longest time a breaker stays open after repeated failed probes
+     * @param probeTimeoutMillis Longest a probe may take before it is given up, at least the longest fetch
+     * @param maxHosts Most hosts tracked
+     */
+    public HostBreakers(int failures, long cooldownMillis, long maxCooldownMillis, long probeTimeoutMillis, int maxHosts) {
+        this.failures = failures;
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMillis);
+        this.maxCooldownNanos = TimeUnit.MILLISECONDS.toNanos(maxCooldownMillis);
+        this.probeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(probeTimeoutMillis);
+        this.hosts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Breaker> eldest) {
+                return size() > maxHosts;
+            }
+        };
+    }
+
+    /**
+     * Decide whether a URL of `host` may be dispatched. When a cooldown has passed, the call that returns true is
+     * the probe, and the host is refused again until the probe has been recorded.
+     *
+     * @param host
+     * @return false if the host's breaker is open
+     */
+    public synchronized boolean allow(String host) {
+        Breaker breaker = hosts.get(host);
+        if (breaker == null || breaker.state == State.CLOSED) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (breaker.state == State.HALF_OPEN && now >= breaker.probeUntil) {
+            abandon(breaker, now);
+        }
+        if (breaker.state == State.OPEN && now >= breaker.openUntil) {
+            breaker.state = State.HALF_OPEN;
+            breaker.probeUntil = now + probeTimeoutNanos;
+            probes.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Give up the probe of `host`, for when it was never fetched; a new probe may be sent right away.
+     *
+     * @param host
+     */
+    public synchronized void abandonProbe(String host) {
+        Breaker breaker = hosts.get(host);
+        if (breaker != null && breaker.state == State.HALF_OPEN) {
+            abandon(breaker, System.nanoTime());
+        }
+    }
+
+    private void abandon(Breaker breaker, long now) {
+        breaker.state = State.OPEN;
+        breaker.openUntil = now;
+        probesAbandoned.increment();
+    }
+
+    /**
+     * @param host
+     * @return true unless the host's breaker is open or probing, so retries and hedges may be sent to it
+     */
+    public synchronized boolean isClosed(String host) {
+        Breaker breaker = hosts.get(host);
+        return breaker == null || breaker.state == State.CLOSED;
+    }
+
+    /**
+     * Record how a fetch from `host` ended.
+     *
+     * @param host
+     * @param outcome
+     * @param nanos Worker time the fetch took
+     */
+    public void record(String host, FetchOutcome outcome, long nanos) {
+        if (outcome == FetchOutcome.CANCELLED) {
+            // says nothing about the host, but a cancelled probe must not keep it refused
+            abandonProbe(host);
+            return;
+        }
+        boolean failed = outcome == FetchOutcome.UNAVAILABLE || outcome == FetchOutcome.DEADLINE_EXCEEDED;
+        if (failed) {
+            failingNanos.add(nanos);
+        }
+
+        synchronized (this) {
+            Breaker breaker = hosts.get(host);
+            if (!failed) {
+                if (breaker != null) {
+                    breaker.state = State.CLOSED;
+                    breaker.failures = 0;
+                    breaker.cooldown = cooldownNanos;
+                }
+                return;
+            }
+
+            if (breaker == null) {
+                breaker = new Breaker(cooldownNanos);
+                hosts.put(host, breaker);
+            }
+            if (breaker.state == State.HALF_OPEN) {
+                breaker.cooldown = Math.min(maxCooldownNanos, breaker.cooldown * 2);
+                open(breaker);
+            } else if (breaker.state == State.CLOSED && ++breaker.failures >= failures) {
+                open(breaker);
+            }
+        }
+    }
+
+    private void open(Breaker breaker) {
+        breaker.state = State.OPEN;
+        breaker.openUntil = System.nanoTime() + breaker.cooldown;
+        trips.increment();
+    }
+
+    /**
+     * @return Milliseconds until the next open breaker may be probed or the next probe times out, or -1 if every
+     *         breaker is closed
+     */
+    public synchronized long nextProbeMillis() {
+        long now = System.nanoTime();
+        long next = -1;
+        for (Breaker breaker : hosts.values()) {
+            if (breaker.state != State.CLOSED) {
+                long until = breaker.state == State.OPEN ? breaker.openUntil : breaker.probeUntil;
+                long wait = Math.max(0, TimeUnit.NANOSECONDS.toMillis(until - now));
+                next = next == -1 ? wait : Math.min(next, wait);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * @return Number of hosts whose breaker is open or probing
+     */
+    public synchronized int getOpenHosts() {
+        int open = 0;
+        for (Breaker breaker : hosts.values()) {
+            if (breaker.state != State.CLOSED) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    public long getTrips() {
+        return trips.sum();
+    }
+
+    /**
+     * @return Worker time spent on fetches that timed out or found the host unavailable
+     */
+    public long getFailingNanos() {
+        return failingNanos.sum();
+    }
+
+    /**
+     * @param stats Statistics of the same crawl, for the share of fetch time
+     * @return Human-readable report
+     */
+    public String report(FetchStats stats) {
+        long fetchNanos = stats.getFetchNanos();
+        return String.format("Circuit breakers: %d trips, %d hosts open now, %d probes (%d given up); " +
+                        "worker time on failing hosts %dms (%.2f%% of fetch time)",
+                trips.sum(), getOpenHosts(), probes.sum(), probesAbandoned.sum(), TimeUnit.NANOSECONDS.toMillis(getFailingNanos()),
+                fetchNanos == 0 ? 0.0 : 100.0 * getFailingNanos() / fetchNanos);
+    }
+
+    private enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private static final class Breaker {
+        Breaker(long cooldown) {
+            this.cooldown = cooldown;
+        }
+
+        State state = State.CLOSED;
+        int failures;
+        long cooldown;
+        long openUntil;
+        long probeUntil;
+    }
+
+    public static final int DEFAULT_MAX_HOSTS = 100_000;
+    private final int failures;
+    private final long cooldownNanos;
+    private final long maxCooldownNanos;
+    private final long probeTimeoutNanos;
+    private final LinkedHashMap<String, Breaker> hosts;
+    private final LongAdder trips = new LongAdder();
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder probesAbandoned = new LongAdder();
+    private final LongAdder failingNanos = new LongAdder();
+}
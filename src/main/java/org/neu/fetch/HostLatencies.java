@@ -0,0 +1,58 @@
+package org.neu.fetch;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recent fetch latencies per host, from which the hedging delay of each host is derived.
+ *
+ * <p>
+ * Each host keeps its last {@link #WINDOW} latencies in a ring, so its percentile follows the host as it speeds up
+ * or slows down. Only the most recently used `maxHosts` hosts are tracked.
+ * </p>
+ */
+public class HostLatencies {
+
+    /**
+     * @param maxHosts
+     */
+    public HostLatencies(int maxHosts) {
+        this.hosts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+                return size() > maxHosts;
+            }
+        };
+    }
+
+    /**
+     * @param host
+     * @param nanos Duration of a fetch from `host` that was not cancelled
+     */
+    public synchronized void record(String host, long nanos) {
+        // slot WINDOW holds the number of samples recorded so far
+        long[] ring = hosts.computeIfAbsent(host, ignored -> new long[WINDOW + 1]);
+        ring[(int) (ring[WINDOW]++ % WINDOW)] = nanos;
+    }
+
+    /**
+     * @param host
+     * @param quantile Between 0 and 1, e.g. 0.95
+     * @param minSamples Samples needed before the estimate is trusted
+     * @return The quantile of the host's recent latencies in nanoseconds, or -1 with fewer than `minSamples`
+     */
+    public synchronized long percentileNanos(String host, double quantile, int minSamples) {
+        long[] ring = hosts.get(host);
+        if (ring == null || ring[WINDOW] < minSamples) {
+            return -1;
+        }
+        int samples = (int) Math.min(ring[WINDOW], WINDOW);
+        long[] sorted = Arrays.copyOf(ring, samples);
+        Arrays.sort(sorted);
+        return sorted[Math.min(samples - 1, (int) Math.ceil(quantile * samples) - 1)];
+    }
+
+    static final int WINDOW = 64;
+    private final LinkedHashMap<String, long[]> hosts;
+}
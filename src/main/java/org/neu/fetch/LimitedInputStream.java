@@ -0,0 +1,117 @@
+package org.neu.fetch;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that ends after a byte limit and fails once a deadline has passed.
+ *
+ * <p>
+ * Reaching the limit looks like end of stream to the reader, so a parser simply stops; {@link #isLimitReached()}
+ * tells the caller the body was cut short. A body of exactly `limit` bytes is not cut short: once the limit is
+ * reached, one more byte is read from the wrapped stream to tell the two apart. Passing the deadline throws {@link DeadlineExceededException}, which
+ * aborts responses that trickle in too slowly for the socket read timeout to notice.
+ * </p>
+ */
+public class LimitedInputStream extends FilterInputStream {
+
+    /**
+     * @param in Stream to wrap
+     * @param limit Maximum number of bytes to return
+     * @param deadlineNanos Absolute {@link System#nanoTime()} after which reads fail
+     */
+    public LimitedInputStream(InputStream in, long limit, long deadlineNanos) {
+        super(in);
+        this.remaining = limit;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!checkRemaining()) {
+            return -1;
+        }
+        int b = super.read();
+        if (b != -1) {
+            remaining--;
+            count++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (!checkRemaining()) {
+            return -1;
+        }
+        int n = super.read(b, off, (int) Math.min(len, remaining));
+        if (n > 0) {
+            remaining -= n;
+            count += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (!checkRemaining()) {
+            return 0;
+        }
+        long skipped = super.skip(Math.min(n, remaining));
+        remaining -= skipped;
+        count += skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private boolean checkRemaining() throws IOException {
+        if (System.nanoTime() - deadlineNanos > 0) {
+            throw new DeadlineExceededException("Read deadline exceeded after " + count + " bytes");
+        }
+        if (remaining <= 0) {
+            // the probe byte is dropped, since reading stops here either way
+            if (!probed) {
+                probed = true;
+                limitReached = super.read() != -1;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if reading stopped because the byte limit was reached
+     */
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+
+    /**
+     * @return Number of bytes returned so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Thrown when a read is attempted after the deadline has passed.
+     */
+    public static class DeadlineExceededException extends IOException {
+        public DeadlineExceededException(String message) {
+            super(message);
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    private long remaining;
+    private long count;
+    private boolean limitReached;
+    private boolean probed;
+    private final long deadlineNanos;
+}
@@ -0,0 +1,87 @@
+package org.neu.fetch;
+
+import java.nio.CharBuffer;
+import java.util.List;
+
+/**
+ * Incremental version of {@link org.neu.Crawler#grepHyperLinks(List, String)} that scans decoded chunks as they arrive.
+ *
+ * <p>
+ * A link starts at `http` and ends at the next double quote. As with the line-based scan, a line break before the
+ * closing quote discards the candidate, and links longer than {@link #MAX_LINK_LENGTH} characters are dropped. State
+ * is carried between chunks, so a link split across two reads is still found. The only allocation per page is the
+ * `String` of each link found; instances are reused through {@link #reset()}.
+ * </p>
+ */
+public class LinkExtractor {
+
+    /**
+     * Scan a chunk of decoded text, adding any completed links to `links`.
+     *
+     * @param chars Chunk to scan, from its position to its limit. The position is advanced to the limit.
+     * @param links
+     */
+    public void scan(CharBuffer chars, List<String> links) {
+        while (chars.hasRemaining()) {
+            char c = chars.get();
+
+            if (!inLink) {
+                if (c == PREFIX.charAt(matched)) {
+                    matched++;
+                    if (matched == PREFIX.length()) {
+                        inLink = true;
+                        overflow = false;
+                        matched = 0;
+                        candidate.setLength(0);
+                        candidate.append(PREFIX);
+                    }
+                } else {
+                    matched = c == PREFIX.charAt(0) ? 1 : 0;
+                }
+                continue;
+            }
+
+            if (c == '"') {
+                emit(links);
+                inLink = false;
+            } else if (c == '\n' || c == '\r') {
+                inLink = false;
+            } else if (candidate.length() <= MAX_LINK_LENGTH) {
+                candidate.append(c);
+            } else {
+                overflow = true;
+            }
+        }
+    }
+
+    /**
+     * Forget any partial match, ready for the next page.
+     */
+    public void reset() {
+        inLink = false;
+        overflow = false;
+        matched = 0;
+        candidate.setLength(0);
+    }
+
+    private void emit(List<String> links) {
+        if (overflow) {
+            return;
+        }
+        int length = candidate.length();
+        if (length > 0 && candidate.charAt(length - 1) == '/') {
+            length--;
+        }
+        if (length <= MAX_LINK_LENGTH) {
+            links.add(candidate.substring(0, length));
+        }
+    }
+
+    public static final int MAX_LINK_LENGTH = 1000;
+    private static final String PREFIX = "http";
+
+    private final StringBuilder candidate = new StringBuilder(256);
+    private boolean inLink;
+    private boolean overflow;
+    private int matched;
+}
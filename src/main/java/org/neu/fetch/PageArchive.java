@@ -0,0 +1,189 @@
+package org.neu.fetch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Appends fetched responses to rolling WARC-style segment files, so a crawl can be replayed offline by an
+ * {@link ArchiveReplay}.
+ *
+ * <p>
+ * Every response whose headers were read becomes one `response` record: the URL, the HTTP status line and headers,
+ * and the body as it came off the wire, still compressed if the server compressed it. Bodies that arrived
+ * uncompressed are gzipped before they are written, with a matching `Content-Encoding` header, so every stored body
+ * is decoded the same way. The record also carries the crawl's {@link FetchOutcome} in a `WARC-Crawl-Outcome`
+ * field, and `WARC-Truncated` if the body was cut short.
+ * </p>
+ *
+ * <p>
+ * A segment is closed and the next one started once it would grow past `segmentBytes`. Segment names start with
+ * the time the archive was opened, so several crawls can archive to one directory and be replayed together.
+ * </p>
+ */
+public class PageArchive implements Closeable {
+
+    /**
+     * @param dir Directory for the segments, created if missing
+     * @param segmentBytes Size after which a new segment is started
+     * @throws IOException If the directory cannot be created
+     */
+    public PageArchive(Path dir, long segmentBytes) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.segmentBytes = segmentBytes;
+        this.prefix = "crawl-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")) + "-" + ARCHIVES.incrementAndGet();
+    }
+
+    /**
+     * Append one response. A write failure is logged and the response left out, rather than failing the fetch.
+     *
+     * @param url
+     * @param headers Response headers as returned by {@link java.net.URLConnection#getHeaderFields()}, with the status
+     *                line under the null key
+     * @param outcome How the fetch ended
+     * @param body Body bytes as received, before any decoding
+     * @param length Number of bytes of `body` used
+     * @param truncated true if the body was not read to the end
+     */
+    public void append(String url, Map<String, List<String>> headers, FetchOutcome outcome, byte[] body, int length, boolean truncated) {
+        try {
+            byte[] record = record(url, headers, outcome, body, length, truncated);
+            write(record);
+            records.incrementAndGet();
+            bodyBytes.addAndGet(length);
+        } catch (IOException e) {
+            failures.incrementAndGet();
+            logger.warn("Failed to archive {}: {}", url, e.getMessage());
+        }
+    }
+
+    private static byte[] record(String url, Map<String, List<String>> headers, FetchOutcome outcome, byte[] body, int length,
+                                 boolean truncated) throws IOException {
+        String encoding = null;
+        StringBuilder http = new StringBuilder();
+        List<String> statusLine = headers.get(null);
+        http.append(statusLine == null || statusLine.isEmpty() ? "HTTP/1.1 200 OK" : statusLine.get(0)).append(CRLF);
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            String name = header.getKey();
+            // the stored body is neither chunked nor, when we compress it, of the announced length
+            if (name == null || name.equalsIgnoreCase("Transfer-Encoding") || name.equalsIgnoreCase("Content-Length")) {
+                continue;
+            }
+            if (name.equalsIgnoreCase("Content-Encoding")) {
+                encoding = header.getValue().isEmpty() ? null : header.getValue().get(0);
+            }
+            for (String value : header.getValue()) {
+                http.append(name).append(": ").append(value).append(CRLF);
+            }
+        }
+
+        byte[] stored = body;
+        int storedLength = length;
+        if (encoding == null || encoding.isBlank() || encoding.equalsIgnoreCase("identity")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body, 0, length);
+            }
+            stored = compressed.toByteArray();
+            storedLength = stored.length;
+            http.append("Content-Encoding: gzip").append(CRLF);
+        }
+        http.append("Content-Length: ").append(storedLength).append(CRLF).append(CRLF);
+        byte[] httpHeaders = http.toString().getBytes(StandardCharsets.ISO_8859_1);
+
+        StringBuilder warc = new StringBuilder("WARC/1.1").append(CRLF)
+                .append("WARC-Type: response").append(CRLF)
+                .append("WARC-Record-ID: <urn:uuid:").append(UUID.randomUUID()).append('>').append(CRLF)
+                .append("WARC-Date: ").append(Instant.now().truncatedTo(ChronoUnit.SECONDS)).append(CRLF)
+                .append("WARC-Target-URI: ").append(url).append(CRLF)
+                .append(OUTCOME_FIELD).append(": ").append(outcome.name()).append(CRLF);
+        if (truncated) {
+            warc.append("WARC-Truncated: length").append(CRLF);
+        }
+        warc.append("Content-Type: application/http;msgtype=response").append(CRLF)
+                .append("Content-Length: ").append(httpHeaders.length + storedLength).append(CRLF).append(CRLF);
+        byte[] warcHeaders = warc.toString().getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer record = ByteBuffer.allocate(warcHeaders.length + httpHeaders.length + storedLength + 4);
+        record.put(warcHeaders).put(httpHeaders).put(stored, 0, storedLength).put(RECORD_END);
+        return record.array();
+    }
+
+    private synchronized void write(byte[] record) throws IOException {
+        if (segment == null || (segmentSize > 0 && segmentSize + record.length > segmentBytes)) {
+            if (segment != null) {
+                segment.close();
+            }
+            Path file = dir.resolve(String.format(Locale.ROOT, "%s-%05d.warc", prefix, segments++));
+            segment = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            segmentSize = 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        segmentSize += record.length;
+        archiveBytes += record.length;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (segment != null) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                logger.error("Failed to close archive segment: " + e.getMessage());
+            }
+            segment = null;
+        }
+    }
+
+    public long getRecords() {
+        return records.get();
+    }
+
+    /**
+     * @return Human-readable report
+     */
+    public synchronized String report() {
+        return String.format(Locale.ROOT, "Archive: %d responses (%d failed) in %d segments under %s, %d MB of bodies stored as %d MB",
+                records.get(), failures.get(), segments, dir, bodyBytes.get() >> 20, archiveBytes >> 20);
+    }
+
+    static final String OUTCOME_FIELD = "WARC-Crawl-Outcome";
+    private static final String CRLF = "\r\n";
+    private static final byte[] RECORD_END = {'\r', '\n', '\r', '\n'};
+    private static final AtomicInteger ARCHIVES = new AtomicInteger();
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final String prefix;
+    private FileChannel segment;
+    private long segmentSize;
+    private int segments;
+    private long archiveBytes;
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong bodyBytes = new AtomicLong();
+    private static final Logger logger = LogManager.getLogger(PageArchive.class);
+}
@@ -0,0 +1,325 @@
+package org.neu.fetch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neu.RuntimeConfig;
+import org.neu.trace.FetchEvent;
+import org.neu.trace.ParseEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches a page and extracts its hyperlinks, bounding the time and memory any single response can cost.
+ *
+ * <p>
+ * Headers are checked before the body is touched: a non-HTML `Content-Type` or a `Content-Length` above
+ * `maxBodyBytes` rejects the page without reading it. The body is then streamed through a
+ * {@link LimitedInputStream}, which stops at the size cap (or at `parseLimitBytes` for partial parsing) and
+ * aborts once the read deadline passes.
+ * </p>
+ *
+ * <p>
+ * Compression is negotiated with `Accept-Encoding` and decoded as a stream (see {@link ContentDecoder}). The size
+ * cap applies to decoded bytes, which also protects against decompression bombs, while bytes on the wire are
+ * counted separately. Decoded bytes go through a {@link PageReader}, which reuses pooled buffers and honours the
+ * page's charset.
+ * </p>
+ *
+ * <p>
+ * Each fetch and parse is also recorded as a {@link FetchEvent} and {@link ParseEvent} when Flight Recorder is on.
+ * With a {@link PageArchive}, the bytes read off the wire are copied and every response is archived for replay.
+ * With a {@link RedirectCache}, every fetch that landed on another URL is recorded there.
+ * </p>
+ */
+public class PageFetcher implements PageSource {
+
+    public PageFetcher(RuntimeConfig config, FetchStats stats) {
+        this(config, stats, new BufferPool(config.bufferPoolSize, config.readBufferSize));
+    }
+
+    /**
+     * @param config
+     * @param stats
+     * @param buffers Read buffers, which may be shared with other fetchers
+     */
+    public PageFetcher(RuntimeConfig config, FetchStats stats, BufferPool buffers) {
+        this(config, stats, buffers, null);
+    }
+
+    /**
+     * @param config
+     * @param stats
+     * @param buffers Read buffers, which may be shared with other fetchers
+     * @param archive Receives every response whose headers were read, or null
+     */
+    public PageFetcher(RuntimeConfig config, FetchStats stats, BufferPool buffers, PageArchive archive) {
+        this(config, stats, buffers, archive, null);
+    }
+
+    /**
+     * @param config
+     * @param stats
+     * @param buffers Read buffers, which may be shared with other fetchers
+     * @param archive Receives every response whose headers were read, or null
+     * @param redirects Receives every fetch that was redirected to another URL, or null
+     */
+    public PageFetcher(RuntimeConfig config, FetchStats stats, BufferPool buffers, PageArchive archive, RedirectCache redirects) {
+        this.config = config;
+        this.stats = stats;
+        this.reader = new PageReader(buffers, config.linkScanner);
+        this.archive = archive;
+        this.redirects = redirects;
+    }
+
+    /**
+     * Fetch a page and add every hyperlink found in it to `links`. Links found before an abort are kept.
+     *
+     * @param webpage
+     * @param links
+     * @return How the fetch ended
+     */
+    public FetchOutcome fetch(String webpage, List<String> links) {
+        return fetch(webpage, links, null);
+    }
+
+    /**
+     * Fetch a page that another thread may abandon through `handle`.
+     *
+     * @param webpage
+     * @param links
+     * @param handle Cancels the fetch, or null
+     * @return How the fetch ended, {@link FetchOutcome#CANCELLED} if it was abandoned
+     */
+    @Override
+    public FetchOutcome fetch(String webpage, List<String> links, FetchHandle handle) {
+        FetchEvent event = new FetchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long allocatedAtStart = FetchStats.currentThreadAllocatedBytes();
+        FetchOutcome outcome;
+        long bytes = 0;
+        long wireBytes = 0;
+        int status = -1;
+        int linksBefore = links.size();
+        boolean headersRead = false;
+        URLConnection connection = null;
+        ByteArrayOutputStream recorded = null;
+
+        try {
+            connection = new URL(webpage).openConnection();
+            if (handle != null) {
+                handle.attach(connection);
+            }
+            connection.setConnectTimeout(config.connectTimeoutMillis);
+            connection.setReadTimeout(config.readTimeoutMillis);
+            if (config.compression) {
+                connection.setRequestProperty("Accept-Encoding", ContentDecoder.acceptEncoding());
+            }
+            connection.connect();
+
+            outcome = checkHeaders(connection);
+            headersRead = true;
+            // the connection follows redirects while reading the headers, and then reports where it landed
+            if (redirects != null && !connection.getURL().toString().equals(webpage)) {
+                redirects.record(webpage, connection.getURL().toString());
+            }
+            if (event.isEnabled()) {
+                status = responseCode(connection);
+            }
+            if (outcome == null) {
+                long limit = config.parseLimitBytes > 0 ? Math.min(config.parseLimitBytes, config.maxBodyBytes) : config.maxBodyBytes;
+                long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.readDeadlineMillis);
+                InputStream raw = connection.getInputStream();
+                if (archive != null) {
+                    recorded = new ByteArrayOutputStream((int) Math.min(connection.getContentLengthLong() + 1, 64 * 1024));
+                    raw = new Recorder(raw, recorded);
+                }
+                LimitedInputStream wire = new LimitedInputStream(raw, Long.MAX_VALUE, deadline);
+                LimitedInputStream body = null;
+
+                try {
+                    body = new LimitedInputStream(ContentDecoder.decode(wire, connection.getContentEncoding()), limit, deadline);
+                    ParseEvent parse = new ParseEvent();
+                    parse.begin();
+                    try (LimitedInputStream in = body) {
+                        reader.read(in, connection.getContentType(), links);
+                    }
+                    if (parse.shouldCommit()) {
+                        parse.url = webpage;
+                        parse.links = links.size();
+                        parse.bytes = body.getCount();
+                        parse.commit();
+                    }
+                } finally {
+                    wireBytes = wire.getCount();
+                    bytes = body == null ? 0 : body.getCount();
+                    if (body == null) {
+                        wire.close();
+                    }
+                }
+
+                if (!body.isLimitReached()) {
+                    outcome = FetchOutcome.COMPLETE;
+                } else if (limit < config.maxBodyBytes) {
+                    outcome = FetchOutcome.TRUNCATED;
+                } else {
+                    outcome = FetchOutcome.REJECTED_TOO_LARGE;
+                }
+            }
+        } catch (LimitedInputStream.DeadlineExceededException e) {
+            outcome = FetchOutcome.DEADLINE_EXCEEDED;
+        } catch (IOException e) {
+            if (handle != null && handle.isCancelled()) {
+                outcome = FetchOutcome.CANCELLED;
+            } else {
+                // once headers are in, the status is cached; asking before would reconnect
+                outcome = isTransient(e, headersRead ? responseCode(connection) : -1) ? FetchOutcome.UNAVAILABLE : FetchOutcome.FAILED;
+            }
+        } catch (IllegalArgumentException e) {
+            outcome = FetchOutcome.FAILED;
+        }
+
+        if (event.shouldCommit()) {
+            event.url = webpage;
+            event.host = DnsCache.hostOf(webpage);
+            event.status = status;
+            event.outcome = outcome.name();
+            event.wireBytes = wireBytes;
+            event.bytes = bytes;
+            event.commit();
+        }
+
+        if (archive != null && headersRead && isArchived(outcome)) {
+            archive.append(webpage, connection.getHeaderFields(), outcome, recorded == null ? new byte[0] : recorded.toByteArray(),
+                    recorded == null ? 0 : recorded.size(), outcome == FetchOutcome.TRUNCATED || outcome == FetchOutcome.REJECTED_TOO_LARGE);
+        }
+
+        // a fully read response leaves its connection in the keep-alive cache, anything else is torn down
+        if (outcome != FetchOutcome.COMPLETE && connection instanceof HttpURLConnection http) {
+            http.disconnect();
+        }
+
+        stats.recordFetch(System.nanoTime() - start, wireBytes, bytes, outcome);
+        stats.recordLinks(links.size() - linksBefore);
+        stats.recordAllocation(FetchStats.currentThreadAllocatedBytes() - allocatedAtStart);
+        if (outcome != FetchOutcome.COMPLETE) {
+            logger.debug("Fetch of {} ended with {}", webpage, outcome);
+        }
+        return outcome;
+    }
+
+    /**
+     * @param outcome
+     * @return true for outcomes a replay should reproduce: the response arrived and was judged on its content
+     */
+    private static boolean isArchived(FetchOutcome outcome) {
+        return switch (outcome) {
+            case COMPLETE, TRUNCATED, REJECTED_CONTENT_TYPE, REJECTED_TOO_LARGE -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Copies every byte read from the wire, for the archive.
+     */
+    private static final class Recorder extends FilterInputStream {
+        Recorder(InputStream in, ByteArrayOutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                copy.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                copy.write(b, off, n);
+            }
+            return n;
+        }
+
+        private final ByteArrayOutputStream copy;
+    }
+
+    /**
+     * @param e
+     * @param status HTTP status, or -1 if none was received
+     * @return true if the failure is likely to go away, so the fetch is worth retrying
+     */
+    static boolean isTransient(IOException e, int status) {
+        if (status >= 400) {
+            return status == 429 || status >= 500;
+        }
+        return e instanceof SocketTimeoutException || e instanceof SocketException;
+    }
+
+    /**
+     * @param connection
+     * @return The HTTP status of a response whose headers were already read, or -1
+     */
+    private static int responseCode(URLConnection connection) {
+        if (connection instanceof HttpURLConnection http) {
+            try {
+                return http.getResponseCode();
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decide from the response headers alone whether the body is worth reading.
+     *
+     * @param connection
+     * @return The rejection outcome, or null if the body should be read
+     */
+    private FetchOutcome checkHeaders(URLConnection connection) {
+        if (!isHtmlContentType(connection.getContentType())) {
+            return FetchOutcome.REJECTED_CONTENT_TYPE;
+        }
+        if (connection.getContentLengthLong() > config.maxBodyBytes) {
+            return FetchOutcome.REJECTED_TOO_LARGE;
+        }
+        return null;
+    }
+
+    /**
+     * A missing `Content-Type` is accepted, since many servers omit it for HTML.
+     *
+     * @param contentType Value of the `Content-Type` header, possibly null
+     * @return true if the content type may contain HTML
+     */
+    public static boolean isHtmlContentType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return true;
+        }
+        String mimeType = contentType.split(";", 2)[0].strip().toLowerCase();
+        return mimeType.equals("text/html") || mimeType.equals("application/xhtml+xml");
+    }
+
+    private final RuntimeConfig config;
+    private final FetchStats stats;
+    private final PageReader reader;
+    private final PageArchive archive;
+    private final RedirectCache redirects;
+    private static final Logger logger = LogManager.getLogger(PageFetcher.class);
+}
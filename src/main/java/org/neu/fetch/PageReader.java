@@ -0,0 +1,123 @@
+package org.neu.fetch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.util.List;
+
+/**
+ * Reads a page body into pooled buffers, decodes it with the page's own charset and feeds the text to a
+ * {@link LinkExtractor} chunk by chunk. With the `bytes` or `vector` link scanner, pages in an ASCII-compatible
+ * charset skip decoding and are scanned as raw bytes by a {@link ByteLinkScanner} instead.
+ *
+ * <p>
+ * This replaces `BufferedReader.readLine()`, which allocated a reader, its buffers and a `String` per line for
+ * every page and decoded with the platform default charset. Here a page costs a pooled {@link BufferPool.PageBuffers}
+ * and the link strings themselves.
+ * </p>
+ */
+public class PageReader {
+
+    public PageReader(BufferPool pool) {
+        this(pool, "chars");
+    }
+
+    /**
+     * @param pool
+     * @param linkScanner `chars` to decode every page, `bytes` to scan ASCII-compatible pages undecoded, or `vector`
+     *                    to scan them in vector lanes where the JVM supports it
+     */
+    public PageReader(BufferPool pool, String linkScanner) {
+        this.pool = pool;
+        this.scanBytes = !linkScanner.equals("chars");
+        this.vector = linkScanner.equals("vector");
+    }
+
+    /**
+     * Read `in` to the end and add every hyperlink found to `links`.
+     *
+     * @param in Decoded (decompressed) body
+     * @param contentType Value of the `Content-Type` header, possibly null
+     * @param links
+     * @throws IOException
+     */
+    public void read(InputStream in, String contentType, List<String> links) throws IOException {
+        BufferPool.PageBuffers buffers = pool.acquire();
+        try {
+            ByteBuffer bytes = buffers.bytes;
+            CharBuffer chars = buffers.chars;
+            LinkExtractor extractor = buffers.extractor;
+
+            // the first chunk is read far enough for the <meta> prescan before any byte is decoded
+            boolean eof = fill(in, bytes, Math.min(bytes.capacity(), CharsetDetector.PRESCAN_BYTES));
+            Charset charset = CharsetDetector.detect(contentType, bytes.array(), bytes.position());
+            if (scanBytes && ByteLinkScanner.isAsciiCompatible(charset)) {
+                scan(in, bytes, eof, charset, buffers.scanner(vector), links);
+                return;
+            }
+            CharsetDecoder decoder = buffers.decoder(charset);
+
+            while (true) {
+                bytes.flip();
+                CoderResult result;
+                do {
+                    result = decoder.decode(bytes, chars, eof);
+                    drain(chars, extractor, links);
+                } while (result.isOverflow());
+                bytes.compact();
+                if (eof) {
+                    break;
+                }
+                eof = fill(in, bytes, bytes.capacity());
+            }
+
+            decoder.flush(chars);
+            drain(chars, extractor, links);
+        } finally {
+            pool.release(buffers);
+        }
+    }
+
+    private static void scan(InputStream in, ByteBuffer bytes, boolean eof, Charset charset, ByteLinkScanner scanner,
+                             List<String> links) throws IOException {
+        while (true) {
+            scanner.scan(bytes.array(), 0, bytes.position(), charset, links);
+            bytes.clear();
+            if (eof) {
+                return;
+            }
+            eof = fill(in, bytes, bytes.capacity());
+        }
+    }
+
+    /**
+     * Read into `bytes` until it holds at least `target` bytes or the stream ends.
+     *
+     * @return true if the end of the stream was reached
+     */
+    private static boolean fill(InputStream in, ByteBuffer bytes, int target) throws IOException {
+        byte[] array = bytes.array();
+        while (bytes.position() < target) {
+            int n = in.read(array, bytes.position(), bytes.remaining());
+            if (n == -1) {
+                return true;
+            }
+            bytes.position(bytes.position() + n);
+        }
+        return false;
+    }
+
+    private static void drain(CharBuffer chars, LinkExtractor extractor, List<String> links) {
+        chars.flip();
+        extractor.scan(chars, links);
+        chars.clear();
+    }
+
+    private final BufferPool pool;
+    private final boolean scanBytes;
+    private final boolean vector;
+}
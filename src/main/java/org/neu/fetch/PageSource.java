@@ -0,0 +1,20 @@
+package org.neu.fetch;
+
+import java.util.List;
+
+/**
+ * Where a crawl gets its pages from: the network through a {@link PageFetcher}, or a {@link PageArchive} of an
+ * earlier crawl through an {@link ArchiveReplay}.
+ */
+public interface PageSource {
+
+    /**
+     * Get a page and add every hyperlink found in it to `links`, recording the attempt in the source's statistics.
+     *
+     * @param webpage
+     * @param links
+     * @param handle Cancels the fetch, or null
+     * @return How the fetch ended
+     */
+    FetchOutcome fetch(String webpage, List<String> links, FetchHandle handle);
+}
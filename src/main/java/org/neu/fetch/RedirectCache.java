@@ -0,0 +1,82 @@
+package org.neu.fetch;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded map from URLs that redirected to the URL the redirects finally landed on.
+ *
+ * <p>
+ * {@link PageFetcher} records a redirect whenever the connection ended up on another URL than it was opened with,
+ * so a whole chain of redirects is stored as one entry from its source to its final URL. Sources are looked up by
+ * their {@link #key(String)}, the form {@link LinkExtractor} emits links in, so a discovered link finds its redirect
+ * whether or not the request carried a trailing slash; targets are kept exactly as the connection reported them, so
+ * following one does not redirect again. Once `maxEntries` redirects are stored, recording another evicts the least
+ * recently used.
+ * </p>
+ */
+public class RedirectCache {
+
+    /**
+     * @param maxEntries Most redirects remembered
+     */
+    public RedirectCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param source URL the request was made for
+     * @param target URL of the response, after every redirect
+     */
+    public synchronized void record(String source, String target) {
+        String key = key(source);
+        if (key.equals(key(target))) {
+            return;
+        }
+        entries.put(key, target);
+    }
+
+    /**
+     * Follow recorded redirects from `url`, also when a target was later seen redirecting elsewhere.
+     *
+     * @param url
+     * @return The URL `url` is known to end up on, or `url` itself
+     */
+    public synchronized String resolve(String url) {
+        String resolved = url;
+        for (int hop = 0; hop < MAX_HOPS; hop++) {
+            String next = entries.get(key(resolved));
+            if (next == null) {
+                break;
+            }
+            resolved = next;
+        }
+        return resolved;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @param url
+     * @return `url` the way {@link LinkExtractor} emits links, without a trailing slash
+     */
+    public static String key(String url) {
+        return url.length() > 1 && url.charAt(url.length() - 1) == '/' ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /** Same limit as `HttpURLConnection`, which gives up after 20 redirects; also breaks cycles. */
+    private static final int MAX_HOPS = 20;
+
+    private final LinkedHashMap<String, String> entries;
+}
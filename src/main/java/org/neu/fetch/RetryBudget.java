@@ -0,0 +1,52 @@
+package org.neu.fetch;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries and hedged requests at a fraction of the original requests, so they cannot multiply the load on
+ * hosts that are already struggling.
+ *
+ * <p>
+ * Every original request deposits `ratio` of a token, up to `reserve` tokens, and every retry or hedge withdraws a
+ * whole one. The reserve covers bursts at the start of a crawl; after that extra requests stay within `ratio` of
+ * the traffic, however many requests are failing.
+ * </p>
+ */
+public class RetryBudget {
+
+    /**
+     * @param ratio Extra requests allowed per original request, e.g. 0.1
+     * @param reserve Tokens available at the start and the most that can accumulate
+     */
+    public RetryBudget(double ratio, int reserve) {
+        this.deposit = Math.round(ratio * SCALE);
+        this.capacity = (long) reserve * SCALE;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    /**
+     * Credit the budget for an original request.
+     */
+    public void onRequest() {
+        balance.getAndUpdate(current -> Math.min(capacity, current + deposit));
+    }
+
+    /**
+     * @return true if an extra request may be sent, in which case its token has been taken
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    private static final long SCALE = 1000;
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+}
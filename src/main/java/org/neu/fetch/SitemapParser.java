@@ -0,0 +1,133 @@
+package org.neu.fetch;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Pull parser for sitemaps, sitemap indexes, RSS and Atom feeds.
+ *
+ * <p>
+ * The document is read with StAX one entry at a time, so only the parser's buffer is held in memory however many
+ * URLs the document lists, and nothing more is read than the caller asks for. It recognises
+ * </p>
+ *
+ * <ul>
+ *     <li>`&lt;urlset&gt;&lt;url&gt;&lt;loc&gt;`: a page</li>
+ *     <li>`&lt;sitemapindex&gt;&lt;sitemap&gt;&lt;loc&gt;`: another sitemap</li>
+ *     <li>RSS `&lt;item&gt;&lt;link&gt;`: a page</li>
+ *     <li>Atom `&lt;entry&gt;&lt;link href&gt;`, unless its `rel` is other than `alternate`: a page</li>
+ * </ul>
+ *
+ * <p>
+ * Only the direct `loc` or `link` children of those elements count, so image and video extensions nested inside a
+ * `&lt;url&gt;` are ignored. DTDs and external entities are disabled.
+ * </p>
+ */
+public class SitemapParser implements Closeable {
+
+    /**
+     * @param in Decoded document; closed by {@link #close()}
+     * @throws XMLStreamException If the document cannot be opened
+     */
+    public SitemapParser(InputStream in) throws XMLStreamException {
+        this.in = in;
+        this.reader = FACTORY.createXMLStreamReader(in);
+    }
+
+    /**
+     * Read up to the next URL listed in the document.
+     *
+     * @return The next page or sitemap, or null at the end of the document
+     * @throws XMLStreamException If the document is malformed
+     */
+    public Entry next() throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                if (--depth < containerDepth) {
+                    container = null;
+                }
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            depth++;
+            String name = reader.getLocalName();
+            if (name.equals("url") || name.equals("sitemap") || name.equals("item") || name.equals("entry")) {
+                container = name;
+                containerDepth = depth;
+                continue;
+            }
+            if (container == null || depth != containerDepth + 1) {
+                continue;
+            }
+
+            Entry entry = null;
+            if (name.equals("loc") && (container.equals("url") || container.equals("sitemap"))) {
+                entry = new Entry(text(), container.equals("sitemap"));
+            } else if (name.equals("link") && container.equals("item")) {
+                entry = new Entry(text(), false);
+            } else if (name.equals("link") && container.equals("entry")) {
+                String rel = reader.getAttributeValue(null, "rel");
+                String href = reader.getAttributeValue(null, "href");
+                if (rel == null || rel.equals("alternate")) {
+                    entry = new Entry(href == null ? "" : href.strip(), false);
+                }
+            }
+            if (entry != null && !entry.url().isEmpty()) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read the text of the current element, which leaves the reader on its end tag.
+     */
+    private String text() throws XMLStreamException {
+        String text = reader.getElementText().strip();
+        depth--;
+        return text;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            // the stream is closed below either way
+        }
+        in.close();
+    }
+
+    /**
+     * A URL listed in a sitemap or feed.
+     *
+     * @param url
+     * @param sitemap true if the URL is another sitemap rather than a page
+     */
+    public record Entry(String url, boolean sitemap) {
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private final InputStream in;
+    private final XMLStreamReader reader;
+    private int depth;
+    private String container;
+    private int containerDepth;
+    private static final XMLInputFactory FACTORY = createFactory();
+}
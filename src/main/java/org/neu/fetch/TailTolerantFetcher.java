@@ -0,0 +1,259 @@
+package org.neu.fetch;
+
+import org.neu.RuntimeConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fetches pages through a {@link PageSource} with retries and hedged requests, so that a few slow or flaky hosts
+ * do not dominate tail latency.
+ *
+ * <p>
+ * A fetch that ends {@link FetchOutcome#UNAVAILABLE} is retried up to `retries` times after an exponential backoff
+ * with full jitter. Fetches are idempotent GETs, so when one is still running after the `hedgeQuantile` latency
+ * of its host, a duplicate is sent. The first of the two to succeed wins and the other is cancelled through its
+ * {@link FetchHandle}. Retries and hedges both draw on one {@link RetryBudget}, which keeps the extra traffic within
+ * `retryBudgetRatio` of the original requests. Neither is sent to a host whose {@link HostBreakers breaker} is open.
+ * </p>
+ *
+ * <p>
+ * Backoffs and hedge delays are timers, not sleeps, so no worker is held while waiting. Page latency, from the
+ * first request to the winning response, is recorded in {@link FetchStats#getPageLatency()}.
+ * </p>
+ */
+public class TailTolerantFetcher {
+
+    /**
+     * @param fetcher Performs each attempt
+     * @param stats Receives page latencies
+     * @param config Retry and hedging settings
+     * @param hedging false to never hedge, e.g. when the executor cannot run two attempts at once
+     */
+    public TailTolerantFetcher(PageSource fetcher, FetchStats stats, RuntimeConfig config, boolean hedging) {
+        this(fetcher, stats, config, hedging, null);
+    }
+
+    /**
+     * @param fetcher Performs each attempt
+     * @param stats Receives page latencies
+     * @param config Retry and hedging settings
+     * @param hedging false to never hedge, e.g. when the executor cannot run two attempts at once
+     * @param breakers Told how every attempt ended; retries and hedges are only sent to hosts whose breaker is
+     *                 closed. Null for none
+     */
+    public TailTolerantFetcher(PageSource fetcher, FetchStats stats, RuntimeConfig config, boolean hedging, HostBreakers breakers) {
+        this.fetcher = fetcher;
+        this.breakers = breakers;
+        this.stats = stats;
+        this.config = config;
+        this.hedging = hedging && config.hedging;
+        this.budget = new RetryBudget(config.retryBudgetRatio, config.retryBudgetReserve);
+        this.latencies = new HostLatencies(10_000);
+    }
+
+    /**
+     * Fetch a page, retrying and hedging as configured.
+     *
+     * @param webpage
+     * @param executor Runs every attempt
+     * @return The outcome and links of the winning attempt
+     */
+    public CompletableFuture<Result> fetchAsync(String webpage, Executor executor) {
+        budget.onRequest();
+        long start = System.nanoTime();
+        return attempt(webpage, executor, 0).whenComplete((result, e) -> stats.recordPageLatency(System.nanoTime() - start));
+    }
+
+    private CompletableFuture<Result> attempt(String webpage, Executor executor, int retry) {
+        return hedged(webpage, executor).thenCompose(result -> {
+            if (result.outcome() != FetchOutcome.UNAVAILABLE || retry >= config.retries || !isClosed(webpage)) {
+                return CompletableFuture.completedFuture(result);
+            }
+            if (!budget.tryWithdraw()) {
+                denied.increment();
+                return CompletableFuture.completedFuture(result);
+            }
+            retries.increment();
+
+            CompletableFuture<Result> retried = new CompletableFuture<>();
+            CompletableFuture.delayedExecutor(backoffMillis(retry), TimeUnit.MILLISECONDS).execute(() ->
+                    attempt(webpage, executor, retry + 1).whenComplete((next, e) -> retried.complete(e == null ? next : result)));
+            return retried;
+        });
+    }
+
+    /**
+     * @param retry Number of retries already sent
+     * @return A random delay below `retryBackoffMillis * 2^retry`, capped at `retryMaxBackoffMillis`
+     */
+    long backoffMillis(int retry) {
+        long ceiling = Math.min(config.retryMaxBackoffMillis, config.retryBackoffMillis << Math.min(retry, 20));
+        return ThreadLocalRandom.current().nextLong(Math.max(1, ceiling) + 1);
+    }
+
+    /**
+     * Send one request, and a duplicate if the first is slower than usual for its host.
+     */
+    private CompletableFuture<Result> hedged(String webpage, Executor executor) {
+        String host = DnsCache.hostOf(webpage);
+        Race race = new Race();
+        race.start(webpage, host, executor);
+
+        long delay = hedging && host != null ? latencies.percentileNanos(host, config.hedgeQuantile, config.hedgeMinSamples) : -1;
+        if (delay >= 0) {
+            delay = Math.max(delay, TimeUnit.MILLISECONDS.toNanos(config.hedgeMinDelayMillis));
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+                if (race.isDecided() || !isClosed(webpage)) {
+                    return;
+                }
+                if (!budget.tryWithdraw()) {
+                    denied.increment();
+                    return;
+                }
+                if (race.start(webpage, host, executor)) {
+                    hedges.increment();
+                }
+            });
+        }
+        return race.winner;
+    }
+
+    private Result fetchOnce(String webpage, String host, FetchHandle handle) {
+        long start = System.nanoTime();
+        List<String> links = new ArrayList<>();
+        FetchOutcome outcome;
+        try {
+            outcome = fetcher.fetch(webpage, links, handle);
+        } catch (RuntimeException e) {
+            outcome = FetchOutcome.FAILED;
+        }
+        long nanos = System.nanoTime() - start;
+        if (outcome != FetchOutcome.CANCELLED && host != null) {
+            latencies.record(host, nanos);
+        }
+        if (breakers != null && host != null) {
+            breakers.record(host, outcome, nanos);
+        }
+        return new Result(outcome, links);
+    }
+
+    private boolean isClosed(String webpage) {
+        String host = DnsCache.hostOf(webpage);
+        return breakers == null || host == null || breakers.isClosed(host);
+    }
+
+    /**
+     * @param outcome
+     * @return true if the attempt produced a usable answer, so any duplicate can be cancelled
+     */
+    private static boolean isAnswer(FetchOutcome outcome) {
+        return switch (outcome) {
+            case UNAVAILABLE, FAILED, DEADLINE_EXCEEDED, CANCELLED -> false;
+            default -> true;
+        };
+    }
+
+    /**
+     * Attempts at one request racing each other. The first answer wins; failures only win once no attempt is left.
+     */
+    private final class Race {
+
+        /**
+         * @return false if the race was already decided, so no attempt was started
+         */
+        boolean start(String webpage, String host, Executor executor) {
+            FetchHandle handle = new FetchHandle();
+            int attempt;
+            synchronized (this) {
+                if (decided) {
+                    return false;
+                }
+                running++;
+                attempt = handles.size();
+                handles.add(handle);
+            }
+            try {
+                CompletableFuture.supplyAsync(() -> fetchOnce(webpage, host, handle), executor)
+                        .whenComplete((result, e) -> finish(attempt, e == null ? result : new Result(FetchOutcome.FAILED, List.of())));
+            } catch (RejectedExecutionException e) {
+                // the crawl is shutting down; if this was a probe, it was never sent
+                if (breakers != null && host != null) {
+                    breakers.abandonProbe(host);
+                }
+                finish(attempt, new Result(FetchOutcome.FAILED, List.of()));
+            }
+            return true;
+        }
+
+        private void finish(int attempt, Result result) {
+            List<FetchHandle> losers;
+            synchronized (this) {
+                running--;
+                if (decided || (!isAnswer(result.outcome()) && running > 0)) {
+                    return;
+                }
+                decided = true;
+                losers = new ArrayList<>(handles);
+                losers.remove(attempt);
+            }
+            if (attempt > 0) {
+                hedgesWon.increment();
+            }
+            losers.forEach(FetchHandle::cancel);
+            winner.complete(result);
+        }
+
+        synchronized boolean isDecided() {
+            return decided;
+        }
+
+        final CompletableFuture<Result> winner = new CompletableFuture<>();
+        private final List<FetchHandle> handles = new ArrayList<>(2);
+        private int running;
+        private boolean decided;
+    }
+
+    /**
+     * @return Retries and hedges sent, hedges won and extra requests refused by the budget
+     */
+    public String report() {
+        return String.format("Tail control: %d retries, %d hedged requests (%d finished first), %d extra requests refused by the retry budget",
+                retries.sum(), hedges.sum(), hedgesWon.sum(), denied.sum());
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    public long getHedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    /**
+     * Outcome and links of the attempt that won.
+     *
+     * @param outcome
+     * @param links
+     */
+    public record Result(FetchOutcome outcome, List<String> links) {
+    }
+
+    private final PageSource fetcher;
+    private final HostBreakers breakers;
+    private final FetchStats stats;
+    private final RuntimeConfig config;
+    private final boolean hedging;
+    private final RetryBudget budget;
+    private final HostLatencies latencies;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+}
@@ -0,0 +1,59 @@
+package org.neu.fetch;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ByteLinkScanner} that compares a full vector of page bytes per step, using the widest lanes the CPU has
+ * (32 bytes with AVX2, 64 with AVX-512).
+ *
+ * <p>
+ * `http` is found by matching `h` in one vector and, only where that hits, `t`, `t` and `p` in the same vector
+ * shifted by one, two and three bytes; the lanes where all four match are candidates. Delimiters are the union of
+ * three equality masks. The last partial vector of a chunk falls back to the scalar loops.
+ * </p>
+ *
+ * <p>
+ * Only loaded through {@link ByteLinkScanner#create(boolean)}, and only when the `jdk.incubator.vector` module is
+ * present, so the rest of the crawler runs without it.
+ * </p>
+ */
+final class VectorLinkScanner extends ByteLinkScanner {
+
+    @Override
+    protected int indexOfPrefix(byte[] bytes, int from, int to) {
+        int i = from;
+        // the shifted loads read up to three bytes past the vector, which must stay inside the chunk
+        int bound = from + SPECIES.loopBound(Math.max(0, to - 3 - from));
+        for (; i < bound; i += SPECIES.length()) {
+            VectorMask<Byte> hits = ByteVector.fromArray(SPECIES, bytes, i).eq((byte) 'h');
+            if (!hits.anyTrue()) {
+                continue;
+            }
+            hits = hits.and(ByteVector.fromArray(SPECIES, bytes, i + 1).eq((byte) 't'))
+                    .and(ByteVector.fromArray(SPECIES, bytes, i + 2).eq((byte) 't'))
+                    .and(ByteVector.fromArray(SPECIES, bytes, i + 3).eq((byte) 'p'));
+            if (hits.anyTrue()) {
+                return i + hits.firstTrue();
+            }
+        }
+        return super.indexOfPrefix(bytes, i, to);
+    }
+
+    @Override
+    protected int indexOfDelimiter(byte[] bytes, int from, int to) {
+        int i = from;
+        int bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += SPECIES.length()) {
+            ByteVector chunk = ByteVector.fromArray(SPECIES, bytes, i);
+            VectorMask<Byte> hits = chunk.eq((byte) '"').or(chunk.eq((byte) '\n')).or(chunk.eq((byte) '\r'));
+            if (hits.anyTrue()) {
+                return i + hits.firstTrue();
+            }
+        }
+        return super.indexOfDelimiter(bytes, i, to);
+    }
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+}
@@ -0,0 +1,128 @@
+package org.neu.graph;
+
+import org.neu.memory.MemoryBudget;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the links a crawl stores as pairs of int IDs, so the link graph can be analysed in memory without
+ * reading it back from the database.
+ *
+ * <p>
+ * Each URL is interned to a dense ID the first time it is seen, and every edge costs 8 bytes in two growable int
+ * arrays. {@link #snapshot()} copies them into a {@link CsrGraph} while the crawl goes on recording. A log given a
+ * byte budget stops recording once its URLs and edges would exceed it, so the analysis covers the start of the
+ * crawl; the links left out are counted.
+ * </p>
+ */
+public class EdgeLog {
+
+    public EdgeLog() {
+        this(0);
+    }
+
+    /**
+     * @param budgetBytes Estimated heap the log may occupy, or 0 for no limit
+     */
+    public EdgeLog(long budgetBytes) {
+        this.budgetBytes = budgetBytes <= 0 ? Long.MAX_VALUE : budgetBytes;
+    }
+
+    /**
+     * Record a link from `parent` to `child`. Duplicates are kept here and dropped by {@link #snapshot()}.
+     *
+     * @param parent
+     * @param child
+     */
+    public synchronized void record(String parent, String child) {
+        // a new URL costs its string, its map entry and its list slot; an edge two ints, with the arrays' slack
+        long cost = 2L * Integer.BYTES * 2;
+        if (!ids.containsKey(parent)) cost += MemoryBudget.stringBytes(parent) + URL_ENTRY_BYTES;
+        if (!ids.containsKey(child)) cost += MemoryBudget.stringBytes(child) + URL_ENTRY_BYTES;
+        if (bytes + cost > budgetBytes) {
+            dropped++;
+            return;
+        }
+        bytes += cost;
+        int from = intern(parent);
+        int to = intern(child);
+        if (edges == sources.length) {
+            int capacity = Math.max(1024, edges * 2);
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+        }
+        sources[edges] = from;
+        targets[edges] = to;
+        edges++;
+    }
+
+    private int intern(String url) {
+        Integer id = ids.get(url);
+        if (id == null) {
+            id = urls.size();
+            ids.put(url, id);
+            urls.add(url);
+        }
+        return id;
+    }
+
+    /**
+     * @return The graph of the links recorded so far
+     */
+    public CsrGraph snapshot() {
+        int nodes;
+        int[] from;
+        int[] to;
+        synchronized (this) {
+            nodes = urls.size();
+            from = Arrays.copyOf(sources, edges);
+            to = Arrays.copyOf(targets, edges);
+        }
+        return CsrGraph.of(nodes, from, to);
+    }
+
+    /**
+     * @param id
+     * @return The URL interned as `id`
+     */
+    public synchronized String url(int id) {
+        return urls.get(id);
+    }
+
+    /**
+     * @return Number of links recorded, duplicates included
+     */
+    public synchronized int size() {
+        return edges;
+    }
+
+    /**
+     * @return Links not recorded because the log was full
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return Estimated heap the log occupies
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    // map entry, boxed ID and list slot of an interned URL
+    private static final long URL_ENTRY_BYTES = 64;
+
+    private final long budgetBytes;
+    private long bytes;
+    private long dropped;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> urls = new ArrayList<>();
+    private int[] sources = new int[0];
+    private int[] targets = new int[0];
+    private int edges;
+}
@@ -0,0 +1,340 @@
+package org.neu.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * PageRank and HITS over a {@link CsrGraph}, run in parallel on a {@link ForkJoinPool}.
+ *
+ * <p>
+ * Every iteration is a few passes over the vertices, each split into ranges that the pool works through and
+ * steals from one another. Scores are pulled along in-links, so every vertex is written by exactly one task and no
+ * synchronization is needed beyond joining the pass. Iteration stops once the L1 change of the scores falls below
+ * `epsilon`, or after `maxIterations`.
+ * </p>
+ */
+public class LinkAnalysis {
+
+    /**
+     * @param pool Runs every pass
+     * @param epsilon L1 change of the scores below which they are taken as converged
+     * @param maxIterations Iterations after which to stop regardless
+     */
+    public LinkAnalysis(ForkJoinPool pool, double epsilon, int maxIterations) {
+        this.pool = pool;
+        this.epsilon = epsilon;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * PageRank with uniform teleportation. Rank of pages without out-links is spread evenly over all pages, so the
+     * ranks always sum to 1.
+     *
+     * @param graph
+     * @param damping Probability of following a link rather than teleporting, usually 0.85
+     * @return The rank of every vertex
+     */
+    public Scores pageRank(CsrGraph graph, double damping) {
+        long start = System.nanoTime();
+        int n = graph.vertices;
+        double[] rank = new double[n];
+        double[] next = new double[n];
+        double[] share = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+
+        int iterations = 0;
+        double delta = 0;
+        while (n > 0 && iterations < maxIterations) {
+            double[] current = rank;
+            double[] updated = next;
+            double dangling = sum(n, (lo, hi) -> {
+                double mass = 0;
+                for (int v = lo; v < hi; v++) {
+                    int degree = graph.outDegree(v);
+                    share[v] = degree == 0 ? 0 : current[v] / degree;
+                    if (degree == 0) {
+                        mass += current[v];
+                    }
+                }
+                return mass;
+            });
+
+            double base = (1 - damping) / n + damping * dangling / n;
+            delta = sum(n, (lo, hi) -> {
+                double change = 0;
+                for (int v = lo; v < hi; v++) {
+                    double incoming = 0;
+                    for (int i = graph.inOffsets[v]; i < graph.inOffsets[v + 1]; i++) {
+                        incoming += share[graph.sources[i]];
+                    }
+                    updated[v] = base + damping * incoming;
+                    change += Math.abs(updated[v] - current[v]);
+                }
+                return change;
+            });
+
+            rank = updated;
+            next = current;
+            iterations++;
+            if (delta < epsilon) {
+                break;
+            }
+        }
+        return new Scores(rank, iterations, delta, System.nanoTime() - start, graph.edges());
+    }
+
+    /**
+     * Hubs and authorities (Kleinberg's HITS): a page is a good authority if good hubs link to it, and a good hub
+     * if it links to good authorities. Both score vectors are normalized to unit length after every iteration.
+     *
+     * @param graph
+     * @return The authority and hub score of every vertex
+     */
+    public Hits hits(CsrGraph graph) {
+        long start = System.nanoTime();
+        int n = graph.vertices;
+        double[] authority = new double[n];
+        double[] hub = new double[n];
+        double[] nextAuthority = new double[n];
+        double[] nextHub = new double[n];
+        Arrays.fill(authority, 1 / Math.sqrt(n));
+        Arrays.fill(hub, 1 / Math.sqrt(n));
+
+        int iterations = 0;
+        double delta = 0;
+        while (n > 0 && iterations < maxIterations) {
+            double[] hubs = hub;
+            double[] updatedAuthority = nextAuthority;
+            double authorityNorm = Math.sqrt(sum(n, (lo, hi) -> {
+                double squares = 0;
+                for (int v = lo; v < hi; v++) {
+                    double score = 0;
+                    for (int i = graph.inOffsets[v]; i < graph.inOffsets[v + 1]; i++) {
+                        score += hubs[graph.sources[i]];
+                    }
+                    updatedAuthority[v] = score;
+                    squares += score * score;
+                }
+                return squares;
+            }));
+            double authorityChange = normalize(updatedAuthority, authority, authorityNorm);
+
+            double[] updatedHub = nextHub;
+            double hubNorm = Math.sqrt(sum(n, (lo, hi) -> {
+                double squares = 0;
+                for (int v = lo; v < hi; v++) {
+                    double score = 0;
+                    for (int i = graph.outOffsets[v]; i < graph.outOffsets[v + 1]; i++) {
+                        score += updatedAuthority[graph.targets[i]];
+                    }
+                    updatedHub[v] = score;
+                    squares += score * score;
+                }
+                return squares;
+            }));
+            double hubChange = normalize(updatedHub, hub, hubNorm);
+
+            nextAuthority = authority;
+            nextHub = hub;
+            authority = updatedAuthority;
+            hub = updatedHub;
+            iterations++;
+            delta = authorityChange + hubChange;
+            if (delta < epsilon) {
+                break;
+            }
+        }
+        return new Hits(authority, hub, iterations, delta, System.nanoTime() - start, graph.edges());
+    }
+
+    /**
+     * Scale `scores` to unit length.
+     *
+     * @return L1 change from `previous`
+     */
+    private double normalize(double[] scores, double[] previous, double norm) {
+        double scale = norm == 0 ? 0 : 1 / norm;
+        return sum(scores.length, (lo, hi) -> {
+            double change = 0;
+            for (int v = lo; v < hi; v++) {
+                scores[v] *= scale;
+                change += Math.abs(scores[v] - previous[v]);
+            }
+            return change;
+        });
+    }
+
+    /**
+     * Run `pass` over all vertices in parallel ranges.
+     *
+     * @return Sum of what the ranges returned
+     */
+    private double sum(int vertices, Pass pass) {
+        // several ranges per worker, so the pool can balance ranges holding hubs with many links
+        int grain = Math.max(MIN_GRAIN, vertices / (pool.getParallelism() * 8));
+        return pool.invoke(new RangeTask(pass, 0, vertices, grain));
+    }
+
+    /**
+     * @param count Number of vertices
+     * @param score Score of each vertex
+     * @param k
+     * @return The `k` vertices with the highest score, best first
+     */
+    public static int[] top(int count, IntToDoubleFunction score, int k) {
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.max(1, k), (a, b) -> Double.compare(score.applyAsDouble(a), score.applyAsDouble(b)));
+        for (int v = 0; v < count && k > 0; v++) {
+            if (best.size() < k) {
+                best.add(v);
+            } else if (score.applyAsDouble(v) > score.applyAsDouble(best.peek())) {
+                best.poll();
+                best.add(v);
+            }
+        }
+        int[] top = new int[best.size()];
+        for (int i = top.length - 1; i >= 0; i--) {
+            top[i] = best.poll();
+        }
+        return top;
+    }
+
+    /**
+     * Snapshot the links recorded so far, rank them and describe the `k` best pages.
+     *
+     * @param log
+     * @param damping
+     * @param k
+     * @return Human-readable report, comparing PageRank with the in-degree ranking of {@link org.neu.neo4j.URLRank}
+     */
+    public String report(EdgeLog log, double damping, int k) {
+        long start = System.nanoTime();
+        CsrGraph graph = log.snapshot();
+        long buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Scores ranks = pageRank(graph, damping);
+        Hits hits = hits(graph);
+
+        int[] byRank = top(graph.vertices, v -> ranks.scores()[v], k);
+        int[] byInDegree = top(graph.vertices, graph::inDegree, k);
+        Set<Integer> popular = new HashSet<>();
+        Arrays.stream(byInDegree).forEach(popular::add);
+        long shared = Arrays.stream(byRank).filter(popular::contains).count();
+
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                "Link analysis of %d pages and %d links (%d MB snapshot built in %dms)%n%s%n%s%n" +
+                        "%d of the top %d pages by PageRank are also in the top %d by in-degree",
+                graph.vertices, graph.edges(), graph.footprintBytes() >> 20, buildMillis, ranks, hits,
+                shared, byRank.length, byInDegree.length));
+        List<NodeRank> nodes = new ArrayList<>();
+        for (int v : byRank) {
+            nodes.add(new NodeRank(log.url(v), graph.inDegree(v), ranks.scores()[v], hits.authorities()[v], hits.hubs()[v]));
+        }
+        nodes.forEach(node -> report.append(System.lineSeparator()).append(node));
+        return report.toString();
+    }
+
+    /**
+     * Work on the vertices `[lo, hi)`.
+     */
+    @FunctionalInterface
+    private interface Pass {
+        double apply(int lo, int hi);
+    }
+
+    // tasks live within one pool run and are never serialized
+    @SuppressWarnings("serial")
+    private static final class RangeTask extends RecursiveTask<Double> {
+        RangeTask(Pass pass, int lo, int hi, int grain) {
+            this.pass = pass;
+            this.lo = lo;
+            this.hi = hi;
+            this.grain = grain;
+        }
+
+        @Override
+        protected Double compute() {
+            if (hi - lo <= grain) {
+                return pass.apply(lo, hi);
+            }
+            int mid = (lo + hi) >>> 1;
+            RangeTask left = new RangeTask(pass, lo, mid, grain);
+            left.fork();
+            double right = new RangeTask(pass, mid, hi, grain).compute();
+            return left.join() + right;
+        }
+
+        private final Pass pass;
+        private final int lo;
+        private final int hi;
+        private final int grain;
+    }
+
+    /**
+     * PageRank of every vertex.
+     *
+     * @param scores Indexed by vertex
+     * @param iterations Iterations run
+     * @param delta L1 change in the last iteration
+     * @param nanos Time taken
+     * @param edges Links in the graph
+     */
+    public record Scores(double[] scores, int iterations, double delta, long nanos, int edges) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "PageRank: %d iterations (last change %.2e) in %dms, %.1fM links/sec per iteration",
+                    iterations, delta, TimeUnit.NANOSECONDS.toMillis(nanos), perIterationRate(edges, iterations, nanos));
+        }
+    }
+
+    /**
+     * HITS scores of every vertex.
+     *
+     * @param authorities Indexed by vertex
+     * @param hubs Indexed by vertex
+     * @param iterations Iterations run
+     * @param delta L1 change of both vectors in the last iteration
+     * @param nanos Time taken
+     * @param edges Links in the graph
+     */
+    public record Hits(double[] authorities, double[] hubs, int iterations, double delta, long nanos, int edges) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "HITS: %d iterations (last change %.2e) in %dms, %.1fM links/sec per iteration",
+                    iterations, delta, TimeUnit.NANOSECONDS.toMillis(nanos), perIterationRate(edges, iterations, nanos));
+        }
+    }
+
+    /**
+     * Scores of one page, the counterpart of {@link org.neu.neo4j.URLRank}.
+     *
+     * @param url
+     * @param inDegree Distinct pages linking to it
+     * @param pageRank
+     * @param authority
+     * @param hub
+     */
+    public record NodeRank(String url, int inDegree, double pageRank, double authority, double hub) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "URL: %s (PageRank %.6f, authority %.4f, hub %.4f, referenced by %d pages)",
+                    url, pageRank, authority, hub, inDegree);
+        }
+    }
+
+    private static double perIterationRate(int edges, int iterations, long nanos) {
+        return nanos == 0 ? 0.0 : (double) edges * iterations * 1_000 / nanos;
+    }
+
+    private static final int MIN_GRAIN = 1024;
+    private final ForkJoinPool pool;
+    private final double epsilon;
+    private final int maxIterations;
+}
@@ -0,0 +1,85 @@
+package org.neu.memory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Child-to-parent map that evicts its oldest entries once their estimated size exceeds a byte budget.
+ *
+ * <p>
+ * The crawler walks this map to detect cycles. Evicting the oldest entries shortens the chains it can walk, so a
+ * cycle through long-forgotten pages may be stored as an edge; recent pages, where most cycles close, are kept.
+ * Not thread-safe; wrap with {@link java.util.Collections#synchronizedMap(Map)}.
+ * </p>
+ */
+// crawl state is spilled and budgeted, never serialized
+@SuppressWarnings("serial")
+public class BoundedParentMap extends LinkedHashMap<String, String> {
+
+    /**
+     * @param budgetBytes Estimated heap the entries may occupy
+     */
+    public BoundedParentMap(long budgetBytes) {
+        super(1 << 12);
+        this.budgetBytes = budgetBytes;
+    }
+
+    @Override
+    public String put(String child, String parent) {
+        String previous = super.put(child, parent);
+        if (previous == null) {
+            bytes += entryBytes(child, parent);
+            // newer URLs tend to be longer, so one eviction per insert would let the map creep past its budget
+            Iterator<Map.Entry<String, String>> eldest = entrySet().iterator();
+            while (bytes > budgetBytes && size() > 1) {
+                Map.Entry<String, String> entry = eldest.next();
+                bytes -= entryBytes(entry.getKey(), entry.getValue());
+                eldest.remove();
+                evicted++;
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Add each entry through {@link #put(String, String)}; the inherited `putAll` would skip the byte count.
+     *
+     * @param entries
+     */
+    @Override
+    public void putAll(Map<? extends String, ? extends String> entries) {
+        for (Map.Entry<? extends String, ? extends String> entry : entries.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        bytes = 0;
+    }
+
+    public long getEvicted() {
+        return evicted;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Parent map: %d entries, ~%dKB, %d evicted", size(), bytes >> 10, evicted);
+    }
+
+    private static long entryBytes(String child, String parent) {
+        // the parent string is usually shared with other entries, so only its reference is counted
+        return MemoryBudget.stringBytes(child) + ENTRY_OVERHEAD;
+    }
+
+    private static final long ENTRY_OVERHEAD = 64;
+    private final long budgetBytes;
+    private long bytes;
+    private long evicted;
+}
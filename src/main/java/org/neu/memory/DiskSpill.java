@@ -0,0 +1,150 @@
+package org.neu.memory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * FIFO queue of text lines kept on disk in rolling segment files.
+ *
+ * <p>
+ * Lines are appended to the current segment; reads drain the oldest closed segment and delete it once consumed.
+ * When nothing else is left to read, the current segment is closed so its lines become readable. Thread-safe.
+ * </p>
+ */
+public class DiskSpill implements Closeable {
+
+    /**
+     * @param directory Directory for segment files; created if missing
+     * @param prefix File name prefix of the segments
+     * @param segmentLines Lines per segment before a new one is started
+     */
+    public DiskSpill(Path directory, String prefix, int segmentLines) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.segmentLines = segmentLines;
+    }
+
+    /**
+     * @param line A line without line terminators
+     * @throws UncheckedIOException If the segment cannot be written
+     */
+    public synchronized void append(String line) {
+        try {
+            if (writer == null) {
+                Files.createDirectories(directory);
+                writing = Files.createTempFile(directory, prefix, ".spill");
+                writer = Files.newBufferedWriter(writing, StandardCharsets.UTF_8);
+                writingLines = 0;
+            }
+            writer.write(line);
+            writer.newLine();
+            pending++;
+            spilled++;
+            if (++writingLines >= segmentLines) {
+                roll();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param max Maximum number of lines to return
+     * @return Up to `max` of the oldest lines, removed from the spill
+     * @throws UncheckedIOException If a segment cannot be read
+     */
+    public synchronized List<String> poll(int max) {
+        List<String> lines = new ArrayList<>(Math.min(max, 1024));
+        try {
+            while (lines.size() < max) {
+                if (reader == null) {
+                    if (closed.isEmpty()) {
+                        if (writingLines == 0) {
+                            break;
+                        }
+                        roll();
+                    }
+                    reading = closed.poll();
+                    reader = Files.newBufferedReader(reading, StandardCharsets.UTF_8);
+                }
+                String line = reader.readLine();
+                if (line == null) {
+                    reader.close();
+                    Files.deleteIfExists(reading);
+                    reader = null;
+                    continue;
+                }
+                lines.add(line);
+                pending--;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines;
+    }
+
+    /**
+     * @return Number of lines waiting on disk
+     */
+    public synchronized long size() {
+        return pending;
+    }
+
+    /**
+     * @return Number of lines ever appended
+     */
+    public synchronized long getSpilled() {
+        return spilled;
+    }
+
+    /**
+     * Delete every segment, read or not.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            Files.deleteIfExists(writing);
+            writer = null;
+        }
+        if (reader != null) {
+            reader.close();
+            Files.deleteIfExists(reading);
+            reader = null;
+        }
+        for (Path segment : closed) {
+            Files.deleteIfExists(segment);
+        }
+        closed.clear();
+        pending = 0;
+    }
+
+    private void roll() throws IOException {
+        writer.close();
+        closed.add(writing);
+        writer = null;
+        writingLines = 0;
+    }
+
+    private final Path directory;
+    private final String prefix;
+    private final int segmentLines;
+    private final Deque<Path> closed = new ArrayDeque<>();
+    private BufferedWriter writer;
+    private Path writing;
+    private int writingLines;
+    private BufferedReader reader;
+    private Path reading;
+    private long pending;
+    private long spilled;
+}
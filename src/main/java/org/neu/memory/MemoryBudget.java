@@ -0,0 +1,70 @@
+package org.neu.memory;
+
+/**
+ * Split of a crawl's heap budget across the structures that grow with the crawl.
+ *
+ * <p>
+ * The visited set gets 35%, the frontier 25%, the child-to-parent map 15%, the write-behind buffer 10%, and the
+ * write-behind's caches of persisted nodes and relationships, the trap detector's hosts and the link-analysis edge
+ * log 5% each. Each structure enforces its share with its own overflow policy: the visited set degrades to a Bloom
+ * filter, the frontier spills to disk, the parent map evicts its oldest entries, the write buffer applies
+ * backpressure, the persisted caches and the trap detector forget their least useful entries, and the edge log
+ * stops recording.
+ * </p>
+ */
+public record MemoryBudget(long totalBytes, long visitedBytes, long frontierBytes, long parentMapBytes, long writeBufferBytes,
+                           long persistedCacheBytes, long trapHostBytes, long edgeLogBytes) {
+
+    /**
+     * @param totalBytes Total budget in bytes
+     * @return The budget split across the crawl's structures
+     */
+    public static MemoryBudget split(long totalBytes) {
+        return new MemoryBudget(totalBytes, totalBytes * 35 / 100, totalBytes * 25 / 100, totalBytes * 15 / 100,
+                totalBytes * 10 / 100, totalBytes * 5 / 100, totalBytes * 5 / 100, totalBytes * 5 / 100);
+    }
+
+    /**
+     * @return Maximum number of distinct links the write-behind buffer may hold
+     */
+    public int maxPendingEdges() {
+        return (int) Math.max(100, Math.min(Integer.MAX_VALUE, writeBufferBytes / PENDING_EDGE_BYTES));
+    }
+
+    /**
+     * @return Slots of each of the write-behind's two caches of persisted fingerprints
+     */
+    public int persistedCacheEntries() {
+        return (int) Math.max(16, Math.min(1 << 30, persistedCacheBytes / 2 / Long.BYTES));
+    }
+
+    /**
+     * @return Maximum number of hosts the trap detector tracks
+     */
+    public int maxTrapHosts() {
+        return (int) Math.max(1_000, Math.min(Integer.MAX_VALUE, trapHostBytes / TRAP_HOST_BYTES));
+    }
+
+    /**
+     * Estimated heap cost of a `String`, including its header and backing array. Assumes mostly Latin-1 URLs.
+     *
+     * @param s
+     * @return Bytes
+     */
+    public static long stringBytes(String s) {
+        return 56L + s.length();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%dMB (visited %dMB, frontier %dMB, parent map %dMB, write buffer %dMB, persisted caches %dMB, " +
+                        "trap hosts %dMB, edge log %dMB)",
+                totalBytes >> 20, visitedBytes >> 20, frontierBytes >> 20, parentMapBytes >> 20, writeBufferBytes >> 20,
+                persistedCacheBytes >> 20, trapHostBytes >> 20, edgeLogBytes >> 20);
+    }
+
+    // two URL strings, the buffered edge object and its map entry
+    private static final long PENDING_EDGE_BYTES = 400;
+    // host name, counters and map entry, plus a few dozen patterns; a host with thousands of patterns costs more
+    private static final long TRAP_HOST_BYTES = 4096;
+}
@@ -0,0 +1,130 @@
+package org.neu.memory;
+
+import org.neu.util.BloomFilter;
+import org.neu.util.Fingerprint;
+import org.neu.util.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Set of claimed URLs, stored as 64-bit fingerprints rather than strings.
+ *
+ * <p>
+ * Unbounded, it is an exact fingerprint set that grows as needed. With a byte budget, half the budget holds an
+ * exact set sized up front; once it is full, further URLs go into a Bloom filter sized from the other half. Past
+ * that point a few new URLs are mistaken for visited ones and skipped, at the rate reported by
+ * {@link #falsePositiveRate()}, but the set never outgrows its budget.
+ * </p>
+ */
+public class VisitedSet {
+
+    /**
+     * @param budgetBytes Heap budget in bytes, or 0 for an unbounded exact set
+     */
+    public VisitedSet(long budgetBytes) {
+        if (budgetBytes <= 0) {
+            this.exact = new LongHashSet(1 << 16);
+            this.maxExact = Integer.MAX_VALUE;
+            this.overflow = null;
+        } else {
+            // the largest power-of-two table that fits half the budget, filled only up to the load factor
+            long slots = Math.max(16, Long.highestOneBit(Math.max(16, budgetBytes / 2 / 8)));
+            this.maxExact = (int) Math.min(Integer.MAX_VALUE - 8, (long) (slots * 0.6) - 1);
+            this.exact = new LongHashSet((int) Math.min(Integer.MAX_VALUE / 2, (long) (slots * 0.6)));
+            // sized for as many URLs again at roughly 10 bits each
+            this.overflow = new BloomFilter(budgetBytes / 2, Math.max(1, budgetBytes / 2 * 8 / 10));
+        }
+    }
+
+    /**
+     * Claim a URL.
+     *
+     * @param url
+     * @return true if the URL had not been claimed before
+     */
+    public boolean add(String url) {
+        long fingerprint = Fingerprint.of(url);
+        synchronized (this) {
+            return claim(fingerprint);
+        }
+    }
+
+    /**
+     * Claim several URLs under one acquisition of the lock. The fingerprints are computed before it is taken.
+     *
+     * @param urls
+     * @return The URLs that had not been claimed before, in order
+     */
+    public List<String> addAll(List<String> urls) {
+        long[] fingerprints = new long[urls.size()];
+        for (int i = 0; i < fingerprints.length; i++) {
+            fingerprints[i] = Fingerprint.of(urls.get(i));
+        }
+        List<String> added = new ArrayList<>(urls.size());
+        synchronized (this) {
+            for (int i = 0; i < fingerprints.length; i++) {
+                if (claim(fingerprints[i])) {
+                    added.add(urls.get(i));
+                }
+            }
+        }
+        return added;
+    }
+
+    private boolean claim(long fingerprint) {
+        if (exact.contains(fingerprint)) {
+            return false;
+        }
+        if (exact.size() < maxExact) {
+            exact.add(fingerprint);
+            return true;
+        }
+        return overflow.add(fingerprint);
+    }
+
+    public synchronized void clear() {
+        exact.clear();
+        if (overflow != null) {
+            overflow.clear();
+        }
+    }
+
+    /**
+     * @return Number of URLs claimed
+     */
+    public synchronized long size() {
+        return exact.size() + (overflow == null ? 0 : overflow.size());
+    }
+
+    /**
+     * @return true once URLs are being tracked probabilistically
+     */
+    public synchronized boolean isDegraded() {
+        return overflow != null && overflow.size() > 0;
+    }
+
+    /**
+     * @return Chance that a new URL is currently mistaken for a visited one
+     */
+    public synchronized double falsePositiveRate() {
+        return overflow == null ? 0 : overflow.falsePositiveRate();
+    }
+
+    /**
+     * @return Approximate heap footprint in bytes
+     */
+    public synchronized long footprintBytes() {
+        return exact.footprintBytes() + (overflow == null ? 0 : overflow.footprintBytes());
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Visited set: %d URLs (%d exact, %d probabilistic, false-positive rate %.4f%%), %dKB",
+                size(), exact.size(), overflow == null ? 0 : overflow.size(), 100 * falsePositiveRate(), footprintBytes() >> 10);
+    }
+
+    private final LongHashSet exact;
+    private final int maxExact;
+    private final BloomFilter overflow;
+}
@@ -0,0 +1,42 @@
+package org.neu.neo4j;
+
+import java.util.List;
+
+/**
+ * Cypher for wiping the crawl graph between runs, shared by both Neo4j handlers.
+ *
+ * <p>
+ * The original reset deleted everything in one transaction, which on a multi-million-edge graph needs more
+ * database heap than is available and can take minutes. These statements delete in chunks instead, each chunk in
+ * its own transaction, so memory stays bounded by the chunk size. They must run as auto-commit queries
+ * (`session.run`), not inside a managed transaction. Relationships go first, so no single node deletion has to
+ * detach a hub's thousands of relationships at once.
+ * </p>
+ *
+ * <ul>
+ *     <li>`chunked`: sequential `CALL {...} IN TRANSACTIONS OF n ROWS`</li>
+ *     <li>`concurrent`: the same, with chunks deleted in parallel (`IN CONCURRENT TRANSACTIONS`, Neo4j 5.21+)</li>
+ *     <li>`recreate`: `CREATE OR REPLACE DATABASE` on the system database, the fastest option on Enterprise
+ *     Edition; constraints must be created again afterwards</li>
+ * </ul>
+ */
+final class DatabaseReset {
+
+    private DatabaseReset() {}
+
+    /**
+     * @param mode `chunked` or `concurrent`
+     * @param batchRows Rows deleted per inner transaction
+     * @return Statements to run in order against the crawl database
+     */
+    static List<String> deleteStatements(String mode, int batchRows) {
+        String transactions = mode.equals("concurrent") ? "IN CONCURRENT TRANSACTIONS" : "IN TRANSACTIONS";
+        return List.of(
+                "MATCH ()-[r]->() CALL { WITH r DELETE r } " + transactions + " OF " + batchRows + " ROWS",
+                "MATCH (n) CALL { WITH n DETACH DELETE n } " + transactions + " OF " + batchRows + " ROWS"
+        );
+    }
+
+    static final String RECREATE = "CREATE OR REPLACE DATABASE neo4j WAIT";
+    static final String SYSTEM_DATABASE = "system";
+}
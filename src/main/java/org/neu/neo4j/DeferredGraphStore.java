@@ -0,0 +1,136 @@
+package org.neu.neo4j;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Initializes another {@link GraphStore} in the background so the crawl does not wait for it.
+ *
+ * <p>
+ * Connecting, verifying connectivity and creating constraints can take seconds, all of which used to pass before
+ * the first URL was fetched. Here {@link #initialize()} returns at once and the delegate is initialized on its own
+ * thread. Every operation issued before the delegate is ready is chained onto its readiness and runs as soon as
+ * it completes; when wrapped by {@link WriteBehindGraphStore}, discovered links simply accumulate in the write
+ * buffer until then.
+ * </p>
+ */
+public class DeferredGraphStore implements GraphStore {
+
+    public DeferredGraphStore(GraphStore delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Start initializing the delegate on a background thread and return immediately.
+     */
+    @Override
+    public void initialize() {
+        this.startNanos = System.nanoTime();
+        Thread starter = new Thread(() -> {
+            try {
+                delegate.initialize();
+                readyNanos = System.nanoTime();
+                logger.info("Graph store ready after {}ms", (readyNanos - startNanos) / 1_000_000);
+                ready.complete(null);
+            } catch (RuntimeException e) {
+                logger.fatal("Failed to initialize graph store: " + e.getMessage());
+                ready.completeExceptionally(e);
+            }
+        }, "graph-store-init");
+        starter.setDaemon(true);
+        starter.start();
+    }
+
+    /**
+     * Wait for initialization to finish, then close the delegate.
+     */
+    @Override
+    public void close() {
+        try {
+            ready.join();
+        } catch (RuntimeException e) {
+            return;
+        }
+        delegate.close();
+    }
+
+    @Override
+    public CompletableFuture<Void> mergeNodeWithChildURL(String url, String dependent_url) {
+        return whenReady(() -> delegate.mergeNodeWithChildURL(url, dependent_url)).thenRun(this::recordWrite);
+    }
+
+    @Override
+    public CompletableFuture<Void> writeEdges(List<EdgeWrite> edges) {
+        return whenReady(() -> delegate.writeEdges(edges)).thenRun(this::recordWrite);
+    }
+
+    @Override
+    public CompletableFuture<Void> clearDatabase() {
+        return whenReady(delegate::clearDatabase);
+    }
+
+    @Override
+    public CompletableFuture<Long> getAllNodes() {
+        return whenReady(delegate::getAllNodes);
+    }
+
+    @Override
+    public CompletableFuture<List<URLRank>> getURLsByInDegree() {
+        return whenReady(delegate::getURLsByInDegree);
+    }
+
+    /**
+     * @return true once the delegate has been initialized
+     */
+    public boolean isReady() {
+        return ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    /**
+     * @return {@link System#nanoTime()} when initialization started
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} when the delegate became ready, or 0 if it is not ready yet
+     */
+    public long getReadyNanos() {
+        return readyNanos;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} when the first write was acknowledged by the delegate, or 0 if none was
+     */
+    public long getFirstWriteNanos() {
+        return firstWriteNanos.get();
+    }
+
+    public GraphStore getDelegate() {
+        return delegate;
+    }
+
+    private <T> CompletableFuture<T> whenReady(Supplier<CompletableFuture<T>> operation) {
+        if (ready.isDone() && !ready.isCompletedExceptionally()) {
+            return operation.get();
+        }
+        return ready.thenCompose(ignored -> operation.get());
+    }
+
+    private void recordWrite() {
+        firstWriteNanos.compareAndSet(0, System.nanoTime());
+    }
+
+    private final GraphStore delegate;
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private volatile long startNanos;
+    private volatile long readyNanos;
+    private final AtomicLong firstWriteNanos = new AtomicLong();
+    private static final Logger logger = LogManager.getLogger(DeferredGraphStore.class);
+}
@@ -0,0 +1,14 @@
+package org.neu.neo4j;
+
+/**
+ * One coalesced link write produced by {@link WriteBehindGraphStore}.
+ *
+ * @param parent Source URL
+ * @param child Target URL
+ * @param multiplicity How many times the link was discovered since the last flush
+ * @param parentKnown The source node is confirmed persisted
+ * @param childKnown The target node is confirmed persisted
+ * @param edgeKnown The relationship is confirmed persisted, so only its count needs updating
+ */
+public record EdgeWrite(String parent, String child, int multiplicity, boolean parentKnown, boolean childKnown, boolean edgeKnown) {
+}
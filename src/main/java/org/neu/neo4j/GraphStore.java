@@ -0,0 +1,86 @@
+package org.neu.neo4j;
+
+import org.neu.RuntimeConfig;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage stage of a crawl: receives every discovered parent-to-child link.
+ *
+ * <p>
+ * All operations return futures so the engine can treat blocking and non-blocking stores alike; blocking
+ * implementations simply return completed futures.
+ * </p>
+ */
+public interface GraphStore {
+
+    /**
+     * Connect to the backing store and create any schema it needs.
+     */
+    void initialize();
+
+    /**
+     * Release all resources held by the store.
+     */
+    void close();
+
+    /**
+     * Persist both URLs as nodes and a "contains" relationship from `url` to `dependent_url`.
+     *
+     * @param url The URL of the parent node.
+     * @param dependent_url The URL of the child node.
+     * @return A {@link CompletableFuture} completing once the write has been handled.
+     */
+    CompletableFuture<Void> mergeNodeWithChildURL(String url, String dependent_url);
+
+    /**
+     * Persist a batch of coalesced link writes. Stores that cannot batch fall back to one
+     * {@link #mergeNodeWithChildURL(String, String)} per relationship not yet known, ignoring multiplicities.
+     *
+     * @param edges
+     * @return A {@link CompletableFuture} completing once the whole batch has been handled.
+     */
+    default CompletableFuture<Void> writeEdges(List<EdgeWrite> edges) {
+        return CompletableFuture.allOf(edges.stream()
+                .filter(edge -> !edge.edgeKnown())
+                .map(edge -> mergeNodeWithChildURL(edge.parent(), edge.child()))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Clear DB data. This is crucial for benchmarking and multiple runs.
+     */
+    CompletableFuture<Void> clearDatabase();
+
+    /**
+     * @return Total number of nodes (URLs) in the store.
+     */
+    CompletableFuture<Long> getAllNodes();
+
+    /**
+     * @return URLs sorted by descending in-degree.
+     */
+    CompletableFuture<List<URLRank>> getURLsByInDegree();
+
+    /**
+     * Create a store by name.
+     *
+     * @param name `async` for {@link Neo4jTransactionHandler}, `sync` for {@link SyncNeo4jTransactionHandler} or
+     *             `memory` for {@link InMemoryGraphStore}
+     * @param config Configuration of the crawl the store is for
+     * @return A new, uninitialized store
+     */
+    static GraphStore of(String name, RuntimeConfig config) {
+        switch (name) {
+            case "async":
+                return new Neo4jTransactionHandler(config);
+            case "sync":
+                return new SyncNeo4jTransactionHandler(config);
+            case "memory":
+                return new InMemoryGraphStore();
+            default:
+                throw new IllegalArgumentException("Unknown graph store: " + name);
+        }
+    }
+}
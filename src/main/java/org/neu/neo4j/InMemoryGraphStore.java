@@ -0,0 +1,63 @@
+package org.neu.neo4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link GraphStore} kept in the JVM heap, with no database behind it. Useful to measure the crawl on its own and
+ * to run benchmarks without a Neo4j server.
+ */
+public class InMemoryGraphStore implements GraphStore {
+
+    @Override
+    public void initialize() {}
+
+    @Override
+    public void close() {
+        clearDatabase();
+    }
+
+    @Override
+    public CompletableFuture<Void> mergeNodeWithChildURL(String url, String dependent_url) {
+        if (nodes.add(url)) {
+            inDegree.computeIfAbsent(url, key -> new LongAdder());
+        }
+        nodes.add(dependent_url);
+        LongAdder childInDegree = inDegree.computeIfAbsent(dependent_url, key -> new LongAdder());
+        if (edges.add(url + '\n' + dependent_url)) {
+            childInDegree.increment();
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> clearDatabase() {
+        nodes.clear();
+        edges.clear();
+        inDegree.clear();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Long> getAllNodes() {
+        return CompletableFuture.completedFuture((long) nodes.size());
+    }
+
+    @Override
+    public CompletableFuture<List<URLRank>> getURLsByInDegree() {
+        List<URLRank> ranks = new ArrayList<>();
+        inDegree.forEach((url, count) -> ranks.add(new URLRank(url, count.intValue())));
+        ranks.sort(Comparator.comparingInt(URLRank::getInDegree).reversed());
+        return CompletableFuture.completedFuture(ranks);
+    }
+
+    private final Set<String> nodes = ConcurrentHashMap.newKeySet();
+    private final Set<String> edges = ConcurrentHashMap.newKeySet();
+    private final Map<String, LongAdder> inDegree = new ConcurrentHashMap<>();
+}
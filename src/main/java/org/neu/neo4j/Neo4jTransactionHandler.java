@@ -1,8 +1,13 @@
 package org.neu.neo4j;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
@@ -12,18 +17,23 @@ import org.neo4j.driver.Record;
 import org.neo4j.driver.async.*;
 import org.neo4j.driver.async.AsyncSession;
 import org.neu.Crawler;
+import org.neu.RuntimeConfig;
+import org.neu.trace.GraphWriteEvent;
 
 /**
  * Provides utility methods for interacting with a Neo4j database, including creating constraints,
  * managing connections, and executing asynchronous transactions.
  */
-public class Neo4jTransactionHandler {
+public class Neo4jTransactionHandler implements GraphStore {
 
     /**
      * Constructs a new Neo4jTransactionHandler instance and initializes connection credentials
      * using the {@link ConfigReader}.
+     *
+     * @param config Supplies `keepDataOnClose`, `resetMode` and `resetBatchRows`
      */
-    public Neo4jTransactionHandler() {
+    public Neo4jTransactionHandler(RuntimeConfig config) {
+        this.config = config;
         ConfigReader configReader = new ConfigReader();
         hostname = configReader.getHostname();
         username = configReader.getUsername();
@@ -45,6 +55,7 @@ public class Neo4jTransactionHandler {
      * Initializes the Neo4j driver and establishes a connection to the database.
      * Verifies connectivity and creates constraints. Also initializes an asynchronous session.
      */
+    @Override
     public void initialize(){
         this.driver = GraphDatabase.driver(hostname, AuthTokens.basic(username, password), Config.builder().withMaxConnectionPoolSize(50)
                 .withConnectionTimeout(0, TimeUnit.MILLISECONDS)
@@ -71,10 +82,14 @@ public class Neo4jTransactionHandler {
 
     /**
      * Closes the Neo4j driver and releases resources. Ensures proper shutdown of the database connection.
+     * The crawl graph is cleared first unless `keepDataOnClose` is set.
      */
+    @Override
     public void close(){
         if (driver != null) {
-            this.clearDatabase().join();
+            if (!config.keepDataOnClose) {
+                this.clearDatabase().join();
+            }
             driver.close();
             logger.info("Neo4J connection closed");
             System.out.println("(ASYNC) Driver closed.");
@@ -91,9 +106,13 @@ public class Neo4jTransactionHandler {
      *
      * @param url The URL of the parent node.
      * @param dependent_url The URL of the child node.
-     * @return A {@link CompletableFuture} representing the completion of the transaction.
+     * @return A {@link CompletableFuture} representing the completion of the transaction, failed if the transaction
+     *         failed. The driver does not retry; {@link PartitionedGraphStore} does.
      */
+    @Override
     public synchronized CompletableFuture<Void> mergeNodeWithChildURL(String url, String dependent_url) {
+        GraphWriteEvent event = new GraphWriteEvent();
+        event.begin();
         AsyncSession session = driver.session(AsyncSession.class, SessionConfig.forDatabase("neo4j"));
         return session.executeWriteAsync(tx ->
                 tx.runAsync("MERGE (u:url {address: $url}) " +
@@ -103,42 +122,154 @@ public class Neo4jTransactionHandler {
                                         "MERGE (u)-[r:contains]->(u_child) " +
                                         "RETURN u.address, u_child.address",  // Return both for verification
                                 Values.parameters("url", url, "dependent_url", dependent_url))
-                        .thenCompose(ResultCursor::consumeAsync)        ).thenCompose(resultSummary -> {
-            return session.closeAsync();
-        }).exceptionally(error -> {
+                        .thenCompose(ResultCursor::consumeAsync)
+        ).handle((summary, error) -> {
             session.closeAsync();
-            return null;
+            if (event.shouldCommit()) {
+                event.links = 1;
+                event.nodes = 2;
+                event.relationships = 1;
+                event.succeeded = error == null;
+                event.commit();
+            }
+            if (error != null) {
+                throw new CompletionException(error);
+            }
+            return (Void) null;
+        }).toCompletableFuture();
+    }
+
+    /**
+     * Write a batch of coalesced links in one transaction with `UNWIND` statements: MERGE the nodes not known to
+     * exist, write the relationships not known to exist, and add the multiplicity of known relationships to their
+     * `count`.
+     *
+     * <p>
+     * Not knowing a relationship does not make it new: it may come from an earlier run kept with `keepDataOnClose`,
+     * or from another writer. Such relationships are MERGEd. Only a relationship between two nodes that the first
+     * statement created can have no duplicate, so only those are CREATEd, which spares the relationship lookup.
+     * Every transaction, like every single link, is recorded as a {@link GraphWriteEvent}.
+     * </p>
+     *
+     * @param edges
+     * @return A {@link CompletableFuture} that fails if the transaction fails.
+     */
+    @Override
+    public CompletableFuture<Void> writeEdges(List<EdgeWrite> edges) {
+        Set<String> newNodes = new LinkedHashSet<>();
+        List<Map<String, Object>> newEdges = new ArrayList<>();
+        List<Map<String, Object>> repeatedEdges = new ArrayList<>();
+
+        for (EdgeWrite edge : edges) {
+            if (!edge.parentKnown()) newNodes.add(edge.parent());
+            if (!edge.childKnown()) newNodes.add(edge.child());
+            Map<String, Object> row = Map.of("parent", edge.parent(), "child", edge.child(), "count", edge.multiplicity());
+            (edge.edgeKnown() ? repeatedEdges : newEdges).add(row);
+        }
+        GraphWriteEvent event = new GraphWriteEvent();
+        event.begin();
+
+        AsyncSession session = driver.session(AsyncSession.class, SessionConfig.forDatabase("neo4j"));
+        return session.executeWriteAsync(tx ->
+                tx.runAsync("UNWIND $nodes AS address " +
+                                        "OPTIONAL MATCH (existing:url {address: address}) " +
+                                        "WITH address, existing WHERE existing IS NULL " +
+                                        "MERGE (:url {address: address}) " +
+                                        "RETURN address",
+                                Values.parameters("nodes", new ArrayList<>(newNodes)))
+                        .thenCompose(cursor -> cursor.listAsync(record -> record.get("address").asString()))
+                        .thenCompose(created -> {
+                            Set<String> createdNodes = Set.copyOf(created);
+                            List<Map<String, Object>> createdEdges = new ArrayList<>();
+                            List<Map<String, Object>> mergedEdges = new ArrayList<>();
+                            for (Map<String, Object> row : newEdges) {
+                                boolean bothCreated = createdNodes.contains(row.get("parent")) && createdNodes.contains(row.get("child"));
+                                (bothCreated ? createdEdges : mergedEdges).add(row);
+                            }
+                            return tx.runAsync(
+                                            "UNWIND $edges AS e " +
+                                                    "MATCH (u:url {address: e.parent}) " +
+                                                    "MATCH (u_child:url {address: e.child}) " +
+                                                    "CREATE (u)-[:contains {count: e.count}]->(u_child)",
+                                            Values.parameters("edges", createdEdges))
+                                    .thenCompose(ResultCursor::consumeAsync)
+                                    .thenCompose(ignored -> tx.runAsync(
+                                            "UNWIND $edges AS e " +
+                                                    "MATCH (u:url {address: e.parent}) " +
+                                                    "MATCH (u_child:url {address: e.child}) " +
+                                                    "MERGE (u)-[r:contains]->(u_child) " +
+                                                    "ON CREATE SET r.count = e.count " +
+                                                    "ON MATCH SET r.count = coalesce(r.count, 1) + e.count",
+                                            Values.parameters("edges", mergedEdges)));
+                        })
+                        .thenCompose(ResultCursor::consumeAsync)
+                        .thenCompose(ignored -> tx.runAsync(
+                                "UNWIND $edges AS e " +
+                                        "MATCH (:url {address: e.parent})-[r:contains]->(:url {address: e.child}) " +
+                                        "SET r.count = coalesce(r.count, 1) + e.count",
+                                Values.parameters("edges", repeatedEdges)))
+                        .thenCompose(ResultCursor::consumeAsync)
+        ).handle((summary, error) -> {
+            session.closeAsync();
+            if (event.shouldCommit()) {
+                event.links = edges.size();
+                event.nodes = newNodes.size();
+                event.relationships = newEdges.size();
+                event.countUpdates = repeatedEdges.size();
+                event.succeeded = error == null;
+                event.commit();
+            }
+            if (error != null) {
+                throw new CompletionException(error);
+            }
+            return (Void) null;
         }).toCompletableFuture();
     }
 
     /**
      * Clear DB data. This is crucial for benchmarking and multiple runs.
+     *
+     * <p>
+     * Deletes in chunks or recreates the database, depending on `resetMode` (see {@link DatabaseReset}), and logs how
+     * long the reset took.
+     * </p>
      */
+    @Override
     public CompletableFuture<Void> clearDatabase() {
-        AsyncSession session = driver.session(AsyncSession.class, SessionConfig.forDatabase("neo4j"));
+        long start = System.nanoTime();
 
-        return session.executeWriteAsync(tx ->
-                tx.runAsync(
-                        "MATCH (a) -[r] -> () " +
-                                "DELETE a, r " +
-                                "WITH count(*) as dummy " +  // Added WITH clause
-                                "MATCH (a) " +
-                                "DELETE (a)"
-                ).thenCompose(ResultCursor::consumeAsync)
-        ).thenCompose(ignored -> {
-            logger.info("Database cleared successfully");
-            return session.closeAsync();
+        CompletionStage<Void> reset;
+        if (config.resetMode.equals("recreate")) {
+            AsyncSession system = driver.session(AsyncSession.class, SessionConfig.forDatabase(DatabaseReset.SYSTEM_DATABASE));
+            reset = system.runAsync(DatabaseReset.RECREATE)
+                    .thenCompose(ResultCursor::consumeAsync)
+                    .thenCompose(ignored -> system.closeAsync())
+                    .thenRun(this::createConstraints);
+        } else {
+            AsyncSession session = driver.session(AsyncSession.class, SessionConfig.forDatabase("neo4j"));
+            CompletionStage<Void> chain = CompletableFuture.completedFuture(null);
+            for (String statement : DatabaseReset.deleteStatements(config.resetMode, config.resetBatchRows)) {
+                chain = chain.thenCompose(ignored -> session.runAsync(statement))
+                        .thenCompose(ResultCursor::consumeAsync)
+                        .thenApply(ignored -> null);
+            }
+            reset = chain.whenComplete((ignored, error) -> session.closeAsync());
+        }
+
+        return reset.thenRun(() -> {
+            logger.info("Database cleared successfully in {}ms ({} reset)", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), config.resetMode);
         }).exceptionally(error -> {
             logger.error("Failed to clear database: " + error.getMessage());
-            session.closeAsync();
             return null;
         }).toCompletableFuture();
     }
+
     /**
      * Fetch and return the total number of nodes (URLs) inserted within the dedicated time limit.
      *
      * @return long Total number of nodes (URLs) in the database.
      */
+    @Override
     public CompletableFuture<Long> getAllNodes() {
         AsyncSession session = driver.session(AsyncSession.class, SessionConfig.forDatabase("neo4j"));
         return session.executeReadAsync(tx ->
@@ -154,6 +285,7 @@ public class Neo4jTransactionHandler {
         }).toCompletableFuture();
     }
 
+    @Override
     public CompletableFuture<List<URLRank>> getURLsByInDegree() {
         AsyncSession session = driver.session(AsyncSession.class, SessionConfig.forDatabase("neo4j"));
 
@@ -182,6 +314,7 @@ public class Neo4jTransactionHandler {
     private static String hostname;
     private static String username;
     private static String password;
+    private final RuntimeConfig config;
     private Driver driver;
     private AsyncSession session;
     private static final Logger logger = LogManager.getLogger(Neo4jTransactionHandler.class);
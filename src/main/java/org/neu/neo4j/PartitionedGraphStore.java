@@ -0,0 +1,261 @@
+package org.neu.neo4j;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neo4j.driver.exceptions.RetryableException;
+import org.neu.execution.Stage;
+import org.neu.util.Fingerprint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Routes link writes to a fixed number of writer lanes by the node they lock, so writes that would fight over one
+ * node's lock wait their turn instead, and retries failed writes inside the lane.
+ *
+ * <p>
+ * MERGEing a relationship locks both of its nodes. A few hub pages are linked from nearly every page, so concurrent
+ * writes of links into a hub all queue for its lock, and writes that lock two hubs in opposite order deadlock. A
+ * link is therefore routed by the fingerprint of its child URL: every link into one page goes through the same
+ * lane, one at a time, while lanes for other pages run in parallel. Each lane is a single-threaded {@link Stage}
+ * holding at most `laneCapacity` writes, so a slow store stalls its callers rather than letting writes pile up.
+ * </p>
+ *
+ * <p>
+ * A write that fails with a transient error (deadlock, lock timeout, lost connection) is retried in its lane after
+ * an exponential, jittered backoff, up to `maxRetries` times. Other failures, and writes still failing after the
+ * last retry, drop the link; the returned future fails and the link is counted, instead of vanishing silently.
+ * </p>
+ *
+ * <p>
+ * A batch from a {@link WriteBehindGraphStore} is split the same way, by the child of each link, and every lane
+ * writes and retries its part as one transaction, in parallel with the other parts. Each link then still has a
+ * single lane, so no two transactions write the same relationship at once. The batch fails if any part fails; the
+ * parts that succeeded stay written, and their nodes and relationships are MERGEd again when next seen.
+ * </p>
+ */
+public class PartitionedGraphStore implements GraphStore {
+
+    /**
+     * @param delegate Store the lanes write to
+     * @param lanes Number of writer lanes
+     * @param laneCapacity Most writes queued in one lane before callers wait
+     * @param maxRetries Retries of a transiently failed write before it is dropped
+     * @param backoffMillis Wait before the first retry, doubled for every further one
+     */
+    public PartitionedGraphStore(GraphStore delegate, int lanes, int laneCapacity, int maxRetries, long backoffMillis) {
+        this.delegate = delegate;
+        this.lanes = new Stage[lanes];
+        this.laneLinks = new LongAdder[lanes];
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new Stage("writer-" + i, 1, laneCapacity);
+            this.laneLinks[i] = new LongAdder();
+        }
+        this.maxRetries = maxRetries;
+        this.backoffMillis = backoffMillis;
+    }
+
+    @Override
+    public void initialize() {
+        delegate.initialize();
+    }
+
+    /**
+     * Stop the lanes once their queued writes are done, then close the underlying store.
+     */
+    @Override
+    public void close() {
+        for (Stage lane : lanes) {
+            // a write admitted after this marker is behind it in the lane's single thread
+            lane.call(() -> null).join();
+            lane.shutdownNow();
+        }
+        logger.info(report());
+        delegate.close();
+    }
+
+    @Override
+    public CompletableFuture<Void> mergeNodeWithChildURL(String url, String dependent_url) {
+        int lane = lane(dependent_url);
+        return lanes[lane].call(() -> {
+            write(() -> delegate.mergeNodeWithChildURL(url, dependent_url), 1);
+            laneLinks[lane].increment();
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> writeEdges(List<EdgeWrite> edges) {
+        List<List<EdgeWrite>> parts = new ArrayList<>(Collections.nCopies(lanes.length, null));
+        for (EdgeWrite edge : edges) {
+            int lane = lane(edge.child());
+            if (parts.get(lane) == null) {
+                parts.set(lane, new ArrayList<>());
+            }
+            parts.get(lane).add(edge);
+        }
+
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < lanes.length; i++) {
+            List<EdgeWrite> part = parts.get(i);
+            if (part == null) {
+                continue;
+            }
+            int lane = i;
+            writes.add(lanes[lane].call(() -> {
+                write(() -> delegate.writeEdges(part), part.size());
+                laneLinks[lane].add(part.size());
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Run `attempt` until it succeeds, it fails for good or the retries are used up, waiting on the calling thread.
+     *
+     * @param attempt Starts one try of the write
+     * @param links Links written by one try
+     * @throws CompletionException With the last failure, once the links are dropped
+     */
+    private void write(Supplier<CompletableFuture<Void>> attempt, int links) {
+        for (int retry = 0; ; retry++) {
+            try {
+                attempt.get().join();
+                long now = System.nanoTime();
+                firstWriteNanos.compareAndSet(0, now);
+                lastWriteNanos.accumulateAndGet(now, Math::max);
+                written.add(links);
+                return;
+            } catch (CompletionException | CancellationException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                if (retry >= maxRetries || !isTransient(cause) || !backOff(retry)) {
+                    dropped.add(links);
+                    logger.debug("Dropped {} links after {} retries: {}", links, retry, cause.getMessage());
+                    throw new CompletionException(cause);
+                }
+                retries.increment();
+            }
+        }
+    }
+
+    /**
+     * @param error
+     * @return true if the same write may succeed when tried again
+     */
+    static boolean isTransient(Throwable error) {
+        return error instanceof RetryableException;
+    }
+
+    /**
+     * Sleep before retry number `retry + 1`: between half and all of `backoffMillis * 2^retry`, capped.
+     *
+     * @return false if the thread was interrupted
+     */
+    private boolean backOff(int retry) {
+        long cap = Math.min(MAX_BACKOFF_MILLIS, backoffMillis << Math.min(retry, 20));
+        try {
+            Thread.sleep(cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private int lane(String node) {
+        return (int) Long.remainderUnsigned(Fingerprint.of(node), lanes.length);
+    }
+
+    @Override
+    public CompletableFuture<Void> clearDatabase() {
+        return delegate.clearDatabase();
+    }
+
+    @Override
+    public CompletableFuture<Long> getAllNodes() {
+        return delegate.getAllNodes();
+    }
+
+    @Override
+    public CompletableFuture<List<URLRank>> getURLsByInDegree() {
+        return delegate.getURLsByInDegree();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return Links written through the lanes, single or batched
+     */
+    public long getRouted() {
+        long routed = 0;
+        for (LongAdder links : laneLinks) {
+            routed += links.sum();
+        }
+        return routed;
+    }
+
+    /**
+     * @return Links written per second between the first and the last successful write
+     */
+    public double getLinksPerSecond() {
+        long elapsed = lastWriteNanos.get() - firstWriteNanos.get();
+        return elapsed <= 0 ? 0.0 : written.sum() * 1e9 / elapsed;
+    }
+
+    /**
+     * @return Human-readable report
+     */
+    public String report() {
+        long links = written.sum() + dropped.sum();
+        long busiest = 0;
+        long routed = getRouted();
+        long blockedNanos = 0;
+        for (int i = 0; i < lanes.length; i++) {
+            busiest = Math.max(busiest, laneLinks[i].sum());
+            blockedNanos += lanes[i].getBlockedNanos();
+        }
+        return String.format(Locale.ROOT, "Writer lanes: %d lanes, %d links written at %.0f links/sec, %d retries, %d dropped (%.3f%% lost), " +
+                        "busiest lane wrote %.1f%% of them, callers blocked %dms",
+                lanes.length, written.sum(), getLinksPerSecond(), retries.sum(), dropped.sum(), links == 0 ? 0.0 : 100.0 * dropped.sum() / links,
+                routed == 0 ? 0.0 : 100.0 * busiest / routed, TimeUnit.NANOSECONDS.toMillis(blockedNanos));
+    }
+
+    public GraphStore getDelegate() {
+        return delegate;
+    }
+
+    private static final long MAX_BACKOFF_MILLIS = 2_000;
+
+    private final GraphStore delegate;
+    private final Stage[] lanes;
+    private final LongAdder[] laneLinks;
+    private final int maxRetries;
+    private final long backoffMillis;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final AtomicLong firstWriteNanos = new AtomicLong();
+    private final AtomicLong lastWriteNanos = new AtomicLong();
+    private static final Logger logger = LogManager.getLogger(PartitionedGraphStore.class);
+}
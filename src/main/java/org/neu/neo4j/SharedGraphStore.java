@@ -0,0 +1,60 @@
+package org.neu.neo4j;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A crawl session's view of a {@link GraphStore} that several sessions write to at once.
+ *
+ * <p>
+ * Writes and queries go straight to the shared store, so every session's links end up in one graph, batched and
+ * deduplicated together. The lifecycle does not: {@link #initialize()}, {@link #close()} and
+ * {@link #clearDatabase()} do nothing, because one session finishing must neither close the driver nor wipe the
+ * graph under the sessions still running. The owner of the shared store initializes and closes it.
+ * </p>
+ */
+public class SharedGraphStore implements GraphStore {
+
+    public SharedGraphStore(GraphStore shared) {
+        this.shared = shared;
+    }
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public CompletableFuture<Void> mergeNodeWithChildURL(String url, String dependent_url) {
+        return shared.mergeNodeWithChildURL(url, dependent_url);
+    }
+
+    @Override
+    public CompletableFuture<Void> writeEdges(List<EdgeWrite> edges) {
+        return shared.writeEdges(edges);
+    }
+
+    @Override
+    public CompletableFuture<Void> clearDatabase() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Long> getAllNodes() {
+        return shared.getAllNodes();
+    }
+
+    @Override
+    public CompletableFuture<List<URLRank>> getURLsByInDegree() {
+        return shared.getURLsByInDegree();
+    }
+
+    public GraphStore getShared() {
+        return shared;
+    }
+
+    private final GraphStore shared;
+}
@@ -5,14 +5,26 @@ import org.apache.logging.log4j.Logger;
 import org.neo4j.driver.*;
 import org.neo4j.driver.Record;
 import org.neu.Crawler;
+import org.neu.RuntimeConfig;
+import org.neu.trace.GraphWriteEvent;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
-public class SyncNeo4jTransactionHandler {
+/**
+ * Blocking {@link GraphStore} over a single Neo4j session. Every call runs to completion on the calling thread
+ * and returns a completed future; calls are serialized because a session is not thread-safe.
+ */
+public class SyncNeo4jTransactionHandler implements GraphStore {
 
-    public SyncNeo4jTransactionHandler() {
+    /**
+     * @param config Supplies `keepDataOnClose`, `resetMode` and `resetBatchRows`
+     */
+    public SyncNeo4jTransactionHandler(RuntimeConfig config) {
+        this.config = config;
         ConfigReader configReader = new ConfigReader();
         hostname = configReader.getHostname();
         username = configReader.getUsername();
@@ -23,7 +35,8 @@ public class SyncNeo4jTransactionHandler {
     /**
      * Initialize the Neo4J driver as per the credentials specified in config.properties.
      */
-    public void initialize() {
+    @Override
+    public synchronized void initialize() {
         this.driver = GraphDatabase.driver(hostname, AuthTokens.basic(username, password));
         try {
             this.driver.verifyConnectivity();
@@ -42,11 +55,14 @@ public class SyncNeo4jTransactionHandler {
     }
 
     /**
-     * Close the Neo4J driver.
+     * Close the Neo4J driver. The crawl graph is cleared first unless `keepDataOnClose` is set.
      */
-    public void close() {
+    @Override
+    public synchronized void close() {
         if (driver != null) {
-            this.clearDatabase();
+            if (!config.keepDataOnClose) {
+                this.clearDatabase();
+            }
 //            Thread.sleep(1000);
             driver.close();
             System.out.println("(SYNC) Driver closed.");
@@ -73,8 +89,15 @@ public class SyncNeo4jTransactionHandler {
      *
      * @param url The parent URL that will have an outgoing relationship
      * @param dependent_url The child URL that will have an incoming relationship
+     * @return A completed future, failed if the transaction failed
      */
-    public void mergeNodeWithChildURL(String url, String dependent_url){
+    @Override
+    public synchronized CompletableFuture<Void> mergeNodeWithChildURL(String url, String dependent_url){
+        GraphWriteEvent event = new GraphWriteEvent();
+        event.begin();
+        event.links = 1;
+        event.nodes = 2;
+        event.relationships = 1;
         try{
             this.session.executeWrite(tx->{
                 tx.run(
@@ -88,30 +111,46 @@ public class SyncNeo4jTransactionHandler {
         }
         catch(Exception e){
             System.out.println("(SYNC) Failed to insert node: " + e.getMessage());
+            event.commit();
+            return CompletableFuture.failedFuture(e);
         }
+        event.succeeded = true;
+        event.commit();
+        return CompletableFuture.completedFuture(null);
     }
 
 
     /**
      * Clear DB data. This is crucial for benchmarking and multiple runs.
+     *
+     * <p>
+     * Deletes in chunks or recreates the database, depending on `resetMode` (see {@link DatabaseReset}), and logs how
+     * long the reset took.
+     * </p>
      */
-    public void clearDatabase() {
+    @Override
+    public synchronized CompletableFuture<Void> clearDatabase() {
+        long start = System.nanoTime();
         try{
-            this.session.executeWrite(tx->{
-                tx.run(
-                        "MATCH (a) -[r] -> () " +
-                                "DELETE a, r " +
-                                "WITH count(*) as dummy " +  // Added WITH clause
-                                "MATCH (a) " +
-                                "DELETE (a)"
-                ).consume();
-                return null;
-            });
+            if (config.resetMode.equals("recreate")) {
+                try (Session system = driver.session(SessionConfig.forDatabase(DatabaseReset.SYSTEM_DATABASE))) {
+                    system.run(DatabaseReset.RECREATE).consume();
+                }
+                this.session.close();
+                this.session = this.driver.session(SessionConfig.builder().withDatabase("neo4j").build());
+                createConstraints();
+            }
+            else {
+                for (String statement : DatabaseReset.deleteStatements(config.resetMode, config.resetBatchRows)) {
+                    this.session.run(statement).consume();
+                }
+            }
+            logger.info("(SYNC) Database cleared successfully in {}ms ({} reset)", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), config.resetMode);
         }
         catch(Exception e){
             logger.fatal("Failed to clear database: {}", e.getMessage());
         }
-
+        return CompletableFuture.completedFuture(null);
     }
 
     /**
@@ -119,11 +158,12 @@ public class SyncNeo4jTransactionHandler {
      *
      * @return long Total number of nodes (URLs) in the database.
      */
-    public long getAllNodes() {
+    @Override
+    public synchronized CompletableFuture<Long> getAllNodes() {
         try {
             String query = "MATCH (n) RETURN count(n) AS count";
 
-            return this.session.executeRead(tx -> {
+            return CompletableFuture.completedFuture(this.session.executeRead(tx -> {
                 Result result = tx.run(query);
                 if (result.hasNext()) {
 
@@ -131,10 +171,10 @@ public class SyncNeo4jTransactionHandler {
                     return record.get("count").asLong();  // return the count value as long
                 }
                 return 0L;
-            });
+            }));
         } catch (Exception e) {
             System.out.println("(SYNC) Failed to retrieve node count: " + e.getMessage());
-            return 0L;
+            return CompletableFuture.completedFuture(0L);
         }
     }
 
@@ -142,9 +182,10 @@ public class SyncNeo4jTransactionHandler {
      * Get URLs sorted by their reference rankings
      * @return
      */
-    public List<URLRank> getURLsByInDegree() {
+    @Override
+    public CompletableFuture<List<URLRank>> getURLsByInDegree() {
         try (Session session = driver.session(SessionConfig.forDatabase("neo4j"))) {
-            return session.executeRead(tx -> {
+            return CompletableFuture.completedFuture(session.executeRead(tx -> {
                 Result result = tx.run(
                         "MATCH (u:url) " +
                                 "WITH u, COUNT { ()-[:contains]->(u) } as inDegree " +
@@ -161,16 +202,17 @@ public class SyncNeo4jTransactionHandler {
                     ));
                 }
                 return rankings;
-            });
+            }));
         } catch (Exception e) {
             logger.error("Failed to retrieve URLs by in-degree: {}", e.getMessage());
-            return List.of();
+            return CompletableFuture.completedFuture(List.of());
         }
     }
 
     private static String hostname;
     private static String username;
     private static String password;
+    private final RuntimeConfig config;
     private Driver driver;
     private Session session;
     private static final Logger logger = LogManager.getLogger(SyncNeo4jTransactionHandler.class);
@@ -0,0 +1,292 @@
+package org.neu.neo4j;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.neu.util.Fingerprint;
+import org.neu.util.FingerprintCache;
+import org.neu.util.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Write-behind layer in front of another {@link GraphStore}.
+ *
+ * <p>
+ * Links are acknowledged immediately and buffered. A repeated link inside the buffer only bumps a multiplicity
+ * counter. Every `flushSize` links or `flushIntervalMillis`, the buffer is flushed as one
+ * {@link GraphStore#writeEdges(List)} batch. Fingerprints of nodes and relationships confirmed persisted are kept
+ * in fixed-size {@link FingerprintCache}s, so each flush only MERGEs nodes and relationships not known to exist,
+ * and sends a count increment for relationships that do. The caches only know what this process wrote and forget
+ * entries as they fill up; an unknown node or relationship that exists already, from an earlier run or another
+ * process, is simply MERGEd again.
+ * </p>
+ *
+ * <p>
+ * Flushes run one at a time on a single thread, and a batch is marked persisted only after it succeeds. The
+ * next flush therefore always sees exact knowledge. When more than `maxPending` links are buffered, callers get
+ * the pending flush's future instead of an immediate acknowledgement, which throttles the crawl to the store's
+ * speed.
+ * </p>
+ */
+public class WriteBehindGraphStore implements GraphStore {
+
+    public WriteBehindGraphStore(GraphStore delegate, int flushSize, long flushIntervalMillis, int maxPending) {
+        this(delegate, flushSize, flushIntervalMillis, maxPending, DEFAULT_KNOWN_ENTRIES);
+    }
+
+    /**
+     * @param delegate
+     * @param flushSize Links buffered before a flush
+     * @param flushIntervalMillis Longest a link waits for a flush
+     * @param maxPending Links buffered before callers wait for the flush
+     * @param knownEntries Slots of each cache of persisted nodes and relationships
+     */
+    public WriteBehindGraphStore(GraphStore delegate, int flushSize, long flushIntervalMillis, int maxPending, int knownEntries) {
+        this.delegate = delegate;
+        this.flushSize = flushSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxPending = maxPending;
+        this.persistedNodes = new FingerprintCache(knownEntries);
+        this.persistedEdges = new FingerprintCache(knownEntries);
+    }
+
+    @Override
+    public void initialize() {
+        delegate.initialize();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAsync, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Flush everything still buffered, then close the underlying store.
+     */
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flushAsync().join();
+            flusher.shutdown();
+        }
+        logger.info(report(0));
+        delegate.close();
+    }
+
+    @Override
+    public CompletableFuture<Void> mergeNodeWithChildURL(String url, String dependent_url) {
+        requested.increment();
+
+        CompletableFuture<Void> backpressure = null;
+        boolean full;
+        synchronized (this) {
+            long parent = Fingerprint.of(url);
+            long child = Fingerprint.of(dependent_url);
+            long edge = Fingerprint.edge(parent, child);
+
+            PendingEdge pendingEdge = pending.get(edge);
+            if (pendingEdge != null) {
+                pendingEdge.multiplicity++;
+                coalesced.increment();
+            } else {
+                pending.put(edge, new PendingEdge(url, dependent_url, parent, child, edge));
+            }
+            full = pending.size() >= flushSize;
+            if (pending.size() >= maxPending) {
+                backpressure = nextFlush;
+            }
+        }
+
+        if (full) {
+            flushAsync();
+        }
+        return backpressure != null ? backpressure : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Schedule a flush of the current buffer.
+     *
+     * @return A future completing once everything buffered before this call has been handled
+     */
+    public CompletableFuture<Void> flushAsync() {
+        CompletableFuture<Void> done;
+        synchronized (this) {
+            done = nextFlush;
+            if (flushScheduled) {
+                return done;
+            }
+            flushScheduled = true;
+        }
+
+        try {
+            flusher.execute(() -> flush(done));
+        } catch (RejectedExecutionException e) {
+            flush(done);
+        }
+        return done;
+    }
+
+    private void flush(CompletableFuture<Void> done) {
+        Map<Long, PendingEdge> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            nextFlush = new CompletableFuture<>();
+            flushScheduled = false;
+        }
+
+        if (batch.isEmpty()) {
+            done.complete(null);
+            return;
+        }
+
+        List<EdgeWrite> writes = new ArrayList<>(batch.size());
+        LongHashSet batchNodes = new LongHashSet(batch.size() * 2);
+        synchronized (persistedNodes) {
+            for (PendingEdge edge : batch.values()) {
+                boolean parentKnown = persistedNodes.contains(edge.parent);
+                boolean childKnown = persistedNodes.contains(edge.child);
+                boolean edgeKnown = persistedEdges.contains(edge.edge);
+                writes.add(new EdgeWrite(edge.url, edge.childUrl, edge.multiplicity, parentKnown, childKnown, edgeKnown));
+
+                if (!parentKnown && batchNodes.add(edge.parent)) nodesSent.increment();
+                if (!childKnown && batchNodes.add(edge.child)) nodesSent.increment();
+                if (edgeKnown) countUpdatesSent.increment(); else edgesSent.increment();
+            }
+        }
+
+        try {
+            delegate.writeEdges(writes).join();
+            synchronized (persistedNodes) {
+                for (PendingEdge edge : batch.values()) {
+                    persistedNodes.add(edge.parent);
+                    persistedNodes.add(edge.child);
+                    persistedEdges.add(edge.edge);
+                }
+            }
+            for (BiConsumer<String, String> listener : persistListeners) {
+                for (PendingEdge edge : batch.values()) {
+                    listener.accept(edge.url, edge.childUrl);
+                }
+            }
+        } catch (CompletionException | CancellationException e) {
+            failedEdges.add(batch.size());
+            logger.error("Failed to flush {} links: {}", batch.size(), e.getMessage());
+        }
+        roundTrips.increment();
+        done.complete(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> clearDatabase() {
+        return flushAsync().thenCompose(ignored -> delegate.clearDatabase()).thenRun(() -> {
+            synchronized (persistedNodes) {
+                persistedNodes.clear();
+                persistedEdges.clear();
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> getAllNodes() {
+        return flushAsync().thenCompose(ignored -> delegate.getAllNodes());
+    }
+
+    @Override
+    public CompletableFuture<List<URLRank>> getURLsByInDegree() {
+        return flushAsync().thenCompose(ignored -> delegate.getURLsByInDegree());
+    }
+
+    /**
+     * Summarise how many database operations the write-behind layer saved. Without it, every discovered link
+     * costs three MERGEs (two nodes and one relationship) in its own transaction.
+     *
+     * @param pagesCrawled Pages fetched, to express operations per page; 0 to omit
+     * @return Human-readable report
+     */
+    public String report(long pagesCrawled) {
+        long links = requested.sum();
+        long operations = nodesSent.sum() + edgesSent.sum() + countUpdatesSent.sum();
+        String summary = String.format("Write-behind: %d links discovered, %d coalesced in buffer, %d DB operations " +
+                        "(%d node MERGEs, %d relationship MERGEs, %d count updates) in %d transactions, %d links failed; " +
+                        "without write-behind: %d operations in %d transactions",
+                links, coalesced.sum(), operations, nodesSent.sum(), edgesSent.sum(), countUpdatesSent.sum(),
+                roundTrips.sum(), failedEdges.sum(), 3 * links, links);
+        if (pagesCrawled > 0) {
+            summary += String.format("%nDB operations per crawled page: %.2f (was %.2f)",
+                    (double) operations / pagesCrawled, 3.0 * links / pagesCrawled);
+        }
+        return summary;
+    }
+
+    /**
+     * Be told about every link once its batch has been written, on the flusher thread. A listener that blocks
+     * delays later flushes and, through `maxPending`, the crawl. When crawl sessions share the store, each
+     * session's listener hears about the links of every session.
+     *
+     * @param listener Called with the parent and child URL of each persisted link
+     */
+    public void addPersistListener(BiConsumer<String, String> listener) {
+        persistListeners.add(listener);
+    }
+
+    /**
+     * @param listener A listener added with {@link #addPersistListener(BiConsumer)}
+     */
+    public void removePersistListener(BiConsumer<String, String> listener) {
+        persistListeners.remove(listener);
+    }
+
+    public GraphStore getDelegate() {
+        return delegate;
+    }
+
+    private static final class PendingEdge {
+        PendingEdge(String url, String childUrl, long parent, long child, long edge) {
+            this.url = url;
+            this.childUrl = childUrl;
+            this.parent = parent;
+            this.child = child;
+            this.edge = edge;
+        }
+
+        final String url;
+        final String childUrl;
+        final long parent;
+        final long child;
+        final long edge;
+        int multiplicity = 1;
+    }
+
+    private final GraphStore delegate;
+    private final int flushSize;
+    private final long flushIntervalMillis;
+    private final int maxPending;
+    private ScheduledExecutorService flusher;
+    private final List<BiConsumer<String, String>> persistListeners = new CopyOnWriteArrayList<>();
+
+    private Map<Long, PendingEdge> pending = new LinkedHashMap<>();
+    private CompletableFuture<Void> nextFlush = new CompletableFuture<>();
+    private boolean flushScheduled;
+
+    // guarded by persistedNodes
+    private final FingerprintCache persistedNodes;
+    private final FingerprintCache persistedEdges;
+
+    private final LongAdder requested = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder nodesSent = new LongAdder();
+    private final LongAdder edgesSent = new LongAdder();
+    private final LongAdder countUpdatesSent = new LongAdder();
+    private final LongAdder roundTrips = new LongAdder();
+    private final LongAdder failedEdges = new LongAdder();
+    private static final int DEFAULT_KNOWN_ENTRIES = 1 << 20;
+    private static final Logger logger = LogManager.getLogger(WriteBehindGraphStore.class);
+}
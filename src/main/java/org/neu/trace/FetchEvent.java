@@ -0,0 +1,41 @@
+package org.neu.trace;
+
+import jdk.jfr.*;
+
+/**
+ * One page fetch, from opening the connection to the end of the body.
+ *
+ * <p>
+ * Like the other crawler events in this package it is enabled by default and costs nothing while no recording is
+ * running. Record with `java -XX:StartFlightRecording:filename=crawl.jfr ...` and inspect with
+ * `jfr print --events org.neu.Fetch crawl.jfr` or JDK Mission Control.
+ * </p>
+ */
+@Name("org.neu.Fetch")
+@Label("Page Fetch")
+@Category({"Crawler", "Fetch"})
+@Description("Connecting to, requesting and reading one page")
+@StackTrace(false)
+public class FetchEvent extends Event {
+
+    @Label("URL")
+    public String url;
+
+    @Label("Host")
+    public String host;
+
+    @Label("HTTP Status")
+    @Description("Response code, or -1 if no response was received")
+    public int status;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Wire Bytes")
+    @DataAmount
+    public long wireBytes;
+
+    @Label("Decoded Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,35 @@
+package org.neu.trace;
+
+import jdk.jfr.*;
+
+/**
+ * A discovered link dropped by the crawler's filters.
+ */
+@Name("org.neu.FilterRejected")
+@Label("Link Rejected")
+@Category({"Crawler", "Filter"})
+@Description("A discovered link that was not enqueued, and why")
+@StackTrace(false)
+public class FilterRejectedEvent extends Event {
+
+    @Label("URL")
+    public String url;
+
+    @Label("Reason")
+    public String reason;
+
+    /**
+     * Record a rejection. Does nothing unless a recording has the event enabled.
+     *
+     * @param url
+     * @param reason
+     */
+    public static void emit(String url, String reason) {
+        FilterRejectedEvent event = new FilterRejectedEvent();
+        if (event.shouldCommit()) {
+            event.url = url;
+            event.reason = reason;
+            event.commit();
+        }
+    }
+}
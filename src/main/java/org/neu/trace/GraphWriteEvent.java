@@ -0,0 +1,30 @@
+package org.neu.trace;
+
+import jdk.jfr.*;
+
+/**
+ * One batch of links written to Neo4j: a write-behind flush, or a single link when links are written one at a time.
+ */
+@Name("org.neu.GraphWrite")
+@Label("Graph Write Batch")
+@Category({"Crawler", "Storage"})
+@Description("One write transaction sent to Neo4j")
+@StackTrace(false)
+public class GraphWriteEvent extends Event {
+
+    @Label("Links")
+    @Description("Distinct links in the batch")
+    public int links;
+
+    @Label("Node MERGEs")
+    public long nodes;
+
+    @Label("Relationship MERGEs")
+    public long relationships;
+
+    @Label("Count Updates")
+    public long countUpdates;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
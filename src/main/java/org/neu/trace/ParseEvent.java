@@ -0,0 +1,25 @@
+package org.neu.trace;
+
+import jdk.jfr.*;
+
+/**
+ * Decoding a page body and scanning it for links. Bodies are parsed while they stream in, so the duration
+ * includes waiting for the network.
+ */
+@Name("org.neu.Parse")
+@Label("Page Parse")
+@Category({"Crawler", "Parse"})
+@Description("Decoding one page body and extracting its links")
+@StackTrace(false)
+public class ParseEvent extends Event {
+
+    @Label("URL")
+    public String url;
+
+    @Label("Links Found")
+    public int links;
+
+    @Label("Decoded Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,85 @@
+package org.neu.util;
+
+import java.util.Arrays;
+
+/**
+ * Bloom filter over 64-bit fingerprints. Membership answers may be false positives, never false negatives.
+ * Not thread-safe.
+ */
+public class BloomFilter {
+
+    /**
+     * @param bytes Size of the bit array in bytes
+     * @param expectedEntries Number of entries the filter is sized for, used to pick the number of hash functions
+     */
+    public BloomFilter(long bytes, long expectedEntries) {
+        long bits = Math.max(64, bytes * 8);
+        this.words = new long[(int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64)];
+        this.bitCount = (long) words.length * 64;
+        this.hashes = (int) Math.max(1, Math.min(16, Math.round((double) bitCount / Math.max(1, expectedEntries) * Math.log(2))));
+    }
+
+    /**
+     * @param fingerprint
+     * @return true if the fingerprint was definitely not present before
+     */
+    public boolean add(long fingerprint) {
+        boolean added = false;
+        long h2 = Fingerprint.mix(fingerprint ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(fingerprint + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words[word] & mask) == 0) {
+                words[word] |= mask;
+                added = true;
+            }
+        }
+        if (added) {
+            entries++;
+        }
+        return added;
+    }
+
+    public boolean mightContain(long fingerprint) {
+        long h2 = Fingerprint.mix(fingerprint ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(fingerprint + i * h2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Number of entries added
+     */
+    public long size() {
+        return entries;
+    }
+
+    /**
+     * @return Probability that a fingerprint never added is reported present, at the current fill
+     */
+    public double falsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashes * entries / bitCount), hashes);
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0L);
+        entries = 0;
+    }
+
+    /**
+     * @return Approximate heap footprint in bytes
+     */
+    public long footprintBytes() {
+        return 16L + 8L * words.length;
+    }
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashes;
+    private long entries;
+}
@@ -0,0 +1,46 @@
+package org.neu.util;
+
+/**
+ * 64-bit fingerprints of URLs, for sets that must stay compact. At a few hundred million URLs the chance of any
+ * collision is still well below one in a thousand.
+ */
+public final class Fingerprint {
+
+    private Fingerprint() {}
+
+    /**
+     * FNV-1a over the UTF-16 chars of the string, finished with a murmur3 mix to spread the bits.
+     *
+     * @param s
+     * @return 64-bit fingerprint
+     */
+    public static long of(CharSequence s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * @param parent Fingerprint of the source URL
+     * @param child Fingerprint of the target URL
+     * @return Fingerprint of the directed edge between them
+     */
+    public static long edge(long parent, long child) {
+        return mix(parent * 0x9E3779B97F4A7C15L + child);
+    }
+
+    /**
+     * murmur3 fmix64 finalizer.
+     */
+    public static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
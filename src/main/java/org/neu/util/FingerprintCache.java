@@ -0,0 +1,55 @@
+package org.neu.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size, lossy set of 64-bit fingerprints: each fingerprint has one slot, and a newer fingerprint landing on an
+ * occupied slot replaces the older one. It never grows, so it suits caches where forgetting an entry only costs a
+ * redundant check. A fingerprint of 0 is never cached. Not thread-safe.
+ */
+public class FingerprintCache {
+
+    /**
+     * @param maxEntries Slots, rounded up to a power of two
+     */
+    public FingerprintCache(int maxEntries) {
+        int capacity = Integer.highestOneBit(Math.max(16, maxEntries) - 1) << 1;
+        this.slots = new long[capacity];
+    }
+
+    /**
+     * @param fingerprint
+     */
+    public void add(long fingerprint) {
+        slots[slot(fingerprint)] = fingerprint;
+    }
+
+    /**
+     * @param fingerprint
+     * @return true if the fingerprint was added and not replaced since
+     */
+    public boolean contains(long fingerprint) {
+        return fingerprint != 0 && slots[slot(fingerprint)] == fingerprint;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, 0);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return Heap footprint in bytes
+     */
+    public long footprintBytes() {
+        return 16L + 8L * slots.length;
+    }
+
+    private int slot(long fingerprint) {
+        return (int) Fingerprint.mix(fingerprint) & (slots.length - 1);
+    }
+
+    private final long[] slots;
+}
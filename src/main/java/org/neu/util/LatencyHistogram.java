@@ -0,0 +1,111 @@
+package org.neu.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of durations with microsecond resolution below 64µs and 32 buckets per power of two above,
+ * so any percentile is accurate to about 3%. Recording is lock-free and safe from any thread.
+ */
+public class LatencyHistogram {
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * @param nanos Duration to record
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(Math.max(0, nanos / 1000)));
+    }
+
+    /**
+     * @return Number of durations recorded
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * @param quantile Between 0 and 1, e.g. 0.99
+     * @return Upper bound in milliseconds of the bucket holding the quantile, or 0 if nothing was recorded
+     */
+    public double percentileMillis(double quantile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(1, rank)) {
+                return upperBoundMicros(i) / 1000.0;
+            }
+        }
+        return upperBoundMicros(BUCKETS - 1) / 1000.0;
+    }
+
+    /**
+     * @return A copy of the current counts
+     */
+    public LatencyHistogram snapshot() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Add every count of `other` to this histogram.
+     *
+     * @param other
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.addAndGet(i, other.counts.get(i));
+        }
+    }
+
+    /**
+     * @param earlier A snapshot of this histogram taken earlier
+     * @return The durations recorded since `earlier`
+     */
+    public LatencyHistogram since(LatencyHistogram earlier) {
+        LatencyHistogram delta = new LatencyHistogram();
+        for (int i = 0; i < BUCKETS; i++) {
+            delta.counts.set(i, counts.get(i) - earlier.counts.get(i));
+        }
+        return delta;
+    }
+
+    private static int bucketOf(long micros) {
+        if (micros < LINEAR) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min(BUCKETS - 1, LINEAR + (exponent - LINEAR_BITS) * SUB_BUCKETS + sub);
+    }
+
+    private static long upperBoundMicros(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket + 1;
+        }
+        int exponent = (bucket - LINEAR) / SUB_BUCKETS + LINEAR_BITS;
+        int sub = (bucket - LINEAR) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS);
+    }
+
+    private static final int LINEAR_BITS = 6;
+    private static final int LINEAR = 1 << LINEAR_BITS;
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // up to 2^40µs, about 12 days
+    private static final int BUCKETS = LINEAR + (40 - LINEAR_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+}
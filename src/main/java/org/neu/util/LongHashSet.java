@@ -0,0 +1,94 @@
+package org.neu.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of primitive longs: 8 bytes per slot instead of the ~60 bytes per element of a
+ * `HashSet<Long>`. Not thread-safe.
+ */
+public class LongHashSet {
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        this.slots = new long[capacity];
+    }
+
+    /**
+     * @param value
+     * @return true if the value was not already present
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        int index = indexOf(value, slots);
+        if (slots[index] == value) {
+            return false;
+        }
+        slots[index] = value;
+        size++;
+        if (size > slots.length * LOAD_FACTOR) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        return slots[indexOf(value, slots)] == value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        containsEmpty = false;
+        size = 0;
+    }
+
+    /**
+     * @return Approximate heap footprint in bytes
+     */
+    public long footprintBytes() {
+        return 16L + 8L * slots.length;
+    }
+
+    /**
+     * @return Index of `value`, or of the empty slot where it would be inserted
+     */
+    private static int indexOf(long value, long[] table) {
+        int mask = table.length - 1;
+        int index = (int) Fingerprint.mix(value) & mask;
+        while (table[index] != EMPTY && table[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void grow() {
+        long[] bigger = new long[slots.length * 2];
+        for (long value : slots) {
+            if (value != EMPTY) {
+                bigger[indexOf(value, bigger)] = value;
+            }
+        }
+        slots = bigger;
+    }
+
+    private static final long EMPTY = 0L;
+    private static final double LOAD_FACTOR = 0.6;
+
+    private long[] slots;
+    private boolean containsEmpty;
+    private int size;
+}
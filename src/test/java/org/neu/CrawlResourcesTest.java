@@ -0,0 +1,29 @@
+package org.neu;
+
+import org.junit.jupiter.api.Test;
+import org.neu.neo4j.GraphStore;
+import org.neu.neo4j.PartitionedGraphStore;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CrawlResourcesTest {
+
+    @Test
+    public void testDefaultWriteBehindFlushGoesThroughTheLanes() {
+        RuntimeConfig config = RuntimeConfig.getInstance().copy();
+        config.store = "memory";
+        GraphStore store = CrawlResources.openStore(config, null);
+        PartitionedGraphStore lanes = CrawlResources.partitionedOf(store);
+        assertNotNull(CrawlResources.writeBehindOf(store));
+        assertNotNull(lanes);
+
+        store.initialize();
+        for (int i = 0; i < 100; i++) {
+            store.mergeNodeWithChildURL("http://a.com/" + i, "http://b.com/" + i).join();
+        }
+        store.close();
+
+        assertEquals(100, lanes.getRouted());
+        assertEquals(100, lanes.getWritten());
+    }
+}
@@ -0,0 +1,109 @@
+package org.neu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.neu.memory.DiskSpill;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrontierTest {
+
+    @Test
+    public void testBatchesAreRoundRobinAcrossSeeds() {
+        Set<String> visited = new HashSet<>();
+        Frontier frontier = new Frontier(List.of("http://a.com", "http://b.com").iterator(), 10, visited::add);
+
+        List<Frontier.Entry> first = frontier.nextBatch(10);
+        assertEquals(2, first.size());
+
+        Frontier.Seed a = first.get(0).seed();
+        Frontier.Seed b = first.get(1).seed();
+        for (int i = 0; i < 5; i++) {
+            frontier.add("http://a.com/" + i, a);
+        }
+        frontier.add("http://b.com/0", b);
+
+        List<Frontier.Entry> second = frontier.nextBatch(3);
+        assertEquals("http://a.com/0", second.get(0).url());
+        assertEquals("http://b.com/0", second.get(1).url());
+        assertEquals("http://a.com/1", second.get(2).url());
+    }
+
+    @Test
+    public void testSeedsAreLoadedLazily() {
+        Set<String> visited = new HashSet<>();
+        List<String> seeds = List.of("http://a.com", "http://b.com", "http://c.com");
+        Frontier frontier = new Frontier(seeds.iterator(), 1, visited::add);
+
+        assertEquals("http://a.com", frontier.nextBatch(10).get(0).url());
+        assertEquals(1, frontier.getSeeds().size());
+        assertEquals("http://b.com", frontier.nextBatch(10).get(0).url());
+        assertEquals("http://c.com", frontier.nextBatch(10).get(0).url());
+        assertTrue(frontier.isEmpty());
+    }
+
+    @Test
+    public void testVisitedUrlsAreNotEnqueuedTwice() {
+        Set<String> visited = new HashSet<>();
+        Frontier frontier = new Frontier(List.of("http://a.com", "http://a.com").iterator(), 10, visited::add);
+
+        List<Frontier.Entry> batch = frontier.nextBatch(10);
+        assertEquals(1, batch.size());
+        assertFalse(frontier.add("http://a.com", batch.get(0).seed()));
+        assertEquals(1, batch.get(0).seed().getUrlsEnqueued());
+    }
+
+    @Test
+    public void testLoadedSeedsAreChargedToTheBudget(@TempDir Path dir) throws IOException {
+        List<String> seeds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            seeds.add("http://s" + i + ".com");
+        }
+        Set<String> visited = new HashSet<>();
+        Frontier frontier = new Frontier(seeds.iterator(), 20, visited::add, 8000, new DiskSpill(dir, "frontier-", 100));
+        Frontier.Seed seed = frontier.nextBatch(20).get(0).seed();
+        assertTrue(frontier.getSeedBytes() > 4000);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(frontier.add("http://s0.com/" + i, seed));
+        }
+        assertTrue(frontier.getQueuedBytes() + frontier.getSeedBytes() <= 8000);
+        assertTrue(frontier.getSpilled() > 0);
+
+        int dispatched = 0;
+        while (!frontier.isEmpty()) {
+            dispatched += frontier.nextBatch(10).size();
+        }
+        assertEquals(100, dispatched);
+    }
+
+    @Test
+    public void testOverBudgetUrlsAreSpilledAndReadBack(@TempDir Path dir) throws IOException {
+        Set<String> visited = new HashSet<>();
+        Frontier frontier = new Frontier(List.of("http://a.com").iterator(), 10, visited::add, 1000, new DiskSpill(dir, "frontier-", 100));
+        Frontier.Seed seed = frontier.nextBatch(1).get(0).seed();
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(frontier.add("http://a.com/" + i, seed));
+        }
+        assertTrue(frontier.getQueuedBytes() <= 1000);
+        assertTrue(frontier.getSpilled() > 0);
+
+        List<String> dispatched = new ArrayList<>();
+        while (!frontier.isEmpty()) {
+            frontier.nextBatch(10).forEach(entry -> dispatched.add(entry.url()));
+        }
+        assertEquals(100, dispatched.size());
+        assertEquals("http://a.com/0", dispatched.get(0));
+        assertEquals("http://a.com/99", dispatched.get(99));
+        assertEquals(100, seed.getPagesDispatched() - 1);
+        frontier.close();
+    }
+}
@@ -0,0 +1,103 @@
+package org.neu;
+
+import org.junit.jupiter.api.Test;
+import org.neu.fetch.FetchOutcome;
+import org.neu.fetch.FetchStats;
+import org.neu.fetch.HostBreakers;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HostQuarantineTest {
+
+    @Test
+    public void testBreakerOpensAfterConsecutiveFailuresAndProbesAfterCooldown() throws InterruptedException {
+        HostBreakers breakers = new HostBreakers(3, 50, 1_000);
+        breakers.record("a.com", FetchOutcome.UNAVAILABLE, 1_000);
+        breakers.record("a.com", FetchOutcome.COMPLETE, 1_000);
+        breakers.record("a.com", FetchOutcome.UNAVAILABLE, 1_000);
+        breakers.record("a.com", FetchOutcome.DEADLINE_EXCEEDED, 1_000);
+        assertTrue(breakers.allow("a.com"), "a success resets the count");
+
+        breakers.record("a.com", FetchOutcome.UNAVAILABLE, 1_000);
+        assertFalse(breakers.allow("a.com"));
+        assertTrue(breakers.allow("b.com"));
+        assertEquals(1, breakers.getTrips());
+
+        Thread.sleep(60);
+        assertTrue(breakers.allow("a.com"), "probe after the cooldown");
+        assertFalse(breakers.allow("a.com"), "one probe at a time");
+
+        breakers.record("a.com", FetchOutcome.UNAVAILABLE, 1_000);
+        Thread.sleep(60);
+        assertFalse(breakers.allow("a.com"), "a failed probe doubles the cooldown");
+        Thread.sleep(60);
+        assertTrue(breakers.allow("a.com"));
+
+        breakers.record("a.com", FetchOutcome.COMPLETE, 1_000);
+        assertTrue(breakers.isClosed("a.com"));
+        assertEquals(5_000, breakers.getFailingNanos());
+    }
+
+    @Test
+    public void testLostProbesAreGivenUp() throws InterruptedException {
+        HostBreakers breakers = new HostBreakers(1, 20, 1_000, 100, 100);
+        breakers.record("a.com", FetchOutcome.UNAVAILABLE, 1_000);
+        Thread.sleep(30);
+        assertTrue(breakers.allow("a.com"));
+        breakers.record("a.com", FetchOutcome.CANCELLED, 1_000);
+        assertTrue(breakers.allow("a.com"), "a cancelled probe is replaced at once");
+
+        assertFalse(breakers.allow("a.com"));
+        long wait = breakers.nextProbeMillis();
+        assertTrue(wait >= 0 && wait <= 100, "the probe in flight is waited for");
+        Thread.sleep(110);
+        assertTrue(breakers.allow("a.com"), "a probe never recorded times out");
+
+        breakers.abandonProbe("a.com");
+        assertTrue(breakers.allow("a.com"), "a probe that was never started is replaced");
+        assertTrue(breakers.report(new FetchStats()).contains("3 given up"));
+    }
+
+    @Test
+    public void testOpenBreakersAreEvictedToo() {
+        HostBreakers breakers = new HostBreakers(1, 60_000, 60_000, 60_000, 2);
+        for (String host : List.of("a.com", "b.com", "c.com")) {
+            breakers.record(host, FetchOutcome.UNAVAILABLE, 1_000);
+        }
+        assertEquals(2, breakers.getOpenHosts());
+        assertTrue(breakers.allow("a.com"), "the least recently used host starts over");
+        assertFalse(breakers.allow("c.com"));
+    }
+
+    @Test
+    public void testEntriesOfOpenHostsAreParkedAndReleasedOnRecovery() throws InterruptedException {
+        HostBreakers breakers = new HostBreakers(1, 100, 1_000);
+        HostQuarantine quarantine = new HostQuarantine(breakers, 2);
+        Set<String> visited = new HashSet<>();
+        Frontier frontier = new Frontier(List.of("http://down.com/", "http://up.com/").iterator(), 10, visited::add);
+        List<Frontier.Entry> seeds = frontier.nextBatch(2);
+        Frontier.Seed down = seeds.get(0).seed();
+
+        assertTrue(quarantine.admit(seeds.get(1)));
+
+        breakers.record("down.com", FetchOutcome.DEADLINE_EXCEEDED, 1_000);
+        assertFalse(quarantine.admit(new Frontier.Entry("http://down.com/1", down)));
+        assertFalse(quarantine.admit(new Frontier.Entry("http://down.com/2", down)));
+        assertFalse(quarantine.admit(new Frontier.Entry("http://down.com/3", down)), "dropped beyond the cap");
+        assertTrue(quarantine.release().isEmpty());
+
+        Thread.sleep(110);
+        List<Frontier.Entry> probe = quarantine.release();
+        assertEquals(List.of("http://down.com/1"), probe.stream().map(Frontier.Entry::url).toList());
+        assertTrue(quarantine.release().isEmpty(), "nothing more until the probe is back");
+
+        breakers.record("down.com", FetchOutcome.COMPLETE, 1_000);
+        assertEquals(List.of("http://down.com/2"), quarantine.release().stream().map(Frontier.Entry::url).toList());
+        assertFalse(quarantine.hasParked());
+        assertTrue(quarantine.toString().contains("1 dropped"));
+    }
+}
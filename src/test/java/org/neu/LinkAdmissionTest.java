@@ -0,0 +1,100 @@
+package org.neu;
+
+import org.junit.jupiter.api.Test;
+import org.neu.memory.BoundedParentMap;
+import org.neu.memory.VisitedSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LinkAdmissionTest {
+
+    @Test
+    public void testBatchedAdmissionEnqueuesWhatPerLinkAdmissionDoes() {
+        List<List<String>> pages = List.of(
+                List.of("http://a.com/1", "http://a.com/2", "http://a.com/3"),
+                List.of("http://a.com/2", "http://a.com/4", "http://a.com/1"),
+                List.of("http://a.com/5", "http://a.com/4"));
+
+        List<String> admittedEach = new ArrayList<>();
+        List<String> admittedBatched = new ArrayList<>();
+        Map<String, String> parentsEach = new HashMap<>();
+        Map<String, String> parentsBatched = new HashMap<>();
+        List<String> queuedEach = crawl(new LinkAdmission(false, 0, 0), pages, admittedEach, parentsEach);
+        List<String> queuedBatched = crawl(new LinkAdmission(true, 16, 0), pages, admittedBatched, parentsBatched);
+
+        assertEquals(List.of("http://a.com/1", "http://a.com/2", "http://a.com/3", "http://a.com/4", "http://a.com/5"), admittedBatched);
+        assertEquals(admittedEach, admittedBatched);
+        assertEquals(queuedEach, queuedBatched);
+        assertEquals(parentsEach, parentsBatched);
+        assertEquals("http://page.com/1", parentsBatched.get("http://a.com/4"));
+    }
+
+    @Test
+    public void testBatchedAdmissionKeepsABoundedParentMapWithinBudget() {
+        List<List<String>> pages = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            List<String> links = new ArrayList<>();
+            for (int n = 0; n < 100; n++) {
+                links.add("http://a.com/" + i + "/" + n);
+            }
+            pages.add(links);
+        }
+        BoundedParentMap parentMap = new BoundedParentMap(64 << 10);
+
+        crawl(new LinkAdmission(true, 16, 0), pages, new ArrayList<>(), Collections.synchronizedMap(parentMap));
+
+        assertTrue(parentMap.getBytes() > 0);
+        assertTrue(parentMap.getBytes() <= 64 << 10);
+        assertTrue(parentMap.getEvicted() > 0);
+        assertEquals("http://page.com/199", parentMap.get("http://a.com/199/99"));
+    }
+
+    @Test
+    public void testRecentUrlsSkipTheSharedClaimUntilCleared() {
+        VisitedSet visited = new VisitedSet(0);
+        AtomicInteger claims = new AtomicInteger();
+        Frontier frontier = new Frontier(List.of("http://seed.com").iterator(), 1, visited::add);
+        frontier.setBatchClaim(urls -> {
+            claims.addAndGet(urls.size());
+            return visited.addAll(urls);
+        });
+        Frontier.Seed seed = frontier.nextBatch(1).get(0).seed();
+        LinkAdmission admission = new LinkAdmission(true, 4, 0);
+        List<String> navigation = List.of("http://a.com/home", "http://a.com/about");
+
+        assertEquals(navigation, admission.admit(frontier, new HashMap<>(), "http://a.com/x", seed, navigation));
+        assertEquals(List.of(), admission.admit(frontier, new HashMap<>(), "http://a.com/y", seed, navigation));
+        assertEquals(2, claims.get());
+        assertEquals(2, admission.getRecentHits());
+        assertEquals(4, admission.getDiscovered());
+
+        visited.clear();
+        admission.clear();
+        assertEquals(navigation, admission.admit(frontier, new HashMap<>(), "http://a.com/z", seed, navigation));
+        assertEquals(4, claims.get());
+        assertTrue(admission.report().contains("6 links from 3 pages"));
+    }
+
+    private static List<String> crawl(LinkAdmission admission, List<List<String>> pages, List<String> admitted, Map<String, String> parents) {
+        VisitedSet visited = new VisitedSet(0);
+        Frontier frontier = new Frontier(List.of("http://seed.com").iterator(), 1, visited::add);
+        frontier.setBatchClaim(visited::addAll);
+        Frontier.Seed seed = frontier.nextBatch(1).get(0).seed();
+        for (int i = 0; i < pages.size(); i++) {
+            admitted.addAll(admission.admit(frontier, parents, "http://page.com/" + i, seed, pages.get(i)));
+        }
+        assertEquals(1 + admitted.size(), seed.getUrlsEnqueued(), "the seed and its links");
+        List<String> queued = new ArrayList<>();
+        for (Frontier.Entry entry : frontier.nextBatch(100)) {
+            queued.add(entry.url());
+        }
+        return queued;
+    }
+}
@@ -0,0 +1,80 @@
+package org.neu;
+
+import org.junit.jupiter.api.Test;
+import org.neu.fetch.FailureCache;
+import org.neu.fetch.FetchOutcome;
+import org.neu.fetch.RedirectCache;
+import org.neu.memory.VisitedSet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RefetchGuardTest {
+
+    @Test
+    public void testRedirectTargetsAreClaimedAndSourcesRewritten() {
+        RedirectCache redirects = new RedirectCache(10);
+        VisitedSet visited = new VisitedSet(0);
+        RefetchGuard guard = new RefetchGuard(redirects, null, visited, 10);
+
+        // http://a.com/old was fetched and landed on https://a.com/new
+        visited.add("http://a.com/old");
+        redirects.record("http://a.com/old", "https://a.com/new/");
+        guard.fetched("http://a.com/old", FetchOutcome.COMPLETE);
+        assertFalse(visited.add("https://a.com/new"), "the page read through the redirect is claimed");
+        assertFalse(visited.add("https://a.com/new/"), "under the URL it was read from as well");
+
+        List<String> sources = new ArrayList<>();
+        List<String> links = List.of("https://a.com/new", "http://a.com/x");
+        assertSame(links, guard.rewrite(links, sources));
+        assertEquals(1, guard.getAvoided());
+
+        // another session learnt that http://a.com/alias also ends on the claimed page
+        redirects.record("http://a.com/alias", "http://a.com/old");
+        List<String> rewritten = guard.rewrite(List.of("http://a.com/alias", "http://a.com/y", "https://a.com/new"), sources);
+        assertEquals(List.of("https://a.com/new/", "http://a.com/y"), rewritten, "the target as fetched, once");
+        assertEquals(List.of("http://a.com/alias"), sources);
+        guard.claimSources(sources, List.of("http://a.com/y"));
+        assertFalse(visited.add("http://a.com/alias"));
+        assertEquals(2, guard.getAvoided());
+        assertTrue(guard.report().startsWith("Redundant fetches avoided: 2"));
+    }
+
+    @Test
+    public void testRedirectCacheKeepsTargetsAsFetchedAndEvictsLeastRecentlyUsed() {
+        RedirectCache redirects = new RedirectCache(2);
+        redirects.record("http://a.com/dir", "http://a.com/dir/");
+        assertEquals(0, redirects.size(), "a trailing slash alone is not a redirect to another page");
+
+        redirects.record("http://a.com/1/", "http://a.com/one/");
+        redirects.record("http://a.com/2", "http://a.com/two");
+        assertEquals("http://a.com/one/", redirects.resolve("http://a.com/1"));
+        redirects.record("http://a.com/3", "http://a.com/three");
+        assertEquals(2, redirects.size());
+        assertEquals("http://a.com/one/", redirects.resolve("http://a.com/1/"));
+        assertEquals("http://a.com/2", redirects.resolve("http://a.com/2"));
+    }
+
+    @Test
+    public void testFailedUrlsAreRefusedUntilTheirTtlExpires() throws InterruptedException {
+        RedirectCache redirects = new RedirectCache(10);
+        FailureCache failures = new FailureCache(10, 50);
+        RefetchGuard guard = new RefetchGuard(redirects, failures, new VisitedSet(0), 10);
+
+        redirects.record("http://a.com/gone", "http://b.com/404");
+        guard.fetched("http://a.com/gone", FetchOutcome.FAILED);
+        guard.fetched("http://a.com/ok", FetchOutcome.COMPLETE);
+        guard.fetched("http://a.com/cut", FetchOutcome.CANCELLED);
+        assertEquals(2, failures.size());
+        assertTrue(guard.isKnownFailure("http://a.com/gone"));
+        assertTrue(guard.isKnownFailure("http://b.com/404"));
+        assertFalse(guard.isKnownFailure("http://a.com/ok"));
+        assertEquals(2, guard.getAvoided());
+
+        Thread.sleep(60);
+        assertFalse(guard.isKnownFailure("http://a.com/gone"));
+        assertEquals(1, failures.size());
+    }
+}
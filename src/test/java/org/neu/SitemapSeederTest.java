@@ -0,0 +1,143 @@
+package org.neu;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neu.fetch.FetchStats;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SitemapSeederTest {
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.start();
+        site = "http://127.0.0.1:" + server.getAddress().getPort();
+        config = RuntimeConfig.getInstance().copy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testRobotsSitemapIndexAndGzippedSitemapJoinTheSeedsQueue() throws Exception {
+        serve("/robots.txt", ("User-agent: *\nDisallow:\nSitemap: " + site + "/index.xml\n").getBytes(StandardCharsets.UTF_8));
+        serve("/index.xml", ("<sitemapindex><sitemap><loc>" + site + "/pages.xml.gz</loc></sitemap></sitemapindex>").getBytes(StandardCharsets.UTF_8));
+        serve("/pages.xml.gz", gzip("<urlset><url><loc>" + site + "/a</loc></url><url><loc>" + site + "/b</loc></url></urlset>"));
+
+        Frontier frontier = new Frontier(List.of(site + "/", site + "/other").iterator(), 10, visited::add);
+        SitemapSeeder seeder = new SitemapSeeder(config);
+        frontier.setSeedListener(seeder::seedLoaded);
+        Map<String, String> seedOf = crawl(frontier, seeder);
+
+        assertEquals(Set.of(site + "/", site + "/other", site + "/a", site + "/b"), seedOf.keySet());
+        // the second seed shares the site, so its sitemaps are not read twice, and the URLs belong to the first
+        assertEquals(site + "/", seedOf.get(site + "/a"));
+        assertEquals(site + "/", seedOf.get(site + "/b"));
+        assertEquals(2, seeder.getUrlsDiscovered());
+        assertTrue(seeder.report(new FetchStats()).contains("discovered 2 URLs"));
+        seeder.close();
+    }
+
+    @Test
+    public void testWellKnownSitemapIsTriedWithoutRobotsAndCapped() throws Exception {
+        serve("/sitemap.xml", ("<urlset><url><loc>" + site + "/a</loc></url><url><loc>" + site + "/b</loc></url></urlset>").getBytes(StandardCharsets.UTF_8));
+        config.sitemapMaxUrls = 1;
+
+        Frontier frontier = new Frontier(List.of(site + "/").iterator(), 10, visited::add);
+        SitemapSeeder seeder = new SitemapSeeder(config);
+        frontier.setSeedListener(seeder::seedLoaded);
+
+        assertEquals(Set.of(site + "/", site + "/a"), crawl(frontier, seeder).keySet());
+        seeder.close();
+    }
+
+    @Test
+    public void testSlowSitemapDoesNotHoldTheFrontier() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        server.createContext("/sitemap.xml", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("<urlset><url><loc>" + site + "/late</loc></url></urlset>").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+
+        Frontier frontier = new Frontier(List.of(site + "/").iterator(), 10, visited::add);
+        SitemapSeeder seeder = new SitemapSeeder(config);
+        frontier.setSeedListener(seeder::seedLoaded);
+
+        long start = System.nanoTime();
+        assertEquals(site + "/", frontier.nextBatch(10).get(0).url());
+        assertTrue(frontier.addAll(List.of(site + "/linked"), frontier.getSeeds().get(0)).contains(site + "/linked"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2_000, "the frontier is not blocked by the sitemap fetch");
+        assertTrue(seeder.isBusy());
+
+        release.countDown();
+        Map<String, String> seedOf = crawl(frontier, seeder);
+        assertEquals(Set.of(site + "/linked", site + "/late"), seedOf.keySet());
+        seeder.close();
+    }
+
+    /**
+     * Take every URL from the frontier, draining sitemap batches like the crawl loop does.
+     *
+     * @return The seed URL of every URL taken, by URL
+     */
+    private static Map<String, String> crawl(Frontier frontier, SitemapSeeder seeder) throws InterruptedException {
+        Map<String, String> seedOf = new HashMap<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((!frontier.isEmpty() || seeder.isBusy()) && System.nanoTime() < deadline) {
+            seeder.drainInto(frontier, frontier.isEmpty() ? 100 : 0);
+            for (Frontier.Entry entry : frontier.nextBatch(100)) {
+                seedOf.put(entry.url(), entry.seed().getUrl());
+            }
+        }
+        return seedOf;
+    }
+
+    private void serve(String path, byte[] body) {
+        server.createContext(path, exchange -> {
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private HttpServer server;
+    private String site;
+    private RuntimeConfig config;
+    private final Set<String> visited = ConcurrentHashMap.newKeySet();
+}
@@ -0,0 +1,90 @@
+package org.neu;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrapDetectorTest {
+
+    @Test
+    public void testTemplateCollapsesDigitsIdsAndQueryValues() {
+        assertEquals("/calendar/#/#/#", TrapDetector.template("/calendar/2024/05/17"));
+        assertEquals("/item/{id}", TrapDetector.template("/item/a3f9c2e17b4d8e6f0a1b;jsessionid=XYZ"));
+        assertEquals("/search?color=*&size=*", TrapDetector.template("/search?size=10&color=red#top"));
+        assertEquals("/wiki/Main_Page", TrapDetector.template("/wiki/Main_Page"));
+    }
+
+    @Test
+    public void testPathShapeLimits() {
+        TrapDetector traps = new TrapDetector(0, 4, 2, 1000, 100);
+
+        assertTrue(traps.admit("http://a.com/x/y/z"));
+        assertFalse(traps.admit("http://a.com/1/2/3/4/5"));
+        assertFalse(traps.admit("http://a.com/a/b/a/b/a"));
+        assertEquals(1, traps.getRefused(TrapDetector.Reason.PATH_DEPTH));
+        assertEquals(1, traps.getRefused(TrapDetector.Reason.REPEATED_SEGMENT));
+    }
+
+    @Test
+    public void testPatternIsThrottledPerHostAfterCardinalityLimit() {
+        TrapDetector traps = new TrapDetector(0, 12, 2, 10, 5);
+
+        int admitted = 0;
+        for (int day = 0; day < 60; day++) {
+            if (traps.admit("http://cal.com/day/2024/" + day)) admitted++;
+        }
+
+        // 10 before throttling, then one in five of the remaining 50
+        assertEquals(20, admitted);
+        assertTrue(traps.admit("http://other.com/day/2024/1"));
+        assertTrue(traps.admit("http://cal.com/about"));
+    }
+
+    @Test
+    public void testHostBudget() {
+        TrapDetector traps = new TrapDetector(3, 12, 2, 1000, 100);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(traps.admit("http://a.com/page-" + (char) ('a' + i)));
+        }
+        assertFalse(traps.admit("http://a.com/page-z"));
+        assertTrue(traps.admit("http://b.com/page-z"));
+        assertEquals(1, traps.getRefused(TrapDetector.Reason.HOST_BUDGET));
+    }
+
+    @Test
+    public void testSingleNumberInPathIsNotThrottled() {
+        TrapDetector traps = new TrapDetector(0, 12, 2, 10, 5);
+        for (int item = 0; item < 100; item++) {
+            assertTrue(traps.admit("http://shop.com/item/" + item));
+        }
+        assertTrue(TrapDetector.isEnumeration("/p/#"));
+        assertFalse(TrapDetector.isEnumeration("/list?page=*"));
+        assertFalse(TrapDetector.isEnumeration("/item/{id}"));
+        assertFalse(TrapDetector.isEnumeration("/wiki/Main_Page"));
+    }
+
+    @Test
+    public void testColdPatternsAreForgottenSoNewOnesAreStillThrottled() {
+        TrapDetector traps = new TrapDetector(0, 12, 2, 1, 1000);
+        for (int i = 0; i < 5000; i++) {
+            traps.admit("http://a.com/search?facet" + i + "=x");
+        }
+
+        assertTrue(traps.admit("http://a.com/calendar/2024/1"));
+        assertFalse(traps.admit("http://a.com/calendar/2024/2"));
+        assertEquals(1, traps.getRefused(TrapDetector.Reason.PATTERN_THROTTLED));
+    }
+
+    @Test
+    public void testOnlyRecentHostsAreTracked() {
+        TrapDetector traps = new TrapDetector(1, 12, 2, 1000, 100, 2);
+        assertTrue(traps.admit("http://a.com/x"));
+        assertFalse(traps.admit("http://a.com/y"));
+        assertTrue(traps.admit("http://b.com/x"));
+        assertTrue(traps.admit("http://c.com/x"));
+
+        // a.com was the least recently seen host, so it was forgotten with its budget
+        assertTrue(traps.admit("http://a.com/z"));
+        assertFalse(traps.admit("http://c.com/y"));
+    }
+}
@@ -0,0 +1,42 @@
+package org.neu.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.neu.RuntimeConfig;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BenchmarkConcurrentSessionsTest {
+
+    @Test
+    public void testSessionsFromTheSameSeedCrawlIndependently() throws Exception {
+        RuntimeConfig config = RuntimeConfig.getInstance().copy();
+        config.store = "memory";
+        config.strategy = "fixed";
+        config.threads = 8;
+
+        SyntheticSite site = new SyntheticSite(10_000, 10, 1024, 0);
+        String seed = site.start();
+        BenchmarkConcurrentSessions.SessionsRow row;
+        try {
+            row = BenchmarkConcurrentSessions.measure(config, 3, 1_000, session -> seed);
+        } finally {
+            site.stop();
+        }
+
+        assertEquals(3, row.sessions());
+        // visited sets are per session, so every session fetches the seed and its neighbours itself
+        assertTrue(row.minSessionPages() > 1, "slowest session fetched " + row.minSessionPages());
+        assertTrue(row.pages() >= 3 * row.minSessionPages());
+        assertTrue(row.nodes() > 0, "links reached the shared store");
+    }
+
+    @Test
+    public void testCopiedConfigIsIndependent() {
+        RuntimeConfig shared = RuntimeConfig.getInstance();
+        RuntimeConfig copy = shared.copy();
+        copy.maxPathDepth = shared.maxPathDepth + 1;
+
+        assertNotSame(shared, copy);
+        assertNotEquals(shared.maxPathDepth, copy.maxPathDepth);
+    }
+}
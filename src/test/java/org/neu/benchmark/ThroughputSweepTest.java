@@ -0,0 +1,65 @@
+package org.neu.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.neu.RuntimeConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThroughputSweepTest {
+
+    @Test
+    public void testSweepAppendsOneRowPerConfiguration(@TempDir Path dir) throws Exception {
+        RuntimeConfig config = RuntimeConfig.getInstance();
+        String savedStore = config.store;
+        Path csv = dir.resolve("sweep.csv");
+
+        config.sweepFile = csv.toString();
+        config.sweepDurations = List.of(1_000L);
+        config.sweepStrategies = List.of("single", "fixed");
+        config.sweepThreads = List.of(2, 4);
+        config.sweepStores = List.of("memory");
+        config.sweepRepeats = 2;
+        config.sweepWarmupMillis = 200;
+        config.sweepWindowMillis = 200;
+        config.syntheticPages = 10_000;
+        config.syntheticLatencyMillis = 0;
+        try {
+            new ThroughputSweep().benchmark(null);
+        } finally {
+            config.sweepFile = null;
+            config.store = savedStore;
+        }
+
+        List<String> lines = Files.readAllLines(csv);
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).startsWith("ms,ingestion,rate(nodes/sec),version,"));
+        assertTrue(lines.get(1).startsWith("1000,"));
+        assertTrue(lines.get(1).contains(",sync,single,1,memory,2,"));
+        assertTrue(lines.get(3).contains(",async,fixed,4,memory,2,"));
+
+        String[] fixed = lines.get(3).split(",");
+        assertTrue(Double.parseDouble(fixed[1]) > 0, "nodes ingested");
+        assertTrue(Double.parseDouble(fixed[9]) > 0, "steady-state rate");
+        assertTrue(Double.parseDouble(fixed[12]) >= Double.parseDouble(fixed[11]), "p99 >= p50");
+        assertTrue(Files.readString(dir.resolve("sweep.svg")).contains("<polyline"));
+    }
+
+    @Test
+    public void testCsvWithOtherColumnsIsRefused(@TempDir Path dir) throws Exception {
+        Path csv = dir.resolve("benchmarks.csv");
+        Files.writeString(csv, "\uFEFFms,ingestion,rate(nodes/sec),version\n60000,1200,20.0,async\n");
+
+        assertThrows(IOException.class, () -> ThroughputSweep.checkHeader(csv));
+        assertEquals(2, Files.readAllLines(csv).size());
+
+        Path sweep = dir.resolve("sweep.csv");
+        Files.writeString(sweep, "\uFEFF" + ThroughputSweep.SweepRow.HEADER + "\n");
+        ThroughputSweep.checkHeader(sweep);
+    }
+}
@@ -0,0 +1,193 @@
+package org.neu.events;
+
+import org.junit.jupiter.api.Test;
+import org.neu.Crawler;
+import org.neu.RuntimeConfig;
+import org.neu.benchmark.SyntheticSite;
+import org.neu.fetch.FetchOutcome;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CrawlEventPublisherTest {
+
+    @Test
+    public void testSlowSubscriberBlocksPublisher() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        CrawlEventPublisher publisher = new CrawlEventPublisher(2, executor);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber);
+        Flow.Subscription subscription = subscriber.subscribed.get(5, TimeUnit.SECONDS);
+
+        AtomicInteger published = new AtomicInteger();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                publisher.publish(new CrawlEvent.PageFetched("http://a.com/" + i, FetchOutcome.COMPLETE, 0));
+                published.incrementAndGet();
+            }
+            publisher.close();
+        });
+        producer.start();
+
+        Thread.sleep(200);
+        assertEquals(2, published.get(), "producer waits once the buffer is full");
+        assertTrue(subscriber.received.isEmpty(), "nothing is delivered without demand");
+
+        subscription.request(3);
+        Thread.sleep(200);
+        assertEquals(3, subscriber.received.size());
+        assertEquals(5, published.get());
+
+        subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        producer.join();
+        assertEquals(10, subscriber.received.size());
+        assertEquals("http://a.com/9", ((CrawlEvent.PageFetched) subscriber.received.get(9)).url());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCancelReleasesBlockedPublisher() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        CrawlEventPublisher publisher = new CrawlEventPublisher(1, executor);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber);
+        Flow.Subscription subscription = subscriber.subscribed.get(5, TimeUnit.SECONDS);
+
+        Future<?> producer = executor.submit(() -> {
+            for (int i = 0; i < 5; i++) {
+                publisher.publish(new CrawlEvent.EdgePersisted("http://a.com", "http://b.com/" + i));
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(producer.isDone());
+
+        subscription.cancel();
+        producer.get(5, TimeUnit.SECONDS);
+        assertFalse(publisher.hasSubscribers());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testInvalidRequestReleasesBlockedPublisher() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        CrawlEventPublisher publisher = new CrawlEventPublisher(1, executor);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber);
+        Flow.Subscription subscription = subscriber.subscribed.get(5, TimeUnit.SECONDS);
+
+        Future<?> producer = executor.submit(() -> {
+            for (int i = 0; i < 5; i++) {
+                publisher.publish(new CrawlEvent.EdgePersisted("http://a.com", "http://b.com/" + i));
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(producer.isDone());
+
+        subscription.request(0);
+        producer.get(5, TimeUnit.SECONDS);
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+        assertTrue(subscriber.received.isEmpty());
+        assertFalse(publisher.hasSubscribers());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testThrowingSubscriberIsCancelledAndToldWhy() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        CrawlEventPublisher publisher = new CrawlEventPublisher(1, executor);
+        RuntimeException failure = new IllegalStateException("subscriber bug");
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE) {
+            @Override
+            public void onNext(CrawlEvent item) {
+                super.onNext(item);
+                throw failure;
+            }
+        };
+        publisher.subscribe(subscriber);
+        subscriber.subscribed.get(5, TimeUnit.SECONDS);
+
+        Future<?> producer = executor.submit(() -> {
+            for (int i = 0; i < 5; i++) {
+                publisher.publish(new CrawlEvent.EdgePersisted("http://a.com", "http://b.com/" + i));
+            }
+        });
+        producer.get(5, TimeUnit.SECONDS);
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        assertSame(failure, subscriber.error);
+        assertEquals(1, subscriber.received.size());
+        assertFalse(publisher.hasSubscribers());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCrawlerStreamsEvents() throws Exception {
+        RuntimeConfig config = RuntimeConfig.getInstance();
+        String savedStore = config.store;
+        String savedStrategy = config.strategy;
+        config.store = "memory";
+        config.strategy = "fixed";
+
+        SyntheticSite site = new SyntheticSite(1000, 5, 1024, 0);
+        String root = site.start();
+        Crawler crawler = Crawler.getInstance();
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        try {
+            crawler.init();
+            crawler.events().subscribe(subscriber);
+            subscriber.subscribed.get(5, TimeUnit.SECONDS);
+            crawler.run(root, 1000);
+            crawler.close();
+        } finally {
+            site.stop();
+            config.store = savedStore;
+            config.strategy = savedStrategy;
+        }
+
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        List<CrawlEvent> events = subscriber.received;
+        assertTrue(events.stream().anyMatch(e -> e instanceof CrawlEvent.PageFetched fetched && fetched.url().equals(root)));
+        assertTrue(events.stream().anyMatch(e -> e instanceof CrawlEvent.LinksDiscovered discovered && discovered.links().size() == 5));
+        assertTrue(events.stream().anyMatch(e -> e instanceof CrawlEvent.EdgePersisted persisted && persisted.parent().equals(root)));
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<CrawlEvent> {
+        RecordingSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+            subscribed.complete(subscription);
+        }
+
+        @Override
+        public void onNext(CrawlEvent item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        final long initialDemand;
+        final CompletableFuture<Flow.Subscription> subscribed = new CompletableFuture<>();
+        final List<CrawlEvent> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile Throwable error;
+    }
+}
@@ -0,0 +1,36 @@
+package org.neu.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecutionStrategyTest {
+
+    @Test
+    public void testEveryStrategyRunsTasks() {
+        for (String name : List.of("single", "fixed", "virtual", "forkjoin")) {
+            ExecutionStrategy strategy = ExecutionStrategy.of(name, 2);
+            assertEquals(name, strategy.name());
+
+            int result = CompletableFuture.supplyAsync(() -> 21, strategy.executor()).thenApply(x -> x * 2).join();
+            assertEquals(42, result);
+
+            strategy.shutdown();
+        }
+    }
+
+    @Test
+    public void testSingleThreadedRunsInline() {
+        Thread caller = Thread.currentThread();
+        Thread worker = CompletableFuture.supplyAsync(Thread::currentThread, new SingleThreadedStrategy().executor()).join();
+        assertSame(caller, worker);
+    }
+
+    @Test
+    public void testUnknownStrategy() {
+        assertThrows(IllegalArgumentException.class, () -> ExecutionStrategy.of("gpu", 4));
+    }
+}
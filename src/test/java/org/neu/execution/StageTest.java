@@ -0,0 +1,61 @@
+package org.neu.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StageTest {
+
+    @Test
+    public void testFullStageBlocksCallerUntilRoomFreesUp() throws Exception {
+        Stage stage = new Stage("test", 1, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> first = stage.call(() -> {
+            awaitQuietly(release);
+            return 1;
+        });
+        CompletableFuture<Integer> second = stage.call(() -> 2);
+        assertEquals(2, stage.getInFlight());
+
+        CompletableFuture<CompletableFuture<Integer>> third = CompletableFuture.supplyAsync(() -> stage.call(() -> 3));
+        Thread.sleep(100);
+        assertFalse(third.isDone());
+
+        release.countDown();
+        assertEquals(3, third.get(1, TimeUnit.SECONDS).get(1, TimeUnit.SECONDS));
+        assertEquals(1, first.join());
+        assertEquals(2, second.join());
+        assertTrue(stage.getBlockedNanos() >= TimeUnit.MILLISECONDS.toNanos(50));
+        stage.shutdownNow();
+    }
+
+    @Test
+    public void testAsynchronousTaskHoldsItsPlaceUntilItsFutureCompletes() {
+        Stage stage = new Stage("test", 0, 4);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        Thread caller = Thread.currentThread();
+        CompletableFuture<String> result = stage.submit(() -> {
+            assertSame(caller, Thread.currentThread());
+            return pending;
+        });
+
+        assertEquals(1, stage.getInFlight());
+        assertFalse(result.isDone());
+        pending.complete("done");
+        assertEquals("done", result.join());
+        assertEquals(0, stage.getInFlight());
+        assertEquals(1, stage.getCompleted());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.neu.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteLinkScannerTest {
+
+    @Test
+    public void testScalarAndVectorMatchCharScanOnRandomChunks() {
+        assertTrue(ByteLinkScanner.isVectorAvailable(), "surefire runs with --add-modules jdk.incubator.vector");
+        SplittableRandom random = new SplittableRandom(7);
+        for (int round = 0; round < 200; round++) {
+            String html = html(random);
+            byte[] bytes = html.getBytes(StandardCharsets.UTF_8);
+
+            List<String> expected = new ArrayList<>();
+            new LinkExtractor().scan(CharBuffer.wrap(html), expected);
+
+            for (boolean vector : new boolean[]{false, true}) {
+                ByteLinkScanner scanner = ByteLinkScanner.create(vector);
+                List<String> links = new ArrayList<>();
+                int chunk = 1 + random.nextInt(97);
+                for (int from = 0; from < bytes.length; from += chunk) {
+                    scanner.scan(bytes, from, Math.min(bytes.length, from + chunk), StandardCharsets.UTF_8, links);
+                }
+                assertEquals(expected, links, "vector=" + vector + " chunk=" + chunk + " html=" + html);
+            }
+        }
+    }
+
+    @Test
+    public void testPageReaderScansCompatibleCharsetsUndecodedAndFallsBackOtherwise() throws IOException {
+        String html = "<a href=\"http://café.example/\">1</a>" + "x".repeat(100) + "<a href=\"https://b.org/" + "a".repeat(1000) + "\">2</a>" +
+                "<a href=\"hthttp://c.org\">3</a>";
+        for (Charset charset : List.of(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16LE)) {
+            String contentType = "text/html; charset=" + charset.name();
+            List<String> expected = new ArrayList<>();
+            new PageReader(new BufferPool(1, 32)).read(new ByteArrayInputStream(html.getBytes(charset)), contentType, expected);
+            assertEquals(List.of("http://café.example", "http://c.org"), expected);
+
+            for (String scanner : List.of("bytes", "vector")) {
+                List<String> links = new ArrayList<>();
+                new PageReader(new BufferPool(1, 32), scanner).read(new ByteArrayInputStream(html.getBytes(charset)), contentType, links);
+                assertEquals(expected, links, scanner + " " + charset);
+            }
+        }
+        assertFalse(ByteLinkScanner.isAsciiCompatible(StandardCharsets.UTF_16LE));
+        assertFalse(ByteLinkScanner.isAsciiCompatible(Charset.forName("Shift_JIS")));
+    }
+
+    private static String html(SplittableRandom random) {
+        StringBuilder html = new StringBuilder();
+        int parts = random.nextInt(30);
+        for (int i = 0; i < parts; i++) {
+            html.append(PIECES[random.nextInt(PIECES.length)]);
+            if (random.nextInt(20) == 0) {
+                html.append("http://long.example/").append("é".repeat(random.nextInt(995, 1005))).append('"');
+            }
+        }
+        return html.toString();
+    }
+
+    private static final String[] PIECES = {
+            "<a href=\"", "http", "https://example.com/", "\"", "\n", "\r", "h", "ht", "htt", "hhttp", "x", "é", "日本",
+            "/path", "<p>Lorem ipsum dolor sit amet, consectetur adipiscing elit.</p>", "http://a.org/b\">b</a>",
+    };
+}
@@ -0,0 +1,115 @@
+package org.neu.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.net.spi.InetAddressResolver;
+import java.net.spi.InetAddressResolver.LookupPolicy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static java.net.spi.InetAddressResolver.LookupPolicy.IPV4;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DnsCacheTest {
+
+    @Test
+    public void testLookupsExpireAfterTheirTtl() throws Exception {
+        DnsCache cache = new DnsCache(10);
+        cache.configure(true, 50, 50);
+        CountingResolver resolver = new CountingResolver();
+
+        assertArrayEquals(new byte[]{127, 0, 0, 1}, cache.lookup("a.com", POLICY, resolver)[0].getAddress());
+        cache.lookup("a.com", POLICY, resolver);
+        assertEquals(1, resolver.lookups.get());
+        assertEquals(1, cache.getHits());
+
+        Thread.sleep(60);
+        cache.lookup("a.com", POLICY, resolver);
+        assertEquals(2, resolver.lookups.get());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testFailedLookupsAreCachedForTheNegativeTtl() throws Exception {
+        DnsCache cache = new DnsCache(10);
+        cache.configure(true, 60_000, 50);
+        CountingResolver resolver = new CountingResolver();
+
+        assertThrows(UnknownHostException.class, () -> cache.lookup("missing.invalid", POLICY, resolver));
+        assertThrows(UnknownHostException.class, () -> cache.lookup("missing.invalid", POLICY, resolver));
+        assertEquals(1, resolver.lookups.get());
+        assertEquals(1, cache.getNegativeHits());
+
+        Thread.sleep(60);
+        assertThrows(UnknownHostException.class, () -> cache.lookup("missing.invalid", POLICY, resolver));
+        assertEquals(2, resolver.lookups.get());
+    }
+
+    @Test
+    public void testFullCacheEvictsTheLeastRecentlyUsedHost() throws Exception {
+        DnsCache cache = new DnsCache(2);
+        cache.configure(true, 60_000, 60_000);
+        CountingResolver resolver = new CountingResolver();
+
+        cache.lookup("a.com", POLICY, resolver);
+        cache.lookup("b.com", POLICY, resolver);
+        cache.lookup("a.com", POLICY, resolver);
+        cache.lookup("c.com", POLICY, resolver);
+        assertEquals(2, cache.size());
+        assertEquals(3, resolver.lookups.get());
+
+        // the new host is cached and the least recently used one made room for it
+        cache.lookup("c.com", POLICY, resolver);
+        cache.lookup("a.com", POLICY, resolver);
+        assertEquals(3, resolver.lookups.get());
+        cache.lookup("b.com", POLICY, resolver);
+        assertEquals(4, resolver.lookups.get());
+    }
+
+    @Test
+    public void testProviderRoutesJvmLookupsThroughTheCacheAndPrefetchFillsIt() throws Exception {
+        DnsCache cache = DnsCache.getInstance();
+        cache.configure(true, 60_000, 60_000);
+
+        // the JDK caches addresses in front of the resolver too, so the host must be new to this JVM
+        String host = "dns-cache-test-" + System.nanoTime() + ".invalid";
+        long misses = cache.getMisses();
+        assertThrows(UnknownHostException.class, () -> InetAddress.getAllByName(host));
+        assertEquals(misses + 1, cache.getMisses(), "the lookup went through CachingResolverProvider");
+
+        long prefetched = cache.getPrefetched();
+        cache.prefetch("localhost");
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (cache.getPrefetched() == prefetched && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(prefetched + 1, cache.getPrefetched());
+
+        // a host prefetched within its TTL is not queued again
+        cache.prefetch("localhost");
+        Thread.sleep(50);
+        assertEquals(prefetched + 1, cache.getPrefetched());
+    }
+
+    private static final class CountingResolver implements InetAddressResolver {
+        @Override
+        public Stream<InetAddress> lookupByName(String host, LookupPolicy lookupPolicy) throws UnknownHostException {
+            lookups.incrementAndGet();
+            if (host.endsWith(".invalid")) {
+                throw new UnknownHostException(host);
+            }
+            return Stream.of(InetAddress.getByAddress(host, new byte[]{127, 0, 0, 1}));
+        }
+
+        @Override
+        public String lookupByAddress(byte[] addr) {
+            throw new UnsupportedOperationException();
+        }
+
+        final AtomicInteger lookups = new AtomicInteger();
+    }
+
+    private static final LookupPolicy POLICY = LookupPolicy.of(IPV4);
+}
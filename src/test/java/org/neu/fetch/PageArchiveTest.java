@@ -0,0 +1,117 @@
+package org.neu.fetch;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.neu.RuntimeConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageArchiveTest {
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serve("/page", "text/html; charset=utf-8", null, PAGE.getBytes(StandardCharsets.UTF_8));
+        serve("/gzip", "text/html", "gzip", gzip(PAGE.replace("next", "zipped")));
+        serve("/video", "video/mp4", null, PAGE.getBytes(StandardCharsets.UTF_8));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testReplayReproducesLinksAndOutcomesOffline(@TempDir Path dir) throws IOException {
+        FetchStats live = new FetchStats();
+        List<List<String>> liveLinks = new ArrayList<>();
+        List<FetchOutcome> liveOutcomes = new ArrayList<>();
+        try (PageArchive archive = new PageArchive(dir, 1 << 20)) {
+            PageFetcher fetcher = new PageFetcher(RuntimeConfig.getInstance(), live, new BufferPool(4, 4096), archive);
+            for (String path : PATHS) {
+                List<String> links = new ArrayList<>();
+                liveOutcomes.add(fetcher.fetch(url(path), links));
+                liveLinks.add(links);
+            }
+            assertEquals(3, archive.getRecords());
+        }
+        server.stop(0);
+
+        FetchStats replayed = new FetchStats();
+        try (ArchiveReplay replay = new ArchiveReplay(dir, replayed, new BufferPool(4, 4096))) {
+            for (int i = 0; i < PATHS.size(); i++) {
+                List<String> links = new ArrayList<>();
+                assertEquals(liveOutcomes.get(i), replay.fetch(url(PATHS.get(i)), links, null));
+                assertEquals(liveLinks.get(i), links);
+            }
+            assertEquals(FetchOutcome.FAILED, replay.fetch(url("/missing"), new ArrayList<>(), null));
+        }
+        assertEquals(List.of("http://example.com", "http://example.org/zipped"), liveLinks.get(1));
+        assertEquals(live.getBytesRead(), replayed.getBytesRead());
+        assertEquals(live.getLinksFound(), replayed.getLinksFound());
+    }
+
+    @Test
+    public void testSegmentsRollAndAreReplayedTogether(@TempDir Path dir) throws IOException {
+        try (PageArchive archive = new PageArchive(dir, 1)) {
+            PageFetcher fetcher = new PageFetcher(RuntimeConfig.getInstance(), new FetchStats(), new BufferPool(4, 4096), archive);
+            fetcher.fetch(url("/page"), new ArrayList<>());
+            fetcher.fetch(url("/gzip"), new ArrayList<>());
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.filter(file -> file.toString().endsWith(".warc")).count());
+        }
+
+        try (ArchiveReplay replay = new ArchiveReplay(dir, new FetchStats(), new BufferPool(4, 4096))) {
+            assertEquals(2, replay.size());
+            List<String> links = new ArrayList<>();
+            assertEquals(FetchOutcome.COMPLETE, replay.fetch(url("/gzip"), links, null));
+            assertEquals(List.of("http://example.com", "http://example.org/zipped"), links);
+        }
+    }
+
+    private void serve(String path, String contentType, String encoding, byte[] body) {
+        server.createContext(path, exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            if (encoding != null) {
+                exchange.getResponseHeaders().set("Content-Encoding", encoding);
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static final String PAGE = "<html><a href=\"http://example.com/\">a</a> <a href=\"http://example.org/next\">b</a></html>";
+    private static final List<String> PATHS = List.of("/page", "/gzip", "/video");
+    private HttpServer server;
+}
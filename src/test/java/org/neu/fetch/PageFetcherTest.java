@@ -0,0 +1,216 @@
+package org.neu.fetch;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.neu.RuntimeConfig;
+import org.neu.trace.FetchEvent;
+import org.neu.trace.ParseEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageFetcherTest {
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serve("/page", "text/html; charset=utf-8", PAGE);
+        serve("/video", "video/mp4", PAGE);
+        serve("/big", "text/html", PAGE.repeat(100));
+        serveCompressed("/gzip", "gzip");
+        serveCompressed("/deflate", "deflate");
+        server.createContext("/chunked", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "text/html");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(PAGE.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/moved", exchange -> {
+            exchange.getResponseHeaders().add("Location", "/page/");
+            exchange.sendResponseHeaders(301, -1);
+            exchange.close();
+        });
+        server.start();
+
+        config = RuntimeConfig.getInstance();
+        savedMaxBody = config.maxBodyBytes;
+        savedParseLimit = config.parseLimitBytes;
+        stats = new FetchStats();
+        fetcher = new PageFetcher(config, stats);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        config.maxBodyBytes = savedMaxBody;
+        config.parseLimitBytes = savedParseLimit;
+    }
+
+    @Test
+    public void testHtmlPageIsScanned() {
+        List<String> links = new ArrayList<>();
+        assertEquals(FetchOutcome.COMPLETE, fetcher.fetch(url("/page"), links));
+        assertEquals(List.of("http://example.com", "http://example.org/next"), links);
+    }
+
+    @Test
+    public void testFetchAndParseAreRecordedAsFlightRecorderEvents() throws IOException {
+        Path file = Files.createTempFile("fetch", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(FetchEvent.class);
+            recording.enable(ParseEvent.class);
+            recording.start();
+            fetcher.fetch(url("/page"), new ArrayList<>());
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        RecordedEvent fetch = events.stream().filter(e -> e.getEventType().getName().equals("org.neu.Fetch")).findFirst().orElseThrow();
+        RecordedEvent parse = events.stream().filter(e -> e.getEventType().getName().equals("org.neu.Parse")).findFirst().orElseThrow();
+        assertEquals("127.0.0.1", fetch.getString("host"));
+        assertEquals(200, fetch.getInt("status"));
+        assertEquals("COMPLETE", fetch.getString("outcome"));
+        assertEquals(PAGE.length(), fetch.getLong("bytes"));
+        assertEquals(2, parse.getInt("links"));
+    }
+
+    @Test
+    public void testNonHtmlContentTypeIsRejectedBeforeReading() {
+        List<String> links = new ArrayList<>();
+        assertEquals(FetchOutcome.REJECTED_CONTENT_TYPE, fetcher.fetch(url("/video"), links));
+        assertTrue(links.isEmpty());
+        assertEquals(0, stats.getBytesRead());
+    }
+
+    @Test
+    public void testContentLengthAboveCapIsRejected() {
+        config.maxBodyBytes = PAGE.length() * 10L;
+        assertEquals(FetchOutcome.REJECTED_TOO_LARGE, fetcher.fetch(url("/big"), new ArrayList<>()));
+        assertEquals(0, stats.getBytesRead());
+    }
+
+    @Test
+    public void testPartialParseStopsAfterLimit() {
+        config.parseLimitBytes = PAGE.indexOf("next");
+        List<String> links = new ArrayList<>();
+        assertEquals(FetchOutcome.TRUNCATED, fetcher.fetch(url("/page"), links));
+        assertEquals(List.of("http://example.com"), links);
+    }
+
+    @Test
+    public void testGzipBodyIsDecodedAsStream() {
+        List<String> links = new ArrayList<>();
+        assertEquals(FetchOutcome.COMPLETE, fetcher.fetch(url("/gzip"), links));
+        assertEquals(100, links.size());
+        assertTrue(stats.getWireBytes() < stats.getBytesRead(), "Compressed body should be smaller on the wire");
+    }
+
+    @Test
+    public void testDeflateBodyIsDecoded() {
+        List<String> links = new ArrayList<>();
+        assertEquals(FetchOutcome.COMPLETE, fetcher.fetch(url("/deflate"), links));
+        assertEquals(100, links.size());
+    }
+
+    @Test
+    public void testBodyOfExactlyTheLimitIsComplete() {
+        int length = PAGE.getBytes(StandardCharsets.UTF_8).length;
+        config.maxBodyBytes = length;
+        assertEquals(FetchOutcome.COMPLETE, fetcher.fetch(url("/chunked"), new ArrayList<>()));
+        config.maxBodyBytes = length - 1;
+        assertEquals(FetchOutcome.REJECTED_TOO_LARGE, fetcher.fetch(url("/chunked"), new ArrayList<>()));
+
+        config.maxBodyBytes = savedMaxBody;
+        config.parseLimitBytes = length;
+        assertEquals(FetchOutcome.COMPLETE, fetcher.fetch(url("/chunked"), new ArrayList<>()));
+        config.parseLimitBytes = length - 1;
+        assertEquals(FetchOutcome.TRUNCATED, fetcher.fetch(url("/chunked"), new ArrayList<>()));
+    }
+
+    @Test
+    public void testRedirectedFetchIsRecordedFromSourceToFinalUrl() {
+        RedirectCache redirects = new RedirectCache(10);
+        PageFetcher recording = new PageFetcher(config, stats, new BufferPool(1, 4096), null, redirects);
+        List<String> links = new ArrayList<>();
+        assertEquals(FetchOutcome.COMPLETE, recording.fetch(url("/moved"), links));
+        assertEquals(List.of("http://example.com", "http://example.org/next"), links);
+
+        assertEquals(FetchOutcome.COMPLETE, recording.fetch(url("/page"), new ArrayList<>()));
+        assertEquals(1, redirects.size());
+        assertEquals(url("/page/"), redirects.resolve(url("/moved")));
+        assertEquals(url("/page/"), redirects.resolve(url("/moved/")));
+    }
+
+    @Test
+    public void testIsHtmlContentType() {
+        assertTrue(PageFetcher.isHtmlContentType(null));
+        assertTrue(PageFetcher.isHtmlContentType("text/html"));
+        assertTrue(PageFetcher.isHtmlContentType("TEXT/HTML; charset=ISO-8859-1"));
+        assertTrue(PageFetcher.isHtmlContentType("application/xhtml+xml"));
+        assertFalse(PageFetcher.isHtmlContentType("application/octet-stream"));
+        assertFalse(PageFetcher.isHtmlContentType("image/png"));
+    }
+
+    private void serve(String path, String contentType, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        server.createContext(path, exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+    }
+
+    private void serveCompressed(String path, String encoding) {
+        server.createContext(path, exchange -> {
+            String accepted = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            assertNotNull(accepted);
+            assertTrue(accepted.contains(encoding));
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream out = encoding.equals("gzip") ? new GZIPOutputStream(compressed) : new DeflaterOutputStream(compressed)) {
+                out.write(PAGE.repeat(50).getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/html");
+            exchange.getResponseHeaders().add("Content-Encoding", encoding);
+            exchange.sendResponseHeaders(200, compressed.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                compressed.writeTo(out);
+            }
+        });
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static final String PAGE = "<html><body><a href=\"http://example.com\">a</a>\n" +
+            "<a href=\"http://example.org/next\">b</a></body></html>\n";
+
+    private HttpServer server;
+    private RuntimeConfig config;
+    private FetchStats stats;
+    private PageFetcher fetcher;
+    private long savedMaxBody;
+    private long savedParseLimit;
+}
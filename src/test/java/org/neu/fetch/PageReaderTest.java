@@ -0,0 +1,88 @@
+package org.neu.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PageReaderTest {
+
+    @Test
+    public void testLinksSplitAcrossBuffersAreFound() throws IOException {
+        PageReader reader = new PageReader(new BufferPool(1, 16));
+        String html = "<p>" + "x".repeat(20) + "<a href=\"http://example.com/a/long/path\">a</a><a href=\"https://b.org/\">b</a>";
+
+        List<String> links = new ArrayList<>();
+        reader.read(stream(html, StandardCharsets.UTF_8), "text/html", links);
+
+        assertEquals(List.of("http://example.com/a/long/path", "https://b.org"), links);
+    }
+
+    @Test
+    public void testMatchesLineBasedExtraction() throws IOException {
+        String html = "<a href=\"http://one.com\">1</a> http://unquoted\n<a href=\"http://two.com/\">2</a>\n" +
+                "<a href=\"http://example.com/" + "a".repeat(1000) + "\">long</a>";
+
+        List<String> expected = new ArrayList<>();
+        for (String line : html.split("\n")) {
+            org.neu.Crawler.grepHyperLinks(expected, line);
+        }
+
+        List<String> links = new ArrayList<>();
+        new PageReader(new BufferPool(1, 64)).read(stream(html, StandardCharsets.UTF_8), null, links);
+
+        assertEquals(expected, links);
+    }
+
+    @Test
+    public void testCharsetFromHeaderTakesPrecedence() {
+        byte[] head = "<meta charset=\"utf-8\">".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(StandardCharsets.ISO_8859_1, CharsetDetector.detect("text/html; charset=ISO-8859-1", head, head.length));
+    }
+
+    @Test
+    public void testCharsetFromMetaTag() {
+        byte[] meta = "<html><head><meta charset='windows-1252'>".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(Charset.forName("windows-1252"), CharsetDetector.detect("text/html", meta, meta.length));
+
+        byte[] httpEquiv = "<meta http-equiv=\"Content-Type\" content=\"text/html; charset=iso-8859-1\">".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(StandardCharsets.ISO_8859_1, CharsetDetector.detect(null, httpEquiv, httpEquiv.length));
+    }
+
+    @Test
+    public void testDefaultsToUtf8() {
+        byte[] head = "<html><body>".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(StandardCharsets.UTF_8, CharsetDetector.detect(null, head, head.length));
+    }
+
+    @Test
+    public void testNonUtf8PageIsDecodedWithDeclaredCharset() throws IOException {
+        String html = "<meta charset=\"iso-8859-1\"><a href=\"http://café.fr/menü\">x</a>";
+
+        List<String> links = new ArrayList<>();
+        new PageReader(new BufferPool(1, 1024)).read(stream(html, StandardCharsets.ISO_8859_1), "text/html", links);
+
+        assertEquals(List.of("http://café.fr/menü"), links);
+    }
+
+    @Test
+    public void testBuffersAreReused() throws IOException {
+        BufferPool pool = new BufferPool(2, 64);
+        PageReader reader = new PageReader(pool);
+        for (int i = 0; i < 10; i++) {
+            reader.read(stream("<a href=\"http://example.com\">", StandardCharsets.UTF_8), null, new ArrayList<>());
+        }
+        assertEquals(10, pool.getAcquired());
+        assertEquals(1, pool.getAllocated());
+    }
+
+    private static ByteArrayInputStream stream(String text, Charset charset) {
+        return new ByteArrayInputStream(text.getBytes(charset));
+    }
+}
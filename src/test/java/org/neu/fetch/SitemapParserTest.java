@@ -0,0 +1,65 @@
+package org.neu.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SitemapParserTest {
+
+    @Test
+    public void testUrlsetSkipsNestedExtensions() throws Exception {
+        String xml = "<?xml version=\"1.0\"?><urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\" " +
+                "xmlns:image=\"http://www.google.com/schemas/sitemap-image/1.1\">" +
+                "<url><loc> http://a.com/1 </loc><lastmod>2024-01-01</lastmod>" +
+                "<image:image><image:loc>http://a.com/1.png</image:loc></image:image></url>" +
+                "<url><loc>http://a.com/2</loc></url></urlset>";
+
+        assertEquals(List.of(new SitemapParser.Entry("http://a.com/1", false), new SitemapParser.Entry("http://a.com/2", false)),
+                parse(xml));
+    }
+
+    @Test
+    public void testSitemapIndexListsSitemaps() throws Exception {
+        String xml = "<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">" +
+                "<sitemap><loc>http://a.com/s1.xml.gz</loc></sitemap><sitemap><loc>http://a.com/s2.xml</loc></sitemap></sitemapindex>";
+
+        assertEquals(List.of(new SitemapParser.Entry("http://a.com/s1.xml.gz", true), new SitemapParser.Entry("http://a.com/s2.xml", true)),
+                parse(xml));
+    }
+
+    @Test
+    public void testFeedsYieldItemLinksOnly() throws Exception {
+        String rss = "<rss><channel><link>http://a.com/</link><item><title>x</title><link>http://a.com/post</link></item></channel></rss>";
+        String atom = "<feed xmlns=\"http://www.w3.org/2005/Atom\"><link href=\"http://b.com/\"/>" +
+                "<entry><link rel=\"edit\" href=\"http://b.com/edit\"/><link href=\"http://b.com/post\"/></entry></feed>";
+
+        assertEquals(List.of(new SitemapParser.Entry("http://a.com/post", false)), parse(rss));
+        assertEquals(List.of(new SitemapParser.Entry("http://b.com/post", false)), parse(atom));
+    }
+
+    @Test
+    public void testExternalEntitiesAreNotResolved() {
+        String xml = "<?xml version=\"1.0\"?><!DOCTYPE urlset [<!ENTITY x SYSTEM \"file:///etc/passwd\">]>" +
+                "<urlset><url><loc>&x;</loc></url></urlset>";
+
+        assertThrows(XMLStreamException.class, () -> parse(xml));
+    }
+
+    private static List<SitemapParser.Entry> parse(String xml) throws XMLStreamException, IOException {
+        List<SitemapParser.Entry> entries = new ArrayList<>();
+        try (SitemapParser parser = new SitemapParser(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))) {
+            SitemapParser.Entry entry;
+            while ((entry = parser.next()) != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+}
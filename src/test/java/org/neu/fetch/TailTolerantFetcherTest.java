@@ -0,0 +1,140 @@
+package org.neu.fetch;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neu.RuntimeConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TailTolerantFetcherTest {
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        workers = Executors.newFixedThreadPool(4);
+        config = RuntimeConfig.getInstance().copy();
+        stats = new FetchStats();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        workers.shutdownNow();
+    }
+
+    @Test
+    public void testUnavailableFetchIsRetried() {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext("/flaky", exchange -> {
+            if (requests.getAndIncrement() == 0) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+            } else {
+                respond(exchange);
+            }
+        });
+        config.retryBackoffMillis = 10;
+        TailTolerantFetcher fetcher = new TailTolerantFetcher(new PageFetcher(config, stats), stats, config, false);
+
+        TailTolerantFetcher.Result result = fetcher.fetchAsync(url("/flaky"), workers).orTimeout(10, TimeUnit.SECONDS).join();
+
+        assertEquals(FetchOutcome.COMPLETE, result.outcome());
+        assertEquals(List.of("http://example.com"), result.links());
+        assertEquals(1, fetcher.getRetries());
+        assertEquals(1, stats.getOutcomeCount(FetchOutcome.UNAVAILABLE));
+    }
+
+    @Test
+    public void testNotFoundIsNotRetried() {
+        TailTolerantFetcher fetcher = new TailTolerantFetcher(new PageFetcher(config, stats), stats, config, false);
+
+        TailTolerantFetcher.Result result = fetcher.fetchAsync(url("/missing"), workers).orTimeout(10, TimeUnit.SECONDS).join();
+
+        assertEquals(FetchOutcome.FAILED, result.outcome());
+        assertEquals(0, fetcher.getRetries());
+    }
+
+    @Test
+    public void testSlowRequestIsHedgedAndTheLoserCancelled() {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext("/page", exchange -> {
+            // the 21st request stalls, as a slow replica would; its duplicate is answered at once
+            if (requests.incrementAndGet() == config.hedgeMinSamples + 5) {
+                try {
+                    Thread.sleep(5_000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            respond(exchange);
+        });
+        config.hedgeMinDelayMillis = 200;
+        TailTolerantFetcher fetcher = new TailTolerantFetcher(new PageFetcher(config, stats), stats, config, true);
+        for (int i = 0; i < config.hedgeMinSamples + 4; i++) {
+            fetcher.fetchAsync(url("/page"), workers).join();
+        }
+
+        long hedges = fetcher.getHedges();
+        long hedgesWon = fetcher.getHedgesWon();
+        long start = System.nanoTime();
+        TailTolerantFetcher.Result result = fetcher.fetchAsync(url("/page"), workers).orTimeout(10, TimeUnit.SECONDS).join();
+
+        assertEquals(FetchOutcome.COMPLETE, result.outcome());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3), "the hedge answered before the stalled request");
+        assertEquals(hedges + 1, fetcher.getHedges());
+        assertEquals(hedgesWon + 1, fetcher.getHedgesWon());
+
+        // the stalled request's connection is closed rather than left holding a worker
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (stats.getOutcomeCount(FetchOutcome.CANCELLED) == 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, stats.getOutcomeCount(FetchOutcome.CANCELLED));
+    }
+
+    @Test
+    public void testBudgetLimitsExtraRequests() {
+        RetryBudget budget = new RetryBudget(0.5, 2);
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+
+        budget.onRequest();
+        assertFalse(budget.tryWithdraw());
+        budget.onRequest();
+        assertTrue(budget.tryWithdraw());
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        byte[] body = "<a href=\"http://example.com\">x</a>".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private HttpServer server;
+    private ExecutorService workers;
+    private RuntimeConfig config;
+    private FetchStats stats;
+}
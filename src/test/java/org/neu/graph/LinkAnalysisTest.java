@@ -0,0 +1,95 @@
+package org.neu.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LinkAnalysisTest {
+
+    @Test
+    public void testSnapshotDropsRepeatedAndSelfLinks() {
+        EdgeLog log = new EdgeLog();
+        log.record("http://a.com", "http://b.com");
+        log.record("http://a.com", "http://b.com");
+        log.record("http://c.com", "http://b.com");
+        log.record("http://b.com", "http://b.com");
+        log.record("http://b.com", "http://a.com");
+
+        CsrGraph graph = log.snapshot();
+        assertEquals(3, graph.vertices());
+        assertEquals(3, graph.edges());
+        assertEquals(2, graph.inDegree(1));
+        assertEquals(1, graph.outDegree(0));
+        assertEquals(1, graph.outDegree(1));
+        assertEquals(0, graph.inDegree(2));
+        assertEquals("http://c.com", log.url(2));
+    }
+
+    @Test
+    public void testParallelPageRankMatchesSequentialPowerIteration() {
+        int n = 5_000;
+        Random random = new Random(7);
+        int[] from = new int[40_000];
+        int[] to = new int[from.length];
+        for (int i = 0; i < from.length; i++) {
+            // pages above 4000 link nowhere, so dangling rank is exercised
+            from[i] = random.nextInt(4_000);
+            to[i] = random.nextInt(n);
+        }
+        CsrGraph graph = CsrGraph.of(n, from, to);
+
+        LinkAnalysis.Scores scores = new LinkAnalysis(new ForkJoinPool(4), 1e-10, 200).pageRank(graph, 0.85);
+        double[] expected = sequentialPageRank(graph, 0.85, scores.iterations());
+
+        assertTrue(scores.delta() < 1e-10);
+        assertEquals(1.0, Arrays.stream(scores.scores()).sum(), 1e-9);
+        for (int v = 0; v < n; v++) {
+            assertEquals(expected[v], scores.scores()[v], 1e-12);
+        }
+    }
+
+    @Test
+    public void testHitsSeparatesHubsFromAuthorities() {
+        // pages 0 and 1 link to 2, 3 and 4; page 5 links only to 2
+        int[] from = {0, 0, 0, 1, 1, 1, 5};
+        int[] to = {2, 3, 4, 2, 3, 4, 2};
+        CsrGraph graph = CsrGraph.of(6, from, to);
+
+        LinkAnalysis.Hits hits = new LinkAnalysis(ForkJoinPool.commonPool(), 1e-9, 100).hits(graph);
+        int[] authorities = LinkAnalysis.top(6, v -> hits.authorities()[v], 1);
+        int[] hubs = LinkAnalysis.top(6, v -> hits.hubs()[v], 2);
+
+        assertArrayEquals(new int[]{2}, authorities);
+        assertEquals(2, hubs.length);
+        assertTrue(Arrays.stream(hubs).allMatch(v -> v == 0 || v == 1));
+        assertEquals(0.0, hits.authorities()[0], 1e-12);
+        assertEquals(1.0, Arrays.stream(hits.hubs()).map(h -> h * h).sum(), 1e-9);
+    }
+
+    private static double[] sequentialPageRank(CsrGraph graph, double damping, int iterations) {
+        int n = graph.vertices();
+        double[] rank = new double[n];
+        Arrays.fill(rank, 1.0 / n);
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double[] next = new double[n];
+            double dangling = 0;
+            for (int u = 0; u < n; u++) {
+                if (graph.outDegree(u) == 0) {
+                    dangling += rank[u];
+                }
+                for (int i = graph.outOffsets[u]; i < graph.outOffsets[u + 1]; i++) {
+                    next[graph.targets[i]] += damping * rank[u] / graph.outDegree(u);
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                next[v] += (1 - damping) / n + damping * dangling / n;
+            }
+            rank = next;
+        }
+        return rank;
+    }
+}
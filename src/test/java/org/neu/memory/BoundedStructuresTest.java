@@ -0,0 +1,102 @@
+package org.neu.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.neu.graph.EdgeLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedStructuresTest {
+
+    @Test
+    public void testVisitedSetStaysWithinBudgetAndDegrades() {
+        VisitedSet visited = new VisitedSet(64 << 10);
+
+        int added = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (visited.add("http://example.com/" + i)) added++;
+        }
+
+        assertFalse(visited.add("http://example.com/0"));
+        assertTrue(visited.isDegraded());
+        assertTrue(visited.footprintBytes() <= (64 << 10) + 64);
+        assertTrue(added > 19_900, "false positives should stay rare: " + added);
+    }
+
+    @Test
+    public void testUnboundedVisitedSetIsExact() {
+        VisitedSet visited = new VisitedSet(0);
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(visited.add("http://example.com/" + i));
+        }
+        assertFalse(visited.add("http://example.com/99999"));
+        assertFalse(visited.isDegraded());
+    }
+
+    @Test
+    public void testParentMapEvictsOldestEntries() {
+        BoundedParentMap map = new BoundedParentMap(10_000);
+        for (int i = 0; i < 1000; i++) {
+            map.put("http://example.com/" + i, "http://example.com");
+        }
+
+        assertTrue(map.getBytes() <= 10_000);
+        assertTrue(map.getEvicted() > 0);
+        assertFalse(map.containsKey("http://example.com/0"));
+        assertTrue(map.containsKey("http://example.com/999"));
+    }
+
+    @Test
+    public void testDiskSpillIsFifoAcrossSegments(@TempDir Path dir) throws IOException {
+        DiskSpill spill = new DiskSpill(dir, "test-", 3);
+        for (int i = 0; i < 10; i++) {
+            spill.append("line " + i);
+        }
+
+        List<String> lines = new ArrayList<>(spill.poll(4));
+        spill.append("line 10");
+        lines.addAll(spill.poll(100));
+
+        assertEquals(11, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals("line " + i, lines.get(i));
+        }
+        assertEquals(0, spill.size());
+
+        spill.close();
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testBudgetSharesStayWithinTotal() {
+        MemoryBudget budget = MemoryBudget.split(100 << 20);
+
+        long shares = budget.visitedBytes() + budget.frontierBytes() + budget.parentMapBytes() + budget.writeBufferBytes()
+                + budget.persistedCacheBytes() + budget.trapHostBytes() + budget.edgeLogBytes();
+        assertTrue(shares <= budget.totalBytes());
+        // two caches of 8-byte slots
+        assertTrue(16L * budget.persistedCacheEntries() <= budget.persistedCacheBytes());
+        assertTrue(budget.maxTrapHosts() > 0);
+    }
+
+    @Test
+    public void testEdgeLogStopsRecordingAtItsBudget() {
+        EdgeLog log = new EdgeLog(64 << 10);
+        for (int i = 0; i < 10_000; i++) {
+            log.record("http://example.com/" + i, "http://example.com/" + (i + 1));
+        }
+
+        assertTrue(log.getBytes() <= 64 << 10);
+        assertTrue(log.size() > 0);
+        assertEquals(10_000, log.size() + log.getDropped());
+        assertEquals(log.size(), log.snapshot().edges());
+    }
+}
@@ -0,0 +1,75 @@
+package org.neu.neo4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeferredGraphStoreTest {
+
+    @Test
+    public void testInitializeDoesNotBlockAndWritesWaitForReadiness() throws InterruptedException {
+        SlowStore slow = new SlowStore();
+        DeferredGraphStore store = new DeferredGraphStore(slow);
+        store.initialize();
+
+        CompletableFuture<Void> write = store.mergeNodeWithChildURL("http://a.com", "http://b.com");
+        assertFalse(store.isReady());
+        assertFalse(write.isDone());
+        assertTrue(slow.writes.isEmpty());
+
+        slow.release.countDown();
+        write.orTimeout(5, TimeUnit.SECONDS).join();
+
+        assertTrue(store.isReady());
+        assertEquals(List.of("http://a.com -> http://b.com"), slow.writes);
+        assertTrue(store.getReadyNanos() >= store.getStartNanos());
+        assertTrue(store.getFirstWriteNanos() >= store.getReadyNanos());
+    }
+
+    @Test
+    public void testBufferedLinksAreFlushedOnceReady() {
+        SlowStore slow = new SlowStore();
+        WriteBehindGraphStore store = new WriteBehindGraphStore(new DeferredGraphStore(slow), 1000, 60_000, 10_000);
+        store.initialize();
+
+        store.mergeNodeWithChildURL("http://a.com", "http://b.com").join();
+        store.mergeNodeWithChildURL("http://a.com", "http://c.com").join();
+        CompletableFuture<Void> flushed = store.flushAsync();
+
+        slow.release.countDown();
+        flushed.orTimeout(5, TimeUnit.SECONDS).join();
+
+        assertEquals(List.of("http://a.com -> http://b.com", "http://a.com -> http://c.com"), slow.writes);
+    }
+
+    private static class SlowStore implements GraphStore {
+        @Override
+        public void initialize() {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public synchronized CompletableFuture<Void> mergeNodeWithChildURL(String url, String dependent_url) {
+            writes.add(url + " -> " + dependent_url);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override public void close() {}
+        @Override public CompletableFuture<Void> clearDatabase() { return CompletableFuture.completedFuture(null); }
+        @Override public CompletableFuture<Long> getAllNodes() { return CompletableFuture.completedFuture(0L); }
+        @Override public CompletableFuture<List<URLRank>> getURLsByInDegree() { return CompletableFuture.completedFuture(List.of()); }
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> writes = new ArrayList<>();
+    }
+}
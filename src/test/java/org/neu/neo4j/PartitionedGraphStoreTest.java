@@ -0,0 +1,123 @@
+package org.neu.neo4j;
+
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.exceptions.TransientException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedGraphStoreTest {
+
+    @Test
+    public void testWritesIntoOneNodeNeverOverlap() {
+        OverlapStore recorder = new OverlapStore();
+        PartitionedGraphStore store = new PartitionedGraphStore(recorder, 4, 16, 0, 1);
+        store.initialize();
+
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String child = i % 2 == 0 ? "http://hub.com" : "http://page.com/" + i;
+            int parent = i;
+            writes.add(CompletableFuture.runAsync(() -> store.mergeNodeWithChildURL("http://p.com/" + parent, child).join()));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+        store.close();
+
+        assertEquals(200, store.getWritten());
+        assertEquals(1, recorder.maxOverlap.get(), "writes into one node ran concurrently");
+    }
+
+    @Test
+    public void testBatchesAreSplitAcrossLanesByChild() {
+        ThreadRecordingStore recorder = new ThreadRecordingStore();
+        PartitionedGraphStore store = new PartitionedGraphStore(recorder, 4, 16, 0, 1);
+        store.initialize();
+
+        List<EdgeWrite> batch = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            batch.add(new EdgeWrite("http://p.com/" + i, "http://c.com/" + i % 10, 1, false, false, false));
+        }
+        store.writeEdges(batch).join();
+        store.close();
+
+        assertEquals(40, store.getRouted());
+        assertEquals(10, recorder.laneOf.size());
+        assertTrue(recorder.laneOf.values().stream().allMatch(threads -> threads.size() == 1), "every child is written by one lane");
+        assertTrue(recorder.laneOf.values().stream().flatMap(Set::stream).distinct().count() > 1, "the batch ran in several lanes");
+        assertTrue(recorder.laneOf.values().stream().flatMap(Set::stream).allMatch(thread -> thread.startsWith("writer-")));
+    }
+
+    @Test
+    public void testTransientFailuresAreRetriedAndOthersDropped() {
+        FlakyStore flaky = new FlakyStore();
+        PartitionedGraphStore store = new PartitionedGraphStore(flaky, 2, 16, 3, 1);
+        store.initialize();
+
+        flaky.transientFailures.set(2);
+        store.mergeNodeWithChildURL("http://a.com", "http://b.com").join();
+        assertEquals(2, store.getRetries());
+
+        flaky.transientFailures.set(10);
+        assertThrows(CompletionException.class, () -> store.mergeNodeWithChildURL("http://a.com", "http://c.com").join());
+        flaky.transientFailures.set(0);
+        flaky.permanent = true;
+        assertThrows(CompletionException.class, () -> store.writeEdges(List.of(new EdgeWrite("http://a.com", "http://d.com", 1, false, false, false))).join());
+
+        assertEquals(1, store.getWritten());
+        assertEquals(2, store.getDropped());
+        assertEquals(5, store.getRetries());
+        assertTrue(store.report().contains("2 dropped"));
+        store.close();
+    }
+
+    private static class OverlapStore extends InMemoryGraphStore {
+        @Override
+        public CompletableFuture<Void> mergeNodeWithChildURL(String url, String dependent_url) {
+            AtomicInteger writing = inFlight.computeIfAbsent(dependent_url, key -> new AtomicInteger());
+            maxOverlap.accumulateAndGet(writing.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writing.decrementAndGet();
+            return super.mergeNodeWithChildURL(url, dependent_url);
+        }
+
+        final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+        final AtomicInteger maxOverlap = new AtomicInteger();
+    }
+
+    private static class ThreadRecordingStore extends InMemoryGraphStore {
+        @Override
+        public CompletableFuture<Void> writeEdges(List<EdgeWrite> edges) {
+            for (EdgeWrite edge : edges) {
+                laneOf.computeIfAbsent(edge.child(), key -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+            }
+            return super.writeEdges(edges);
+        }
+
+        final Map<String, Set<String>> laneOf = new ConcurrentHashMap<>();
+    }
+
+    private static class FlakyStore extends InMemoryGraphStore {
+        @Override
+        public CompletableFuture<Void> mergeNodeWithChildURL(String url, String dependent_url) {
+            if (transientFailures.getAndDecrement() > 0) {
+                return CompletableFuture.failedFuture(new TransientException("Neo.TransientError.Transaction.DeadlockDetected", "deadlock"));
+            }
+            return permanent ? CompletableFuture.failedFuture(new IllegalStateException("constraint")) : super.mergeNodeWithChildURL(url, dependent_url);
+        }
+
+        final AtomicInteger transientFailures = new AtomicInteger();
+        volatile boolean permanent;
+    }
+}
@@ -0,0 +1,99 @@
+package org.neu.neo4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindGraphStoreTest {
+
+    @Test
+    public void testRepeatedLinksAreCoalesced() {
+        RecordingStore recorder = new RecordingStore();
+        WriteBehindGraphStore store = new WriteBehindGraphStore(recorder, 1000, 60_000, 10_000);
+        store.initialize();
+
+        store.mergeNodeWithChildURL("http://a.com", "http://b.com");
+        store.mergeNodeWithChildURL("http://a.com", "http://b.com");
+        store.mergeNodeWithChildURL("http://a.com", "http://c.com");
+        store.flushAsync().join();
+
+        assertEquals(1, recorder.batches.size());
+        List<EdgeWrite> batch = recorder.batches.get(0);
+        assertEquals(2, batch.size());
+        assertEquals(new EdgeWrite("http://a.com", "http://b.com", 2, false, false, false), batch.get(0));
+        assertEquals(new EdgeWrite("http://a.com", "http://c.com", 1, false, false, false), batch.get(1));
+    }
+
+    @Test
+    public void testPersistedNodesAndEdgesAreKnownInLaterFlushes() {
+        RecordingStore recorder = new RecordingStore();
+        WriteBehindGraphStore store = new WriteBehindGraphStore(recorder, 1000, 60_000, 10_000);
+        store.initialize();
+
+        store.mergeNodeWithChildURL("http://a.com", "http://b.com");
+        store.flushAsync().join();
+        store.mergeNodeWithChildURL("http://a.com", "http://b.com");
+        store.mergeNodeWithChildURL("http://b.com", "http://c.com");
+        store.flushAsync().join();
+
+        List<EdgeWrite> second = recorder.batches.get(1);
+        assertEquals(new EdgeWrite("http://a.com", "http://b.com", 1, true, true, true), second.get(0));
+        assertEquals(new EdgeWrite("http://b.com", "http://c.com", 1, true, false, false), second.get(1));
+    }
+
+    @Test
+    public void testKnowledgeOfPersistedEdgesIsBounded() {
+        RecordingStore recorder = new RecordingStore();
+        WriteBehindGraphStore store = new WriteBehindGraphStore(recorder, 10_000, 60_000, 10_000, 16);
+        store.initialize();
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 1000; i++) {
+                store.mergeNodeWithChildURL("http://a.com", "http://a.com/" + i);
+            }
+            store.flushAsync().join();
+        }
+
+        // forgotten edges are sent as unknown, which the store MERGEs, instead of being kept forever
+        long known = recorder.batches.get(1).stream().filter(EdgeWrite::edgeKnown).count();
+        assertTrue(known > 0 && known <= 16, "known=" + known);
+    }
+
+    @Test
+    public void testFailedFlushIsNotMarkedPersisted() {
+        RecordingStore recorder = new RecordingStore();
+        recorder.fail = true;
+        WriteBehindGraphStore store = new WriteBehindGraphStore(recorder, 1000, 60_000, 10_000);
+        store.initialize();
+
+        store.mergeNodeWithChildURL("http://a.com", "http://b.com");
+        store.flushAsync().join();
+        recorder.fail = false;
+        store.mergeNodeWithChildURL("http://a.com", "http://b.com");
+        store.flushAsync().join();
+
+        assertFalse(recorder.batches.get(1).get(0).edgeKnown());
+    }
+
+    private static class RecordingStore implements GraphStore {
+        @Override
+        public CompletableFuture<Void> writeEdges(List<EdgeWrite> edges) {
+            batches.add(edges);
+            return fail ? CompletableFuture.failedFuture(new IllegalStateException("down")) : CompletableFuture.completedFuture(null);
+        }
+
+        @Override public void initialize() {}
+        @Override public void close() {}
+        @Override public CompletableFuture<Void> mergeNodeWithChildURL(String url, String dependent_url) { throw new UnsupportedOperationException(); }
+        @Override public CompletableFuture<Void> clearDatabase() { return CompletableFuture.completedFuture(null); }
+        @Override public CompletableFuture<Long> getAllNodes() { return CompletableFuture.completedFuture(0L); }
+        @Override public CompletableFuture<List<URLRank>> getURLsByInDegree() { return CompletableFuture.completedFuture(List.of()); }
+
+        final List<List<EdgeWrite>> batches = new ArrayList<>();
+        volatile boolean fail;
+    }
+}
@@ -0,0 +1,33 @@
+package org.neu.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(500, histogram.percentileMillis(0.5), 500 * 0.04);
+        assertEquals(990, histogram.percentileMillis(0.99), 990 * 0.04);
+        assertEquals(0.001, new LatencyHistogram().snapshot().percentileMillis(0.5) + 0.001, 1e-9);
+    }
+
+    @Test
+    public void testSinceExcludesEarlierRecords() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_000_000L);
+        LatencyHistogram earlier = histogram.snapshot();
+        histogram.record(1_000L);
+
+        LatencyHistogram delta = histogram.since(earlier);
+        assertEquals(1, delta.count());
+        assertTrue(delta.percentileMillis(1.0) < 0.01);
+    }
+}